@@ -86,6 +86,7 @@ create table if not exists account_balance (
   non_trading_amount decimal(18,4) not null default 0.0000,
   creation_datetime datetime not null,
   last_updated_datetime datetime null,
+  snapshot_datetime datetime not null,
   constraint pk_account_balance primary key (email, currency)
 );
 
@@ -108,6 +109,9 @@ ON account_transaction (email);
 CREATE INDEX idx_email_currency 
 ON account_transaction (email, currency); 
 
+CREATE INDEX idx_email_datetime_id 
+ON account_transaction (email, transaction_datetime, atid); 
+
 drop table if exists bank_account;
 create table if not exists bank_account (
   baid bigint unsigned not null auto_increment,
@@ -149,6 +153,9 @@ ON bank_account_transaction (email);
 CREATE INDEX idx_email_currency 
 ON bank_account_transaction (email, currency); 
 
+CREATE INDEX idx_email_datetime_id 
+ON bank_account_transaction (email, transaction_datetime, batid); 
+
 drop table if exists watch_list;
 create table if not exists watch_list (
   wlid bigint unsigned not null auto_increment,
@@ -224,4 +231,141 @@ ON trading_transaction (email, portfolio_id);
 CREATE INDEX idx_email_symbol_deed 
 ON trading_transaction (email, trading_symbol, trading_deed); 
 
+CREATE INDEX idx_email_datetime_id 
+ON trading_transaction (email, creation_datetime, ttid); 
+
+drop table if exists idempotency_key;
+create table if not exists idempotency_key (
+  email varchar(100) not null,
+  idempotency_key varchar(100) not null,
+  request_operation varchar(50) not null,
+  request_hash char(64) not null,
+  response_status int not null,
+  response_success enum('Y','N') not null,
+  response_message varchar(1000) not null,
+  creation_datetime datetime not null,
+  expiry_datetime datetime not null,
+  constraint pk_idempotency_key primary key (email, idempotency_key)
+);
+
+CREATE INDEX idx_expiry 
+ON idempotency_key (expiry_datetime); 
+
+drop table if exists revaluation_checkpoint;
+create table if not exists revaluation_checkpoint (
+  job_name varchar(50) not null,
+  business_date date not null,
+  last_portfolio_id bigint unsigned not null default 0,
+  rows_processed bigint not null default 0,
+  completed enum('Y','N') not null,
+  start_datetime datetime not null,
+  last_updated_datetime datetime not null,
+  constraint pk_revaluation_checkpoint primary key (job_name)
+);
+
+drop table if exists value_history;
+create table if not exists value_history (
+  series_key varchar(150) not null,
+  month_start date not null,
+  email varchar(100) not null,
+  currency varchar(3) not null,
+  point_count int not null default 0,
+  points varbinary(1024) not null,
+  last_updated_datetime datetime not null,
+  constraint pk_value_history primary key (series_key, month_start)
+);
+
+CREATE INDEX idx_email_currency 
+ON value_history (email, currency); 
+
+drop table if exists cache_version;
+create table if not exists cache_version (
+  cache_name varchar(50) not null,
+  version bigint not null default 0,
+  last_updated_datetime datetime not null,
+  constraint pk_cache_version primary key (cache_name)
+);
+
+drop table if exists account_transaction_archive;
+create table if not exists account_transaction_archive (
+  atid bigint unsigned not null,
+  email varchar(100) not null,
+  currency varchar(3) not null,
+  transaction_datetime datetime not null,
+  transaction_description varchar(255) not null,
+  constraint pk_account_transaction_archive primary key (atid)
+);
+
+CREATE INDEX idx_email_datetime_id 
+ON account_transaction_archive (email, transaction_datetime, atid); 
+
+drop table if exists bank_account_transaction_archive;
+create table if not exists bank_account_transaction_archive (
+  batid bigint unsigned not null,
+  email varchar(100) not null,
+  currency varchar(3) not null,
+  transaction_datetime datetime not null,
+  transaction_description varchar(255) not null,
+  constraint pk_bank_account_transaction_archive primary key (batid)
+);
+
+CREATE INDEX idx_email_datetime_id 
+ON bank_account_transaction_archive (email, transaction_datetime, batid); 
+
+drop table if exists balance_event;
+create table if not exists balance_event (
+  beid bigint unsigned not null,
+  email varchar(100) not null,
+  currency varchar(3) not null,
+  event_type enum('OPENING','DEPOSIT','BUY','SELL','TRANSFER') not null,
+  trading_amount decimal(18,4) not null default 0.0000,
+  non_trading_amount decimal(18,4) not null default 0.0000,
+  atid bigint unsigned null,
+  event_datetime datetime not null,
+  compacted enum('Y','N') not null default 'N',
+  constraint pk_balance_event primary key (beid)
+);
+
+CREATE INDEX idx_email_currency_datetime 
+ON balance_event (email, currency, event_datetime); 
+
+CREATE INDEX idx_compacted_email_currency 
+ON balance_event (compacted, email, currency); 
+
+-- existing account balances are migrated to the balance ledger with db/migrate_balance_ledger.sql
+
+drop table if exists transaction_outbox;
+create table if not exists transaction_outbox (
+  atid bigint unsigned not null,
+  email varchar(100) not null,
+  currency varchar(3) not null,
+  outbox_type enum('DEPOSIT','BUY','SELL','TRANSFER','AUTO_TRANSFER') not null,
+  amount decimal(18,4) not null default 0.0000,
+  trading_symbol varchar(50) null,
+  quantity int unsigned null,
+  transaction_price varchar(100) null,
+  bank_name varchar(255) null,
+  bank_account_number varchar(100) null,
+  bank_currency varchar(3) null,
+  transaction_datetime datetime not null,
+  constraint pk_transaction_outbox primary key (atid)
+);
+
+CREATE INDEX idx_email_currency 
+ON transaction_outbox (email, currency); 
+
+drop table if exists id_generator;
+create table if not exists id_generator (
+  table_name varchar(50) not null,
+  last_id bigint unsigned not null,
+  constraint pk_id_generator primary key (table_name)
+);
+
+-- pooled-lo hands out last_id as the first ID of the next block of 50,
+-- so the new tables start at 1; existing databases are migrated with db/migrate_id_generator.sql instead
+insert into id_generator (table_name, last_id)
+values ('account_transaction', 1), ('bank_account', 1), ('bank_account_transaction', 1),
+  ('watch_list', 1), ('portfolio', 1), ('trading_transaction', 1), ('balance_event', 1);
+commit;
+
 set foreign_key_checks = 1;
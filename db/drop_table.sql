@@ -10,5 +10,14 @@ drop table bank_account_transaction;
 drop table watch_list;
 drop table portfolio;
 drop table trading_transaction;
+drop table idempotency_key;
+drop table revaluation_checkpoint;
+drop table value_history;
+drop table cache_version;
+drop table account_transaction_archive;
+drop table bank_account_transaction_archive;
+drop table balance_event;
+drop table transaction_outbox;
+drop table id_generator;
 
 set foreign_key_checks = 1;
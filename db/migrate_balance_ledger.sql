@@ -0,0 +1,38 @@
+-- migrates an existing database to the balance ledger, keeping its account balances;
+-- run once before starting the application on it (on every shard, after db/migrate_id_generator.sql
+-- and before db/shard_id_generator.sql)
+-- every account balance becomes the snapshot of an opening balance event of its amounts, compacted already
+alter table account_balance add column snapshot_datetime datetime null;
+
+create table if not exists balance_event (
+  beid bigint unsigned not null,
+  email varchar(100) not null,
+  currency varchar(3) not null,
+  event_type enum('OPENING','DEPOSIT','BUY','SELL','TRANSFER') not null,
+  trading_amount decimal(18,4) not null default 0.0000,
+  non_trading_amount decimal(18,4) not null default 0.0000,
+  atid bigint unsigned null,
+  event_datetime datetime not null,
+  compacted enum('Y','N') not null default 'N',
+  constraint pk_balance_event primary key (beid)
+);
+
+CREATE INDEX idx_email_currency_datetime 
+ON balance_event (email, currency, event_datetime); 
+
+CREATE INDEX idx_compacted_email_currency 
+ON balance_event (compacted, email, currency); 
+
+insert into balance_event (beid, email, currency, event_type, trading_amount, non_trading_amount, event_datetime,
+  compacted)
+select (select coalesce(max(beid), 0) from balance_event) + row_number() over (order by email, currency),
+  email, currency, 'OPENING', trading_amount, non_trading_amount, creation_datetime, 'Y'
+from account_balance where snapshot_datetime is null;
+update account_balance set snapshot_datetime = current_timestamp() where snapshot_datetime is null;
+alter table account_balance modify column snapshot_datetime datetime not null;
+
+-- pooled-lo hands out last_id as the first ID of the next block, so last_id starts above the opening events
+insert into id_generator (table_name, last_id)
+select 'balance_event', coalesce(max(beid), 0) + 1 from balance_event
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+commit;
@@ -0,0 +1,32 @@
+-- migrates an existing database to the table-generated entity IDs, keeping its rows;
+-- run once before starting the application on it (on every shard, before db/shard_id_generator.sql),
+-- after creating the archive tables of create_table.sql if the database predates them
+-- pooled-lo hands out last_id as the first ID of the next block, so last_id starts above the highest ID in use;
+-- running it again never lowers last_id
+create table if not exists id_generator (
+  table_name varchar(50) not null,
+  last_id bigint unsigned not null,
+  constraint pk_id_generator primary key (table_name)
+);
+
+insert into id_generator (table_name, last_id)
+select 'account_transaction', greatest(coalesce(max(a.atid), 0),
+  coalesce((select max(atid) from account_transaction_archive), 0)) + 1 from account_transaction a
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+insert into id_generator (table_name, last_id)
+select 'bank_account', coalesce(max(baid), 0) + 1 from bank_account
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+insert into id_generator (table_name, last_id)
+select 'bank_account_transaction', greatest(coalesce(max(b.batid), 0),
+  coalesce((select max(batid) from bank_account_transaction_archive), 0)) + 1 from bank_account_transaction b
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+insert into id_generator (table_name, last_id)
+select 'watch_list', coalesce(max(wlid), 0) + 1 from watch_list
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+insert into id_generator (table_name, last_id)
+select 'portfolio', coalesce(max(pid), 0) + 1 from portfolio
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+insert into id_generator (table_name, last_id)
+select 'trading_transaction', coalesce(max(ttid), 0) + 1 from trading_transaction
+on duplicate key update last_id = greatest(id_generator.last_id, values(last_id));
+commit;
@@ -0,0 +1,6 @@
+-- migrates an existing database to the SHA-256 request hashes of the idempotency keys;
+-- run once before starting the application on it (on every shard)
+-- the remembered request hashes cannot be converted, so the idempotency keys remembered so far are forgotten
+delete from idempotency_key;
+alter table idempotency_key modify column request_hash char(64) not null;
+commit;
@@ -0,0 +1,6 @@
+-- run on every shard after create_table.sql, with @shard set to the shard number (0 for the home shard),
+-- so that the IDs generated on different shards never collide when members are moved between shards
+set @shard = 0;
+
+update id_generator set last_id = greatest(last_id, @shard * 1000000000000);
+commit;
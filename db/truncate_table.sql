@@ -10,6 +10,15 @@ truncate table bank_account_transaction;
 truncate table watch_list;
 truncate table portfolio;
 truncate table trading_transaction;
+truncate table idempotency_key;
+truncate table revaluation_checkpoint;
+truncate table value_history;
+truncate table cache_version;
+truncate table account_transaction_archive;
+truncate table bank_account_transaction_archive;
+truncate table balance_event;
+truncate table transaction_outbox;
+truncate table id_generator;
 
 set foreign_key_checks = 1;
 
@@ -0,0 +1,173 @@
+/*
+ * FeeArithmeticBenchmark.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.benchmark;
+
+import com.yktsang.virtrade.fee.FeeSchedule;
+import com.yktsang.virtrade.fee.FeeScheduleService;
+import com.yktsang.virtrade.util.Money;
+import com.yktsang.virtrade.util.TradingUtil;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the cost of the order pricing and fee arithmetic (JMH),
+ * comparing the BigDecimal arithmetic before the fixed-point <code>Money</code> type,
+ * the <code>FeeSchedule</code> BigDecimal interface used by the order path,
+ * and the <code>Money</code> arithmetic in minor units.
+ * Each invocation prices a batch of orders (transaction cost and fees).
+ * <p>
+ * Run with <code>mvn -Pbenchmark test -Dtest=FeeArithmeticBenchmark</code>, optionally with
+ * <code>-Dbenchmark.iterations=5 -Dbenchmark.fee.output=target/benchmark/fee-arithmetic.json</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FeeArithmeticBenchmark {
+
+    /**
+     * The number of orders priced per invocation.
+     */
+    private static final int ORDERS = 1024;
+    /**
+     * The number of measurement iterations.
+     */
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    /**
+     * The transaction prices of the orders.
+     */
+    private BigDecimal[] prices;
+    /**
+     * The quantities of the orders.
+     */
+    private int[] quantities;
+    /**
+     * The Hong Kong dollar fee schedule, from fee_schedule.properties.
+     */
+    private FeeSchedule feeSchedule;
+
+    /**
+     * Loads the Hong Kong dollar fee schedule from fee_schedule.properties.
+     *
+     * @throws IOException if the fee schedule file cannot be read
+     */
+    @Setup
+    public void loadFeeSchedule() throws IOException {
+        FeeScheduleService service = new FeeScheduleService();
+        ReflectionTestUtils.setField(service, "location", new ClassPathResource("fee_schedule.properties"));
+        service.init();
+        feeSchedule = service.getFeeSchedule(null, "HKD");
+    }
+
+    /**
+     * Generates the orders with seeded prices (up to 4 decimal places) and board lot quantities.
+     */
+    @Setup
+    public void generateOrders() {
+        Random random = new Random(27L);
+        prices = new BigDecimal[ORDERS];
+        quantities = new int[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            prices[i] = BigDecimal.valueOf(1 + random.nextInt(5_000_000), 4);
+            quantities[i] = 100 * (1 + random.nextInt(100));
+        }
+    }
+
+    /**
+     * Prices the orders in BigDecimal, as before the fixed-point <code>Money</code> type.
+     *
+     * @param blackhole the blackhole consuming the fees
+     */
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < ORDERS; i++) {
+            BigDecimal transactionCost = prices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            blackhole.consume(transactionCost.multiply(new BigDecimal("0.00005"))
+                    .add(transactionCost.multiply(new BigDecimal("0.00005")))
+                    .add(transactionCost.multiply(new BigDecimal("0.00002")))
+                    .add(transactionCost.multiply(new BigDecimal("0.001")).setScale(0, RoundingMode.UP))
+                    .add(new BigDecimal("0.5"))
+                    .setScale(4, RoundingMode.HALF_UP));
+        }
+    }
+
+    /**
+     * Prices the orders through the BigDecimal interface of the fee schedule, as the order path does.
+     *
+     * @param blackhole the blackhole consuming the fees
+     */
+    @Benchmark
+    public void feeSchedule(Blackhole blackhole) {
+        for (int i = 0; i < ORDERS; i++) {
+            BigDecimal transactionCost = TradingUtil.calculateTransactionCost(prices[i], quantities[i]);
+            blackhole.consume(feeSchedule.calculateFees(transactionCost));
+        }
+    }
+
+    /**
+     * Prices the orders in <code>Money</code> minor units.
+     *
+     * @param blackhole the blackhole consuming the fees
+     */
+    @Benchmark
+    public void money(Blackhole blackhole) {
+        for (int i = 0; i < ORDERS; i++) {
+            Money transactionCost = Money.of(prices[i]).times(quantities[i]);
+            blackhole.consume(feeSchedule.calculateFees(transactionCost));
+        }
+    }
+
+    /**
+     * Runs the benchmark and writes the JMH results as JSON.
+     *
+     * @throws Exception if the benchmark cannot complete
+     */
+    @Test
+    public void run() throws Exception {
+        Path output = new File(System.getProperty("benchmark.fee.output",
+                "target/benchmark/fee-arithmetic.json")).toPath();
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Options options = new OptionsBuilder()
+                .include(FeeArithmeticBenchmark.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(ITERATIONS)
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertEquals(3, results.size(), "benchmarks run");
+    }
+
+}
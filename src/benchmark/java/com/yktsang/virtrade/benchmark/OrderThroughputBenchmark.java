@@ -0,0 +1,349 @@
+/*
+ * OrderThroughputBenchmark.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.benchmark;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yktsang.virtrade.api.controller.TradingService;
+import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.request.BuyRequest;
+import com.yktsang.virtrade.request.SellRequest;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import yahoofinance.quotes.stock.StockQuote;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the end-to-end throughput of the order path (<code>TradingService</code> buy and sell).
+ * Boots the application against an embedded MariaDB with the schema from the db folder,
+ * and an offline <code>StockProvider</code> with fixed prices, then drives buy and sell orders
+ * from concurrent simulated traders.
+ * Reports orders per second, p50/p99/p999 latency and SQL statements per order,
+ * and writes them as JSON for comparison across commits.
+ * <p>
+ * Run with <code>mvn -Pbenchmark test</code>, optionally with
+ * <code>-Dbenchmark.traders=8 -Dbenchmark.orders=250 -Dbenchmark.warmup=25
+ * -Dbenchmark.output=target/benchmark/order-throughput.json -Dbenchmark.commit=$(git rev-parse --short HEAD)</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "risk.limit.order.notional.percent={LOW:100,MEDIUM:100,HIGH:100}",
+        "risk.limit.concentration.percent={LOW:100,MEDIUM:100,HIGH:100}",
+        "risk.limit.daily.turnover.percent={LOW:100000000,MEDIUM:100000000,HIGH:100000000}",
+        "logging.level.com.yktsang.virtrade=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class OrderThroughputBenchmark {
+
+    /**
+     * The number of concurrent traders.
+     */
+    private static final int TRADERS = Integer.getInteger("benchmark.traders", 8);
+    /**
+     * The number of measured orders per trader.
+     */
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 250);
+    /**
+     * The number of warm-up orders per trader.
+     */
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 25);
+    /**
+     * The number of offline stocks.
+     */
+    private static final int STOCKS = 20;
+    /**
+     * The embedded database.
+     */
+    private static DB db;
+    /**
+     * The trading service.
+     */
+    @Autowired
+    private TradingService tradingService;
+    /**
+     * The JWT service.
+     */
+    @Autowired
+    private JwtService jwtService;
+    /**
+     * The account repository.
+     */
+    @Autowired
+    private AccountRepository accountRepo;
+    /**
+     * The trader repository.
+     */
+    @Autowired
+    private TraderRepository traderRepo;
+    /**
+     * The account balance repository.
+     */
+    @Autowired
+    private AccountBalanceRepository acctBalRepo;
+    /**
+     * The entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Starts the embedded database and creates the schema.
+     *
+     * @param registry the dynamic property registry
+     * @throws Exception if the embedded database cannot be started
+     */
+    @DynamicPropertySource
+    static void embeddedDatabase(DynamicPropertyRegistry registry) throws Exception {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        config.addArg("--user=root");
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        String server = "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/";
+        try (Connection conn = DriverManager.getConnection(server, "root", "")) {
+            conn.createStatement().execute("create database virtrade");
+        }
+        String url = server + "virtrade";
+        try (Connection conn = DriverManager.getConnection(url, "root", "")) {
+            ScriptUtils.executeSqlScript(conn, new FileSystemResource("db/create_table.sql"));
+        }
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> Math.max(10, TRADERS + 2));
+    }
+
+    /**
+     * Stops the embedded database.
+     *
+     * @throws Exception if the embedded database cannot be stopped
+     */
+    @AfterAll
+    static void stopDatabase() throws Exception {
+        if (Objects.nonNull(db)) {
+            db.stop();
+        }
+    }
+
+    /**
+     * Provides the offline stocks with fixed prices.
+     */
+    @TestConfiguration
+    static class OfflineStockConfiguration {
+
+        /**
+         * Returns the offline stock provider.
+         *
+         * @return the offline stock provider
+         */
+        @Bean
+        @Primary
+        StockProvider offlineStockProvider() {
+            List<YahooStock> stocks = new ArrayList<>();
+            for (int i = 1; i <= STOCKS; i++) {
+                String symbol = String.format("%04d.HK", i);
+                YahooStock stock = new YahooStock(symbol);
+                stock.setEncodedSymbol(symbol);
+                stock.setName("Benchmark stock " + i);
+                stock.setQuoteType("equity");
+                stock.setCurrency("HKD");
+                stock.setStockExchange("HKG");
+                StockQuote quote = new StockQuote(symbol);
+                quote.setPrice(new BigDecimal(10 * i).add(new BigDecimal("0.25")));
+                stock.setQuote(quote);
+                stocks.add(stock);
+            }
+            List<YahooStock> offlineStocks = List.copyOf(stocks);
+            return () -> offlineStocks;
+        }
+
+    }
+
+    /**
+     * Runs the benchmark and writes the results.
+     *
+     * @throws Exception if the benchmark cannot complete
+     */
+    @Test
+    public void run() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int t = 0; t < TRADERS; t++) {
+            String email = "bench" + t + "@domain.com";
+            accountRepo.save(new Account(email, "benchmark"));
+            traderRepo.save(new Trader(email, "Benchmark trader " + t, LocalDate.of(2000, 1, 1),
+                    false, RiskToleranceLevel.HIGH, false, false));
+            AccountBalance balance = new AccountBalance(email, "HKD", BigDecimal.ZERO, new BigDecimal("100000000000"));
+            acctBalRepo.save(balance);
+            tokens.add(jwtService.generateToken(email));
+        }
+
+        this.runOrders(tokens, WARMUP);
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        long start = System.nanoTime();
+        OrderResults results = this.runOrders(tokens, ORDERS);
+        long elapsedNanos = System.nanoTime() - start;
+        long sqlStatements = stats.getPrepareStatementCount();
+
+        long[] latencies = results.latencies();
+        Arrays.sort(latencies);
+        int orders = latencies.length;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("benchmark", "order-throughput");
+        report.put("commit", System.getProperty("benchmark.commit", "unknown"));
+        report.put("timestamp", LocalDateTime.now().toString());
+        report.put("traders", TRADERS);
+        report.put("ordersPerTrader", ORDERS);
+        report.put("orders", orders);
+        report.put("failedOrders", results.failed());
+        report.put("elapsedMillis", elapsedNanos / 1_000_000);
+        report.put("ordersPerSecond", orders * 1_000_000_000.0 / elapsedNanos);
+        Map<String, Object> latencyMicros = new LinkedHashMap<>();
+        latencyMicros.put("p50", percentile(latencies, 0.50) / 1_000);
+        latencyMicros.put("p99", percentile(latencies, 0.99) / 1_000);
+        latencyMicros.put("p999", percentile(latencies, 0.999) / 1_000);
+        latencyMicros.put("max", latencies[orders - 1] / 1_000);
+        report.put("latencyMicros", latencyMicros);
+        report.put("sqlStatementsPerOrder", (double) sqlStatements / orders);
+
+        Path output = new File(System.getProperty("benchmark.output",
+                "target/benchmark/order-throughput.json")).toPath();
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+
+        assertEquals(0, results.failed(), "failed orders");
+    }
+
+    /**
+     * Runs the orders from each trader concurrently, alternating buy and sell of the same stock.
+     *
+     * @param tokens the JWT of each trader
+     * @param orders the number of orders per trader
+     * @return the order results
+     * @throws Exception if any trader cannot complete
+     */
+    private OrderResults runOrders(List<String> tokens, int orders) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tokens.size());
+        try {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<OrderResults>> futures = new ArrayList<>();
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                int traderNo = t;
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    return this.trade(token, traderNo, orders);
+                }));
+            }
+            ready.countDown();
+            long[] latencies = new long[tokens.size() * orders];
+            int failed = 0;
+            int i = 0;
+            for (Future<OrderResults> future : futures) {
+                OrderResults r = future.get();
+                System.arraycopy(r.latencies(), 0, latencies, i, r.latencies().length);
+                i += r.latencies().length;
+                failed += r.failed();
+            }
+            return new OrderResults(latencies, failed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Places the orders of one trader.
+     *
+     * @param token    the JWT of the trader
+     * @param traderNo the trader number
+     * @param orders   the number of orders
+     * @return the order results
+     */
+    private OrderResults trade(String token, int traderNo, int orders) {
+        long[] latencies = new long[orders];
+        int failed = 0;
+        for (int o = 0; o < orders; o++) {
+            String symbol = String.format("%04d.HK", 1 + (traderNo + o / 2) % STOCKS);
+            long start = System.nanoTime();
+            ResponseEntity<?> resp;
+            if (o % 2 == 0) {
+                resp = tradingService.buy(RequestEntity.post(URI.create("/api/v1/member/trading/buy"))
+                        .header("Authorization", "Bearer " + token)
+                        .body(new BuyRequest(symbol, 100)));
+            } else {
+                resp = tradingService.sell(RequestEntity.post(URI.create("/api/v1/member/trading/sell"))
+                        .header("Authorization", "Bearer " + token)
+                        .body(new SellRequest(symbol, 100, false, null)));
+            }
+            latencies[o] = System.nanoTime() - start;
+            if (!resp.getStatusCode().is2xxSuccessful()) {
+                failed++;
+            }
+        }
+        return new OrderResults(latencies, failed);
+    }
+
+    /**
+     * Returns the percentile of the sorted values (nearest rank).
+     *
+     * @param sorted     the sorted values
+     * @param percentile the percentile (0 to 1)
+     * @return the percentile value
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    /**
+     * The order results.
+     *
+     * @param latencies the latency of each order in nanoseconds
+     * @param failed    the number of failed orders
+     */
+    private record OrderResults(long[] latencies, int failed) {
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * PortfolioAnalyticsService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.analytics;
+
+import com.yktsang.virtrade.history.ValueHistoryService;
+import com.yktsang.virtrade.history.ValueHistoryService.DateRange;
+import com.yktsang.virtrade.lot.LotTrackingService;
+import com.yktsang.virtrade.response.PortfolioAnalyticsResponse;
+import com.yktsang.virtrade.util.Money;
+import com.yktsang.virtrade.util.TimeSeriesCodec.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The portfolio analytics service.
+ * Measures the risk of the open quantities of a portfolio over the daily closing prices recorded by
+ * <code>ValueHistoryService</code>: the annualized volatility of the daily returns, the beta against
+ * a benchmark index, and the one-day historical value at risk.
+ * The daily values of the portfolio are simulated by applying today's open quantities to the past closing
+ * prices on the trading dates of the benchmark, each holding priced in parallel into a primitive array.
+ * Results are cached per portfolio and benchmark until the next closing price is recorded
+ * or the open quantities change.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class PortfolioAnalyticsService {
+
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(PortfolioAnalyticsService.class);
+    /**
+     * The cached results by portfolio ID and benchmark.
+     */
+    private final Map<String, CachedAnalytics> cache = new ConcurrentHashMap<>();
+    /**
+     * The value history service.
+     */
+    @Autowired
+    private ValueHistoryService valueHistoryService;
+    /**
+     * The lot tracking service.
+     */
+    @Autowired
+    private LotTrackingService lotTrackingService;
+    /**
+     * The number of calendar days of closing prices measured.
+     */
+    @Value("${analytics.lookback.days}")
+    private int lookbackDays; // from application.properties
+    /**
+     * The minimum number of daily returns measured.
+     */
+    @Value("${analytics.min.observations}")
+    private int minObservations; // from application.properties
+    /**
+     * The number of trading days per year annualizing the volatility.
+     */
+    @Value("${analytics.trading.days}")
+    private int tradingDays; // from application.properties
+    /**
+     * The confidence level of the value at risk.
+     */
+    @Value("${analytics.var.confidence}")
+    private double confidence; // from application.properties
+
+    /**
+     * Returns the risk of the portfolio against the benchmark index.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @param benchmark   the trading symbol of the benchmark index
+     * @return the risk, or empty if the portfolio has no open quantities
+     * or the closing prices are too few to measure
+     */
+    public Optional<PortfolioAnalyticsResponse> analyze(String email, BigInteger portfolioId, String benchmark) {
+        Map<String, Long> quantities = lotTrackingService.getOpenQuantities(email, portfolioId);
+        if (quantities.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDate today = LocalDate.now();
+        DateRange range = new DateRange(today.minusDays(lookbackDays), today);
+        List<Point> benchmarkPrices = valueHistoryService.getPoints(ValueHistoryService.priceSeries(benchmark), range);
+        if (benchmarkPrices.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDate asOfDate = benchmarkPrices.get(benchmarkPrices.size() - 1).date();
+
+        String key = portfolioId + "|" + benchmark;
+        CachedAnalytics cached = cache.get(key);
+        if (Objects.nonNull(cached) && cached.asOfDate().equals(asOfDate) && cached.quantities().equals(quantities)) {
+            return cached.analytics();
+        }
+
+        Optional<PortfolioAnalyticsResponse> analytics =
+                this.measure(portfolioId, benchmark, quantities, benchmarkPrices, range);
+        cache.put(key, new CachedAnalytics(asOfDate, quantities, analytics));
+        logger.info("portfolio analytics measured");
+        return analytics;
+    }
+
+    /**
+     * Returns the risk of the open quantities against the benchmark prices.
+     *
+     * @param portfolioId     the portfolio ID
+     * @param benchmark       the trading symbol of the benchmark index
+     * @param quantities      the open quantities by trading symbol
+     * @param benchmarkPrices the closing prices of the benchmark index
+     * @param range           the date range of the closing prices
+     * @return the risk, or empty if the closing prices are too few to measure
+     */
+    private Optional<PortfolioAnalyticsResponse> measure(BigInteger portfolioId, String benchmark,
+                                                         Map<String, Long> quantities,
+                                                         List<Point> benchmarkPrices, DateRange range) {
+        int n = benchmarkPrices.size();
+        LocalDate[] dates = new LocalDate[n];
+        double[] benchmarkValues = new double[n];
+        for (int i = 0; i < n; i++) {
+            dates[i] = benchmarkPrices.get(i).date();
+            benchmarkValues[i] = benchmarkPrices.get(i).units();
+        }
+
+        // price each holding on the benchmark dates in parallel, then add up
+        double[] values = quantities.entrySet().parallelStream()
+                .map(e -> this.holdingValues(e.getKey(), e.getValue(), dates, range))
+                .reduce(new double[n], PortfolioAnalyticsService::add);
+
+        // measure from the first date every holding has a price
+        int start = 0;
+        while (start < n && Double.isNaN(values[start])) {
+            start++;
+        }
+        int observations = n - start - 1;
+        if (observations < Math.max(minObservations, 2)) {
+            return Optional.empty();
+        }
+        double[] returns = new double[observations];
+        double[] benchmarkReturns = new double[observations];
+        for (int i = 0; i < observations; i++) {
+            returns[i] = values[start + i + 1] / values[start + i] - 1.0;
+            benchmarkReturns[i] = benchmarkValues[start + i + 1] / benchmarkValues[start + i] - 1.0;
+        }
+
+        double volatility = Math.sqrt(variance(returns) * tradingDays);
+        double benchmarkVariance = variance(benchmarkReturns);
+        Double beta = benchmarkVariance > 0.0 ? covariance(returns, benchmarkReturns) / benchmarkVariance : null;
+        // the loss not exceeded on the confidence level of the days, on today's value
+        double[] sorted = returns.clone();
+        Arrays.sort(sorted);
+        double cutoff = sorted[(int) Math.floor((1.0 - confidence) * observations)];
+        double currentValue = values[n - 1] / Money.UNITS_PER_WHOLE;
+        double valueAtRisk = Math.max(-cutoff, 0.0) * currentValue;
+
+        return Optional.of(new PortfolioAnalyticsResponse(portfolioId, benchmark, dates[n - 1], observations,
+                scale(volatility, 6), Objects.isNull(beta) ? null : scale(beta, 6),
+                scale(valueAtRisk, 4), BigDecimal.valueOf(confidence)));
+    }
+
+    /**
+     * Returns the values of the holding on the dates, taking the last closing price on or before each date,
+     * or not-a-number before its first closing price.
+     *
+     * @param symbol   the trading symbol
+     * @param quantity the open quantity
+     * @param dates    the dates
+     * @param range    the date range of the closing prices
+     * @return the values in minor units
+     */
+    private double[] holdingValues(String symbol, long quantity, LocalDate[] dates, DateRange range) {
+        List<Point> prices = valueHistoryService.getPoints(ValueHistoryService.priceSeries(symbol), range);
+        double[] values = new double[dates.length];
+        int p = 0;
+        double last = Double.NaN;
+        for (int i = 0; i < dates.length; i++) {
+            while (p < prices.size() && !prices.get(p).date().isAfter(dates[i])) {
+                last = prices.get(p++).units();
+            }
+            values[i] = last * quantity;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the element-wise sum of the arrays, not-a-number where either is.
+     *
+     * @param a the first array
+     * @param b the second array
+     * @return the sum
+     */
+    private static double[] add(double[] a, double[] b) {
+        double[] sum = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sample variance.
+     *
+     * @param x the observations
+     * @return the sample variance
+     */
+    private static double variance(double[] x) {
+        return covariance(x, x);
+    }
+
+    /**
+     * Returns the sample covariance.
+     *
+     * @param x the first observations
+     * @param y the second observations, as many as the first
+     * @return the sample covariance
+     */
+    private static double covariance(double[] x, double[] y) {
+        double meanX = Arrays.stream(x).average().orElse(0.0);
+        double meanY = Arrays.stream(y).average().orElse(0.0);
+        double sum = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            sum += (x[i] - meanX) * (y[i] - meanY);
+        }
+        return sum / (x.length - 1);
+    }
+
+    /**
+     * Returns the value rounded half up to the scale.
+     *
+     * @param value the value
+     * @param scale the scale
+     * @return the rounded value
+     */
+    private static BigDecimal scale(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * The cached result.
+     *
+     * @param asOfDate   the date of the last closing price measured
+     * @param quantities the open quantities measured
+     * @param analytics  the result
+     */
+    private record CachedAnalytics(LocalDate asOfDate, Map<String, Long> quantities,
+                                   Optional<PortfolioAnalyticsResponse> analytics) {
+    }
+
+}
@@ -8,11 +8,15 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
 import com.yktsang.virtrade.request.DepositFundRequest;
 import com.yktsang.virtrade.response.AccountBalanceResponse;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.response.ValueHistoryResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -70,6 +74,7 @@ public interface AccountBalanceService {
             )
     })
     @GetMapping(value = "/api/v1/member/balances")
+    @Transactional(readOnly = true)
     ResponseEntity<?> accountBalances(RequestEntity<Void> req,
                                       @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -103,8 +108,49 @@ public interface AccountBalanceService {
             )
     })
     @GetMapping(value = "/api/v1/member/balances/{ccy}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> accountBalances(RequestEntity<Void> req, @PathVariable("ccy") String currency);
 
+    /**
+     * Returns the daily values of the account balance for specific currency within the date range,
+     * downsampled for charts.
+     * Takes in the <code>Void</code> as input.
+     * Returns the <code>ValueHistoryResponse</code> upon success
+     * or the <code>ErrorResponse</code> upon failure.
+     *
+     * @param req      the request entity containing the Void
+     * @param currency the currency code
+     * @param fromDate the first date in yyyy-MM-dd, one year before the last date if absent
+     * @param toDate   the last date in yyyy-MM-dd, today if absent
+     * @param points   the maximum number of values to return
+     * @return the response entity containing the ValueHistoryResponse upon success
+     * or ErrorResponse upon failure
+     */
+    @Operation(
+            summary = "Account balance history for specific currency",
+            description = "Return the daily values of the account balance for specific currency")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the daily values of the account balance for specific currency",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ValueHistoryResponse.class))}
+            ),
+            @ApiResponse(responseCode = "204",
+                    description = "No data is returned"
+            ),
+            @ApiResponse(responseCode = "400,401,404",
+                    description = "Any failed responses",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class))}
+            )
+    })
+    @GetMapping(value = "/api/v1/member/balances/history/{ccy}")
+    @Transactional(readOnly = true)
+    ResponseEntity<?> accountBalanceHistory(RequestEntity<Void> req, @PathVariable("ccy") String currency,
+                                            @RequestParam(value = "from", required = false) String fromDate,
+                                            @RequestParam(value = "to", required = false) String toDate,
+                                            @RequestParam(value = "points", defaultValue = "366") int points);
+
     /**
      * Deposits funds.
      * Takes in the <code>DepositFundRequest</code> as input.
@@ -117,14 +163,16 @@ public interface AccountBalanceService {
      */
     @Operation(
             summary = "Fund deposit",
-            description = "Deposit funds")
+            description = "Deposit funds",
+            parameters = {@Parameter(in = ParameterIn.HEADER, name = IdempotencyService.IDEMPOTENCY_KEY_HEADER,
+                    description = "Optional key to replay the outcome of a retried request")})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200,201",
                     description = "Successful operation",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = SuccessResponse.class))}
             ),
-            @ApiResponse(responseCode = "400,401,404,406",
+            @ApiResponse(responseCode = "400,401,404,406,409,422",
                     description = "Any failed responses",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = ErrorResponse.class))}
@@ -8,17 +8,25 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.history.ValueHistoryService;
+import com.yktsang.virtrade.ledger.BalanceLedgerService;
+import com.yktsang.virtrade.outbox.TransactionOutboxService;
 import com.yktsang.virtrade.request.DepositFundRequest;
 import com.yktsang.virtrade.response.AccountBalanceResponse;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.response.ValueHistoryResponse;
+import com.yktsang.virtrade.response.ValuePoint;
 import com.yktsang.virtrade.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
@@ -26,9 +34,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -53,21 +60,36 @@ public class AccountBalanceServiceController implements AccountBalanceService {
      */
     @Autowired
     private JwtService jwtService;
+    /**
+     * The idempotency service.
+     */
+    @Autowired
+    private IdempotencyService idempotencyService;
     /**
      * The account balance repository.
      */
     @Autowired
     private AccountBalanceRepository acctBalRepo;
     /**
-     * The account transaction repository.
+     * The balance ledger service.
+     */
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    /**
+     * The transaction outbox service.
      */
     @Autowired
-    private AccountTransactionRepository acctTxnRepo;
+    private TransactionOutboxService transactionOutboxService;
     /**
-     * The ISO data repository.
+     * The currency cache service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The value history service.
+     */
+    @Autowired
+    private ValueHistoryService valueHistoryService;
 
     /**
      * {@inheritDoc}
@@ -76,9 +98,7 @@ public class AccountBalanceServiceController implements AccountBalanceService {
     public ResponseEntity<?> accountBalances(RequestEntity<Void> req, int page, int pageSize) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         GenericHolder holder = this.getAccountBalanceResults(tokenUser, "", page, Math.max(pageSize, 1), activeCurrencies);
         List<com.yktsang.virtrade.response.AccountBalance> balances =
@@ -106,9 +126,7 @@ public class AccountBalanceServiceController implements AccountBalanceService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -128,6 +146,39 @@ public class AccountBalanceServiceController implements AccountBalanceService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponseEntity<?> accountBalanceHistory(RequestEntity<Void> req, String currency,
+                                                   String fromDate, String toDate, int points) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        Optional<ValueHistoryService.DateRange> rangeOpt = ValueHistoryService.DateRange.parse(fromDate, toDate);
+        if (Objects.isNull(currency)
+                || currency.isEmpty()
+                || rangeOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Validation failed"));
+        }
+
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
+
+        if (!activeCurrencies.contains(new IsoCurrency(currency))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Currency not found"));
+        }
+
+        List<ValuePoint> values = valueHistoryService.getHistory(
+                ValueHistoryService.balanceSeries(tokenUser, currency), rangeOpt.get(), points);
+        if (values.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        } else {
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(new ValueHistoryResponse(currency, values));
+        }
+    }
+
     /**
      * Returns the <code>GenericHolder</code> containing <code>AccountBalance</code>>.
      *
@@ -140,34 +191,29 @@ public class AccountBalanceServiceController implements AccountBalanceService {
      */
     private GenericHolder getAccountBalanceResults(String email, String currency,
                                                    int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
-        List<com.yktsang.virtrade.entity.AccountBalance> dbBalances;
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        Page<com.yktsang.virtrade.entity.AccountBalance> dbBalances;
         if (currency.isEmpty()) {
-            dbBalances = acctBalRepo.findByEmail(email);
+            //filter with active currencies
+            dbBalances = acctBalRepo.findByEmailAndCurrencies(email, activeCurrencies.stream()
+                    .map(IsoCurrency::getCurrencyCode).toList(), pageable);
         } else {
-            dbBalances = acctBalRepo.findById(new AccountBalancePK(email, currency)).stream().toList();
-        }
-        for (com.yktsang.virtrade.entity.AccountBalance bal : dbBalances) {
-            Integer dpNum = isoDataRepo.findMinorUnits(bal.getCurrency());
-            bal.setDecimalPlacesToDisplay(dpNum);
+            dbBalances = acctBalRepo.findByEmailAndCurrencies(email, List.of(currency), pageable);
         }
-        List<com.yktsang.virtrade.response.AccountBalance> respBalances = dbBalances.stream()
-                //filter with active currencies
-                .filter(c -> activeCurrencies.contains(new IsoCurrency(c.getCurrency())))
-                //map to response format
+        //add the balance events since the snapshots
+        Map<String, AccountBalance> currentBalances = balanceLedgerService
+                .currentBalances(email, dbBalances.getContent())
+                .stream()
+                .collect(Collectors.toMap(AccountBalance::getCurrency, Function.identity()));
+        Page<com.yktsang.virtrade.response.AccountBalance> respPage = dbBalances
+                .map(snapshot -> currentBalances.get(snapshot.getCurrency()))
+                //map to response format, with the minor units from the currency cache
                 .map(b -> new com.yktsang.virtrade.response.AccountBalance(b.getEmail(), b.getCurrency(),
-                        b.getTradingAmount(), b.getNonTradingAmount(), b.getDecimalPlacesToDisplay()))
-                .toList();
+                        b.getTradingAmount(), b.getNonTradingAmount(),
+                        currencyCacheService.getMinorUnits(b.getCurrency())));
 
-        Page<com.yktsang.virtrade.response.AccountBalance> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.AccountBalance>)
-                    PaginationUtil.convertListToPage(respBalances, page, respBalances.isEmpty() ? 1 : respBalances.size());
-        } else {
-            respPage = (Page<com.yktsang.virtrade.response.AccountBalance>)
-                    PaginationUtil.convertListToPage(respBalances, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), currency);
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -179,6 +225,17 @@ public class AccountBalanceServiceController implements AccountBalanceService {
     @Override
     public ResponseEntity<?> depositFunds(RequestEntity<DepositFundRequest> req) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+        return idempotencyService.execute(tokenUser, req, "deposit", () -> this.executeDepositFunds(tokenUser, req));
+    }
+
+    /**
+     * Deposits the funds into the user's account balance, given the deposit request.
+     *
+     * @param tokenUser the email address from the JWT
+     * @param req       the deposit request
+     * @return the response entity
+     */
+    private ResponseEntity<?> executeDepositFunds(String tokenUser, RequestEntity<DepositFundRequest> req) {
 
         if (req.hasBody() && Objects.nonNull(req.getBody())) {
             DepositFundRequest actualReq = req.getBody();
@@ -198,9 +255,7 @@ public class AccountBalanceServiceController implements AccountBalanceService {
                         .body(new ErrorResponse("Validation failed"));
             }
 
-            Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                    .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                    .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
             if (!activeCurrencies.contains(new IsoCurrency(actualReq.currency()))) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -210,22 +265,18 @@ public class AccountBalanceServiceController implements AccountBalanceService {
             String currency = actualReq.currency();
             BigDecimal amount = actualReq.depositAmount();
 
-            Optional<AccountBalance> balanceOpt =
-                    acctBalRepo.findById(new AccountBalancePK(tokenUser, currency));
+            Optional<AccountBalance> balanceOpt = balanceLedgerService.lockBalance(tokenUser, currency);
             if (balanceOpt.isPresent()) {
                 AccountBalance existingBalance = balanceOpt.get();
                 BigDecimal newAmount = existingBalance.getNonTradingAmount().add(amount);
                 // newAmount is less than one trillion limit
                 if (newAmount.compareTo(AMOUNT_LIMIT_TRILLION) < 0) {
-                    existingBalance.setNonTradingAmount(newAmount);
-                    existingBalance.setLastUpdatedDateTime(LocalDateTime.now());
-                    acctBalRepo.save(existingBalance);
+                    TransactionOutbox txn = transactionOutboxService.enqueue(
+                            new TransactionOutbox(tokenUser, currency, OutboxType.DEPOSIT, amount));
+                    logger.info("account transaction queued");
+                    balanceLedgerService.append(tokenUser, currency, BalanceEventType.DEPOSIT,
+                            BigDecimal.ZERO, amount, txn.getAccountTransactionId());
                     logger.info("account balance updated");
-                    AccountTransaction txn = new AccountTransaction(tokenUser, currency,
-                            "Deposited " + currency + " "
-                                    + new DecimalFormat("#,###.0000").format(amount));
-                    acctTxnRepo.save(txn);
-                    logger.info("account transaction created");
 
                     return ResponseEntity.status(HttpStatus.OK)
                             .body(new SuccessResponse("Account balance updated"));
@@ -235,15 +286,13 @@ public class AccountBalanceServiceController implements AccountBalanceService {
                                     + currency + " " + AMOUNT_LIMIT_TRILLION));
                 }
             } else {
-                AccountBalance balance = new AccountBalance(tokenUser,
-                        currency, BigDecimal.ZERO, amount);
-                acctBalRepo.save(balance);
+                balanceLedgerService.open(tokenUser, currency);
                 logger.info("account balance created");
-                AccountTransaction txn = new AccountTransaction(tokenUser, currency,
-                        "Deposited " + currency + " "
-                                + new DecimalFormat("#,###.0000").format(amount));
-                acctTxnRepo.save(txn);
-                logger.info("account transaction created");
+                TransactionOutbox txn = transactionOutboxService.enqueue(
+                        new TransactionOutbox(tokenUser, currency, OutboxType.DEPOSIT, amount));
+                logger.info("account transaction queued");
+                balanceLedgerService.append(tokenUser, currency, BalanceEventType.DEPOSIT,
+                        BigDecimal.ZERO, amount, txn.getAccountTransactionId());
 
                 return ResponseEntity.status(HttpStatus.CREATED)
                         .body(new SuccessResponse("Account balance created"));
@@ -13,6 +13,7 @@ import com.yktsang.virtrade.entity.Account;
 import com.yktsang.virtrade.entity.AccountRepository;
 import com.yktsang.virtrade.request.*;
 import com.yktsang.virtrade.response.*;
+import com.yktsang.virtrade.shard.ShardRouter;
 import com.yktsang.virtrade.util.PaginationUtil;
 import com.yktsang.virtrade.util.SecurityUtil;
 import org.slf4j.Logger;
@@ -31,6 +32,7 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -63,6 +65,11 @@ public class AccountServiceController implements AccountService {
      */
     @Autowired
     private AccountRepository accountRepo;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
     /**
      * The admin email address.
      */
@@ -75,7 +82,7 @@ public class AccountServiceController implements AccountService {
     @Override
     public boolean checkAdminLastUpdated() {
         boolean passwordAlreadyReset = false;
-        Optional<Account> accountOpt = accountRepo.findById(adminEmail);
+        Optional<Account> accountOpt = shardRouter.callOnMember(adminEmail, () -> accountRepo.findById(adminEmail));
         if (accountOpt.isPresent()) {
             Account account = accountOpt.get();
             if (Objects.nonNull(account.getLastUpdatedDateTime())) {
@@ -91,7 +98,7 @@ public class AccountServiceController implements AccountService {
     @Override
     public boolean hasAdminRight(String username) {
         boolean admin = false;
-        Optional<Account> acctOpt = accountRepo.findById(username);
+        Optional<Account> acctOpt = shardRouter.callOnMember(username, () -> accountRepo.findById(username));
         if (acctOpt.isPresent()) {
             Account acct = acctOpt.get();
             admin = acct.isAdmin();
@@ -142,7 +149,7 @@ public class AccountServiceController implements AccountService {
                             .body(new ErrorResponse(""));
                 }
             } catch (AuthenticationException ae) {
-                Optional<Account> accountOpt = accountRepo.findById(username);
+                Optional<Account> accountOpt = shardRouter.callOnMember(username, () -> accountRepo.findById(username));
                 if (accountOpt.isEmpty()) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ErrorResponse("Account not found"));
@@ -188,7 +195,7 @@ public class AccountServiceController implements AccountService {
             String email = actualReq.username();
             String newRawPassword = actualReq.password();
 
-            Optional<Account> accountOpt = accountRepo.findById(email);
+            Optional<Account> accountOpt = shardRouter.callOnMember(email, () -> accountRepo.findById(email));
             if (accountOpt.isPresent()) {
                 Account account = accountOpt.get();
                 account.setPassword(newRawPassword);
@@ -199,7 +206,7 @@ public class AccountServiceController implements AccountService {
                     account.setDeactivationDateTime(null);
                 }
                 account.setLastUpdatedDateTime(LocalDateTime.now());
-                accountRepo.save(account);
+                shardRouter.callOnMember(email, () -> accountRepo.save(account));
                 logger.info("account updated, password is reset");
                 return ResponseEntity.status(HttpStatus.OK)
                         .body(new SuccessResponse("Account updated, password is reset"));
@@ -331,31 +338,25 @@ public class AccountServiceController implements AccountService {
     }
 
     /**
-     * Returns the <code>GenericHolder</code> containing <code>AdminAccessRequest</code>.
+     * Returns the <code>GenericHolder</code> containing <code>AdminAccessRequest</code>,
+     * gathered from all shards.
      *
      * @param page     the page number to retrieve
      * @param pageSize the number of records to retrieve
      * @return the GenericHolder
      */
     private GenericHolder getAdminRequestResults(int page, int pageSize) {
-        List<Account> accounts = accountRepo.findMembersRequestedAdminAccess(false);
-        List<AdminAccessRequest> adminRequests = accounts.stream()
+        Page<Account> accounts = shardRouter.scatterGather(PaginationUtil.toPageable(page, pageSize),
+                Comparator.comparing(Account::getAdminRequestDateTime).reversed(),
+                pageable -> accountRepo.findMembersRequestedAdminAccess(false, pageable));
+        Page<AdminAccessRequest> respPage = accounts
                 // map to response format
                 .map(account -> new AdminAccessRequest(account.getEmail(),
                         account.getCreationDateTime(),
-                        account.getAdminRequestDateTime()))
-                .toList();
+                        account.getAdminRequestDateTime()));
 
-        Page<AdminAccessRequest> respPage;
-        if (page == 0) {
-            respPage = (Page<AdminAccessRequest>)
-                    PaginationUtil.convertListToPage(adminRequests, page, adminRequests.isEmpty() ? 1 : adminRequests.size());
-        } else {
-            respPage = (Page<AdminAccessRequest>)
-                    PaginationUtil.convertListToPage(adminRequests, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), "");
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -386,31 +387,27 @@ public class AccountServiceController implements AccountService {
     }
 
     /**
-     * Returns the <code>GenericHolder</code> containing <code>AdminAccess</code>.
+     * Returns the <code>GenericHolder</code> containing <code>AdminAccess</code>,
+     * gathered from all shards.
      *
      * @param page     the page number to retrieve
      * @param pageSize the number of records to retrieve
      * @return the GenericHolder
      */
     private GenericHolder getAdminAccessResults(int page, int pageSize) {
-        List<Account> accounts = accountRepo.findMembersWithAdminAccess(true, adminEmail);
-        List<AdminAccess> adminAccesses = accounts.stream()
+        Page<Account> accounts = shardRouter.scatterGather(PaginationUtil.toPageable(page, pageSize),
+                // approval datetime descending, nulls last as in MySQL
+                Comparator.comparing(Account::getAdminApprovalDateTime,
+                        Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).reversed(),
+                pageable -> accountRepo.findMembersWithAdminAccess(true, adminEmail, pageable));
+        Page<AdminAccess> respPage = accounts
                 // map to response format
                 .map(account -> new AdminAccess(account.getEmail(), account.getCreationDateTime(),
                         account.getAdminRequestDateTime(), account.getAdminApprovalDateTime(),
-                        account.getAdminApproveBy()))
-                .toList();
+                        account.getAdminApproveBy()));
 
-        Page<AdminAccess> respPage;
-        if (page == 0) {
-            respPage = (Page<AdminAccess>)
-                    PaginationUtil.convertListToPage(adminAccesses, page, adminAccesses.isEmpty() ? 1 : adminAccesses.size());
-        } else {
-            respPage = (Page<AdminAccess>)
-                    PaginationUtil.convertListToPage(adminAccesses, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), "");
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -435,7 +432,8 @@ public class AccountServiceController implements AccountService {
                 List<String> emailsToGrant = actualReq.emailsToGrant();
 
                 if (!emailsToGrant.isEmpty()) {
-                    List<Account> adminRequests = accountRepo.findMembersRequestedAdminAccess(false);
+                    List<Account> adminRequests = shardRouter.scatterGather(() ->
+                            accountRepo.findMembersRequestedAdminAccess(false));
                     List<Account> accountsToGrant = adminRequests.stream()
                             .filter(account -> emailsToGrant.contains(account.getEmail())
                                     && !account.getEmail().equals(tokenUser)) // cannot grant self
@@ -446,7 +444,7 @@ public class AccountServiceController implements AccountService {
                         a.setAdmin(true);
                         a.setAdminApproveBy(tokenUser);
                         a.setAdminApprovalDateTime(LocalDateTime.now());
-                        accountRepo.save(a);
+                        shardRouter.callOnMember(a.getEmail(), () -> accountRepo.save(a));
                         logger.info("granted {}", a.getEmail());
                     }
 
@@ -493,7 +491,7 @@ public class AccountServiceController implements AccountService {
 
                 if (!emailsToRevoke.isEmpty()) {
                     List<Account> adminAccesses =
-                            accountRepo.findMembersWithAdminAccess(true, adminEmail);
+                            shardRouter.scatterGather(() -> accountRepo.findMembersWithAdminAccess(true, adminEmail));
                     List<Account> accountsToRevoke = adminAccesses.stream()
                             .filter(account -> emailsToRevoke.contains(account.getEmail())
                                     && !account.getEmail().equals(tokenUser)) // cannot revoke self
@@ -505,7 +503,7 @@ public class AccountServiceController implements AccountService {
                         a.setAdminApproveBy(null);
                         a.setAdminApprovalDateTime(null);
                         a.setAdminRequestDateTime(null);
-                        accountRepo.save(a);
+                        shardRouter.callOnMember(a.getEmail(), () -> accountRepo.save(a));
                         logger.info("revoked {}", a.getEmail());
                     }
 
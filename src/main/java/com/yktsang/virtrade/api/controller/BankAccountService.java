@@ -72,6 +72,7 @@ public interface BankAccountService {
             )
     })
     @GetMapping(value = "/api/v1/member/banks")
+    @Transactional(readOnly = true)
     ResponseEntity<?> bankAccounts(RequestEntity<Void> req,
                                    @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -107,6 +108,7 @@ public interface BankAccountService {
             )
     })
     @GetMapping(value = "/api/v1/member/banks/{ccy}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> bankAccounts(RequestEntity<Void> req, @PathVariable("ccy") String currency,
                                    @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
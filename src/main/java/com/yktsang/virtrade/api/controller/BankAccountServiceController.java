@@ -9,6 +9,7 @@
 package com.yktsang.virtrade.api.controller;
 
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.*;
 import com.yktsang.virtrade.request.AddBankAccountRequest;
 import com.yktsang.virtrade.response.BankAccountResponse;
@@ -19,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
@@ -28,7 +30,6 @@ import org.springframework.web.bind.annotation.RestController;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * The API controller for implementing <code>BankAccountService</code>.
@@ -59,10 +60,10 @@ public class BankAccountServiceController implements BankAccountService {
     @Autowired
     private BankAccountTransactionRepository bankAcctTxnRepo;
     /**
-     * The ISO data repository.
+     * The currency cache service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private CurrencyCacheService currencyCacheService;
 
     /**
      * {@inheritDoc}
@@ -71,9 +72,7 @@ public class BankAccountServiceController implements BankAccountService {
     public ResponseEntity<?> bankAccounts(RequestEntity<Void> req, int page, int pageSize) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         GenericHolder holder = this.getBankAccountResults(tokenUser, "", page, Math.max(pageSize, 1), activeCurrencies);
         List<com.yktsang.virtrade.response.BankAccount> banks =
@@ -101,9 +100,7 @@ public class BankAccountServiceController implements BankAccountService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -135,30 +132,19 @@ public class BankAccountServiceController implements BankAccountService {
      */
     private GenericHolder getBankAccountResults(String email, String currency,
                                                 int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
-        List<com.yktsang.virtrade.entity.BankAccount> dbBanks;
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        //select in response format
+        Page<com.yktsang.virtrade.response.BankAccount> respPage;
         if (currency.isEmpty()) {
-            dbBanks = bankAcctRepo.findByEmail(email, true);
+            //filter with active currencies
+            respPage = bankAcctRepo.findResponsesByEmailAndCurrencies(email, activeCurrencies.stream()
+                    .map(IsoCurrency::getCurrencyCode).toList(), true, pageable);
         } else {
-            dbBanks = bankAcctRepo.findByEmailAndCurrency(email, currency, true);
+            respPage = bankAcctRepo.findResponsesByEmailAndCurrency(email, currency, true, pageable);
         }
-        List<com.yktsang.virtrade.response.BankAccount> respBanks = dbBanks.stream()
-                //filter with active currencies
-                .filter(c -> activeCurrencies.contains(new IsoCurrency(c.getCurrency())))
-                //map to response format
-                .map(b -> new com.yktsang.virtrade.response.BankAccount(b.getBankAccountId(),
-                        b.getEmail(), b.getCurrency(), b.getBankName(), b.getBankAccountNumber()))
-                .toList();
 
-        Page<com.yktsang.virtrade.response.BankAccount> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.BankAccount>)
-                    PaginationUtil.convertListToPage(respBanks, page, respBanks.isEmpty() ? 1 : respBanks.size());
-        } else {
-            respPage = (Page<com.yktsang.virtrade.response.BankAccount>)
-                    PaginationUtil.convertListToPage(respBanks, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), currency);
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -186,9 +172,7 @@ public class BankAccountServiceController implements BankAccountService {
                         .body(new ErrorResponse("Validation failed"));
             }
 
-            Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                    .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                    .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
             if (!activeCurrencies.contains(new IsoCurrency(actualReq.currency()))) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -20,9 +20,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * The service for <code>BankAccountTransaction</code>.
@@ -65,6 +67,7 @@ public interface BankAccountTransactionService {
             )
     })
     @GetMapping(value = "/api/v1/member/banks/transactions")
+    @Transactional(readOnly = true)
     ResponseEntity<?> bankAccountTransactions(RequestEntity<Void> req,
                                               @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -100,7 +103,85 @@ public interface BankAccountTransactionService {
             )
     })
     @GetMapping(value = "/api/v1/member/banks/transactions/{ccy}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> bankAccountTransactions(RequestEntity<Void> req, @PathVariable("ccy") String currency,
                                               @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
+    /**
+     * Returns the bank account transactions page by page with a cursor, newest first.
+     * Each page seeks past the cursor instead of skipping rows, so every page costs the same however deep.
+     * The cursor of the next page is returned in the "next" response header.
+     * Takes in the <code>Void</code> as input.
+     * Returns the <code>BankAccountTransactionResponse</code> upon success
+     * or the <code>ErrorResponse</code> upon failure.
+     *
+     * @param req      the request entity containing the Void
+     * @param currency the currency code, all active currencies if absent
+     * @param cursor   the cursor from the "next" response header, the first page if absent
+     * @param pageSize the number of records to retrieve
+     * @return the response entity containing the BankAccountTransactionResponse upon success
+     * or ErrorResponse upon failure
+     */
+    @Operation(
+            summary = "Bank account transactions by cursor",
+            description = "Return the bank account transactions after the cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the bank account transactions after the cursor",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BankAccountTransactionResponse.class))}
+            ),
+            @ApiResponse(responseCode = "204",
+                    description = "No data is returned"
+            ),
+            @ApiResponse(responseCode = "400,401,404",
+                    description = "Any failed responses",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class))}
+            )
+    })
+    @GetMapping(value = "/api/v1/member/banks/transactions/cursor")
+    @Transactional(readOnly = true)
+    ResponseEntity<?> bankAccountTransactionsByCursor(RequestEntity<Void> req,
+                                                      @RequestParam(value = "ccy", required = false) String currency,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam("pageSize") int pageSize);
+
+    /**
+     * Returns the bank account statement, all the bank account transactions oldest first, as a file download.
+     * The transactions are written to the response as they are read from the database,
+     * so the statement can be as large as the whole history.
+     * Takes in the <code>Void</code> as input.
+     * Returns the statement in CSV or JSON upon success
+     * or the <code>ErrorResponse</code> upon failure.
+     *
+     * @param req      the request entity containing the Void
+     * @param currency the currency code, all active currencies if absent
+     * @param format   the format, csv or json
+     * @param gzip     gzip the statement or not
+     * @return the response entity containing the statement upon success
+     * or ErrorResponse upon failure
+     */
+    @Operation(
+            summary = "Export bank account statement",
+            description = "Return all the bank account transactions as CSV or JSON, optionally gzipped")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return all the bank account transactions",
+                    content = {@Content(mediaType = "text/csv"),
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE),
+                            @Content(mediaType = "application/gzip")}
+            ),
+            @ApiResponse(responseCode = "400,401,404",
+                    description = "Any failed responses",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class))}
+            )
+    })
+    @GetMapping(value = "/api/v1/member/banks/transactions/export")
+    ResponseEntity<StreamingResponseBody> bankAccountStatement(RequestEntity<Void> req,
+                                                               @RequestParam(value = "ccy", required = false) String currency,
+                                                               @RequestParam(value = "format", required = false, defaultValue = "csv") String format,
+                                                               @RequestParam(value = "gzip", required = false, defaultValue = "false") boolean gzip);
+
 }
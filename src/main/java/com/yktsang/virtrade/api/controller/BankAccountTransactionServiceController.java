@@ -9,9 +9,12 @@
 package com.yktsang.virtrade.api.controller;
 
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.archive.TransactionArchiveService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.BankAccountTransactionRepository;
 import com.yktsang.virtrade.entity.IsoCurrency;
-import com.yktsang.virtrade.entity.IsoDataRepository;
+import com.yktsang.virtrade.export.StatementExportService;
+import com.yktsang.virtrade.export.StatementExportService.Format;
 import com.yktsang.virtrade.response.BankAccountTransactionResponse;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.util.PaginationUtil;
@@ -19,17 +22,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The API controller for implementing <code>BankAccountTransactionService</code>.
@@ -55,10 +61,20 @@ public class BankAccountTransactionServiceController implements BankAccountTrans
     @Autowired
     private BankAccountTransactionRepository bankAcctTxnRepo;
     /**
-     * The ISO data repository.
+     * The currency cache service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The transaction archive service.
+     */
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+    /**
+     * The statement export service.
+     */
+    @Autowired
+    private StatementExportService statementExportService;
 
     /**
      * {@inheritDoc}
@@ -67,9 +83,7 @@ public class BankAccountTransactionServiceController implements BankAccountTrans
     public ResponseEntity<?> bankAccountTransactions(RequestEntity<Void> req, int page, int pageSize) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         GenericHolder holder = this.getBankAccountTransactionResults(tokenUser, "", page, Math.max(pageSize, 1), activeCurrencies);
         List<com.yktsang.virtrade.response.BankAccountTransaction> bankTxns =
@@ -97,9 +111,7 @@ public class BankAccountTransactionServiceController implements BankAccountTrans
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -119,6 +131,95 @@ public class BankAccountTransactionServiceController implements BankAccountTrans
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponseEntity<?> bankAccountTransactionsByCursor(RequestEntity<Void> req, String currency, String cursor, int pageSize) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        Optional<PaginationUtil.Cursor> cursorOpt = PaginationUtil.decodeCursor(cursor);
+        if (Objects.nonNull(cursor) && !cursor.isBlank() && cursorOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Validation failed"));
+        }
+
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
+
+        String ccy = Objects.requireNonNullElse(currency, "");
+        if (!ccy.isEmpty() && !activeCurrencies.contains(new IsoCurrency(ccy))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Currency not found"));
+        }
+        //filter with active currencies
+        List<String> currencies = ccy.isEmpty()
+                ? activeCurrencies.stream().map(IsoCurrency::getCurrencyCode).toList()
+                : List.of(ccy);
+
+        // fetch one more record to tell whether there is a next page
+        int size = Math.max(pageSize, 1);
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<com.yktsang.virtrade.entity.BankAccountTransaction> dbBankAcctTxns = cursorOpt
+                .map(c -> bankAcctTxnRepo.seekByEmailAndCurrencies(tokenUser, currencies, c.dateTime(), c.id(), pageable))
+                .orElseGet(() -> bankAcctTxnRepo.seekByEmailAndCurrencies(tokenUser, currencies, pageable));
+        // continue into the archived transactions once the hot transactions run out
+        dbBankAcctTxns = transactionArchiveService.seek(TransactionArchiveService.BANK_ACCOUNT_TRANSACTIONS, dbBankAcctTxns,
+                tokenUser, currencies, cursorOpt.orElse(null), size + 1);
+        boolean hasNext = dbBankAcctTxns.size() > size;
+        String nextCursor = "";
+        if (hasNext) {
+            dbBankAcctTxns = dbBankAcctTxns.subList(0, size);
+            com.yktsang.virtrade.entity.BankAccountTransaction last = dbBankAcctTxns.get(size - 1);
+            nextCursor = PaginationUtil.encodeCursor(last.getTransactionDateTime(), last.getBankAccountTransactionId());
+        }
+        HttpHeaders respHeaderMap = PaginationUtil.populateCursorResponseHeader(size, hasNext, nextCursor, ccy);
+
+        List<com.yktsang.virtrade.response.BankAccountTransaction> bankAcctTxns = dbBankAcctTxns.stream()
+                //map to response format
+                .map(bat -> new com.yktsang.virtrade.response.BankAccountTransaction(bat.getEmail(),
+                        bat.getCurrency(), bat.getTransactionDateTime(), bat.getTransactionDescription()))
+                .toList();
+
+        if (bankAcctTxns.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).headers(respHeaderMap).build();
+        } else {
+            return ResponseEntity.status(HttpStatus.OK).headers(respHeaderMap)
+                    .body(new BankAccountTransactionResponse(bankAcctTxns));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> bankAccountStatement(RequestEntity<Void> req, String currency,
+                                                                      String format, boolean gzip) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        Optional<Format> formatOpt = Format.of(format);
+        if (formatOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(statementExportService.error("Validation failed"));
+        }
+
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
+
+        String ccy = Objects.requireNonNullElse(currency, "");
+        if (!ccy.isEmpty() && !activeCurrencies.contains(new IsoCurrency(ccy))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                    .body(statementExportService.error("Currency not found"));
+        }
+        //filter with active currencies
+        List<String> currencies = ccy.isEmpty()
+                ? activeCurrencies.stream().map(IsoCurrency::getCurrencyCode).toList()
+                : List.of(ccy);
+
+        HttpHeaders respHeaderMap = StatementExportService.populateResponseHeader(
+                ccy.isEmpty() ? "bank_account_statement" : "bank_account_statement_" + ccy.toUpperCase(), formatOpt.get(), gzip);
+        return ResponseEntity.status(HttpStatus.OK).headers(respHeaderMap)
+                .body(statementExportService.bankAccountStatement(tokenUser, currencies, formatOpt.get(), gzip));
+    }
+
     /**
      * Returns the <code>GenericHolder</code> containing <code>BankAccountTransaction</code>>.
      *
@@ -131,30 +232,21 @@ public class BankAccountTransactionServiceController implements BankAccountTrans
      */
     private GenericHolder getBankAccountTransactionResults(String email, String currency,
                                                            int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
-        List<com.yktsang.virtrade.entity.BankAccountTransaction> dbBankAcctTxns;
-        if (currency.isEmpty()) {
-            dbBankAcctTxns = bankAcctTxnRepo.findByEmail(email);
-        } else {
-            dbBankAcctTxns = bankAcctTxnRepo.findByEmailAndCurrency(email, currency);
-        }
-        List<com.yktsang.virtrade.response.BankAccountTransaction> respBankAcctTxns = dbBankAcctTxns.stream()
-                //filter with active currencies
-                .filter(c -> activeCurrencies.contains(new IsoCurrency(c.getCurrency())))
-                //map to response format
-                .map(bat -> new com.yktsang.virtrade.response.BankAccountTransaction(bat.getEmail(),
-                        bat.getCurrency(), bat.getTransactionDateTime(), bat.getTransactionDescription()))
-                .toList();
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        //filter with active currencies
+        List<String> currencies = currency.isEmpty()
+                ? activeCurrencies.stream().map(IsoCurrency::getCurrencyCode).toList()
+                : List.of(currency);
+        //select in response format
+        Page<com.yktsang.virtrade.response.BankAccountTransaction> respPage = currency.isEmpty()
+                ? bankAcctTxnRepo.findResponsesByEmailAndCurrencies(email, currencies, pageable)
+                : bankAcctTxnRepo.findResponsesByEmailAndCurrency(email, currency, pageable);
+        // continue into the archived transactions once the pages reach the end of the hot transactions
+        respPage = transactionArchiveService.page(TransactionArchiveService.BANK_ACCOUNT_TRANSACTIONS, respPage,
+                email, currencies);
 
-        Page<com.yktsang.virtrade.response.BankAccountTransaction> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.BankAccountTransaction>)
-                    PaginationUtil.convertListToPage(respBankAcctTxns, page, respBankAcctTxns.isEmpty() ? 1 : respBankAcctTxns.size());
-        } else {
-            respPage = (Page<com.yktsang.virtrade.response.BankAccountTransaction>)
-                    PaginationUtil.convertListToPage(respBankAcctTxns, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), currency);
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
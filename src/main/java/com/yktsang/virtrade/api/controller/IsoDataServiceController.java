@@ -9,6 +9,7 @@
 package com.yktsang.virtrade.api.controller;
 
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.IsoCurrency;
 import com.yktsang.virtrade.entity.IsoData;
 import com.yktsang.virtrade.entity.IsoDataRepository;
@@ -17,6 +18,7 @@ import com.yktsang.virtrade.request.CreateIsoRequest;
 import com.yktsang.virtrade.request.DeactivateIsoRequest;
 import com.yktsang.virtrade.request.UpdateIsoRequest;
 import com.yktsang.virtrade.response.*;
+import com.yktsang.virtrade.shard.ShardRouter;
 import com.yktsang.virtrade.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +33,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * The API controller for implementing <code>IsoDataService</code>.
@@ -61,15 +62,23 @@ public class IsoDataServiceController implements IsoDataService {
      */
     @Autowired
     private IsoDataRepository isoDataRepo;
+    /**
+     * The currency cache service.
+     */
+    @Autowired
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The shard router, the ISO data being on the home shard.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
 
     /**
      * {@inheritDoc}
      */
     @Override
     public ResponseEntity<?> activeCurrencies(RequestEntity<Void> req) {
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (activeCurrencies.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
@@ -111,7 +120,8 @@ public class IsoDataServiceController implements IsoDataService {
      * @return the GenericHolder
      */
     private GenericHolder getIsoDataResults(int page, int pageSize) {
-        List<IsoData> isoCodes = isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code"));
+        List<IsoData> isoCodes = shardRouter.callOnHome(() ->
+                isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code")));
         List<IsoCode> respIsoData = isoCodes.stream()
                 //map to response format
                 .map(i -> new IsoCode(i.getCountryAlpha2Code(), i.getCountryName(),
@@ -150,7 +160,7 @@ public class IsoDataServiceController implements IsoDataService {
                         .body(new ErrorResponse("Validation failed"));
             }
 
-            Optional<IsoData> isoDataOpt = isoDataRepo.findById(countryCode);
+            Optional<IsoData> isoDataOpt = shardRouter.callOnHome(() -> isoDataRepo.findById(countryCode));
             if (isoDataOpt.isPresent()) {
                 IsoData data = isoDataOpt.get();
                 IsoCode isoCode = new IsoCode(data.getCountryAlpha2Code(), data.getCountryName(),
@@ -206,8 +216,9 @@ public class IsoDataServiceController implements IsoDataService {
                 IsoData isoData = new IsoData(actualReq.countryCode(), actualReq.countryName(),
                         actualReq.currencyCode(), actualReq.currencyName(), actualReq.currencyMinorUnits(),
                         actualReq.activate(), tokenUser);
-                isoDataRepo.save(isoData);
+                shardRouter.callOnHome(() -> isoDataRepo.save(isoData));
                 logger.info("ISO data created");
+                currencyCacheService.invalidate();
 
                 return ResponseEntity.status(HttpStatus.CREATED)
                         .body(new SuccessResponse("ISO data created"));
@@ -262,7 +273,7 @@ public class IsoDataServiceController implements IsoDataService {
                 Integer currencyMinorUnits = actualReq.currencyMinorUnits();
                 boolean wantToDeactivate = actualReq.deactivate();
 
-                Optional<IsoData> dataOpt = isoDataRepo.findById(countryCode);
+                Optional<IsoData> dataOpt = shardRouter.callOnHome(() -> isoDataRepo.findById(countryCode));
                 if (dataOpt.isPresent()) {
                     IsoData isoData = dataOpt.get();
                     boolean currentlyActive = isoData.isActive();
@@ -282,8 +293,9 @@ public class IsoDataServiceController implements IsoDataService {
                     }
                     isoData.setLastUpdatedBy(tokenUser);
                     isoData.setLastUpdatedDateTime(LocalDateTime.now());
-                    isoDataRepo.save(isoData);
+                    shardRouter.callOnHome(() -> isoDataRepo.save(isoData));
                     logger.info("ISO data updated");
+                    currencyCacheService.invalidate();
 
                     return ResponseEntity.status(HttpStatus.OK)
                             .body(new SuccessResponse("ISO data updated"));
@@ -321,7 +333,8 @@ public class IsoDataServiceController implements IsoDataService {
 
                 List<String> codesToActivate = actualReq.countryCodesToActivate();
 
-                List<IsoData> isoCodes = isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code"));
+                List<IsoData> isoCodes = shardRouter.callOnHome(() ->
+                        isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code")));
 
                 if (!codesToActivate.isEmpty()) {
                     List<IsoData> isoDataToActivate = isoCodes.stream()
@@ -338,13 +351,14 @@ public class IsoDataServiceController implements IsoDataService {
                         iso.setDeactivationDateTime(null);
                         iso.setLastUpdatedBy(tokenUser);
                         iso.setLastUpdatedDateTime(LocalDateTime.now());
-                        isoDataRepo.save(iso);
+                        shardRouter.callOnHome(() -> isoDataRepo.save(iso));
                         logger.info("activated {}", iso.getCountryAlpha2Code());
                     }
 
                     if (isoDataToActivate.isEmpty()) {
                         return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
                     } else {
+                        currencyCacheService.invalidate();
                         return ResponseEntity.status(HttpStatus.OK)
                                 .body(new SuccessResponse("Successfully activated "
                                         + isoDataToActivate.size()));
@@ -382,7 +396,8 @@ public class IsoDataServiceController implements IsoDataService {
 
                 List<String> codesToDeactivate = actualReq.countryCodesToDeactivate();
 
-                List<IsoData> isoCodes = isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code"));
+                List<IsoData> isoCodes = shardRouter.callOnHome(() ->
+                        isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code")));
 
                 if (!codesToDeactivate.isEmpty()) {
                     List<IsoData> isoDataToDeactivate = isoCodes.stream()
@@ -399,13 +414,14 @@ public class IsoDataServiceController implements IsoDataService {
                         iso.setDeactivationDateTime(LocalDateTime.now());
                         iso.setLastUpdatedBy(tokenUser);
                         iso.setLastUpdatedDateTime(LocalDateTime.now());
-                        isoDataRepo.save(iso);
+                        shardRouter.callOnHome(() -> isoDataRepo.save(iso));
                         logger.info("deactivated {}", iso.getCountryAlpha2Code());
                     }
 
                     if (isoDataToDeactivate.isEmpty()) {
                         return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
                     } else {
+                        currencyCacheService.invalidate();
                         return ResponseEntity.status(HttpStatus.OK)
                                 .body(new SuccessResponse("Successfully deactivated "
                                         + isoDataToDeactivate.size()));
@@ -12,9 +12,11 @@ import com.yktsang.virtrade.request.CreatePortfolioRequest;
 import com.yktsang.virtrade.request.LinkTransactionRequest;
 import com.yktsang.virtrade.request.UnlinkTransactionRequest;
 import com.yktsang.virtrade.response.ErrorResponse;
+import com.yktsang.virtrade.response.PortfolioAnalyticsResponse;
 import com.yktsang.virtrade.response.PortfolioDetailResponse;
 import com.yktsang.virtrade.response.PortfolioResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.response.ValueHistoryResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -75,6 +77,7 @@ public interface PortfolioService {
             )
     })
     @GetMapping(value = "/api/v1/member/portfolios")
+    @Transactional(readOnly = true)
     ResponseEntity<?> portfolios(RequestEntity<Void> req,
                                  @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -110,6 +113,7 @@ public interface PortfolioService {
             )
     })
     @GetMapping(value = "/api/v1/member/portfolios/{ccy}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> portfolios(RequestEntity<Void> req, @PathVariable("ccy") String currency,
                                  @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -174,9 +178,85 @@ public interface PortfolioService {
             )
     })
     @GetMapping(value = "/api/v1/member/portfolios/details/{id}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> portfolioDetails(RequestEntity<Void> req, @PathVariable("id") BigInteger portfolioId,
                                        @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
+    /**
+     * Returns the daily values of the portfolio within the date range, downsampled for charts.
+     * Takes in the <code>Void</code> as input.
+     * Returns the <code>ValueHistoryResponse</code> upon success
+     * or the <code>ErrorResponse</code> upon failure.
+     *
+     * @param req         the request entity containing the Void
+     * @param portfolioId the portfolio ID
+     * @param fromDate    the first date in yyyy-MM-dd, one year before the last date if absent
+     * @param toDate      the last date in yyyy-MM-dd, today if absent
+     * @param points      the maximum number of values to return
+     * @return the response entity containing the ValueHistoryResponse upon success
+     * or ErrorResponse upon failure
+     */
+    @Operation(
+            summary = "Portfolio value history",
+            description = "Return the daily values of the portfolio")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the daily values of the portfolio",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ValueHistoryResponse.class))}
+            ),
+            @ApiResponse(responseCode = "204",
+                    description = "No data is returned"
+            ),
+            @ApiResponse(responseCode = "400,401,404,406",
+                    description = "Any failed responses",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class))}
+            )
+    })
+    @GetMapping(value = "/api/v1/member/portfolios/history/{id}")
+    @Transactional(readOnly = true)
+    ResponseEntity<?> portfolioHistory(RequestEntity<Void> req, @PathVariable("id") BigInteger portfolioId,
+                                       @RequestParam(value = "from", required = false) String fromDate,
+                                       @RequestParam(value = "to", required = false) String toDate,
+                                       @RequestParam(value = "points", defaultValue = "366") int points);
+
+    /**
+     * Returns the annualized volatility, beta against the benchmark index and one-day historical value at risk
+     * of the portfolio.
+     * Takes in the <code>Void</code> as input.
+     * Returns the <code>PortfolioAnalyticsResponse</code> upon success
+     * or the <code>ErrorResponse</code> upon failure.
+     *
+     * @param req         the request entity containing the Void
+     * @param portfolioId the portfolio ID
+     * @param benchmark   the trading symbol of the benchmark index, the configured default if absent
+     * @return the response entity containing the PortfolioAnalyticsResponse upon success
+     * or ErrorResponse upon failure
+     */
+    @Operation(
+            summary = "Portfolio analytics",
+            description = "Return the volatility, beta and value at risk of the portfolio")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the volatility, beta and value at risk of the portfolio",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PortfolioAnalyticsResponse.class))}
+            ),
+            @ApiResponse(responseCode = "204",
+                    description = "No data is returned"
+            ),
+            @ApiResponse(responseCode = "400,401,404,406",
+                    description = "Any failed responses",
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorResponse.class))}
+            )
+    })
+    @GetMapping(value = "/api/v1/member/portfolios/analytics/{id}")
+    @Transactional(readOnly = true)
+    ResponseEntity<?> portfolioAnalytics(RequestEntity<Void> req, @PathVariable("id") BigInteger portfolioId,
+                                         @RequestParam(value = "benchmark", required = false) String benchmark);
+
     /**
      * Links trading transactions to portfolio.
      * Takes in the <code>LinkTransactionRequest</code> as input.
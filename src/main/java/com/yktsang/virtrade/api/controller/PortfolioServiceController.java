@@ -8,27 +8,38 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.analytics.PortfolioAnalyticsService;
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.history.ValueHistoryService;
+import com.yktsang.virtrade.lot.LotTrackingService;
 import com.yktsang.virtrade.request.CreatePortfolioRequest;
 import com.yktsang.virtrade.request.LinkTransactionRequest;
 import com.yktsang.virtrade.request.UnlinkTransactionRequest;
 import com.yktsang.virtrade.response.ErrorResponse;
+import com.yktsang.virtrade.response.PortfolioAnalyticsResponse;
 import com.yktsang.virtrade.response.PortfolioDetailResponse;
+import com.yktsang.virtrade.response.PortfolioProfitLoss;
 import com.yktsang.virtrade.response.PortfolioResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.response.ValueHistoryResponse;
+import com.yktsang.virtrade.response.ValuePoint;
+import com.yktsang.virtrade.util.Money;
 import com.yktsang.virtrade.util.PaginationUtil;
+import com.yktsang.virtrade.valuation.PortfolioRevaluationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -55,10 +66,25 @@ public class PortfolioServiceController implements PortfolioService {
     @Autowired
     private JwtService jwtService;
     /**
-     * The trading service.
+     * The portfolio revaluation service.
      */
     @Autowired
-    private TradingService tradingService;
+    private PortfolioRevaluationService portfolioRevaluationService;
+    /**
+     * The lot tracking service.
+     */
+    @Autowired
+    private LotTrackingService lotTrackingService;
+    /**
+     * The value history service.
+     */
+    @Autowired
+    private ValueHistoryService valueHistoryService;
+    /**
+     * The portfolio analytics service.
+     */
+    @Autowired
+    private PortfolioAnalyticsService portfolioAnalyticsService;
     /**
      * The portfolio repository.
      */
@@ -70,10 +96,15 @@ public class PortfolioServiceController implements PortfolioService {
     @Autowired
     private TradingTransactionRepository tradingTxnRepo;
     /**
-     * The ISO data repository.
+     * The currency cache service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The benchmark index when none is requested.
+     */
+    @Value("${analytics.benchmark.default}")
+    private String defaultBenchmark; // from application.properties
 
     /**
      * {@inheritDoc}
@@ -82,9 +113,7 @@ public class PortfolioServiceController implements PortfolioService {
     public ResponseEntity<?> portfolios(RequestEntity<Void> req, int page, int pageSize) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         GenericHolder holder = this.getPortfolioResults(tokenUser, "", page, Math.max(pageSize, 1), activeCurrencies);
         List<com.yktsang.virtrade.response.Portfolio> portfolios =
@@ -112,9 +141,7 @@ public class PortfolioServiceController implements PortfolioService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -146,31 +173,19 @@ public class PortfolioServiceController implements PortfolioService {
      */
     private GenericHolder getPortfolioResults(String email, String currency,
                                               int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
-        List<com.yktsang.virtrade.entity.Portfolio> dbPortfolios;
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        //select in response format
+        Page<com.yktsang.virtrade.response.Portfolio> respPage;
         if (currency.isEmpty()) {
-            dbPortfolios = portfolioRepo.findByEmail(email);
+            //filter with active currencies
+            respPage = portfolioRepo.findResponsesByEmailAndCurrencies(email, activeCurrencies.stream()
+                    .map(IsoCurrency::getCurrencyCode).toList(), pageable);
         } else {
-            dbPortfolios = portfolioRepo.findByEmailAndCurrency(email, currency);
+            respPage = portfolioRepo.findResponsesByEmailAndCurrency(email, currency, pageable);
         }
-        List<com.yktsang.virtrade.response.Portfolio> respPortfolios = dbPortfolios.stream()
-                //filter with active currencies
-                .filter(c -> activeCurrencies.contains(new IsoCurrency(c.getCurrency())))
-                //map to response format
-                .map(p -> new com.yktsang.virtrade.response.Portfolio(p.getPortfolioId(), p.getEmail(),
-                        p.getPortfolioName(), p.getCurrency(),
-                        p.getInvestedAmount(), p.getCurrentAmount(), p.getProfitLoss()))
-                .toList();
 
-        Page<com.yktsang.virtrade.response.Portfolio> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.Portfolio>)
-                    PaginationUtil.convertListToPage(respPortfolios, page, respPortfolios.isEmpty() ? 1 : respPortfolios.size());
-        } else {
-            respPage = (Page<com.yktsang.virtrade.response.Portfolio>)
-                    PaginationUtil.convertListToPage(respPortfolios, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), currency);
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -198,9 +213,7 @@ public class PortfolioServiceController implements PortfolioService {
             String portfolioName = actualReq.name();
             String currency = actualReq.currency();
 
-            Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                    .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                    .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
             if (!activeCurrencies.contains(new IsoCurrency(currency))) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -241,9 +254,7 @@ public class PortfolioServiceController implements PortfolioService {
                         .body(new ErrorResponse("Portfolio ID not belong to caller"));
             }
 
-            Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                    .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                    .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
             GenericHolder holder = this.getTradingTransactionForPortfolioIdResults(tokenUser, dbPort,
                     page, Math.max(pageSize, 1), activeCurrencies);
@@ -256,8 +267,85 @@ public class PortfolioServiceController implements PortfolioService {
                             dbPort.getPortfolioName(), dbPort.getCurrency(),
                             dbPort.getInvestedAmount(), dbPort.getCurrentAmount(), dbPort.getProfitLoss());
 
+            PortfolioProfitLoss profitLoss = lotTrackingService.getProfitLoss(tokenUser,
+                    dbPort.getPortfolioId(), portfolioRevaluationService::getPrice);
+
             return ResponseEntity.status(HttpStatus.OK).headers(respHeaderMap)
-                    .body(new PortfolioDetailResponse(respPort, tradingTxns));
+                    .body(new PortfolioDetailResponse(respPort, tradingTxns, profitLoss));
+
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Portfolio not found"));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponseEntity<?> portfolioHistory(RequestEntity<Void> req, BigInteger portfolioId,
+                                              String fromDate, String toDate, int points) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        Optional<ValueHistoryService.DateRange> rangeOpt = ValueHistoryService.DateRange.parse(fromDate, toDate);
+        if (Objects.isNull(portfolioId) || rangeOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Validation failed"));
+        }
+
+        Optional<Portfolio> portOpt = portfolioRepo.findById(portfolioId);
+        if (portOpt.isPresent()) {
+            Portfolio dbPort = portOpt.get();
+
+            if (!dbPort.getEmail().equals(tokenUser)) {
+                return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                        .body(new ErrorResponse("Portfolio ID not belong to caller"));
+            }
+
+            List<ValuePoint> values = valueHistoryService.getHistory(
+                    ValueHistoryService.portfolioSeries(portfolioId), rangeOpt.get(), points);
+            if (values.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            } else {
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(new ValueHistoryResponse(dbPort.getCurrency(), values));
+            }
+
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Portfolio not found"));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponseEntity<?> portfolioAnalytics(RequestEntity<Void> req, BigInteger portfolioId, String benchmark) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        if (Objects.isNull(portfolioId)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Validation failed"));
+        }
+        String benchmarkSymbol = Objects.isNull(benchmark) || benchmark.isBlank() ? defaultBenchmark : benchmark;
+
+        Optional<Portfolio> portOpt = portfolioRepo.findById(portfolioId);
+        if (portOpt.isPresent()) {
+            Portfolio dbPort = portOpt.get();
+
+            if (!dbPort.getEmail().equals(tokenUser)) {
+                return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                        .body(new ErrorResponse("Portfolio ID not belong to caller"));
+            }
+
+            Optional<PortfolioAnalyticsResponse> analyticsOpt =
+                    portfolioAnalyticsService.analyze(tokenUser, portfolioId, benchmarkSymbol);
+            if (analyticsOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            } else {
+                return ResponseEntity.status(HttpStatus.OK).body(analyticsOpt.get());
+            }
 
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -277,12 +365,14 @@ public class PortfolioServiceController implements PortfolioService {
      */
     private GenericHolder getTradingTransactionForPortfolioIdResults(String email, Portfolio dbPortfolio,
                                                                      int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
-        List<com.yktsang.virtrade.entity.TradingTransaction> dbTradingTxns =
-                tradingTxnRepo.findByPortfolioId(email, dbPortfolio.getPortfolioId());
-        dbPortfolio.setTradingTransactions(dbTradingTxns);
-        List<com.yktsang.virtrade.response.TradingTransaction> respTradingTxns = dbTradingTxns.stream()
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        // the trading transactions linked share the currency of the portfolio
+        Page<com.yktsang.virtrade.entity.TradingTransaction> dbTradingTxns =
                 //filter with active currencies
-                .filter(c -> activeCurrencies.contains(new IsoCurrency(c.getTransactionCurrency())))
+                activeCurrencies.contains(new IsoCurrency(dbPortfolio.getCurrency()))
+                        ? tradingTxnRepo.findByPortfolioId(email, dbPortfolio.getPortfolioId(), pageable)
+                        : Page.empty(pageable);
+        Page<com.yktsang.virtrade.response.TradingTransaction> respPage = dbTradingTxns
                 //map to response format
                 .map(tt -> new com.yktsang.virtrade.response.TradingTransaction(tt.getTradingTransactionId(),
                         tt.getEmail(), tt.getTradingSymbol(),
@@ -290,19 +380,10 @@ public class PortfolioServiceController implements PortfolioService {
                         tt.getTradingSymbolName(),
                         tt.getTransactionDate(), tt.getTradingDeed(), tt.getQuantity(),
                         tt.getTransactionCurrency(), tt.getTransactionPrice(), tt.getTransactionCost(),
-                        tt.getPortfolioId()))
-                .toList();
+                        tt.getPortfolioId()));
 
-        Page<com.yktsang.virtrade.response.TradingTransaction> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.TradingTransaction>)
-                    PaginationUtil.convertListToPage(respTradingTxns, page, respTradingTxns.isEmpty() ? 1 : respTradingTxns.size());
-        } else {
-            respPage = (Page<com.yktsang.virtrade.response.TradingTransaction>)
-                    PaginationUtil.convertListToPage(respTradingTxns, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), "");
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -342,13 +423,15 @@ public class PortfolioServiceController implements PortfolioService {
                 return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
             }
 
+            // read the caller's trading transactions to link in one query
+            List<TradingTransaction> txnsWantToLink =
+                    tradingTxnRepo.findByIds(tokenUser, new HashSet<>(ttidWantToLink));
+
             // ensure all transaction currencies are the same
             String txnCurrency;
-            List<String> a = new ArrayList<>();
-            for (BigInteger id : ttidWantToLink) {
-                tradingTxnRepo.findById(id).ifPresent(t -> a.add(t.getTransactionCurrency()));
-            }
-            Set<String> ccySet = new HashSet<>(a);
+            Set<String> ccySet = txnsWantToLink.stream()
+                    .map(TradingTransaction::getTransactionCurrency)
+                    .collect(Collectors.toSet());
 
             if (ccySet.size() != 1) {
                 return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
@@ -359,9 +442,7 @@ public class PortfolioServiceController implements PortfolioService {
 
             boolean createNewPortfolio = actualReq.newPortfolio();
 
-            Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                    .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                    .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
             if (createNewPortfolio && !activeCurrencies.contains(new IsoCurrency(actualReq.portfolioRequest().currency()))) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -400,30 +481,33 @@ public class PortfolioServiceController implements PortfolioService {
                     }
                 }
 
-                List<TradingTransaction> txnsUnderPortfolioId =
-                        tradingTxnRepo.findByPortfolioId(tokenUser, portfolio.getPortfolioId());
-                List<BigInteger> ttidUnderPortfolioId = txnsUnderPortfolioId.stream()
-                        .map(TradingTransaction::getTradingTransactionId)
-                        .toList();
-                long count = 0L;
-                // check if ttidWantToLink indeed not belong to existing portfolio
-                if (!new HashSet<>(ttidUnderPortfolioId).containsAll(ttidWantToLink)) {
-                    for (BigInteger ttid : ttidWantToLink) {
-                        Optional<TradingTransaction> ttOpt = tradingTxnRepo.findById(ttid);
-                        if (ttOpt.isPresent()) {
-                            TradingTransaction tt = ttOpt.get();
-                            tt.setPortfolioId(portfolio.getPortfolioId());
-                            tt.setLastUpdatedDateTime(LocalDateTime.now());
-                            tradingTxnRepo.save(tt);
-                            count++;
-                            logger.info("trading transaction linked to portfolio");
+                List<TradingTransaction> linked = new ArrayList<>();
+                Map<BigInteger, List<TradingTransaction>> movedFrom = new HashMap<>();
+                for (TradingTransaction tt : txnsWantToLink) {
+                    // skip trading transactions already under the portfolio
+                    if (!portfolio.getPortfolioId().equals(tt.getPortfolioId())) {
+                        if (Objects.nonNull(tt.getPortfolioId())) {
+                            movedFrom.computeIfAbsent(tt.getPortfolioId(), k -> new ArrayList<>()).add(tt);
                         }
+                        linked.add(tt);
                     }
                 }
+                long count = 0L;
+                if (!linked.isEmpty()) {
+                    // link in one statement
+                    count = tradingTxnRepo.updatePortfolioId(tokenUser,
+                            linked.stream().map(TradingTransaction::getTradingTransactionId).toList(),
+                            portfolio.getPortfolioId(), LocalDateTime.now());
+                    linked.forEach(tt -> tt.setPortfolioId(portfolio.getPortfolioId()));
+                    logger.info("{} trading transactions linked to portfolio", count);
+                }
 
                 if (count == 0L) {
                     return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
                 } else {
+                    movedFrom.forEach((id, txns) -> lotTrackingService.onUnlinked(tokenUser, id, txns));
+                    lotTrackingService.onLinked(tokenUser, portfolio.getPortfolioId(), linked);
+                    movedFrom.keySet().forEach(id -> this.recalculatePortfolioBalance(tokenUser, id));
                     this.recalculatePortfolioBalance(tokenUser, portfolio.getPortfolioId());
                     return ResponseEntity.status(HttpStatus.OK)
                             .body(new SuccessResponse("Link successful "
@@ -472,27 +556,25 @@ public class PortfolioServiceController implements PortfolioService {
                 List<BigInteger> ttidWantToUnlink = actualReq.tradingTransactionIdsToUnlink();
 
                 if (!ttidWantToUnlink.isEmpty()) {
-                    List<TradingTransaction> txnsUnderPortfolioId =
-                            tradingTxnRepo.findByPortfolioId(tokenUser, portfolio.getPortfolioId());
-                    List<BigInteger> ttidToUnlink = txnsUnderPortfolioId.stream()
+                    // read the caller's trading transactions under the portfolio in one query
+                    List<TradingTransaction> unlinked =
+                            tradingTxnRepo.findByIds(tokenUser, new HashSet<>(ttidWantToUnlink)).stream()
+                            .filter(tt -> portfolio.getPortfolioId().equals(tt.getPortfolioId()))
+                            .toList();
+                    List<BigInteger> ttidToUnlink = unlinked.stream()
                             .map(TradingTransaction::getTradingTransactionId)
-                            // check ttidWantToUnlink indeed belong to existing portfolio
-                            .filter(ttidWantToUnlink::contains)
                             .toList();
-                    for (BigInteger ttid : ttidToUnlink) {
-                        Optional<TradingTransaction> ttOpt = tradingTxnRepo.findById(ttid);
-                        if (ttOpt.isPresent()) {
-                            TradingTransaction tt = ttOpt.get();
-                            tt.setPortfolioId(null);
-                            tt.setLastUpdatedDateTime(LocalDateTime.now());
-                            tradingTxnRepo.save(tt);
-                            logger.info("trading transaction unlinked from portfolio");
-                        }
+                    if (!ttidToUnlink.isEmpty()) {
+                        // unlink in one statement
+                        tradingTxnRepo.updatePortfolioId(tokenUser, ttidToUnlink, null, LocalDateTime.now());
+                        unlinked.forEach(tt -> tt.setPortfolioId(null));
+                        logger.info("{} trading transactions unlinked from portfolio", ttidToUnlink.size());
                     }
 
                     if (ttidToUnlink.isEmpty()) {
                         return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
                     } else {
+                        lotTrackingService.onUnlinked(tokenUser, portfolio.getPortfolioId(), unlinked);
                         this.recalculatePortfolioBalance(tokenUser, portfolio.getPortfolioId());
                         return ResponseEntity.status(HttpStatus.OK)
                                 .body(new SuccessResponse("Unlink successful "
@@ -515,7 +597,8 @@ public class PortfolioServiceController implements PortfolioService {
     }
 
     /**
-     * Recalculates the portfolio balance.
+     * Recalculates the portfolio balance from the open lots of the portfolio at the last prices,
+     * the open lots of a trading symbol without a price taken at cost.
      *
      * @param email       the email address
      * @param portfolioId the portfolio ID
@@ -524,30 +607,20 @@ public class PortfolioServiceController implements PortfolioService {
         Optional<Portfolio> portfolioOpt = portfolioRepo.findById(portfolioId);
         if (portfolioOpt.isPresent()) {
             Portfolio portfolio = portfolioOpt.get();
-            List<TradingTransaction> txns = tradingTxnRepo.findByPortfolioId(email, portfolioId);
-            BigDecimal buyTransCost = txns.stream()
-                    .filter(t -> t.getTradingDeed().equals(TradingDeed.BUY))
-                    .map(TradingTransaction::getTransactionCost)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            BigDecimal sellTransCost = txns.stream()
-                    .filter(t -> t.getTradingDeed().equals(TradingDeed.SELL))
-                    .map(TradingTransaction::getTransactionCost)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal outstandingInvestedAmount = buyTransCost.subtract(sellTransCost);
-            Set<OutstandingTradingTransaction> osTxns =
-                    tradingService.getOutstandingTradingTransactions(email, txns);
-            BigDecimal currentAmount = osTxns.stream()
-                    .map(OutstandingTradingTransaction::getCurrentAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            BigDecimal pnlAmount = currentAmount.subtract(outstandingInvestedAmount);
-
-            portfolio.setInvestedAmount(outstandingInvestedAmount);
-            portfolio.setCurrentAmount(currentAmount);
-            portfolio.setProfitLoss(pnlAmount);
+            PortfolioProfitLoss profitLoss = lotTrackingService.getProfitLoss(email, portfolioId,
+                    portfolioRevaluationService::getPrice);
+            // invested amount is the cost basis of the open lots, excluding realized profit and loss
+            Money outstandingInvestedAmount = Money.of(profitLoss.costBasis());
+            Money pnlAmount = Money.of(profitLoss.unrealizedProfitLoss());
+            Money currentAmount = outstandingInvestedAmount.plus(pnlAmount);
+
+            portfolio.setInvestedAmount(outstandingInvestedAmount.toBigDecimal());
+            portfolio.setCurrentAmount(currentAmount.toBigDecimal());
+            portfolio.setProfitLoss(pnlAmount.toBigDecimal());
             portfolio.setLastUpdatedDateTime(LocalDateTime.now());
             portfolioRepo.save(portfolio);
             logger.info("portfolio balance updated");
+            portfolioRevaluationService.refresh(email);
         }
     }
 
@@ -14,6 +14,8 @@ import com.yktsang.virtrade.request.DeactivateAccountRequest;
 import com.yktsang.virtrade.request.ProfileRequest;
 import com.yktsang.virtrade.request.RegistrationRequest;
 import com.yktsang.virtrade.response.*;
+import com.yktsang.virtrade.risk.PreTradeRiskService;
+import com.yktsang.virtrade.shard.ShardRouter;
 import com.yktsang.virtrade.util.SecurityUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +50,11 @@ public class ProfileServiceController implements ProfileService {
      */
     @Autowired
     private JwtService jwtService;
+    /**
+     * The pre-trade risk service.
+     */
+    @Autowired
+    private PreTradeRiskService preTradeRiskService;
     /**
      * The trader repository.
      */
@@ -58,6 +65,11 @@ public class ProfileServiceController implements ProfileService {
      */
     @Autowired
     private AccountRepository accountRepo;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
 
     /**
      * Returns the string array containing the risk tolerance levels.
@@ -145,16 +157,15 @@ public class ProfileServiceController implements ProfileService {
             boolean autoTransferToBank = actualReq.isAutoTransferToBank();
             boolean allowReset = actualReq.isAllowReset();
 
-            //insert trader
+            //insert trader and account in one transaction on the member's shard
             Trader trader = new Trader(email, fullName, dateOfBirth, hideDateOfBirth,
                     riskTolerance, autoTransferToBank, allowReset);
-            traderRepo.save(trader);
-            logger.info("trader created");
-
-            //insert account
             Account account = new Account(email, rawPassword);
-            accountRepo.save(account);
-            logger.info("account created");
+            shardRouter.callOnMember(email, () -> {
+                traderRepo.save(trader);
+                return accountRepo.save(account);
+            });
+            logger.info("trader and account created");
 
             String token = jwtService.generateToken(email);
             logger.info("JWT generated after registration");
@@ -278,6 +289,7 @@ public class ProfileServiceController implements ProfileService {
                 trader.setLastUpdatedDateTime(LocalDateTime.now());
                 traderRepo.save(trader);
                 logger.info("trader updated");
+                preTradeRiskService.invalidate(tokenUser);
 
                 TraderProfile traderPrf = new TraderProfile(trader.getEmail(), trader.getFullName(),
                         trader.getDateOfBirth(), trader.isHideDateOfBirth(), trader.getRiskTolerance(),
@@ -9,20 +9,28 @@
 package com.yktsang.virtrade.api.controller;
 
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.archive.TransactionArchiveService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.history.ValueHistoryService;
+import com.yktsang.virtrade.lot.LotTrackingService;
 import com.yktsang.virtrade.request.ResetPortfolioRequest;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.risk.PreTradeRiskService;
+import com.yktsang.virtrade.valuation.PortfolioRevaluationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
 
 /**
  * The API controller for implementing <code>ResetService</code>.
@@ -42,6 +50,26 @@ public class ResetServiceController implements ResetService {
      */
     @Autowired
     private JwtService jwtService;
+    /**
+     * The pre-trade risk service.
+     */
+    @Autowired
+    private PreTradeRiskService preTradeRiskService;
+    /**
+     * The portfolio revaluation service.
+     */
+    @Autowired
+    private PortfolioRevaluationService portfolioRevaluationService;
+    /**
+     * The lot tracking service.
+     */
+    @Autowired
+    private LotTrackingService lotTrackingService;
+    /**
+     * The value history service.
+     */
+    @Autowired
+    private ValueHistoryService valueHistoryService;
     /**
      * The watch list repository.
      */
@@ -62,6 +90,16 @@ public class ResetServiceController implements ResetService {
      */
     @Autowired
     private AccountBalanceRepository acctBalRepo;
+    /**
+     * The balance event repository.
+     */
+    @Autowired
+    private BalanceEventRepository balanceEventRepo;
+    /**
+     * The transaction outbox repository.
+     */
+    @Autowired
+    private TransactionOutboxRepository outboxRepo;
     /**
      * The account transaction repository.
      */
@@ -78,10 +116,20 @@ public class ResetServiceController implements ResetService {
     @Autowired
     private BankAccountTransactionRepository bankAcctTxnRepo;
     /**
-     * The ISO data repository.
+     * The currency cache service.
+     */
+    @Autowired
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The transaction archive service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private TransactionArchiveService transactionArchiveService;
+    /**
+     * The maximum number of transactions deleted per statement.
+     */
+    @Value("${reset.delete.chunk.size}")
+    private int chunkSize; // from application.properties
 
     /**
      * {@inheritDoc}
@@ -110,37 +158,41 @@ public class ResetServiceController implements ResetService {
             if (resetAllCurrencies) {
                 logger.info("resetting portfolio for {}", tokenUser);
                 // delete from watch list
-                List<WatchList> watchListToDelete = watchListRepo.findByEmail(tokenUser);
-                watchListRepo.deleteAll(watchListToDelete);
-                logger.info("deleted watch list");
-                // delete from trading transaction
-                List<TradingTransaction> tradingTxnToDelete = tradingTxnRepo.findByEmail(tokenUser);
-                tradingTxnRepo.deleteAll(tradingTxnToDelete);
-                logger.info("deleted trading transactions");
+                int watchLists = watchListRepo.bulkDeleteByEmail(tokenUser);
+                logger.info("deleted watch list={}", watchLists);
+                // delete from trading transaction before portfolio (foreign key)
+                long tradingTxns = this.deleteInChunks(size -> tradingTxnRepo.bulkDeleteByEmail(tokenUser, size));
+                logger.info("deleted trading transactions={}", tradingTxns);
+                preTradeRiskService.invalidate(tokenUser);
                 // delete from portfolio
-                List<Portfolio> portToDelete = portRepo.findByEmail(tokenUser);
-                portRepo.deleteAll(portToDelete);
-                logger.info("deleted portfolios");
+                int portfolios = portRepo.bulkDeleteByEmail(tokenUser);
+                logger.info("deleted portfolios={}", portfolios);
+                portfolioRevaluationService.refresh(tokenUser);
+                lotTrackingService.invalidate(tokenUser);
+                valueHistoryService.deleteHistory(tokenUser);
+                logger.info("deleted value history");
                 // delete from bank account transaction
-                List<BankAccountTransaction> bankTxnToDelete = bankAcctTxnRepo.findByEmail(tokenUser);
-                bankAcctTxnRepo.deleteAll(bankTxnToDelete);
-                logger.info("deleted bank transactions");
+                long bankTxns = this.deleteInChunks(size -> bankAcctTxnRepo.bulkDeleteByEmail(tokenUser, size));
+                logger.info("deleted bank transactions={}", bankTxns);
                 // delete from bank account
-                List<BankAccount> bankToDelete = bankAcctRepo.findByEmail(tokenUser);
-                bankAcctRepo.deleteAll(bankToDelete);
-                logger.info("deleted bank accounts");
+                int banks = bankAcctRepo.bulkDeleteByEmail(tokenUser);
+                logger.info("deleted bank accounts={}", banks);
+                // delete from transaction outbox before account transaction, not to be drained afterward
+                int outboxes = outboxRepo.bulkDeleteByEmail(tokenUser);
+                logger.info("deleted transaction outbox={}", outboxes);
                 // delete from account transaction
-                List<AccountTransaction> acctTxnToDelete = acctTxnRepo.findByEmail(tokenUser);
-                acctTxnRepo.deleteAll(acctTxnToDelete);
-                logger.info("deleted account transactions");
+                long acctTxns = this.deleteInChunks(size -> acctTxnRepo.bulkDeleteByEmail(tokenUser, size));
+                logger.info("deleted account transactions={}", acctTxns);
+                transactionArchiveService.deleteArchive(tokenUser);
+                logger.info("deleted archived transactions");
+                // delete from balance event
+                int balanceEvents = balanceEventRepo.bulkDeleteByEmail(tokenUser);
+                logger.info("deleted balance events={}", balanceEvents);
                 // delete from account balance
-                List<AccountBalance> acctBalToDelete = acctBalRepo.findByEmail(tokenUser);
-                acctBalRepo.deleteAll(acctBalToDelete);
-                logger.info("deleted account balances");
+                int acctBals = acctBalRepo.bulkDeleteByEmail(tokenUser);
+                logger.info("deleted account balances={}", acctBals);
             } else {
-                Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                        .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                        .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+                Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
                 if (!activeCurrencies.contains(new IsoCurrency(actualReq.currencyToReset()))) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -149,36 +201,42 @@ public class ResetServiceController implements ResetService {
 
                 logger.info("resetting {} portfolio for {}", currencyToReset, tokenUser);
                 // delete from watch list
-                List<WatchList> watchListToDelete = watchListRepo.findByEmailAndCurrency(tokenUser, currencyToReset);
-                watchListRepo.deleteAll(watchListToDelete);
-                logger.info("deleted watch list");
-                // delete from trading transaction
-                List<TradingTransaction> tradingTxnToDelete = tradingTxnRepo.findByEmailAndCurrency(tokenUser, currencyToReset);
-                tradingTxnRepo.deleteAll(tradingTxnToDelete);
-                logger.info("deleted trading transactions");
+                int watchLists = watchListRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset);
+                logger.info("deleted watch list={}", watchLists);
+                // delete from trading transaction before portfolio (foreign key)
+                long tradingTxns = this.deleteInChunks(size ->
+                        tradingTxnRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset, size));
+                logger.info("deleted trading transactions={}", tradingTxns);
+                preTradeRiskService.invalidate(tokenUser);
                 // delete from portfolio
-                List<Portfolio> portToDelete = portRepo.findByEmailAndCurrency(tokenUser, currencyToReset);
-                portRepo.deleteAll(portToDelete);
-                logger.info("deleted portfolios");
+                int portfolios = portRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset);
+                logger.info("deleted portfolios={}", portfolios);
+                portfolioRevaluationService.refresh(tokenUser);
+                lotTrackingService.invalidate(tokenUser);
+                valueHistoryService.deleteHistory(tokenUser, currencyToReset);
+                logger.info("deleted value history");
                 // delete from bank account transaction
-                List<BankAccountTransaction> bankTxnToDelete = bankAcctTxnRepo.findByEmailAndCurrency(tokenUser, currencyToReset);
-                bankAcctTxnRepo.deleteAll(bankTxnToDelete);
-                logger.info("deleted bank transactions");
+                long bankTxns = this.deleteInChunks(size ->
+                        bankAcctTxnRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset, size));
+                logger.info("deleted bank transactions={}", bankTxns);
                 // delete from bank account
-                List<BankAccount> bankToDelete = bankAcctRepo.findByEmailAndCurrency(tokenUser, currencyToReset);
-                bankAcctRepo.deleteAll(bankToDelete);
-                logger.info("deleted bank accounts");
+                int banks = bankAcctRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset);
+                logger.info("deleted bank accounts={}", banks);
+                // delete from transaction outbox before account transaction, not to be drained afterward
+                int outboxes = outboxRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset);
+                logger.info("deleted transaction outbox={}", outboxes);
                 // delete from account transaction
-                List<AccountTransaction> acctTxnToDelete = acctTxnRepo.findByEmailAndCurrency(tokenUser, currencyToReset);
-                acctTxnRepo.deleteAll(acctTxnToDelete);
-                logger.info("deleted account transactions");
+                long acctTxns = this.deleteInChunks(size ->
+                        acctTxnRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset, size));
+                logger.info("deleted account transactions={}", acctTxns);
+                transactionArchiveService.deleteArchive(tokenUser, currencyToReset);
+                logger.info("deleted archived transactions");
+                // delete from balance event
+                int balanceEvents = balanceEventRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset);
+                logger.info("deleted balance events={}", balanceEvents);
                 // delete from account balance
-                Optional<AccountBalance> acctBalOpt = acctBalRepo.findById(new AccountBalancePK(tokenUser, currencyToReset));
-                if (acctBalOpt.isPresent()) {
-                    AccountBalance acctBal = acctBalOpt.get();
-                    acctBalRepo.delete(acctBal);
-                    logger.info("deleted account balance");
-                }
+                int acctBals = acctBalRepo.bulkDeleteByEmailAndCurrency(tokenUser, currencyToReset);
+                logger.info("deleted account balance={}", acctBals);
             }
 
             return ResponseEntity.status(HttpStatus.OK)
@@ -190,4 +248,22 @@ public class ResetServiceController implements ResetService {
         }
     }
 
+    /**
+     * Deletes in chunks until none remain, so that no single statement deletes all records of a very large account.
+     * All chunks are deleted in the transaction of the reset.
+     *
+     * @param deleteChunk deletes up to the given chunk size and returns the number deleted
+     * @return the total number deleted
+     */
+    private long deleteInChunks(IntUnaryOperator deleteChunk) {
+        int size = Math.max(chunkSize, 1);
+        long total = 0L;
+        int deleted;
+        do {
+            deleted = deleteChunk.applyAsInt(size);
+            total += deleted;
+        } while (deleted == size);
+        return total;
+    }
+
 }
@@ -8,6 +8,7 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
 import com.yktsang.virtrade.entity.OutstandingTradingTransaction;
 import com.yktsang.virtrade.entity.TradingDeed;
 import com.yktsang.virtrade.entity.TradingTransaction;
@@ -17,6 +18,8 @@ import com.yktsang.virtrade.request.SellRequest;
 import com.yktsang.virtrade.response.*;
 import com.yktsang.virtrade.yahoofinance.YahooStock;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -82,14 +85,17 @@ public interface TradingService {
     boolean holdExisting(String email, String symbol);
 
     /**
-     * Returns the estimated cost.
+     * Returns the estimated cost, with the fees of the trading symbol's stock exchange and currency.
      *
      * @param tradingDeed      the trading deed
+     * @param symbol           the trading symbol
+     * @param currency         the currency
      * @param transactionPrice the transaction price
      * @param quantity         the quantity
      * @return the estimated cost
      */
-    BigDecimal calculateEstimatedCost(TradingDeed tradingDeed, BigDecimal transactionPrice, Integer quantity);
+    BigDecimal calculateEstimatedCost(TradingDeed tradingDeed, String symbol, String currency,
+                                      BigDecimal transactionPrice, Integer quantity);
 
     /**
      * Returns the world indices.
@@ -277,14 +283,16 @@ public interface TradingService {
      */
     @Operation(
             summary = "Buy equity stock",
-            description = "Buy equity stock")
+            description = "Buy equity stock",
+            parameters = {@Parameter(in = ParameterIn.HEADER, name = IdempotencyService.IDEMPOTENCY_KEY_HEADER,
+                    description = "Optional key to replay the outcome of a retried request")})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Successful operation",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = SuccessResponse.class))}
             ),
-            @ApiResponse(responseCode = "400,401,404,406",
+            @ApiResponse(responseCode = "400,401,404,406,409,422",
                     description = "Any failed responses",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = ErrorResponse.class))}
@@ -308,14 +316,16 @@ public interface TradingService {
      */
     @Operation(
             summary = "Sell equity stock",
-            description = "Sell equity stock")
+            description = "Sell equity stock",
+            parameters = {@Parameter(in = ParameterIn.HEADER, name = IdempotencyService.IDEMPOTENCY_KEY_HEADER,
+                    description = "Optional key to replay the outcome of a retried request")})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Successful operation",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = SuccessResponse.class))}
             ),
-            @ApiResponse(responseCode = "400,401,404,406",
+            @ApiResponse(responseCode = "400,401,404,406,409,422",
                     description = "Any failed responses",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = ErrorResponse.class))}
@@ -358,6 +368,7 @@ public interface TradingService {
             )
     })
     @GetMapping(value = "/api/v1/member/trading/transactions/outstanding")
+    @Transactional(readOnly = true)
     ResponseEntity<?> outstandingTransactions(RequestEntity<Void> req,
                                               @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -393,6 +404,7 @@ public interface TradingService {
             )
     })
     @GetMapping(value = "/api/v1/member/trading/transactions/outstanding/{ccy}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> outstandingTransactions(RequestEntity<Void> req, @PathVariable("ccy") String currency,
                                               @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
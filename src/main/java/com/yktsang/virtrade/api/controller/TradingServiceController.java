@@ -8,26 +8,31 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.AccountBalance;
-import com.yktsang.virtrade.entity.AccountTransaction;
 import com.yktsang.virtrade.entity.BankAccount;
-import com.yktsang.virtrade.entity.BankAccountTransaction;
 import com.yktsang.virtrade.entity.TradingTransaction;
 import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.fee.FeeScheduleService;
+import com.yktsang.virtrade.ledger.BalanceLedgerService;
+import com.yktsang.virtrade.outbox.TransactionOutboxService;
 import com.yktsang.virtrade.request.BuyRequest;
 import com.yktsang.virtrade.request.SearchRequest;
 import com.yktsang.virtrade.request.SellRequest;
 import com.yktsang.virtrade.response.*;
+import com.yktsang.virtrade.risk.PreTradeRiskService;
 import com.yktsang.virtrade.util.PaginationUtil;
 import com.yktsang.virtrade.util.TradingUtil;
+import com.yktsang.virtrade.valuation.PortfolioRevaluationService;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
 import com.yktsang.virtrade.yahoofinance.YahooFinanceSampler;
 import com.yktsang.virtrade.yahoofinance.YahooStock;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -39,9 +44,7 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.DecimalFormat;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -63,41 +66,56 @@ public class TradingServiceController implements TradingService {
      */
     @Autowired
     private JwtService jwtService;
+    /**
+     * The idempotency service.
+     */
+    @Autowired
+    private IdempotencyService idempotencyService;
+    /**
+     * The fee schedule service.
+     */
+    @Autowired
+    private FeeScheduleService feeScheduleService;
+    /**
+     * The pre-trade risk service.
+     */
+    @Autowired
+    private PreTradeRiskService preTradeRiskService;
+    /**
+     * The portfolio revaluation service.
+     */
+    @Autowired
+    private PortfolioRevaluationService portfolioRevaluationService;
     /**
      * The trading transaction repository.
      */
     @Autowired
     private TradingTransactionRepository tradingTxnRepo;
     /**
-     * The account balance repository.
+     * The balance ledger service.
      */
     @Autowired
-    private AccountBalanceRepository acctBalRepo;
+    private BalanceLedgerService balanceLedgerService;
     /**
-     * The account transaction repository.
+     * The transaction outbox service.
      */
     @Autowired
-    private AccountTransactionRepository acctTxnRepo;
+    private TransactionOutboxService transactionOutboxService;
     /**
      * The bank account repository.
      */
     @Autowired
     private BankAccountRepository bankAcctRepo;
     /**
-     * The bank account transaction repository.
+     * The currency cache service.
      */
     @Autowired
-    private BankAccountTransactionRepository bankAcctTxnRepo;
+    private CurrencyCacheService currencyCacheService;
     /**
-     * The ISO data repository.
+     * The stock provider.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
-    /**
-     * The URL for stocks.
-     */
-    @Value("${yahoo.stock.json}")
-    private String stockJson; // from application.properties
+    private StockProvider stockProvider;
 
     /**
      * {@inheritDoc}
@@ -146,7 +164,7 @@ public class TradingServiceController implements TradingService {
         for (OutstandingTradingTransaction o : filteredTxns) {
             BigDecimal currPrice = myMap.get(o.getTradingSymbol()).getQuote().getPrice();
             o.setCurrentPrice(currPrice);
-            o.setCurrentAmount(currPrice.multiply(new BigDecimal(o.getOutstandingQuantity())));
+            o.setCurrentAmount(TradingUtil.calculateTransactionCost(currPrice, o.getOutstandingQuantity()));
         }
         return filteredTxns;
     }
@@ -155,9 +173,16 @@ public class TradingServiceController implements TradingService {
      * {@inheritDoc}
      */
     @Override
-    public BigDecimal calculateEstimatedCost(TradingDeed tradingDeed, BigDecimal transactionPrice, Integer quantity) {
-        BigDecimal transCost = transactionPrice.multiply(new BigDecimal(quantity));
-        BigDecimal fees = TradingUtil.calculateFees(transCost);
+    public BigDecimal calculateEstimatedCost(TradingDeed tradingDeed, String symbol, String currency,
+                                             BigDecimal transactionPrice, Integer quantity) {
+        // same stock as buy and sell, so that the fees estimated are the fees charged
+        String stockExchange = this.getStocks().stream()
+                .filter(s -> StringUtils.containsIgnoreCase(s.getSymbol(), symbol))
+                .findFirst()
+                .map(YahooStock::getStockExchange)
+                .orElse(null);
+        BigDecimal transCost = TradingUtil.calculateTransactionCost(transactionPrice, quantity);
+        BigDecimal fees = feeScheduleService.getFeeSchedule(stockExchange, currency).calculateFees(transCost);
         // if buy then add fees; if sell then subtract fees
         return tradingDeed.equals(TradingDeed.BUY) ? transCost.add(fees) : transCost.subtract(fees);
     }
@@ -167,11 +192,9 @@ public class TradingServiceController implements TradingService {
      */
     @Override
     public List<YahooStock> getStocks() {
-        YahooFinanceSampler sampler = new YahooFinanceSampler();
-
         List<YahooStock> stocks = new ArrayList<>();
         try {
-            stocks = sampler.readOnline(stockJson);
+            stocks = new ArrayList<>(stockProvider.getStocks());
         } catch (IOException ioe) {
             logger.error(ioe.getMessage());
         }
@@ -208,9 +231,7 @@ public class TradingServiceController implements TradingService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -257,9 +278,7 @@ public class TradingServiceController implements TradingService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -411,6 +430,17 @@ public class TradingServiceController implements TradingService {
     @Override
     public ResponseEntity<?> buy(RequestEntity<BuyRequest> req) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+        return idempotencyService.execute(tokenUser, req, "buy", () -> this.executeBuy(tokenUser, req));
+    }
+
+    /**
+     * Buys the stock for the user, given the buy request.
+     *
+     * @param tokenUser the email address from the JWT
+     * @param req       the buy request
+     * @return the response entity
+     */
+    private ResponseEntity<?> executeBuy(String tokenUser, RequestEntity<BuyRequest> req) {
 
         if (req.hasBody() && Objects.nonNull(req.getBody())) {
             BuyRequest actualReq = req.getBody();
@@ -444,7 +474,7 @@ public class TradingServiceController implements TradingService {
             }
 
             Optional<AccountBalance> acctBalOpt =
-                    acctBalRepo.findById(new AccountBalancePK(tokenUser, stockToBuy.getCurrency()));
+                    balanceLedgerService.lockBalance(tokenUser, stockToBuy.getCurrency());
 
             if (acctBalOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -455,8 +485,9 @@ public class TradingServiceController implements TradingService {
             Integer quantity = actualReq.quantityToBuy();
             BigDecimal transPrice = stockToBuy.getQuote().getPrice();
 
-            BigDecimal transCost = transPrice.multiply(new BigDecimal(quantity));
-            BigDecimal fees = TradingUtil.calculateFees(transCost);
+            BigDecimal transCost = TradingUtil.calculateTransactionCost(transPrice, quantity);
+            BigDecimal fees = feeScheduleService.getFeeSchedule(stockToBuy.getStockExchange(), stockToBuy.getCurrency())
+                    .calculateFees(transCost);
             BigDecimal totalCost = transCost.add(fees);
 
             BigDecimal newNonTradingAmt = balance.getNonTradingAmount().subtract(totalCost);
@@ -465,27 +496,26 @@ public class TradingServiceController implements TradingService {
                         .body(new ErrorResponse("Insufficient funds for currency " + stockToBuy.getCurrency()));
             }
 
-            balance.setNonTradingAmount(newNonTradingAmt);
-            BigDecimal newTradingAmt = balance.getTradingAmount().add(totalCost);
-            balance.setTradingAmount(newTradingAmt);
-            balance.setLastUpdatedDateTime(LocalDateTime.now());
-            acctBalRepo.save(balance);
-            logger.info("account balance updated");
-
-            String transactionDesc = quantity + " shares of "
-                    + stockToBuy.getSymbol() + " at " + stockToBuy.getCurrency() + " " + transPrice
-                    + ", total cost " + stockToBuy.getCurrency() + " "
-                    + new DecimalFormat("#,###.0000").format(totalCost);
+            Optional<String> riskBreach = preTradeRiskService.checkBuy(balance, stockToBuy.getSymbol(),
+                    quantity, transPrice, transCost);
+            if (riskBreach.isPresent()) {
+                return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                        .body(new ErrorResponse(riskBreach.get()));
+            }
 
-            AccountTransaction txn = new AccountTransaction(tokenUser, stockToBuy.getCurrency(),
-                    "Bought " + transactionDesc);
-            acctTxnRepo.save(txn);
-            logger.info("account transaction created");
+            TransactionOutbox txn = transactionOutboxService.enqueue(new TransactionOutbox(tokenUser,
+                    stockToBuy.getCurrency(), OutboxType.BUY, stockToBuy.getSymbol(), quantity, transPrice, totalCost));
+            logger.info("account transaction queued");
+            String transactionDesc = TransactionOutboxService.describeTrade(txn);
+            balanceLedgerService.append(tokenUser, stockToBuy.getCurrency(), BalanceEventType.BUY,
+                    totalCost, totalCost.negate(), txn.getAccountTransactionId());
+            logger.info("account balance updated");
 
             TradingTransaction tradingTxn = new TradingTransaction(tokenUser,
                     stockToBuy.getSymbol(), stockToBuy.getName(), LocalDate.now(), TradingDeed.BUY,
                     quantity, stockToBuy.getCurrency(), transPrice, totalCost);
             tradingTxnRepo.save(tradingTxn);
+            portfolioRevaluationService.applyTrade(tradingTxn);
             logger.info("trading transaction created");
 
             return ResponseEntity.status(HttpStatus.OK)
@@ -503,6 +533,17 @@ public class TradingServiceController implements TradingService {
     @Override
     public ResponseEntity<?> sell(RequestEntity<SellRequest> req) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+        return idempotencyService.execute(tokenUser, req, "sell", () -> this.executeSell(tokenUser, req));
+    }
+
+    /**
+     * Sells the stock for the user, given the sell request.
+     *
+     * @param tokenUser the email address from the JWT
+     * @param req       the sell request
+     * @return the response entity
+     */
+    private ResponseEntity<?> executeSell(String tokenUser, RequestEntity<SellRequest> req) {
 
         if (req.hasBody() && Objects.nonNull(req.getBody())) {
             SellRequest actualReq = req.getBody();
@@ -545,7 +586,7 @@ public class TradingServiceController implements TradingService {
             }
 
             Optional<AccountBalance> acctBalOpt =
-                    acctBalRepo.findById(new AccountBalancePK(tokenUser, stockToSell.getCurrency()));
+                    balanceLedgerService.lockBalance(tokenUser, stockToSell.getCurrency());
 
             if (acctBalOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -566,55 +607,41 @@ public class TradingServiceController implements TradingService {
             Integer quantity = actualReq.quantityToSell();
             BigDecimal transPrice = stockToSell.getQuote().getPrice();
 
-            BigDecimal transCost = transPrice.multiply(new BigDecimal(quantity));
-            BigDecimal fees = TradingUtil.calculateFees(transCost);
+            BigDecimal transCost = TradingUtil.calculateTransactionCost(transPrice, quantity);
+            BigDecimal fees = feeScheduleService.getFeeSchedule(stockToSell.getStockExchange(), stockToSell.getCurrency())
+                    .calculateFees(transCost);
             BigDecimal totalCost = transCost.subtract(fees);
 
-            BigDecimal newTradingAmount = balance.getTradingAmount().subtract(totalCost);
-            balance.setTradingAmount(newTradingAmount);
-            BigDecimal newNonTradingAmt = balance.getNonTradingAmount().add(totalCost);
-            balance.setNonTradingAmount(newNonTradingAmt);
-            balance.setLastUpdatedDateTime(LocalDateTime.now());
-            acctBalRepo.save(balance);
+            TransactionOutbox txn = transactionOutboxService.enqueue(new TransactionOutbox(tokenUser,
+                    balance.getCurrency(), OutboxType.SELL, stockToSell.getSymbol(), quantity, transPrice, totalCost));
+            logger.info("account transaction queued");
+            String transactionDesc = TransactionOutboxService.describeTrade(txn);
+            balanceLedgerService.append(tokenUser, balance.getCurrency(), BalanceEventType.SELL,
+                    totalCost.negate(), totalCost, txn.getAccountTransactionId());
             logger.info("account balance updated");
 
-            String transactionDesc = quantity + " shares of "
-                    + stockToSell.getSymbol() + " at " + stockToSell.getCurrency() + " " + transPrice
-                    + ", total cost " + stockToSell.getCurrency() + " "
-                    + new DecimalFormat("#,###.0000").format(totalCost);
-
-            AccountTransaction txn = new AccountTransaction(tokenUser, balance.getCurrency(),
-                    "Sold " + transactionDesc);
-            acctTxnRepo.save(txn);
-            logger.info("account transaction created");
-
             TradingTransaction tradingTxn = new TradingTransaction(tokenUser,
                     stockToSell.getSymbol(), stockToSell.getName(), LocalDate.now(), TradingDeed.SELL,
                     quantity, stockToSell.getCurrency(), transPrice, totalCost);
             tradingTxnRepo.save(tradingTxn);
+            portfolioRevaluationService.applyTrade(tradingTxn);
             logger.info("trading transaction created");
+            preTradeRiskService.recordSell(tokenUser, stockToSell.getCurrency(), stockToSell.getSymbol(),
+                    quantity, transCost);
 
             String transferDesc = "";
 
             if (transferToBank) {
                 BankAccount toBank = toBankOpt.get();
-                BigDecimal newAmount = balance.getNonTradingAmount().subtract(totalCost);
-                balance.setNonTradingAmount(newAmount);
-                balance.setLastUpdatedDateTime(LocalDateTime.now());
-                acctBalRepo.save(balance);
-                logger.info("account balance updated");
                 transferDesc = toBank.getBankName()
                         + " with account number " + toBank.getBankAccountNumber()
                         + " for currency " + toBank.getCurrency();
-                String txnDesc = "Transferred " + balance.getCurrency() + " "
-                        + new DecimalFormat("#,###.0000").format(totalCost)
-                        + " to bank " + transferDesc;
-                AccountTransaction acctTxn = new AccountTransaction(tokenUser, balance.getCurrency(), txnDesc);
-                acctTxnRepo.save(acctTxn);
-                logger.info("account transaction created");
-                BankAccountTransaction bankTxn = new BankAccountTransaction(tokenUser, toBank.getCurrency(), txnDesc);
-                bankAcctTxnRepo.save(bankTxn);
-                logger.info("bank account transaction created");
+                TransactionOutbox acctTxn = transactionOutboxService.enqueue(new TransactionOutbox(tokenUser,
+                        balance.getCurrency(), OutboxType.AUTO_TRANSFER, totalCost, toBank));
+                logger.info("account and bank account transactions queued");
+                balanceLedgerService.append(tokenUser, balance.getCurrency(), BalanceEventType.TRANSFER,
+                        BigDecimal.ZERO, totalCost.negate(), acctTxn.getAccountTransactionId());
+                logger.info("account balance updated");
                 logger.info("funds transferred");
             }
 
@@ -665,9 +692,7 @@ public class TradingServiceController implements TradingService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -9,9 +9,11 @@
 package com.yktsang.virtrade.api.controller;
 
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.IsoCurrency;
-import com.yktsang.virtrade.entity.IsoDataRepository;
 import com.yktsang.virtrade.entity.TradingTransactionRepository;
+import com.yktsang.virtrade.export.StatementExportService;
+import com.yktsang.virtrade.export.StatementExportService.Format;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.TradingTransactionResponse;
 import com.yktsang.virtrade.util.PaginationUtil;
@@ -19,19 +21,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The API controller for implementing <code>TradingTransactionService</code>.
@@ -57,10 +62,15 @@ public class TradingTransactionServiceController implements TradingTransactionSe
     @Autowired
     private TradingTransactionRepository tradingTxnRepo;
     /**
-     * The ISO data repository.
+     * The currency cache service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The statement export service.
+     */
+    @Autowired
+    private StatementExportService statementExportService;
 
     /**
      * {@inheritDoc}
@@ -69,9 +79,7 @@ public class TradingTransactionServiceController implements TradingTransactionSe
     public ResponseEntity<?> tradingTransactions(RequestEntity<Void> req, int page, int pageSize) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         GenericHolder holder = this.getTradingTransactionResults(tokenUser, "", page, Math.max(pageSize, 1), activeCurrencies);
         List<com.yktsang.virtrade.response.TradingTransaction> tradingTxns =
@@ -99,9 +107,7 @@ public class TradingTransactionServiceController implements TradingTransactionSe
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -122,26 +128,46 @@ public class TradingTransactionServiceController implements TradingTransactionSe
     }
 
     /**
-     * Returns the <code>GenericHolder</code> containing <code>TradingTransaction</code>>.
-     *
-     * @param email            the email address
-     * @param currency         the currency
-     * @param page             the page number to retrieve
-     * @param pageSize         the number of records to retrieve
-     * @param activeCurrencies the active currencies
-     * @return the GenericHolder
+     * {@inheritDoc}
      */
-    private GenericHolder getTradingTransactionResults(String email, String currency,
-                                                       int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
-        List<com.yktsang.virtrade.entity.TradingTransaction> dbTradingTxns;
-        if (currency.isEmpty()) {
-            dbTradingTxns = tradingTxnRepo.findByEmail(email);
-        } else {
-            dbTradingTxns = tradingTxnRepo.findByEmailAndCurrency(email, currency);
+    @Override
+    public ResponseEntity<?> tradingTransactionsByCursor(RequestEntity<Void> req, String currency, String cursor, int pageSize) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        Optional<PaginationUtil.Cursor> cursorOpt = PaginationUtil.decodeCursor(cursor);
+        if (Objects.nonNull(cursor) && !cursor.isBlank() && cursorOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Validation failed"));
         }
-        List<com.yktsang.virtrade.response.TradingTransaction> respTradingTxns = dbTradingTxns.stream()
-                //filter with active currencies
-                .filter(c -> activeCurrencies.contains(new IsoCurrency(c.getTransactionCurrency())))
+
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
+
+        String ccy = Objects.requireNonNullElse(currency, "");
+        if (!ccy.isEmpty() && !activeCurrencies.contains(new IsoCurrency(ccy))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Currency not found"));
+        }
+        //filter with active currencies
+        List<String> currencies = ccy.isEmpty()
+                ? activeCurrencies.stream().map(IsoCurrency::getCurrencyCode).toList()
+                : List.of(ccy);
+
+        // fetch one more record to tell whether there is a next page
+        int size = Math.max(pageSize, 1);
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<com.yktsang.virtrade.entity.TradingTransaction> dbTradingTxns = cursorOpt
+                .map(c -> tradingTxnRepo.seekByEmailAndCurrencies(tokenUser, currencies, c.dateTime(), c.id(), pageable))
+                .orElseGet(() -> tradingTxnRepo.seekByEmailAndCurrencies(tokenUser, currencies, pageable));
+        boolean hasNext = dbTradingTxns.size() > size;
+        String nextCursor = "";
+        if (hasNext) {
+            dbTradingTxns = dbTradingTxns.subList(0, size);
+            com.yktsang.virtrade.entity.TradingTransaction last = dbTradingTxns.get(size - 1);
+            nextCursor = PaginationUtil.encodeCursor(last.getCreationDateTime(), last.getTradingTransactionId());
+        }
+        HttpHeaders respHeaderMap = PaginationUtil.populateCursorResponseHeader(size, hasNext, nextCursor, ccy);
+
+        List<com.yktsang.virtrade.response.TradingTransaction> tradingTxns = dbTradingTxns.stream()
                 //map to response format
                 .map(tt -> new com.yktsang.virtrade.response.TradingTransaction(tt.getTradingTransactionId(),
                         tt.getEmail(), tt.getTradingSymbol(),
@@ -152,16 +178,71 @@ public class TradingTransactionServiceController implements TradingTransactionSe
                         tt.getPortfolioId()))
                 .toList();
 
+        if (tradingTxns.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).headers(respHeaderMap).build();
+        } else {
+            return ResponseEntity.status(HttpStatus.OK).headers(respHeaderMap)
+                    .body(new TradingTransactionResponse(tradingTxns));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> tradingStatement(RequestEntity<Void> req, String currency,
+                                                                  String format, boolean gzip) {
+        String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+
+        Optional<Format> formatOpt = Format.of(format);
+        if (formatOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(statementExportService.error("Validation failed"));
+        }
+
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
+
+        String ccy = Objects.requireNonNullElse(currency, "");
+        if (!ccy.isEmpty() && !activeCurrencies.contains(new IsoCurrency(ccy))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                    .body(statementExportService.error("Currency not found"));
+        }
+        //filter with active currencies
+        List<String> currencies = ccy.isEmpty()
+                ? activeCurrencies.stream().map(IsoCurrency::getCurrencyCode).toList()
+                : List.of(ccy);
+
+        HttpHeaders respHeaderMap = StatementExportService.populateResponseHeader(
+                ccy.isEmpty() ? "trading_statement" : "trading_statement_" + ccy.toUpperCase(), formatOpt.get(), gzip);
+        return ResponseEntity.status(HttpStatus.OK).headers(respHeaderMap)
+                .body(statementExportService.tradingStatement(tokenUser, currencies, formatOpt.get(), gzip));
+    }
+
+    /**
+     * Returns the <code>GenericHolder</code> containing <code>TradingTransaction</code>>.
+     *
+     * @param email            the email address
+     * @param currency         the currency
+     * @param page             the page number to retrieve
+     * @param pageSize         the number of records to retrieve
+     * @param activeCurrencies the active currencies
+     * @return the GenericHolder
+     */
+    private GenericHolder getTradingTransactionResults(String email, String currency,
+                                                       int page, int pageSize, Set<IsoCurrency> activeCurrencies) {
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        //select in response format
         Page<com.yktsang.virtrade.response.TradingTransaction> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.TradingTransaction>)
-                    PaginationUtil.convertListToPage(respTradingTxns, page, respTradingTxns.isEmpty() ? 1 : respTradingTxns.size());
+        if (currency.isEmpty()) {
+            //filter with active currencies
+            respPage = tradingTxnRepo.findResponsesByEmailAndCurrencies(email, activeCurrencies.stream()
+                    .map(IsoCurrency::getCurrencyCode).toList(), pageable);
         } else {
-            respPage = (Page<com.yktsang.virtrade.response.TradingTransaction>)
-                    PaginationUtil.convertListToPage(respTradingTxns, page, pageSize);
+            respPage = tradingTxnRepo.findResponsesByEmailAndCurrency(email, currency, pageable);
         }
+
         HttpHeaders respHeaderMap = PaginationUtil.populateResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), currency);
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -8,10 +8,13 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
 import com.yktsang.virtrade.request.TransferFundRequest;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -47,14 +50,16 @@ public interface TransferService {
      */
     @Operation(
             summary = "Fund transfer",
-            description = "Transfer funds")
+            description = "Transfer funds",
+            parameters = {@Parameter(in = ParameterIn.HEADER, name = IdempotencyService.IDEMPOTENCY_KEY_HEADER,
+                    description = "Optional key to replay the outcome of a retried request")})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Successful operation",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = SuccessResponse.class))}
             ),
-            @ApiResponse(responseCode = "400,401,404,406",
+            @ApiResponse(responseCode = "400,401,404,406,409,422",
                     description = "Any failed responses",
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = ErrorResponse.class))}
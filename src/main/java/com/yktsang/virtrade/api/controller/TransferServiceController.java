@@ -8,8 +8,11 @@
  */
 package com.yktsang.virtrade.api.controller;
 
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
 import com.yktsang.virtrade.api.jwt.JwtService;
 import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.ledger.BalanceLedgerService;
+import com.yktsang.virtrade.outbox.TransactionOutboxService;
 import com.yktsang.virtrade.request.TransferFundRequest;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
@@ -23,8 +26,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.DecimalFormat;
-import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -51,25 +52,25 @@ public class TransferServiceController implements TransferService {
     @Autowired
     private JwtService jwtService;
     /**
-     * The account balance repository.
+     * The idempotency service.
      */
     @Autowired
-    private AccountBalanceRepository acctBalRepo;
+    private IdempotencyService idempotencyService;
     /**
-     * The account transaction repository.
+     * The balance ledger service.
      */
     @Autowired
-    private AccountTransactionRepository acctTxnRepo;
+    private BalanceLedgerService balanceLedgerService;
     /**
-     * The bank account repository.
+     * The transaction outbox service.
      */
     @Autowired
-    private BankAccountRepository bankAcctRepo;
+    private TransactionOutboxService transactionOutboxService;
     /**
-     * The bank account transaction repository.
+     * The bank account repository.
      */
     @Autowired
-    private BankAccountTransactionRepository bankAcctTxnRepo;
+    private BankAccountRepository bankAcctRepo;
 
     /**
      * {@inheritDoc}
@@ -77,6 +78,17 @@ public class TransferServiceController implements TransferService {
     @Override
     public ResponseEntity<?> transferFunds(RequestEntity<TransferFundRequest> req) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
+        return idempotencyService.execute(tokenUser, req, "transfer", () -> this.executeTransferFunds(tokenUser, req));
+    }
+
+    /**
+     * Transfers the funds between the user's account balance and bank account, given the transfer request.
+     *
+     * @param tokenUser the email address from the JWT
+     * @param req       the transfer request
+     * @return the response entity
+     */
+    private ResponseEntity<?> executeTransferFunds(String tokenUser, RequestEntity<TransferFundRequest> req) {
 
         if (req.hasBody() && Objects.nonNull(req.getBody())) {
             TransferFundRequest actualReq = req.getBody();
@@ -101,7 +113,7 @@ public class TransferServiceController implements TransferService {
             BigInteger bankAccountId = actualReq.toBankAccountId();
             BigDecimal transferAmount = actualReq.transferAmount();
 
-            Optional<AccountBalance> fromAccountOpt = acctBalRepo.findById(new AccountBalancePK(tokenUser, accountCcy));
+            Optional<AccountBalance> fromAccountOpt = balanceLedgerService.lockBalance(tokenUser, accountCcy);
             Optional<BankAccount> toBankOpt = bankAcctRepo.findById(bankAccountId);
 
             if (fromAccountOpt.isPresent() && toBankOpt.isPresent()) {
@@ -133,22 +145,12 @@ public class TransferServiceController implements TransferService {
                             .body(new ErrorResponse("Insufficient funds to transfer"));
                 }
 
-                BigDecimal newAmount = fromAccount.getNonTradingAmount().subtract(transferAmount);
-                fromAccount.setNonTradingAmount(newAmount);
-                fromAccount.setLastUpdatedDateTime(LocalDateTime.now());
-                acctBalRepo.save(fromAccount);
+                TransactionOutbox acctTxn = transactionOutboxService.enqueue(new TransactionOutbox(tokenUser,
+                        accountCcy, OutboxType.TRANSFER, transferAmount, toBank));
+                logger.info("account and bank account transactions queued");
+                balanceLedgerService.append(tokenUser, accountCcy, BalanceEventType.TRANSFER,
+                        BigDecimal.ZERO, transferAmount.negate(), acctTxn.getAccountTransactionId());
                 logger.info("account balance updated");
-                String txnDesc = "Transferred " + accountCcy + " "
-                        + new DecimalFormat("#,###.0000").format(transferAmount)
-                        + " to bank " + toBank.getBankName()
-                        + " with bank account number " + toBank.getBankAccountNumber()
-                        + " for currency " + toBank.getCurrency();
-                AccountTransaction acctTxn = new AccountTransaction(tokenUser, accountCcy, txnDesc);
-                acctTxnRepo.save(acctTxn);
-                logger.info("account transaction created");
-                BankAccountTransaction bankTxn = new BankAccountTransaction(tokenUser, accountCcy, txnDesc);
-                bankAcctTxnRepo.save(bankTxn);
-                logger.info("bank account transaction created");
                 logger.info("funds transferred");
                 return ResponseEntity.status(HttpStatus.OK)
                         .body(new SuccessResponse("Transfer successful"));
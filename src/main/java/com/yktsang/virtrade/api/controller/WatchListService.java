@@ -71,6 +71,7 @@ public interface WatchListService {
             )
     })
     @GetMapping(value = "/api/v1/member/watchList")
+    @Transactional(readOnly = true)
     ResponseEntity<?> watchList(RequestEntity<Void> req,
                                 @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
@@ -106,6 +107,7 @@ public interface WatchListService {
             )
     })
     @GetMapping(value = "/api/v1/member/watchList/{ccy}")
+    @Transactional(readOnly = true)
     ResponseEntity<?> watchList(RequestEntity<Void> req, @PathVariable("ccy") String currency,
                                 @RequestParam("page") int page, @RequestParam("pageSize") int pageSize);
 
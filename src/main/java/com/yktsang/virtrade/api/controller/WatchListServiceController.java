@@ -9,8 +9,8 @@
 package com.yktsang.virtrade.api.controller;
 
 import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
 import com.yktsang.virtrade.entity.IsoCurrency;
-import com.yktsang.virtrade.entity.IsoDataRepository;
 import com.yktsang.virtrade.entity.WatchList;
 import com.yktsang.virtrade.entity.WatchListRepository;
 import com.yktsang.virtrade.request.AddWatchListStockRequest;
@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
@@ -33,7 +34,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * The API controller for implementing <code>WatchListService</code>.
@@ -64,10 +64,10 @@ public class WatchListServiceController implements WatchListService {
     @Autowired
     private WatchListRepository watchListRepo;
     /**
-     * The ISO data repository.
+     * The currency cache service.
      */
     @Autowired
-    private IsoDataRepository isoDataRepo;
+    private CurrencyCacheService currencyCacheService;
 
     /**
      * {@inheritDoc}
@@ -76,9 +76,7 @@ public class WatchListServiceController implements WatchListService {
     public ResponseEntity<?> watchList(RequestEntity<Void> req, int page, int pageSize) {
         String tokenUser = jwtService.extractUsernameFromHeaders(req.getHeaders());
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         GenericHolder holder = this.getWatchListResults(tokenUser, "", page, Math.max(pageSize, 1), activeCurrencies);
         List<com.yktsang.virtrade.response.WatchList> watchLists =
@@ -106,9 +104,7 @@ public class WatchListServiceController implements WatchListService {
                     .body(new ErrorResponse("Validation failed"));
         }
 
-        Set<IsoCurrency> activeCurrencies = isoDataRepo.findActiveIsoData(true).stream()
-                .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
-                .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<IsoCurrency> activeCurrencies = currencyCacheService.getActiveCurrencies();
 
         if (!activeCurrencies.contains(new IsoCurrency(currency))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -144,30 +140,22 @@ public class WatchListServiceController implements WatchListService {
         YahooFinanceSampler sampler = new YahooFinanceSampler();
         Map<String, YahooStock> stockMap = sampler.listToStockMap(stocks);
 
-        List<com.yktsang.virtrade.entity.WatchList> dbWatchList;
+        Pageable pageable = PaginationUtil.toPageable(page, pageSize);
+        Page<com.yktsang.virtrade.entity.WatchList> dbWatchList;
         if (currency.isEmpty()) {
-            dbWatchList = watchListRepo.findActiveByEmail(email);
+            //filter with active currencies
+            dbWatchList = watchListRepo.findActiveByEmailAndCurrencies(email, activeCurrencies.stream()
+                    .map(IsoCurrency::getCurrencyCode).toList(), pageable);
         } else {
-            dbWatchList = watchListRepo.findActiveByEmailAndCurrency(email, currency);
+            dbWatchList = watchListRepo.findActiveByEmailAndCurrency(email, currency, pageable);
         }
-        List<com.yktsang.virtrade.response.WatchList> respWatchList = dbWatchList.stream()
-                //filter with active currencies
-                .filter(w -> activeCurrencies.contains(new IsoCurrency(w.getCurrency())))
+        Page<com.yktsang.virtrade.response.WatchList> respPage = dbWatchList
                 //map to response format
                 .map(w -> new com.yktsang.virtrade.response.WatchList(w.getSymbol(), w.getName(),
-                        w.getCurrency(), stockMap.get(w.getSymbol()).getQuote().getPrice()))
-                .toList();
+                        w.getCurrency(), stockMap.get(w.getSymbol()).getQuote().getPrice()));
 
-        Page<com.yktsang.virtrade.response.WatchList> respPage;
-        if (page == 0) {
-            respPage = (Page<com.yktsang.virtrade.response.WatchList>)
-                    PaginationUtil.convertListToPage(respWatchList, page, respWatchList.isEmpty() ? 1 : respWatchList.size());
-        } else {
-            respPage = (Page<com.yktsang.virtrade.response.WatchList>)
-                    PaginationUtil.convertListToPage(respWatchList, page, pageSize);
-        }
         HttpHeaders respHeaderMap = PaginationUtil.populateWatchListResponseHeader(respPage.getTotalElements(),
-                respPage.getTotalPages(), page, respPage.getPageable().getPageSize(),
+                respPage.getTotalPages(), page, PaginationUtil.getPageSize(respPage),
                 respPage.hasPrevious(), respPage.hasNext(), currency);
 
         return new GenericHolder(respPage.getContent(), respHeaderMap);
@@ -0,0 +1,326 @@
+/*
+ * IdempotencyService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.api.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yktsang.virtrade.entity.IdempotencyKey;
+import com.yktsang.virtrade.entity.IdempotencyKeyPK;
+import com.yktsang.virtrade.entity.IdempotencyKeyRepository;
+import com.yktsang.virtrade.response.ErrorResponse;
+import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The idempotency service.
+ * Remembers the outcome of requests carrying the <code>Idempotency-Key</code> header
+ * and replays it for retries, so that a retried request is never executed twice.
+ * Outcomes are kept in a bounded, expiring in-memory cache backed by the database table "idempotency_key".
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class IdempotencyService {
+
+    /**
+     * The request header carrying the idempotency key.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    /**
+     * The response header indicating a replayed outcome.
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    /**
+     * The maximum length of the idempotency key.
+     */
+    private static final int MAX_KEY_LENGTH = 100;
+    /**
+     * The object mapper writing the canonical JSON of the request body,
+     * the properties and map entries sorted and the decimals without trailing zeros.
+     */
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule()) //support for Java 8 date and time API
+            .visibility(PropertyAccessor.ALL, Visibility.NONE)
+            .visibility(PropertyAccessor.FIELD, Visibility.ANY)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .nodeFactory(JsonNodeFactory.withExactBigDecimals(false))
+            .build();
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    /**
+     * The idempotency keys being executed on this node.
+     */
+    private final Set<IdempotencyKeyPK> inFlightKeys = ConcurrentHashMap.newKeySet();
+    /**
+     * The idempotency key repository.
+     */
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepo;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The maximum number of idempotency keys kept in memory.
+     */
+    @Value("${idempotency.cache.size}")
+    private int cacheSize; // from application.properties
+    /**
+     * The number of hours an idempotency key is remembered.
+     */
+    @Value("${idempotency.ttl.hours}")
+    private long ttlHours; // from application.properties
+    /**
+     * The cached idempotency keys.
+     */
+    private ExpiringCache<IdempotencyKeyPK, IdempotencyKey> cache;
+
+    /**
+     * Initializes the cached idempotency keys.
+     */
+    @PostConstruct
+    public void init() {
+        cache = new ExpiringCache<>(cacheSize, Duration.ofHours(ttlHours));
+    }
+
+    /**
+     * Executes the request action once per idempotency key.
+     * Executes the request action directly when no idempotency key is provided.
+     * Replays the remembered outcome when the idempotency key has been used for the same request,
+     * otherwise executes the request action and remembers its outcome
+     * within the caller's transaction.
+     *
+     * @param email     the email address
+     * @param req       the request entity
+     * @param operation the request operation
+     * @param action    the request action
+     * @return the response entity of the request action or the replayed outcome
+     */
+    public ResponseEntity<?> execute(String email, RequestEntity<?> req, String operation,
+                                     Supplier<ResponseEntity<?>> action) {
+        String key = req.getHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+        if (Objects.isNull(key) || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse("Invalid idempotency key"));
+        }
+
+        IdempotencyKeyPK pk = new IdempotencyKeyPK(email, key);
+        String requestHash = requestHash(req.getBody());
+        Optional<IdempotencyKey> storedOpt = this.findStored(pk);
+        if (storedOpt.isPresent()) {
+            return this.replay(storedOpt.get(), operation, requestHash);
+        }
+
+        if (!inFlightKeys.add(pk)) {
+            return this.inProgress();
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            // release only after commit or rollback, so a retry sees the remembered outcome
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    inFlightKeys.remove(pk);
+                }
+            });
+        }
+        try {
+            ResponseEntity<?> resp = action.get();
+            if (!this.remember(pk, operation, requestHash, resp, inTransaction)) {
+                // another node remembered the key first, undo the request action
+                if (inTransaction) {
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                }
+                return this.inProgress();
+            }
+            return resp;
+        } finally {
+            if (!inTransaction) {
+                inFlightKeys.remove(pk);
+            }
+        }
+    }
+
+    /**
+     * Returns the request hash, the SHA-256 digest of the canonical JSON of the request body in hexadecimal,
+     * the same for equal request bodies on every node and across restarts.
+     *
+     * @param body the request body, or null if none
+     * @return the request hash
+     */
+    public static String requestHash(Object body) {
+        try {
+            byte[] json = CANONICAL_MAPPER.writeValueAsBytes(CANONICAL_MAPPER.valueToTree(body));
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash request body", e);
+        }
+    }
+
+    /**
+     * Returns the response entity of the request with the same idempotency key in progress.
+     *
+     * @return the response entity of the conflict
+     */
+    private ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("Request with same idempotency key in progress"));
+    }
+
+    /**
+     * Returns the remembered and unexpired <code>IdempotencyKey</code>.
+     *
+     * @param pk the primary composite key
+     * @return the remembered IdempotencyKey, or empty if none
+     */
+    private Optional<IdempotencyKey> findStored(IdempotencyKeyPK pk) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyKey> cachedOpt = cache.get(pk);
+        if (cachedOpt.isPresent()) {
+            return cachedOpt.filter(k -> !k.isExpired(now));
+        }
+        Optional<IdempotencyKey> storedOpt = idempotencyKeyRepo.findById(pk)
+                .filter(k -> !k.isExpired(now));
+        storedOpt.ifPresent(k -> cache.put(pk, k));
+        return storedOpt;
+    }
+
+    /**
+     * Returns the replayed outcome of the remembered <code>IdempotencyKey</code>.
+     *
+     * @param stored      the remembered IdempotencyKey
+     * @param operation   the request operation
+     * @param requestHash the request hash
+     * @return the response entity of the replayed outcome
+     */
+    private ResponseEntity<?> replay(IdempotencyKey stored, String operation, String requestHash) {
+        if (!stored.getRequestOperation().equals(operation)
+                || !stored.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(new ErrorResponse("Idempotency key already used for another request"));
+        }
+        logger.info("idempotent request replayed");
+        Object body = stored.isResponseSuccess()
+                ? new SuccessResponse(stored.getResponseMessage())
+                : new ErrorResponse(stored.getResponseMessage());
+        return ResponseEntity.status(stored.getResponseStatus())
+                .header(REPLAYED_HEADER, Boolean.TRUE.toString())
+                .body(body);
+    }
+
+    /**
+     * Remembers the outcome of the request action.
+     * The outcome is cached only after the caller's transaction commits.
+     * The outcome is flushed at once, so that a race with another node on the same idempotency key
+     * is detected here rather than when the caller's transaction commits.
+     *
+     * @param pk            the primary composite key
+     * @param operation     the request operation
+     * @param requestHash   the request hash
+     * @param resp          the response entity of the request action
+     * @param inTransaction the in transaction indicator
+     * @return true if remembered or nothing to replay, false if another node remembered the key first
+     */
+    private boolean remember(IdempotencyKeyPK pk, String operation, String requestHash,
+                          ResponseEntity<?> resp, boolean inTransaction) {
+        boolean success;
+        String message;
+        if (resp.getBody() instanceof SuccessResponse successResp) {
+            success = true;
+            message = successResp.successMessage();
+        } else if (resp.getBody() instanceof ErrorResponse errorResp) {
+            success = false;
+            message = errorResp.errorMessage();
+        } else {
+            return true; // nothing to replay
+        }
+
+        IdempotencyKey idempotencyKey = new IdempotencyKey(pk.getEmail(), pk.getIdempotencyKey(),
+                operation, requestHash, resp.getStatusCode().value(), success, message,
+                LocalDateTime.now().plusHours(ttlHours));
+        // surface the failures of the request action as before
+        idempotencyKeyRepo.flush();
+        try {
+            idempotencyKeyRepo.save(idempotencyKey);
+            idempotencyKeyRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            logger.info("idempotency key created by another node");
+            return false;
+        }
+        logger.info("idempotency key created");
+
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(pk, idempotencyKey);
+                }
+            });
+        } else {
+            cache.put(pk, idempotencyKey);
+        }
+        return true;
+    }
+
+    /**
+     * Purges the expired idempotency keys from the database, on every shard.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge.interval.ms}",
+            initialDelayString = "${idempotency.purge.interval.ms}")
+    public void purgeExpired() {
+        shardRouter.forEachShard(() -> {
+            int count = idempotencyKeyRepo.deleteExpired(LocalDateTime.now());
+            logger.info("expired idempotency keys purged={}", count);
+        });
+    }
+
+}
@@ -8,8 +8,10 @@
  */
 package com.yktsang.virtrade.api.jwt;
 
+import com.yktsang.virtrade.config.CurrentMember;
 import com.yktsang.virtrade.entity.Account;
 import com.yktsang.virtrade.entity.AccountRepository;
+import com.yktsang.virtrade.shard.ShardRouter;
 import com.yktsang.virtrade.util.DateTimeUtil;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -53,6 +55,11 @@ public class JwtService {
      */
     @Autowired
     private AccountRepository accountRepo;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
 
     /**
      * Returns the JWT, given the username.
@@ -128,7 +135,7 @@ public class JwtService {
      */
     private boolean isAccountActive(String username) {
         boolean activeAccount = false;
-        Optional<Account> accountOpt = accountRepo.findById(username);
+        Optional<Account> accountOpt = shardRouter.callOnMember(username, () -> accountRepo.findById(username));
         if (accountOpt.isPresent()) {
             activeAccount = accountOpt.get().isActive();
         }
@@ -147,7 +154,8 @@ public class JwtService {
     }
 
     /**
-     * Returns the username from the HTTP headers.
+     * Returns the username from the HTTP headers,
+     * binding it to the current web request as the member whose data is read and written.
      *
      * @param headers the HTTP headers
      * @return the username
@@ -158,6 +166,7 @@ public class JwtService {
             String authHeader = Objects.requireNonNull(headers.get("Authorization")).get(0);
             String token = authHeader.substring(7);
             tokenUser = this.extractUsername(token);
+            CurrentMember.bind(tokenUser);
         }
         return tokenUser;
     }
@@ -10,6 +10,7 @@ package com.yktsang.virtrade.api.jwt;
 
 import com.yktsang.virtrade.entity.Account;
 import com.yktsang.virtrade.entity.AccountRepository;
+import com.yktsang.virtrade.shard.ShardRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +39,11 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Autowired
     private AccountRepository accountRepo;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
 
     /**
      * Returns the user details using the username.
@@ -48,7 +54,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<Account> accountOpt = accountRepo.findById(username);
+        Optional<Account> accountOpt = shardRouter.callOnMember(username, () -> accountRepo.findById(username));
         if (accountOpt.isEmpty()) {
             throw new UsernameNotFoundException(username + " not found");
         }
@@ -0,0 +1,355 @@
+/*
+ * TransactionArchiveService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.archive;
+
+import com.yktsang.virtrade.entity.AccountTransaction;
+import com.yktsang.virtrade.entity.BankAccountTransaction;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.util.PaginationUtil.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * The transaction archive service.
+ * Moves the account and bank account transactions older than the horizon
+ * (see <code>archive.horizon.days</code> in application.properties) from the hot tables into the archive tables
+ * "account_transaction_archive" and "bank_account_transaction_archive", keeping their IDs.
+ * Transactions are only ever created with the current datetime, so every archived transaction is older than
+ * every hot transaction, and the history of a member is the hot tier followed by the archive tier.
+ * The history APIs read the archive tier only once a request runs past the end of the hot tier.
+ * Trading transactions are not archived, because the lots, outstanding quantities and pre-trade risk
+ * are derived from their full history.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class TransactionArchiveService {
+
+    /**
+     * The account transactions.
+     */
+    public static final Tier<AccountTransaction, com.yktsang.virtrade.response.AccountTransaction>
+            ACCOUNT_TRANSACTIONS = new Tier<>("account_transaction", "atid",
+            (rs, i) -> {
+                AccountTransaction at = new AccountTransaction();
+                at.setAccountTransactionId(rs.getObject("atid", BigInteger.class));
+                at.setEmail(rs.getString("email"));
+                at.setCurrency(rs.getString("currency"));
+                at.setTransactionDateTime(rs.getObject("transaction_datetime", LocalDateTime.class));
+                at.setTransactionDescription(rs.getString("transaction_description"));
+                return at;
+            },
+            (rs, i) -> new com.yktsang.virtrade.response.AccountTransaction(rs.getString("email"),
+                    rs.getString("currency"), rs.getObject("transaction_datetime", LocalDateTime.class),
+                    rs.getString("transaction_description")));
+    /**
+     * The bank account transactions.
+     */
+    public static final Tier<BankAccountTransaction, com.yktsang.virtrade.response.BankAccountTransaction>
+            BANK_ACCOUNT_TRANSACTIONS = new Tier<>("bank_account_transaction", "batid",
+            (rs, i) -> {
+                BankAccountTransaction bat = new BankAccountTransaction();
+                bat.setBankAccountTransactionId(rs.getObject("batid", BigInteger.class));
+                bat.setEmail(rs.getString("email"));
+                bat.setCurrency(rs.getString("currency"));
+                bat.setTransactionDateTime(rs.getObject("transaction_datetime", LocalDateTime.class));
+                bat.setTransactionDescription(rs.getString("transaction_description"));
+                return bat;
+            },
+            (rs, i) -> new com.yktsang.virtrade.response.BankAccountTransaction(rs.getString("email"),
+                    rs.getString("currency"), rs.getObject("transaction_datetime", LocalDateTime.class),
+                    rs.getString("transaction_description")));
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+    /**
+     * The job running indicator.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The named parameter JDBC template.
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    /**
+     * The transaction template.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The number of days a transaction stays in the hot tables.
+     */
+    @Value("${archive.horizon.days}")
+    private int horizonDays; // from application.properties
+    /**
+     * The number of transactions moved per chunk.
+     */
+    @Value("${archive.chunk.size}")
+    private int chunkSize; // from application.properties
+
+    /**
+     * Runs the archival on schedule, on every shard.
+     */
+    @Scheduled(cron = "${archive.cron}")
+    public void scheduledRun() {
+        shardRouter.forEachShard(this::run);
+    }
+
+    /**
+     * Moves the transactions older than the horizon into the archive tables.
+     *
+     * @return the run report, or empty if the archival is already running
+     */
+    public Optional<Report> run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("transaction archival already running");
+            return Optional.empty();
+        }
+        try {
+            LocalDateTime cutoff = LocalDate.now().minusDays(horizonDays).atStartOfDay();
+            Report report = new Report(cutoff, this.archive(ACCOUNT_TRANSACTIONS, cutoff),
+                    this.archive(BANK_ACCOUNT_TRANSACTIONS, cutoff));
+            logger.info("transaction archival completed={}", report);
+            return Optional.of(report);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Moves the transactions older than the cutoff into the archive table, one chunk per database transaction.
+     * Each chunk is the oldest transactions by ID, so that the copy and the delete select the same rows.
+     *
+     * @param tier   the transactions
+     * @param cutoff the cutoff datetime
+     * @return the number of transactions moved
+     */
+    public long archive(Tier<?, ?> tier, LocalDateTime cutoff) {
+        String columns = tier.idColumn() + ", email, currency, transaction_datetime, transaction_description";
+        String selectLastIdSql = "select max(" + tier.idColumn() + ") from (select " + tier.idColumn() +
+                " from " + tier.table() + " where transaction_datetime < ? order by " + tier.idColumn() +
+                " limit ?) c";
+        String copySql = "insert into " + tier.archiveTable() + " (" + columns + ") select " + columns +
+                " from " + tier.table() + " where transaction_datetime < ? and " + tier.idColumn() + " <= ?";
+        String deleteSql = "delete from " + tier.table() +
+                " where transaction_datetime < ? and " + tier.idColumn() + " <= ?";
+        int size = Math.max(chunkSize, 1);
+        long moved = 0L;
+        int deleted;
+        do {
+            deleted = Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                BigInteger lastId = jdbcTemplate.queryForObject(selectLastIdSql, BigInteger.class, cutoff, size);
+                if (Objects.isNull(lastId)) {
+                    return 0;
+                }
+                jdbcTemplate.update(copySql, cutoff, lastId);
+                return jdbcTemplate.update(deleteSql, cutoff, lastId);
+            }), 0);
+            moved += deleted;
+        } while (deleted == size);
+        logger.info("archived {}={}", tier.table(), moved);
+        return moved;
+    }
+
+    /**
+     * Returns the hot rows of a cursor page, followed by the archived rows if the hot rows run out.
+     *
+     * @param tier       the transactions
+     * @param hotRows    the hot rows after the cursor, in descending datetime and ID order
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param cursor     the cursor, or null for the first page
+     * @param limit      the maximum number of rows
+     * @param <T>        the transaction type
+     * @return the rows in descending datetime and ID order
+     */
+    public <T> List<T> seek(Tier<T, ?> tier, List<T> hotRows, String email, Collection<String> currencies,
+                            Cursor cursor, int limit) {
+        if (hotRows.size() >= limit || currencies.isEmpty()) {
+            return hotRows;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", email)
+                .addValue("currencies", currencies)
+                .addValue("limit", limit - hotRows.size());
+        String seek = "";
+        if (Objects.nonNull(cursor)) {
+            seek = "and (transaction_datetime < :dateTime or (transaction_datetime = :dateTime and " +
+                    tier.idColumn() + " < :id)) ";
+            params.addValue("dateTime", cursor.dateTime()).addValue("id", cursor.id());
+        }
+        List<T> rows = new ArrayList<>(hotRows);
+        rows.addAll(namedJdbcTemplate.query("select * from " + tier.archiveTable() +
+                " where email = :email and currency in (:currencies) " + seek +
+                "order by transaction_datetime desc, " + tier.idColumn() + " desc limit :limit", params,
+                tier.rowMapper()));
+        return rows;
+    }
+
+    /**
+     * Returns the hot page, followed by the archived rows if the page reaches the end of the hot rows.
+     * The total counts the archived rows only from the last hot page on.
+     *
+     * @param tier       the transactions
+     * @param hotPage    the hot page in descending datetime order, in response format
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param <R>        the transaction type in response format
+     * @return the page in descending datetime order, in response format
+     */
+    public <R> Page<R> page(Tier<?, R> tier, Page<R> hotPage, String email, Collection<String> currencies) {
+        if (hotPage.hasNext() || currencies.isEmpty()) {
+            return hotPage;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", email)
+                .addValue("currencies", currencies);
+        String where = " where email = :email and currency in (:currencies) ";
+        Long archived = namedJdbcTemplate.queryForObject("select count(*) from " + tier.archiveTable() + where,
+                params, Long.class);
+        if (Objects.isNull(archived) || archived == 0L) {
+            return hotPage;
+        }
+        Pageable pageable = hotPage.getPageable();
+        long hotTotal = hotPage.getTotalElements();
+        List<R> content = new ArrayList<>(hotPage.getContent());
+        long offset = pageable.isUnpaged() ? 0L : Math.max(pageable.getOffset() - hotTotal, 0L);
+        long limit = pageable.isUnpaged() ? archived : pageable.getPageSize() - content.size();
+        if (limit > 0L) {
+            params.addValue("offset", offset).addValue("limit", limit);
+            content.addAll(namedJdbcTemplate.query("select * from " + tier.archiveTable() + where +
+                    "order by transaction_datetime desc, " + tier.idColumn() + " desc limit :limit offset :offset",
+                    params, tier.responseMapper()));
+        }
+        return new PageImpl<>(content, pageable, hotTotal + archived);
+    }
+
+    /**
+     * Returns all archived rows in statement order (oldest first), in response format,
+     * read row by row from the database.
+     * The fetch size of <code>Integer.MIN_VALUE</code> makes the MySQL driver stream the rows
+     * instead of reading the whole result set into memory.
+     * The stream must be closed before the next query on the same connection.
+     *
+     * @param tier       the transactions
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param <R>        the transaction type in response format
+     * @return the stream of rows in ascending datetime and ID order, in response format
+     */
+    public <R> Stream<R> stream(Tier<?, R> tier, String email, Collection<String> currencies) {
+        if (currencies.isEmpty()) {
+            return Stream.empty();
+        }
+        String sql = "select * from " + tier.archiveTable() + " where email = ? and currency in (" +
+                String.join(", ", Collections.nCopies(currencies.size(), "?")) + ") " +
+                "order by transaction_datetime, " + tier.idColumn();
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            int index = 1;
+            ps.setString(index++, email);
+            for (String currency : currencies) {
+                ps.setString(index++, currency);
+            }
+            return ps;
+        }, tier.responseMapper());
+    }
+
+    /**
+     * Deletes the archived transactions of the email address (e.g. after reset).
+     *
+     * @param email the email address
+     */
+    public void deleteArchive(String email) {
+        for (Tier<?, ?> tier : List.of(ACCOUNT_TRANSACTIONS, BANK_ACCOUNT_TRANSACTIONS)) {
+            jdbcTemplate.update("delete from " + tier.archiveTable() + " where email = ?", email);
+        }
+    }
+
+    /**
+     * Deletes the archived transactions of the email address for the currency (e.g. after reset).
+     *
+     * @param email    the email address
+     * @param currency the currency
+     */
+    public void deleteArchive(String email, String currency) {
+        for (Tier<?, ?> tier : List.of(ACCOUNT_TRANSACTIONS, BANK_ACCOUNT_TRANSACTIONS)) {
+            jdbcTemplate.update("delete from " + tier.archiveTable() + " where email = ? and currency = ?",
+                    email, currency);
+        }
+    }
+
+    /**
+     * The hot and archive tables of a kind of transaction.
+     *
+     * @param table          the hot table
+     * @param idColumn       the ID column
+     * @param rowMapper      the row mapper to the transaction
+     * @param responseMapper the row mapper to the transaction in response format
+     * @param <T>            the transaction type
+     * @param <R>            the transaction type in response format
+     */
+    public record Tier<T, R>(String table, String idColumn, RowMapper<T> rowMapper, RowMapper<R> responseMapper) {
+
+        /**
+         * Returns the archive table.
+         *
+         * @return the archive table
+         */
+        public String archiveTable() {
+            return table + "_archive";
+        }
+
+    }
+
+    /**
+     * The run report.
+     *
+     * @param cutoff                  the cutoff datetime
+     * @param accountTransactions     the number of account transactions moved
+     * @param bankAccountTransactions the number of bank account transactions moved
+     */
+    public record Report(LocalDateTime cutoff, long accountTransactions, long bankAccountTransactions) {
+    }
+
+}
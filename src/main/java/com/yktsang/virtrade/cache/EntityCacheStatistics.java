@@ -0,0 +1,112 @@
+/*
+ * EntityCacheStatistics.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.cache;
+
+import com.yktsang.virtrade.config.EntityCacheConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reports the hit ratios of the second-level entity cache regions,
+ * in the actuator info endpoint and periodically in the log.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Component
+public class EntityCacheStatistics implements InfoContributor {
+
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(EntityCacheStatistics.class);
+    /**
+     * The entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Returns the statistics of the entity cache regions since startup.
+     *
+     * @return the statistics by region
+     */
+    public Map<String, RegionStatistics> getStatistics() {
+        Map<String, RegionStatistics> statistics = new LinkedHashMap<>();
+        for (String region : EntityCacheConfiguration.REGIONS) {
+            CacheRegionStatistics regionStats = entityManagerFactory.unwrap(SessionFactory.class)
+                    .getStatistics().getCacheRegionStatistics(region);
+            if (Objects.nonNull(regionStats)) {
+                statistics.put(region, RegionStatistics.of(regionStats.getHitCount(),
+                        regionStats.getMissCount(), regionStats.getPutCount()));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void contribute(Info.Builder builder) {
+        builder.withDetail("entityCache", this.getStatistics());
+    }
+
+    /**
+     * Logs the statistics of the entity cache regions.
+     */
+    @Scheduled(fixedDelayString = "${entity.cache.report.interval.ms}")
+    public void report() {
+        this.getStatistics().forEach((region, stats) ->
+                logger.info("entity cache {} hits={} misses={} puts={} hitRatio={}",
+                        region, stats.hits(), stats.misses(), stats.puts(), stats.hitRatio()));
+    }
+
+    /**
+     * The statistics of an entity cache region.
+     *
+     * @param hits     the number of entities found in the cache
+     * @param misses   the number of entities not found in the cache
+     * @param puts     the number of entities put in the cache
+     * @param hitRatio the hits over the lookups, or null without lookups
+     */
+    public record RegionStatistics(long hits, long misses, long puts, BigDecimal hitRatio) {
+
+        /**
+         * Returns the statistics with the hit ratio calculated.
+         *
+         * @param hits   the number of entities found in the cache
+         * @param misses the number of entities not found in the cache
+         * @param puts   the number of entities put in the cache
+         * @return the statistics
+         */
+        public static RegionStatistics of(long hits, long misses, long puts) {
+            long lookups = hits + misses;
+            BigDecimal hitRatio = lookups == 0L ? null
+                    : BigDecimal.valueOf(hits).divide(BigDecimal.valueOf(lookups), 4, RoundingMode.HALF_UP);
+            return new RegionStatistics(hits, misses, puts, hitRatio);
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * CurrentMember.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.config;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The member whose data the current web request reads and writes, used to route its connections.
+ * The member is bound to the web request when the service layer extracts the email address from the JWT,
+ * which covers the web pages calling the API in-process without populating the security context,
+ * and falls back to the authenticated member of the security context, anonymous users excluded.
+ * Being a request attribute, the member never outlives the web request.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class CurrentMember {
+
+    /**
+     * The request attribute holding the email address.
+     */
+    private static final String EMAIL_ATTRIBUTE = CurrentMember.class.getName() + ".email";
+
+    /**
+     * Binds the member to the current web request, if any.
+     *
+     * @param email the email address
+     */
+    public static void bind(String email) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (Objects.nonNull(attributes) && Objects.nonNull(email)) {
+            attributes.setAttribute(EMAIL_ATTRIBUTE, email, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Returns the email address of the member bound to the current web request,
+     * otherwise of the authenticated member.
+     *
+     * @return the email address, or empty if none
+     */
+    public static Optional<String> email() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (Objects.nonNull(attributes)
+                && attributes.getAttribute(EMAIL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof String email) {
+            return Optional.of(email);
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return Objects.nonNull(auth) && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)
+                ? Optional.of(auth.getName()) : Optional.empty();
+    }
+
+}
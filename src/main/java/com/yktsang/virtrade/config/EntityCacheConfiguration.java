@@ -0,0 +1,81 @@
+/*
+ * EntityCacheConfiguration.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The second-level entity cache configuration.
+ * The ISO data is cached in Caffeine through JCache.
+ * Hibernate updates the cached entity on every write through the entity manager of this node,
+ * and <code>CurrencyCacheService</code> evicts the region when another node has changed the ISO data.
+ * The account and the trader are not cached, so that deactivating an account, resetting a password
+ * or revoking admin access on one node takes effect on every node at once.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Configuration
+public class EntityCacheConfiguration {
+
+    /**
+     * The cache regions of the entities.
+     */
+    public static final List<String> REGIONS = List.of("iso_data");
+    /**
+     * The seconds an entity is kept after being cached.
+     */
+    @Value("${entity.cache.ttl.seconds}")
+    private long ttlSeconds; // from application.properties
+    /**
+     * The maximum number of entities kept per region.
+     */
+    @Value("${entity.cache.max.entries}")
+    private long maxEntries; // from application.properties
+
+    /**
+     * Hands Hibernate a cache manager with the regions created.
+     * Hibernate closes the cache manager with the entity manager factory,
+     * so each factory is given its own.
+     *
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer() {
+        return properties -> {
+            CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                    .getCacheManager(URI.create("virtrade:" + UUID.randomUUID()), this.getClass().getClassLoader());
+            for (String region : REGIONS) {
+                CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+                config.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+                        new Duration(TimeUnit.SECONDS, ttlSeconds)));
+                config.setMaximumSize(OptionalLong.of(maxEntries));
+                cacheManager.createCache(region, config);
+            }
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        };
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * ReadWriteRoutingConfiguration.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * The read/write routing configuration.
+ * Only applies when a replica URL is configured, otherwise the single data source is auto-configured,
+ * and not when sharded, see <code>ShardingConfiguration</code>.
+ * Both connection pools take the HikariCP settings of the primary.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnExpression("'${replica.datasource.url:}' != '' && '${shard.datasource.urls:}' == ''")
+public class ReadWriteRoutingConfiguration {
+
+    /**
+     * Creates the connection pool of the primary.
+     *
+     * @param properties the data source settings
+     * @return the primary data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the connection pool of the replica.
+     *
+     * @param properties the data source settings
+     * @param url        the URL of the replica
+     * @param username   the username of the replica
+     * @param password   the password of the replica
+     * @return the replica data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${replica.datasource.url}") String url,
+                                              @Value("${replica.datasource.username:${spring.datasource.username}}") String username,
+                                              @Value("${replica.datasource.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Creates the data source routing between the primary and the replica.
+     *
+     * @param primary           the primary data source
+     * @param replica           the replica data source
+     * @param stickinessSeconds the seconds a member reads from the primary after writing
+     * @param maxMembers        the maximum number of members remembered
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${replica.datasource.sticky.seconds}") long stickinessSeconds,
+                                 @Value("${replica.datasource.sticky.max.members}") int maxMembers) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica,
+                Duration.ofSeconds(stickinessSeconds), maxMembers));
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * ReadWriteRoutingDataSource.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.config;
+
+import com.yktsang.virtrade.util.ExpiringCache;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The data source routing read-only transactions to the replica and everything else to the primary.
+ * A member who has just written stays on the primary for the stickiness window,
+ * so that the member reads their own writes (e.g. a trade) before the replica catches up;
+ * the member is the one of the JWT or the authenticated member (see <code>CurrentMember</code>).
+ * Must be wrapped in a <code>LazyConnectionDataSourceProxy</code>, so that the connection is only
+ * fetched once the transaction is marked read-only or not.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The members who have written within the stickiness window.
+     */
+    private final ExpiringCache<String, Boolean> recentWriters;
+
+    /**
+     * Constructs a <code>ReadWriteRoutingDataSource</code> with the primary and replica data sources,
+     * the stickiness window and the maximum number of members remembered.
+     *
+     * @param primary    the primary data source
+     * @param replica    the replica data source
+     * @param stickiness the time a member reads from the primary after writing
+     * @param maxMembers the maximum number of members remembered
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration stickiness, int maxMembers) {
+        this.recentWriters = new ExpiringCache<>(maxMembers, stickiness);
+        this.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        this.setDefaultTargetDataSource(primary);
+        this.afterPropertiesSet();
+    }
+
+    /**
+     * Returns the route of the connection for the current transaction and member,
+     * remembering the member as a recent writer if the transaction is not read-only.
+     *
+     * @return the route
+     */
+    public Route currentRoute() {
+        String member = CurrentMember.email().orElse(null);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Objects.nonNull(member) && recentWriters.get(member).isPresent() ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (Objects.nonNull(member) && TransactionSynchronizationManager.isActualTransactionActive()) {
+            recentWriters.put(member, Boolean.TRUE);
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return this.currentRoute();
+    }
+
+    /**
+     * The route of a connection.
+     */
+    public enum Route {
+        /**
+         * The primary data source, taking the writes.
+         */
+        PRIMARY,
+        /**
+         * The replica data source, taking the read-only transactions.
+         */
+        REPLICA
+    }
+
+}
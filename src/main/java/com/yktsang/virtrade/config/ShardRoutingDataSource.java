@@ -0,0 +1,82 @@
+/*
+ * ShardRoutingDataSource.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.config;
+
+import com.yktsang.virtrade.shard.ConsistentHashRing;
+import com.yktsang.virtrade.shard.ShardRouter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The data source routing connections to the shards.
+ * The shard pinned by <code>ShardRouter</code> comes first, then the shard of the current member
+ * (see <code>CurrentMember</code>), so that the requests of a member, including the web pages calling the API
+ * in-process, reach the member's data without further ado, and the home shard otherwise.
+ * Must be wrapped in a <code>LazyConnectionDataSourceProxy</code>, so that the connection is only
+ * fetched once the first statement runs.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    /**
+     * The consistent hash ring.
+     */
+    private final ConsistentHashRing ring;
+
+    /**
+     * Constructs a <code>ShardRoutingDataSource</code> with the data sources by shard and the consistent hash ring.
+     *
+     * @param shards the data sources by shard, including the home shard
+     * @param ring   the consistent hash ring
+     */
+    public ShardRoutingDataSource(Map<String, DataSource> shards, ConsistentHashRing ring) {
+        this.ring = ring;
+        this.setTargetDataSources(new HashMap<>(shards));
+        this.setDefaultTargetDataSource(shards.get(ShardRouter.HOME_SHARD));
+        this.afterPropertiesSet();
+    }
+
+    /**
+     * Returns the shard of the connection for the current thread and member.
+     *
+     * @return the shard
+     */
+    public String currentShard() {
+        return ShardRouter.currentShard().orElseGet(() ->
+                CurrentMember.email().map(ring::shardOf).orElse(ShardRouter.HOME_SHARD));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return this.currentShard();
+    }
+
+    /**
+     * Closes the connection pools of the shards.
+     *
+     * @throws Exception if a connection pool fails to close
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : this.getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * ShardingConfiguration.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.config;
+
+import com.yktsang.virtrade.shard.ConsistentHashRing;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The sharding configuration.
+ * Only applies when shard URLs are configured, otherwise the single data source is auto-configured.
+ * The home shard is the configured data source; every shard takes its username, password
+ * and HikariCP settings. Read/write routing to a replica does not apply when sharded.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "shard.datasource.urls")
+public class ShardingConfiguration {
+
+    /**
+     * Creates the connection pools of the shards and the data source routing between them.
+     *
+     * @param properties   the data source settings
+     * @param environment  the environment holding the HikariCP settings
+     * @param urls         the URLs of the shards besides the home shard
+     * @param virtualNodes the number of virtual nodes per shard
+     * @return the shard routing data source
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                         @Value("${shard.datasource.urls}") String[] urls,
+                                                         @Value("${shard.virtual.nodes}") int virtualNodes) {
+        Map<String, DataSource> shards = new HashMap<>();
+        shards.put(ShardRouter.HOME_SHARD, this.createPool(properties, environment, ShardRouter.HOME_SHARD,
+                properties.determineUrl()));
+        for (int i = 0; i < urls.length; i++) {
+            String shard = Integer.toString(i + 1);
+            shards.put(shard, this.createPool(properties, environment, shard, urls[i].trim()));
+        }
+        return new ShardRoutingDataSource(shards, new ConsistentHashRing(shards.size(), virtualNodes));
+    }
+
+    /**
+     * Creates the data source connecting lazily to the shard.
+     *
+     * @param shardRoutingDataSource the shard routing data source
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Creates the connection pool of the shard.
+     *
+     * @param properties  the data source settings
+     * @param environment the environment holding the HikariCP settings
+     * @param shard       the shard
+     * @param url         the URL of the shard
+     * @return the connection pool
+     */
+    private HikariDataSource createPool(DataSourceProperties properties, Environment environment,
+                                        String shard, String url) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("shard-" + shard);
+        return dataSource;
+    }
+
+}
@@ -647,7 +647,8 @@ public class TradingController {
                 int quantity = Integer.parseInt(request.getParameter("quantity"));
 
                 if (action.equalsIgnoreCase("Calculate Cost")) {
-                    BigDecimal estimatedCost = tradingService.calculateEstimatedCost(TradingDeed.BUY, transPrice, quantity);
+                    BigDecimal estimatedCost = tradingService.calculateEstimatedCost(TradingDeed.BUY, symbol,
+                            request.getParameter("currency"), transPrice, quantity);
                     Map<String, Object> attrMap = new HashMap<>();
                     attrMap.put("inputtedQuantity", String.valueOf(quantity));
                     attrMap.put("estimatedCost", estimatedCost);
@@ -863,7 +864,8 @@ public class TradingController {
                 int quantity = Integer.parseInt(request.getParameter("quantity"));
 
                 if (action.equalsIgnoreCase("Calculate Cost")) {
-                    BigDecimal estimatedCost = tradingService.calculateEstimatedCost(TradingDeed.SELL, transPrice, quantity);
+                    BigDecimal estimatedCost = tradingService.calculateEstimatedCost(TradingDeed.SELL, symbol,
+                            request.getParameter("currency"), transPrice, quantity);
                     Map<String, Object> attrMap = new HashMap<>();
                     attrMap.put("inputtedQuantity", String.valueOf(quantity));
                     attrMap.put("estimatedCost", estimatedCost);
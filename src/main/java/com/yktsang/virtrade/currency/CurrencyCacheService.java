@@ -0,0 +1,175 @@
+/*
+ * CurrencyCacheService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.currency;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.shard.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The currency cache service.
+ * Keeps the active currencies and the currency minor units of the ISO data in memory,
+ * so that the member endpoints do not read the ISO data from the database on every request.
+ * The ISO data only changes through the admin endpoints, which call <code>invalidate</code>
+ * to discard the cached copy and increment the "iso_data" version in the database table "cache_version".
+ * Every node polls that version (see <code>currency.cache.sync.interval.ms</code> in application.properties)
+ * and discards its own copy, and the second-level cache region of the ISO data, when it has changed.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class CurrencyCacheService {
+
+    /**
+     * The cache name of the ISO data.
+     */
+    public static final String CACHE_NAME = "iso_data";
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(CurrencyCacheService.class);
+    /**
+     * The ISO data repository.
+     */
+    @Autowired
+    private IsoDataRepository isoDataRepo;
+    /**
+     * The cache version repository.
+     */
+    @Autowired
+    private CacheVersionRepository cacheVersionRepo;
+    /**
+     * The shard router, the ISO data and its version being on the home shard.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The entity manager factory, holding the second-level cache.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    /**
+     * The cached currencies, or null until loaded.
+     */
+    private volatile Currencies currencies;
+    /**
+     * The version of the ISO data last seen.
+     */
+    private volatile long version;
+
+    /**
+     * Returns the active currencies in currency code order.
+     *
+     * @return the unmodifiable set of active currencies
+     */
+    public Set<IsoCurrency> getActiveCurrencies() {
+        return this.load().activeCurrencies();
+    }
+
+    /**
+     * Get the number of decimal places to display for currency.
+     *
+     * @param currency the currency
+     * @return the number of decimal places to display, or null if unknown
+     */
+    public Integer getMinorUnits(String currency) {
+        return this.load().minorUnits().get(currency.toUpperCase());
+    }
+
+    /**
+     * Discards the cached currencies of this node and increments the version for the other nodes.
+     * Called after the ISO data is saved.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            currencies = null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (shardRouter.callOnHome(() -> cacheVersionRepo.incrementVersion(CACHE_NAME, now)) == 0) {
+            try {
+                shardRouter.callOnHome(() -> cacheVersionRepo.save(new CacheVersion(CACHE_NAME, 1L)));
+            } catch (DataIntegrityViolationException e) {
+                // another node created the version first
+                shardRouter.callOnHome(() -> cacheVersionRepo.incrementVersion(CACHE_NAME, now));
+            }
+        }
+        logger.info("currency cache invalidated");
+    }
+
+    /**
+     * Discards the cached currencies if another node has changed the ISO data.
+     */
+    @Scheduled(fixedDelayString = "${currency.cache.sync.interval.ms}",
+            initialDelayString = "${currency.cache.sync.interval.ms}")
+    public void synchronize() {
+        long latest = shardRouter.callOnHome(() -> cacheVersionRepo.findById(CACHE_NAME))
+                .map(CacheVersion::getVersion).orElse(0L);
+        if (latest != version) {
+            synchronized (this) {
+                currencies = null;
+            }
+            entityManagerFactory.getCache().evict(IsoData.class);
+            version = latest;
+            logger.info("currency cache version={}", latest);
+        }
+    }
+
+    /**
+     * Returns the cached currencies, reading the ISO data if not loaded.
+     * Loading holds the lock, so an invalidation during the read discards the result afterwards.
+     *
+     * @return the cached currencies
+     */
+    private Currencies load() {
+        Currencies loaded = currencies;
+        if (Objects.isNull(loaded)) {
+            synchronized (this) {
+                loaded = currencies;
+                if (Objects.isNull(loaded)) {
+                    List<IsoData> isoCodes = shardRouter.callOnHome(() ->
+                            isoDataRepo.findAll(Sort.by(Sort.Direction.ASC, "countryAlpha2Code")));
+                    Set<IsoCurrency> activeCurrencies = isoCodes.stream()
+                            .filter(IsoData::isActive)
+                            .map(c -> new IsoCurrency(c.getCurrencyAlphaCode(), c.getCurrencyName()))
+                            .sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+                    Map<String, Integer> minorUnits = new HashMap<>();
+                    isoCodes.forEach(c ->
+                            minorUnits.putIfAbsent(c.getCurrencyAlphaCode().toUpperCase(), c.getCurrencyMinorUnits()));
+                    loaded = new Currencies(Collections.unmodifiableSet(activeCurrencies),
+                            Collections.unmodifiableMap(minorUnits));
+                    currencies = loaded;
+                    logger.info("currency cache loaded={}", activeCurrencies.size());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * The cached currencies.
+     *
+     * @param activeCurrencies the active currencies
+     * @param minorUnits       the currency minor units by currency code
+     */
+    private record Currencies(Set<IsoCurrency> activeCurrencies, Map<String, Integer> minorUnits) {
+    }
+
+}
@@ -17,6 +17,8 @@ import java.util.Objects;
 
 /**
  * The account balance. Represents the database table "account_balance".
+ * The amounts are a snapshot, the current balance adds the balance events since the snapshot
+ * (see <code>BalanceLedgerService</code>).
  *
  * @author Tsang Yiu Kee Kay
  * @version 1.0
@@ -64,6 +66,16 @@ public class AccountBalance {
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "last_updated_datetime")
     private LocalDateTime lastUpdatedDateTime;
+    /**
+     * The snapshot datetime.
+     * The amounts are the snapshot of the balance events before this datetime,
+     * the balance events from this datetime on are yet to be compacted into the snapshot.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "snapshot_datetime")
+    private LocalDateTime snapshotDateTime;
     /**
      * The number of decimal places to display.
      */
@@ -91,6 +103,7 @@ public class AccountBalance {
         this.tradingAmount = tradingAmount;
         this.nonTradingAmount = nonTradingAmount;
         this.creationDateTime = LocalDateTime.now();
+        this.snapshotDateTime = this.creationDateTime;
     }
 
     /**
@@ -201,6 +214,24 @@ public class AccountBalance {
         this.lastUpdatedDateTime = lastUpdatedDateTime;
     }
 
+    /**
+     * Returns the snapshot datetime.
+     *
+     * @return the snapshot datetime
+     */
+    public LocalDateTime getSnapshotDateTime() {
+        return snapshotDateTime;
+    }
+
+    /**
+     * Assigns the snapshot datetime.
+     *
+     * @param snapshotDateTime the snapshot datetime
+     */
+    public void setSnapshotDateTime(LocalDateTime snapshotDateTime) {
+        this.snapshotDateTime = snapshotDateTime;
+    }
+
     /**
      * Returns the number of decimal places to display.
      *
@@ -8,14 +8,19 @@
  */
 package com.yktsang.virtrade.entity;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Performs the database operations of the <code>AccountBalance</code>.
@@ -52,4 +57,55 @@ public interface AccountBalanceRepository
             "ORDER BY ab.creationDateTime DESC")
     Page<AccountBalance> findByEmail(String email, Pageable pageable);
 
+    /**
+     * Returns the sublist of <code>AccountBalance</code> using email address and currencies with pagination support.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of AccountBalance
+     */
+    @Query(value = "SELECT ab FROM AccountBalance ab " +
+            "WHERE ab.email = :email and ab.currency in (:currencies) " +
+            "ORDER BY ab.creationDateTime DESC")
+    Page<AccountBalance> findByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the <code>AccountBalance</code> using email address and currency,
+     * locked for the transaction.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the AccountBalance, or empty if not found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT ab FROM AccountBalance ab " +
+            "WHERE ab.email = :email and ab.currency = :currency")
+    Optional<AccountBalance> findForUpdate(String email, String currency);
+
+    /**
+     * Deletes the <code>AccountBalance</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email the email address
+     * @return the number of AccountBalance deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM AccountBalance ab " +
+            "WHERE ab.email = :email")
+    int bulkDeleteByEmail(String email);
+
+    /**
+     * Deletes the <code>AccountBalance</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the number of AccountBalance deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM AccountBalance ab " +
+            "WHERE ab.email = :email and ab.currency = :currency")
+    int bulkDeleteByEmailAndCurrency(String email, String currency);
+
 }
@@ -28,7 +28,9 @@ public class AccountTransaction {
      * The account transaction ID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "atid")
+    @TableGenerator(name = "atid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "account_transaction", allocationSize = 50)
     @Column(name = "atid")
     private BigInteger accountTransactionId;
     /**
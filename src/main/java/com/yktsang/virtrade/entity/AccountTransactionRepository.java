@@ -8,15 +8,22 @@
  */
 package com.yktsang.virtrade.entity;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Performs the database operations of the <code>AccountTransaction</code>.
@@ -52,6 +59,52 @@ public interface AccountTransactionRepository
             "ORDER BY at.transactionDateTime DESC")
     Page<AccountTransaction> findByEmail(String email, Pageable pageable);
 
+    /**
+     * Returns the sublist of <code>AccountTransaction</code> using email address and currencies with pagination support.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of AccountTransaction
+     */
+    @Query(value = "SELECT at FROM AccountTransaction at " +
+            "WHERE at.email = :email and at.currency in (:currencies) " +
+            "ORDER BY at.transactionDateTime DESC")
+    Page<AccountTransaction> findByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the first records of <code>AccountTransaction</code> using email address and currencies
+     * in descending transaction date time and ID order, for cursor pagination.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable limiting the number of records (always the first page)
+     * @return the list of AccountTransaction
+     */
+    @Query(value = "SELECT at FROM AccountTransaction at " +
+            "WHERE at.email = :email and at.currency in (:currencies) " +
+            "ORDER BY at.transactionDateTime DESC, at.accountTransactionId DESC")
+    List<AccountTransaction> seekByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the records of <code>AccountTransaction</code> using email address and currencies
+     * after the cursor position in descending transaction date time and ID order, for cursor pagination.
+     * Seeks on the index instead of skipping rows, so every page costs the same.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param dateTime   the transaction date time of the cursor position
+     * @param id         the ID of the cursor position
+     * @param pageable   the Pageable limiting the number of records (always the first page)
+     * @return the list of AccountTransaction
+     */
+    @Query(value = "SELECT at FROM AccountTransaction at " +
+            "WHERE at.email = :email and at.currency in (:currencies) " +
+            "and (at.transactionDateTime < :dateTime or (at.transactionDateTime = :dateTime and at.accountTransactionId < :id)) " +
+            "ORDER BY at.transactionDateTime DESC, at.accountTransactionId DESC")
+    List<AccountTransaction> seekByEmailAndCurrencies(String email, Collection<String> currencies,
+                                                      LocalDateTime dateTime, BigInteger id, Pageable pageable);
+
     /**
      * Returns the list of <code>AccountTransaction</code> using email address and currency.
      *
@@ -77,4 +130,91 @@ public interface AccountTransactionRepository
             "ORDER BY at.transactionDateTime DESC")
     Page<AccountTransaction> findByEmailAndCurrency(String email, String currency, Pageable pageable);
 
+    /**
+     * Deletes up to the chunk size of <code>AccountTransaction</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email     the email address
+     * @param chunkSize the maximum number of records to delete
+     * @return the number of AccountTransaction deleted, less than the chunk size once none remain
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_transaction"))
+    @Query(value = "DELETE FROM account_transaction " +
+            "WHERE email = :email LIMIT :chunkSize", nativeQuery = true)
+    int bulkDeleteByEmail(String email, int chunkSize);
+
+    /**
+     * Deletes up to the chunk size of <code>AccountTransaction</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email     the email address
+     * @param currency  the currency
+     * @param chunkSize the maximum number of records to delete
+     * @return the number of AccountTransaction deleted, less than the chunk size once none remain
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_transaction"))
+    @Query(value = "DELETE FROM account_transaction " +
+            "WHERE email = :email and currency = :currency LIMIT :chunkSize", nativeQuery = true)
+    int bulkDeleteByEmailAndCurrency(String email, String currency, int chunkSize);
+
+    /**
+     * Returns the sublist of <code>AccountTransaction</code> using email address and currencies with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of AccountTransaction in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.AccountTransaction(at.email, at.currency, " +
+            "at.transactionDateTime, at.transactionDescription) " +
+            "FROM AccountTransaction at " +
+            "WHERE at.email = :email and at.currency in (:currencies) " +
+            "ORDER BY at.transactionDateTime DESC",
+            countQuery = "SELECT count(at) FROM AccountTransaction at " +
+                    "WHERE at.email = :email and at.currency in (:currencies)")
+    Page<com.yktsang.virtrade.response.AccountTransaction> findResponsesByEmailAndCurrencies(
+            String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the sublist of <code>AccountTransaction</code> using email address and currency with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currency   the currency
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of AccountTransaction in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.AccountTransaction(at.email, at.currency, " +
+            "at.transactionDateTime, at.transactionDescription) " +
+            "FROM AccountTransaction at " +
+            "WHERE at.email = :email and at.currency = :currency " +
+            "ORDER BY at.transactionDateTime DESC",
+            countQuery = "SELECT count(at) FROM AccountTransaction at " +
+                    "WHERE at.email = :email and at.currency = :currency")
+    Page<com.yktsang.virtrade.response.AccountTransaction> findResponsesByEmailAndCurrency(
+            String email, String currency, Pageable pageable);
+
+    /**
+     * Returns all <code>AccountTransaction</code> using email address and currencies in statement order (oldest first),
+     * selected straight into the response format and read row by row from the database.
+     * The fetch size of <code>Integer.MIN_VALUE</code> makes the MySQL driver stream the rows
+     * instead of reading the whole result set into memory.
+     * The stream must be consumed within a transaction and closed.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @return the stream of AccountTransaction in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.AccountTransaction(at.email, at.currency, " +
+            "at.transactionDateTime, at.transactionDescription) " +
+            "FROM AccountTransaction at " +
+            "WHERE at.email = :email and at.currency in (:currencies) " +
+            "ORDER BY at.transactionDateTime ASC, at.accountTransactionId ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<com.yktsang.virtrade.response.AccountTransaction> streamResponsesByEmailAndCurrencies(
+            String email, Collection<String> currencies);
+
 }
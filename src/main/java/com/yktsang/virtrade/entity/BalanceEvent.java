@@ -0,0 +1,197 @@
+/*
+ * BalanceEvent.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * The balance event. Represents the database table "balance_event".
+ * An entry of the append-only ledger of the account balances:
+ * the amounts are the changes to the trading amount and the non-trading amount.
+ * Balance events are never updated, only deleted with the account balance on reset.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Entity
+@Immutable
+@Table(name = "balance_event")
+public class BalanceEvent {
+
+    /**
+     * The balance event ID.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "beid")
+    @TableGenerator(name = "beid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "balance_event", allocationSize = 50)
+    @Column(name = "beid")
+    private BigInteger balanceEventId;
+    /**
+     * The email address.
+     */
+    @Column(name = "email")
+    private String email;
+    /**
+     * The currency.
+     */
+    @Column(name = "currency")
+    private String currency;
+    /**
+     * The balance event type.
+     */
+    @Convert(converter = BalanceEventTypeEnumConverter.class)
+    @Column(name = "event_type")
+    private BalanceEventType eventType;
+    /**
+     * The change to the trading amount.
+     */
+    @Column(name = "trading_amount")
+    private BigDecimal tradingAmount;
+    /**
+     * The change to the non-trading amount.
+     */
+    @Column(name = "non_trading_amount")
+    private BigDecimal nonTradingAmount;
+    /**
+     * The ID of the account transaction describing the event.
+     */
+    @Column(name = "atid")
+    private BigInteger accountTransactionId;
+    /**
+     * The event datetime.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "event_datetime")
+    private LocalDateTime eventDateTime;
+    /**
+     * The compacted indicator, whether the event is added to the account balance snapshot.
+     */
+    @Convert(converter = BooleanConverter.class)
+    @Column(name = "compacted")
+    private boolean compacted;
+
+    /**
+     * Creates a <code>BalanceEvent</code>.
+     */
+    public BalanceEvent() {
+    }
+
+    /**
+     * Creates a <code>BalanceEvent</code> with email address, currency, event type,
+     * change to the trading amount, change to the non-trading amount, and account transaction ID.
+     *
+     * @param email                the email address
+     * @param currency             the currency
+     * @param eventType            the event type
+     * @param tradingAmount        the change to the trading amount
+     * @param nonTradingAmount     the change to the non-trading amount
+     * @param accountTransactionId the ID of the account transaction describing the event
+     */
+    public BalanceEvent(String email, String currency, BalanceEventType eventType,
+                        BigDecimal tradingAmount, BigDecimal nonTradingAmount, BigInteger accountTransactionId) {
+        this.email = email;
+        this.currency = currency.toUpperCase();
+        this.eventType = eventType;
+        this.tradingAmount = tradingAmount;
+        this.nonTradingAmount = nonTradingAmount;
+        this.accountTransactionId = accountTransactionId;
+        this.eventDateTime = LocalDateTime.now();
+    }
+
+    /**
+     * Returns the balance event ID.
+     *
+     * @return the balance event ID
+     */
+    public BigInteger getBalanceEventId() {
+        return balanceEventId;
+    }
+
+    /**
+     * Returns the email address.
+     *
+     * @return the email address
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Returns the currency.
+     *
+     * @return the currency
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Returns the event type.
+     *
+     * @return the event type
+     */
+    public BalanceEventType getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Returns the change to the trading amount.
+     *
+     * @return the change to the trading amount
+     */
+    public BigDecimal getTradingAmount() {
+        return tradingAmount;
+    }
+
+    /**
+     * Returns the change to the non-trading amount.
+     *
+     * @return the change to the non-trading amount
+     */
+    public BigDecimal getNonTradingAmount() {
+        return nonTradingAmount;
+    }
+
+    /**
+     * Returns the ID of the account transaction describing the event.
+     *
+     * @return the account transaction ID
+     */
+    public BigInteger getAccountTransactionId() {
+        return accountTransactionId;
+    }
+
+    /**
+     * Returns the event datetime.
+     *
+     * @return the event datetime
+     */
+    public LocalDateTime getEventDateTime() {
+        return eventDateTime;
+    }
+
+    /**
+     * Returns whether the event is added to the account balance snapshot.
+     *
+     * @return true if the event is compacted, false otherwise
+     */
+    public boolean isCompacted() {
+        return compacted;
+    }
+
+}
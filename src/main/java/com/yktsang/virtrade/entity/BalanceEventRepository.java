@@ -0,0 +1,84 @@
+/*
+ * BalanceEventRepository.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Performs the database operations of the <code>BalanceEvent</code>.
+ * Primary key to the database table "balance_event" is the balance event ID.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Repository
+public interface BalanceEventRepository extends CrudRepository<BalanceEvent, BigInteger> {
+
+    /**
+     * Returns the list of <code>BalanceEvent</code> using email address and currency, oldest first.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the list of BalanceEvent
+     */
+    @Query(value = "SELECT be FROM BalanceEvent be " +
+            "WHERE be.email = :email and be.currency = :currency " +
+            "ORDER BY be.eventDateTime ASC, be.balanceEventId ASC")
+    List<BalanceEvent> findByEmailAndCurrency(String email, String currency);
+
+    /**
+     * Returns the sums of the <code>BalanceEvent</code> using email address and currencies
+     * not compacted into the account balance snapshots yet, by currency.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @return the list of sums by currency
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.ledger.BalanceDelta(be.currency, " +
+            "sum(be.tradingAmount), sum(be.nonTradingAmount)) " +
+            "FROM BalanceEvent be " +
+            "WHERE be.email = :email and be.currency in (:currencies) " +
+            "and be.compacted = false " +
+            "GROUP BY be.currency")
+    List<com.yktsang.virtrade.ledger.BalanceDelta> sumPendingByEmailAndCurrencies(String email,
+                                                                                 Collection<String> currencies);
+
+    /**
+     * Deletes the <code>BalanceEvent</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email the email address
+     * @return the number of BalanceEvent deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM BalanceEvent be " +
+            "WHERE be.email = :email")
+    int bulkDeleteByEmail(String email);
+
+    /**
+     * Deletes the <code>BalanceEvent</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the number of BalanceEvent deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM BalanceEvent be " +
+            "WHERE be.email = :email and be.currency = :currency")
+    int bulkDeleteByEmailAndCurrency(String email, String currency);
+
+}
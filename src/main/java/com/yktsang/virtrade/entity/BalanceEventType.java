@@ -0,0 +1,40 @@
+/*
+ * BalanceEventType.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+/**
+ * The balance event type.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public enum BalanceEventType {
+
+    /**
+     * Opening balance, carried over from before the ledger.
+     */
+    OPENING,
+    /**
+     * Deposit into the non-trading amount.
+     */
+    DEPOSIT,
+    /**
+     * Buy, from the non-trading amount into the trading amount.
+     */
+    BUY,
+    /**
+     * Sell, from the trading amount into the non-trading amount.
+     */
+    SELL,
+    /**
+     * Transfer from the non-trading amount to a bank account.
+     */
+    TRANSFER
+
+}
@@ -0,0 +1,51 @@
+/*
+ * BalanceEventTypeEnumConverter.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * The <code>BalanceEventType</code> enum converter.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class BalanceEventTypeEnumConverter implements AttributeConverter<Enum<BalanceEventType>, String> {
+
+    /**
+     * Converts balance event type enum to database column.
+     *
+     * @param balanceEventTypeEnum the balance event type enum
+     * @return the database value
+     */
+    @Override
+    public String convertToDatabaseColumn(Enum<BalanceEventType> balanceEventTypeEnum) {
+        return balanceEventTypeEnum.name();
+    }
+
+    /**
+     * Converts balance event type enum from database column.
+     *
+     * @param str the database value
+     * @return the balance event type enum
+     * @throws IllegalStateException if database value does not match
+     */
+    @Override
+    public Enum<BalanceEventType> convertToEntityAttribute(String str) {
+        return switch (str.toLowerCase()) {
+            case "opening" -> BalanceEventType.OPENING;
+            case "deposit" -> BalanceEventType.DEPOSIT;
+            case "buy" -> BalanceEventType.BUY;
+            case "sell" -> BalanceEventType.SELL;
+            case "transfer" -> BalanceEventType.TRANSFER;
+            default -> throw new IllegalStateException("Unexpected value: " + str.toLowerCase());
+        };
+    }
+
+}
@@ -28,7 +28,9 @@ public class BankAccount {
      * The bank account ID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "baid")
+    @TableGenerator(name = "baid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "bank_account", allocationSize = 50)
     @Column(name = "baid")
     private BigInteger bankAccountId;
     /**
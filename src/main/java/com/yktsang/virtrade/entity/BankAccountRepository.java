@@ -10,12 +10,14 @@ package com.yktsang.virtrade.entity;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -54,6 +56,20 @@ public interface BankAccountRepository
             "ORDER BY ba.creationDateTime DESC")
     Page<BankAccount> findByEmail(String email, boolean inUse, Pageable pageable);
 
+    /**
+     * Returns the sublist of <code>BankAccount</code> using email address and currencies with pagination support.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param inUse      the in use indicator (always true)
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of BankAccount
+     */
+    @Query(value = "SELECT ba FROM BankAccount ba " +
+            "WHERE ba.email = :email and ba.currency in (:currencies) and ba.inUse = :inUse " +
+            "ORDER BY ba.creationDateTime DESC")
+    Page<BankAccount> findByEmailAndCurrencies(String email, Collection<String> currencies, boolean inUse, Pageable pageable);
+
     /**
      * Returns the list of <code>BankAccount</code> using email address.
      *
@@ -104,4 +120,69 @@ public interface BankAccountRepository
             "ORDER BY ba.creationDateTime DESC")
     List<BankAccount> findByEmailAndCurrency(String email, String currency);
 
+    /**
+     * Deletes the <code>BankAccount</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email the email address
+     * @return the number of BankAccount deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM BankAccount ba " +
+            "WHERE ba.email = :email")
+    int bulkDeleteByEmail(String email);
+
+    /**
+     * Deletes the <code>BankAccount</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the number of BankAccount deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM BankAccount ba " +
+            "WHERE ba.email = :email and ba.currency = :currency")
+    int bulkDeleteByEmailAndCurrency(String email, String currency);
+
+    /**
+     * Returns the sublist of <code>BankAccount</code> using email address and currencies with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param inUse      the in use indicator (always true)
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of BankAccount in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.BankAccount(ba.bankAccountId, ba.email, " +
+            "ba.currency, ba.bankName, ba.bankAccountNumber) " +
+            "FROM BankAccount ba " +
+            "WHERE ba.email = :email and ba.currency in (:currencies) and ba.inUse = :inUse " +
+            "ORDER BY ba.creationDateTime DESC",
+            countQuery = "SELECT count(ba) FROM BankAccount ba " +
+                    "WHERE ba.email = :email and ba.currency in (:currencies) and ba.inUse = :inUse")
+    Page<com.yktsang.virtrade.response.BankAccount> findResponsesByEmailAndCurrencies(
+            String email, Collection<String> currencies, boolean inUse, Pageable pageable);
+
+    /**
+     * Returns the sublist of <code>BankAccount</code> using email address and currency with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currency   the currency
+     * @param inUse      the in use indicator (always true)
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of BankAccount in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.BankAccount(ba.bankAccountId, ba.email, " +
+            "ba.currency, ba.bankName, ba.bankAccountNumber) " +
+            "FROM BankAccount ba " +
+            "WHERE ba.email = :email and ba.currency = :currency and ba.inUse = :inUse " +
+            "ORDER BY ba.creationDateTime DESC",
+            countQuery = "SELECT count(ba) FROM BankAccount ba " +
+                    "WHERE ba.email = :email and ba.currency = :currency and ba.inUse = :inUse")
+    Page<com.yktsang.virtrade.response.BankAccount> findResponsesByEmailAndCurrency(
+            String email, String currency, boolean inUse, Pageable pageable);
+
 }
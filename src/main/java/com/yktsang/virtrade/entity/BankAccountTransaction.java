@@ -28,7 +28,9 @@ public class BankAccountTransaction {
      * The bank account transaction ID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "batid")
+    @TableGenerator(name = "batid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "bank_account_transaction", allocationSize = 50)
     @Column(name = "batid")
     private BigInteger bankAccountTransactionId;
     /**
@@ -0,0 +1,120 @@
+/*
+ * CacheVersion.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The cache version. Represents the database table "cache_version".
+ * Incremented whenever the data behind an application cache changes,
+ * so that every node of the application discards its copy.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Entity
+@Table(name = "cache_version")
+public class CacheVersion {
+
+    /**
+     * The cache name.
+     */
+    @Id
+    @Column(name = "cache_name")
+    private String cacheName;
+    /**
+     * The version.
+     */
+    @Column(name = "version")
+    private long version;
+    /**
+     * The last updated datetime.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "last_updated_datetime")
+    private LocalDateTime lastUpdatedDateTime;
+
+    /**
+     * Default constructor.
+     */
+    public CacheVersion() {
+    }
+
+    /**
+     * Constructs a <code>CacheVersion</code> with cache name and version.
+     *
+     * @param cacheName the cache name
+     * @param version   the version
+     */
+    public CacheVersion(String cacheName, long version) {
+        this.cacheName = cacheName;
+        this.version = version;
+        this.lastUpdatedDateTime = LocalDateTime.now();
+    }
+
+    /**
+     * Returns the cache name.
+     *
+     * @return the cache name
+     */
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * Assigns the cache name.
+     *
+     * @param cacheName the cache name
+     */
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * Returns the version.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Assigns the version.
+     *
+     * @param version the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns the last updated datetime.
+     *
+     * @return the last updated datetime
+     */
+    public LocalDateTime getLastUpdatedDateTime() {
+        return lastUpdatedDateTime;
+    }
+
+    /**
+     * Assigns the last updated datetime.
+     *
+     * @param lastUpdatedDateTime the last updated datetime
+     */
+    public void setLastUpdatedDateTime(LocalDateTime lastUpdatedDateTime) {
+        this.lastUpdatedDateTime = lastUpdatedDateTime;
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * CacheVersionRepository.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Performs the database operations of the <code>CacheVersion</code>.
+ * Primary key to the database table "cache_version" is the cache name.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Repository
+public interface CacheVersionRepository extends CrudRepository<CacheVersion, String> {
+
+    /**
+     * Increments the version of the cache.
+     *
+     * @param cacheName the cache name
+     * @param now       the current datetime
+     * @return the number of CacheVersion updated (0 if the cache has no version yet)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE CacheVersion cv " +
+            "SET cv.version = cv.version + 1, cv.lastUpdatedDateTime = :now " +
+            "WHERE cv.cacheName = :cacheName")
+    int incrementVersion(String cacheName, LocalDateTime now);
+
+}
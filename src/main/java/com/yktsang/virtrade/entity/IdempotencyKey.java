@@ -0,0 +1,327 @@
+/*
+ * IdempotencyKey.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The idempotency key. Represents the database table "idempotency_key".
+ * Remembers the outcome of a request sent with an idempotency key,
+ * so that retries of the same request replay the outcome rather than re-running it.
+ * Always inserted as new, so that a concurrent duplicate fails on the primary key
+ * instead of overwriting the remembered outcome.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Entity
+@IdClass(IdempotencyKeyPK.class)
+@Table(name = "idempotency_key")
+public class IdempotencyKey implements Persistable<IdempotencyKeyPK> {
+
+    /**
+     * The email address.
+     */
+    @Id
+    @Column(name = "email")
+    private String email;
+    /**
+     * The idempotency key.
+     */
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+    /**
+     * The request operation.
+     */
+    @Column(name = "request_operation")
+    private String requestOperation;
+    /**
+     * The request hash, the SHA-256 digest of the request body in hexadecimal.
+     */
+    @Column(name = "request_hash")
+    private String requestHash;
+    /**
+     * The response HTTP status code.
+     */
+    @Column(name = "response_status")
+    private int responseStatus;
+    /**
+     * The response success indicator.
+     */
+    @Convert(converter = BooleanConverter.class)
+    @Column(name = "response_success")
+    private boolean responseSuccess;
+    /**
+     * The response message.
+     */
+    @Column(name = "response_message")
+    private String responseMessage;
+    /**
+     * The creation datetime.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "creation_datetime")
+    private LocalDateTime creationDateTime;
+    /**
+     * The expiry datetime.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "expiry_datetime")
+    private LocalDateTime expiryDateTime;
+    /**
+     * The new indicator.
+     */
+    @Transient
+    private boolean newKey = true;
+
+    /**
+     * Constructs a <code>IdempotencyKey</code>.
+     */
+    public IdempotencyKey() {
+    }
+
+    /**
+     * Constructs a <code>IdempotencyKey</code> with email address, idempotency key, request operation,
+     * request hash, response HTTP status code, response success indicator, response message,
+     * and expiry datetime.
+     *
+     * @param email            the email address
+     * @param idempotencyKey   the idempotency key
+     * @param requestOperation the request operation
+     * @param requestHash      the request hash
+     * @param responseStatus   the response HTTP status code
+     * @param responseSuccess  the response success indicator
+     * @param responseMessage  the response message
+     * @param expiryDateTime   the expiry datetime
+     */
+    public IdempotencyKey(String email, String idempotencyKey, String requestOperation, String requestHash,
+                          int responseStatus, boolean responseSuccess, String responseMessage,
+                          LocalDateTime expiryDateTime) {
+        this.email = email;
+        this.idempotencyKey = idempotencyKey;
+        this.requestOperation = requestOperation;
+        this.requestHash = requestHash;
+        this.responseStatus = responseStatus;
+        this.responseSuccess = responseSuccess;
+        this.responseMessage = responseMessage;
+        this.creationDateTime = LocalDateTime.now();
+        this.expiryDateTime = expiryDateTime;
+    }
+
+    /**
+     * Returns the email address.
+     *
+     * @return the email address
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Assigns the email address.
+     *
+     * @param email the email address
+     */
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    /**
+     * Returns the idempotency key.
+     *
+     * @return the idempotency key
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Assigns the idempotency key.
+     *
+     * @param idempotencyKey the idempotency key
+     */
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    /**
+     * Returns the request operation.
+     *
+     * @return the request operation
+     */
+    public String getRequestOperation() {
+        return requestOperation;
+    }
+
+    /**
+     * Assigns the request operation.
+     *
+     * @param requestOperation the request operation
+     */
+    public void setRequestOperation(String requestOperation) {
+        this.requestOperation = requestOperation;
+    }
+
+    /**
+     * Returns the request hash.
+     *
+     * @return the request hash
+     */
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    /**
+     * Assigns the request hash.
+     *
+     * @param requestHash the request hash
+     */
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    /**
+     * Returns the response HTTP status code.
+     *
+     * @return the response HTTP status code
+     */
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    /**
+     * Assigns the response HTTP status code.
+     *
+     * @param responseStatus the response HTTP status code
+     */
+    public void setResponseStatus(int responseStatus) {
+        this.responseStatus = responseStatus;
+    }
+
+    /**
+     * Returns the response success indicator.
+     *
+     * @return the response success indicator
+     */
+    public boolean isResponseSuccess() {
+        return responseSuccess;
+    }
+
+    /**
+     * Assigns the response success indicator.
+     *
+     * @param responseSuccess the response success indicator
+     */
+    public void setResponseSuccess(boolean responseSuccess) {
+        this.responseSuccess = responseSuccess;
+    }
+
+    /**
+     * Returns the response message.
+     *
+     * @return the response message
+     */
+    public String getResponseMessage() {
+        return responseMessage;
+    }
+
+    /**
+     * Assigns the response message.
+     *
+     * @param responseMessage the response message
+     */
+    public void setResponseMessage(String responseMessage) {
+        this.responseMessage = responseMessage;
+    }
+
+    /**
+     * Returns the creation datetime.
+     *
+     * @return the creation datetime
+     */
+    public LocalDateTime getCreationDateTime() {
+        return creationDateTime;
+    }
+
+    /**
+     * Assigns the creation datetime.
+     *
+     * @param creationDateTime the creation datetime
+     */
+    public void setCreationDateTime(LocalDateTime creationDateTime) {
+        this.creationDateTime = creationDateTime;
+    }
+
+    /**
+     * Returns the expiry datetime.
+     *
+     * @return the expiry datetime
+     */
+    public LocalDateTime getExpiryDateTime() {
+        return expiryDateTime;
+    }
+
+    /**
+     * Assigns the expiry datetime.
+     *
+     * @param expiryDateTime the expiry datetime
+     */
+    public void setExpiryDateTime(LocalDateTime expiryDateTime) {
+        this.expiryDateTime = expiryDateTime;
+    }
+
+    /**
+     * Returns true if the idempotency key has expired, false otherwise.
+     *
+     * @param now the current datetime
+     * @return true if the idempotency key has expired, false otherwise
+     */
+    public boolean isExpired(LocalDateTime now) {
+        return !expiryDateTime.isAfter(now);
+    }
+
+    /**
+     * Returns the primary composite key.
+     *
+     * @return the primary composite key
+     */
+    @Override
+    public IdempotencyKeyPK getId() {
+        return new IdempotencyKeyPK(email, idempotencyKey);
+    }
+
+    /**
+     * Returns true if the idempotency key is not yet persisted, false otherwise.
+     *
+     * @return true if the idempotency key is not yet persisted, false otherwise
+     */
+    @Override
+    public boolean isNew() {
+        return newKey;
+    }
+
+    /**
+     * Marks the idempotency key as persisted after it is loaded or saved.
+     */
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newKey = false;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * IdempotencyKeyPK.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import java.util.Objects;
+
+/**
+ * The primary composite key for the database table "idempotency_key".
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class IdempotencyKeyPK {
+
+    /**
+     * The email address.
+     */
+    private String email;
+    /**
+     * The idempotency key.
+     */
+    private String idempotencyKey;
+
+    /**
+     * Constructs a <code>IdempotencyKeyPK</code>.
+     */
+    public IdempotencyKeyPK() {
+    }
+
+    /**
+     * Constructs a <code>IdempotencyKeyPK</code> with email address and idempotency key.
+     *
+     * @param email          the email address
+     * @param idempotencyKey the idempotency key
+     */
+    public IdempotencyKeyPK(String email, String idempotencyKey) {
+        this.email = email;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    /**
+     * Returns the email address.
+     *
+     * @return the email address
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Assigns the email address.
+     *
+     * @param email the email address
+     */
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    /**
+     * Returns the idempotency key.
+     *
+     * @return the idempotency key
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Assigns the idempotency key.
+     *
+     * @param idempotencyKey the idempotency key
+     */
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    /**
+     * Returns true if the provided item is the same as this item, false otherwise.
+     *
+     * @param o the provided item
+     * @return true if the provided item is the same as this item, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (Objects.isNull(o) || getClass() != o.getClass()) {
+            return false;
+        }
+        IdempotencyKeyPK keyPK = (IdempotencyKeyPK) o;
+        return Objects.equals(email, keyPK.email) && Objects.equals(idempotencyKey, keyPK.idempotencyKey);
+    }
+
+    /**
+     * Returns the hash code.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(email, idempotencyKey);
+    }
+
+}
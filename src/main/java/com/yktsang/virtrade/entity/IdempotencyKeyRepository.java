@@ -0,0 +1,47 @@
+/*
+ * IdempotencyKeyRepository.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Performs the database operations of the <code>IdempotencyKey</code>.
+ * Primary composite key (<code>IdempotencyKeyPK</code>) to the database table "idempotency_key" is
+ * the email address and the idempotency key.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Repository
+public interface IdempotencyKeyRepository extends CrudRepository<IdempotencyKey, IdempotencyKeyPK> {
+
+    /**
+     * Deletes the expired <code>IdempotencyKey</code>.
+     *
+     * @param now the current datetime
+     * @return the number of IdempotencyKey deleted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM IdempotencyKey ik " +
+            "WHERE ik.expiryDateTime <= :now")
+    int deleteExpired(LocalDateTime now);
+
+    /**
+     * Flushes the pending changes of the persistence context to the database.
+     */
+    void flush();
+
+}
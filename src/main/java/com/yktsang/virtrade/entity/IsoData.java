@@ -10,11 +10,14 @@ package com.yktsang.virtrade.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 /**
  * The ISO data. Represents the database table "iso_data".
+ * Kept in the second-level cache region "iso_data".
  * ISO-3166 (country codes) and ISO-4217 (currency codes) make up the data for each record.
  * The country alpha-2 code and country name come from ISO-3166.
  * The currency alpha code, currency name, currency minor units come from ISO-4217.
@@ -24,6 +27,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "iso_data")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "iso_data")
 public class IsoData {
 
     /**
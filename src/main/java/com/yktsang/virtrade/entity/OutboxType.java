@@ -0,0 +1,40 @@
+/*
+ * OutboxType.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+/**
+ * The transaction outbox type, deciding the transaction description.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public enum OutboxType {
+
+    /**
+     * Deposit into the account balance.
+     */
+    DEPOSIT,
+    /**
+     * Buy of a stock.
+     */
+    BUY,
+    /**
+     * Sell of a stock.
+     */
+    SELL,
+    /**
+     * Transfer from the account balance to a bank account.
+     */
+    TRANSFER,
+    /**
+     * Transfer of the sell proceeds to a bank account.
+     */
+    AUTO_TRANSFER
+
+}
@@ -0,0 +1,51 @@
+/*
+ * OutboxTypeEnumConverter.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * The <code>OutboxType</code> enum converter.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class OutboxTypeEnumConverter implements AttributeConverter<Enum<OutboxType>, String> {
+
+    /**
+     * Converts outbox type enum to database column.
+     *
+     * @param outboxTypeEnum the outbox type enum
+     * @return the database value
+     */
+    @Override
+    public String convertToDatabaseColumn(Enum<OutboxType> outboxTypeEnum) {
+        return outboxTypeEnum.name();
+    }
+
+    /**
+     * Converts outbox type enum from database column.
+     *
+     * @param str the database value
+     * @return the outbox type enum
+     * @throws IllegalStateException if database value does not match
+     */
+    @Override
+    public Enum<OutboxType> convertToEntityAttribute(String str) {
+        return switch (str.toLowerCase()) {
+            case "deposit" -> OutboxType.DEPOSIT;
+            case "buy" -> OutboxType.BUY;
+            case "sell" -> OutboxType.SELL;
+            case "transfer" -> OutboxType.TRANSFER;
+            case "auto_transfer" -> OutboxType.AUTO_TRANSFER;
+            default -> throw new IllegalStateException("Unexpected value: " + str.toLowerCase());
+        };
+    }
+
+}
@@ -30,7 +30,9 @@ public class Portfolio {
      * The portfolio ID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pid")
+    @TableGenerator(name = "pid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "portfolio", allocationSize = 50)
     @Column(name = "pid")
     private BigInteger portfolioId;
     /**
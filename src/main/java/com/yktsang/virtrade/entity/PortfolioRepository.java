@@ -10,12 +10,14 @@ package com.yktsang.virtrade.entity;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -40,6 +42,27 @@ public interface PortfolioRepository
             "ORDER BY p.creationDateTime DESC")
     List<Portfolio> findByEmail(String email);
 
+    /**
+     * Returns the list of <code>Portfolio</code> using email addresses.
+     *
+     * @param emails the email addresses
+     * @return the list of Portfolio
+     */
+    @Query(value = "SELECT p FROM Portfolio p " +
+            "WHERE p.email in (:emails)")
+    List<Portfolio> findByEmails(Collection<String> emails);
+
+    /**
+     * Returns the next chunk of email addresses with portfolios after the email address, in email address order.
+     *
+     * @param email     the email address to start after
+     * @param chunkSize the maximum number of email addresses
+     * @return the list of email addresses
+     */
+    @Query(value = "SELECT DISTINCT email FROM portfolio " +
+            "WHERE email > :email ORDER BY email LIMIT :chunkSize", nativeQuery = true)
+    List<String> findEmailsAfter(String email, int chunkSize);
+
     /**
      * Returns the sublist of <code>Portfolio</code> using email address with pagination support.
      *
@@ -52,6 +75,19 @@ public interface PortfolioRepository
             "ORDER BY p.creationDateTime DESC")
     Page<Portfolio> findByEmail(String email, Pageable pageable);
 
+    /**
+     * Returns the sublist of <code>Portfolio</code> using email address and currencies with pagination support.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of Portfolio
+     */
+    @Query(value = "SELECT p FROM Portfolio p " +
+            "WHERE p.email = :email and p.currency in (:currencies) " +
+            "ORDER BY p.creationDateTime DESC")
+    Page<Portfolio> findByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
     /**
      * Returns the list of <code>Portfolio</code> using email address and currency.
      *
@@ -77,4 +113,67 @@ public interface PortfolioRepository
             "ORDER BY p.creationDateTime DESC")
     Page<Portfolio> findByEmailAndCurrency(String email, String currency, Pageable pageable);
 
+    /**
+     * Deletes the <code>Portfolio</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email the email address
+     * @return the number of Portfolio deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM Portfolio p " +
+            "WHERE p.email = :email")
+    int bulkDeleteByEmail(String email);
+
+    /**
+     * Deletes the <code>Portfolio</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the number of Portfolio deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM Portfolio p " +
+            "WHERE p.email = :email and p.currency = :currency")
+    int bulkDeleteByEmailAndCurrency(String email, String currency);
+
+    /**
+     * Returns the sublist of <code>Portfolio</code> using email address and currencies with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of Portfolio in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.Portfolio(p.portfolioId, p.email, " +
+            "p.portfolioName, p.currency, p.investedAmount, p.currentAmount, p.profitLoss) " +
+            "FROM Portfolio p " +
+            "WHERE p.email = :email and p.currency in (:currencies) " +
+            "ORDER BY p.creationDateTime DESC",
+            countQuery = "SELECT count(p) FROM Portfolio p " +
+                    "WHERE p.email = :email and p.currency in (:currencies)")
+    Page<com.yktsang.virtrade.response.Portfolio> findResponsesByEmailAndCurrencies(
+            String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the sublist of <code>Portfolio</code> using email address and currency with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currency   the currency
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of Portfolio in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.Portfolio(p.portfolioId, p.email, " +
+            "p.portfolioName, p.currency, p.investedAmount, p.currentAmount, p.profitLoss) " +
+            "FROM Portfolio p " +
+            "WHERE p.email = :email and p.currency = :currency " +
+            "ORDER BY p.creationDateTime DESC",
+            countQuery = "SELECT count(p) FROM Portfolio p " +
+                    "WHERE p.email = :email and p.currency = :currency")
+    Page<com.yktsang.virtrade.response.Portfolio> findResponsesByEmailAndCurrency(
+            String email, String currency, Pageable pageable);
+
 }
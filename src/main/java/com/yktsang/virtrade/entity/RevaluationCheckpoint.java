@@ -0,0 +1,226 @@
+/*
+ * RevaluationCheckpoint.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The revaluation checkpoint. Represents the database table "revaluation_checkpoint".
+ * Records the progress of a batch revaluation job, so that an interrupted run
+ * resumes after the last portfolio written.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Entity
+@Table(name = "revaluation_checkpoint")
+public class RevaluationCheckpoint {
+
+    /**
+     * The job name.
+     */
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+    /**
+     * The business date of the run.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd")
+    @Temporal(TemporalType.DATE)
+    @Column(name = "business_date")
+    private LocalDate businessDate;
+    /**
+     * The last portfolio ID written.
+     */
+    @Column(name = "last_portfolio_id")
+    private BigInteger lastPortfolioId;
+    /**
+     * The number of portfolios processed.
+     */
+    @Column(name = "rows_processed")
+    private long rowsProcessed;
+    /**
+     * The run completed indicator.
+     */
+    @Convert(converter = BooleanConverter.class)
+    @Column(name = "completed")
+    private boolean completed;
+    /**
+     * The start datetime of the run.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "start_datetime")
+    private LocalDateTime startDateTime;
+    /**
+     * The last updated datetime.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING,
+            pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "last_updated_datetime")
+    private LocalDateTime lastUpdatedDateTime;
+
+    /**
+     * Default constructor.
+     */
+    public RevaluationCheckpoint() {
+    }
+
+    /**
+     * Constructs a <code>RevaluationCheckpoint</code> with job name and business date,
+     * starting from the first portfolio.
+     *
+     * @param jobName      the job name
+     * @param businessDate the business date of the run
+     */
+    public RevaluationCheckpoint(String jobName, LocalDate businessDate) {
+        this.jobName = jobName;
+        this.businessDate = businessDate;
+        this.lastPortfolioId = BigInteger.ZERO;
+        this.rowsProcessed = 0L;
+        this.completed = false;
+        this.startDateTime = LocalDateTime.now();
+        this.lastUpdatedDateTime = this.startDateTime;
+    }
+
+    /**
+     * Returns the job name.
+     *
+     * @return the job name
+     */
+    public String getJobName() {
+        return jobName;
+    }
+
+    /**
+     * Assigns the job name.
+     *
+     * @param jobName the job name
+     */
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /**
+     * Returns the business date of the run.
+     *
+     * @return the business date of the run
+     */
+    public LocalDate getBusinessDate() {
+        return businessDate;
+    }
+
+    /**
+     * Assigns the business date of the run.
+     *
+     * @param businessDate the business date of the run
+     */
+    public void setBusinessDate(LocalDate businessDate) {
+        this.businessDate = businessDate;
+    }
+
+    /**
+     * Returns the last portfolio ID written.
+     *
+     * @return the last portfolio ID written
+     */
+    public BigInteger getLastPortfolioId() {
+        return lastPortfolioId;
+    }
+
+    /**
+     * Assigns the last portfolio ID written.
+     *
+     * @param lastPortfolioId the last portfolio ID written
+     */
+    public void setLastPortfolioId(BigInteger lastPortfolioId) {
+        this.lastPortfolioId = lastPortfolioId;
+    }
+
+    /**
+     * Returns the number of portfolios processed.
+     *
+     * @return the number of portfolios processed
+     */
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    /**
+     * Assigns the number of portfolios processed.
+     *
+     * @param rowsProcessed the number of portfolios processed
+     */
+    public void setRowsProcessed(long rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    /**
+     * Returns the run completed indicator.
+     *
+     * @return the run completed indicator
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Assigns the run completed indicator.
+     *
+     * @param completed the run completed indicator
+     */
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    /**
+     * Returns the start datetime of the run.
+     *
+     * @return the start datetime of the run
+     */
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    /**
+     * Assigns the start datetime of the run.
+     *
+     * @param startDateTime the start datetime of the run
+     */
+    public void setStartDateTime(LocalDateTime startDateTime) {
+        this.startDateTime = startDateTime;
+    }
+
+    /**
+     * Returns the last updated datetime.
+     *
+     * @return the last updated datetime
+     */
+    public LocalDateTime getLastUpdatedDateTime() {
+        return lastUpdatedDateTime;
+    }
+
+    /**
+     * Assigns the last updated datetime.
+     *
+     * @param lastUpdatedDateTime the last updated datetime
+     */
+    public void setLastUpdatedDateTime(LocalDateTime lastUpdatedDateTime) {
+        this.lastUpdatedDateTime = lastUpdatedDateTime;
+    }
+
+}
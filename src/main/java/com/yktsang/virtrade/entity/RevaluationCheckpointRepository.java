@@ -0,0 +1,23 @@
+/*
+ * RevaluationCheckpointRepository.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Performs the database operations of the <code>RevaluationCheckpoint</code>.
+ * Primary key to the database table "revaluation_checkpoint" is the job name.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Repository
+public interface RevaluationCheckpointRepository extends CrudRepository<RevaluationCheckpoint, String> {
+}
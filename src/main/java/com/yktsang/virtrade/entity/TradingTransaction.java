@@ -30,7 +30,9 @@ public class TradingTransaction {
      * The trading transaction ID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ttid")
+    @TableGenerator(name = "ttid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "trading_transaction", allocationSize = 50)
     @Column(name = "ttid")
     private BigInteger tradingTransactionId;
     /**
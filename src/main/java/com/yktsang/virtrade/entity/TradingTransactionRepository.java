@@ -8,15 +8,22 @@
  */
 package com.yktsang.virtrade.entity;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Performs the database operations of the <code>TradingTransaction</code>.
@@ -52,6 +59,52 @@ public interface TradingTransactionRepository
             "ORDER BY tt.creationDateTime DESC")
     Page<TradingTransaction> findByEmail(String email, Pageable pageable);
 
+    /**
+     * Returns the sublist of <code>TradingTransaction</code> using email address and currencies with pagination support.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of TradingTransaction
+     */
+    @Query(value = "SELECT tt FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.transactionCurrency in (:currencies) " +
+            "ORDER BY tt.creationDateTime DESC")
+    Page<TradingTransaction> findByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the first records of <code>TradingTransaction</code> using email address and currencies
+     * in descending creation date time and ID order, for cursor pagination.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable limiting the number of records (always the first page)
+     * @return the list of TradingTransaction
+     */
+    @Query(value = "SELECT tt FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.transactionCurrency in (:currencies) " +
+            "ORDER BY tt.creationDateTime DESC, tt.tradingTransactionId DESC")
+    List<TradingTransaction> seekByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the records of <code>TradingTransaction</code> using email address and currencies
+     * after the cursor position in descending creation date time and ID order, for cursor pagination.
+     * Seeks on the index instead of skipping rows, so every page costs the same.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param dateTime   the creation date time of the cursor position
+     * @param id         the ID of the cursor position
+     * @param pageable   the Pageable limiting the number of records (always the first page)
+     * @return the list of TradingTransaction
+     */
+    @Query(value = "SELECT tt FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.transactionCurrency in (:currencies) " +
+            "and (tt.creationDateTime < :dateTime or (tt.creationDateTime = :dateTime and tt.tradingTransactionId < :id)) " +
+            "ORDER BY tt.creationDateTime DESC, tt.tradingTransactionId DESC")
+    List<TradingTransaction> seekByEmailAndCurrencies(String email, Collection<String> currencies,
+                                                      LocalDateTime dateTime, BigInteger id, Pageable pageable);
+
     /**
      * Returns the list of <code>TradingTransaction</code> using email address and currency.
      *
@@ -102,6 +155,20 @@ public interface TradingTransactionRepository
             "ORDER BY tt.creationDateTime DESC")
     Page<TradingTransaction> findByPortfolioId(String email, BigInteger portfolioId, Pageable pageable);
 
+    /**
+     * Returns the total quantities of the <code>TradingTransaction</code> using email addresses,
+     * by email address, portfolio ID, trading symbol and trading deed.
+     *
+     * @param emails the email addresses
+     * @return the list of total quantities
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.valuation.PositionQuantity(tt.email, tt.portfolioId, " +
+            "tt.tradingSymbol, tt.tradingDeed, sum(tt.quantity)) " +
+            "FROM TradingTransaction tt " +
+            "WHERE tt.email in (:emails) " +
+            "GROUP BY tt.email, tt.portfolioId, tt.tradingSymbol, tt.tradingDeed")
+    List<com.yktsang.virtrade.valuation.PositionQuantity> sumQuantitiesByEmails(Collection<String> emails);
+
     /**
      * Returns the list of <code>TradingTransaction</code> using email address, trading deed, and trading symbol.
      *
@@ -115,4 +182,125 @@ public interface TradingTransactionRepository
             "ORDER BY tt.creationDateTime DESC")
     List<TradingTransaction> findByTradingSymbol(String email, TradingDeed deed, String symbol);
 
+    /**
+     * Returns the list of <code>TradingTransaction</code> using email address and trading transaction IDs.
+     * Trading transaction IDs not belonging to the email address are left out.
+     *
+     * @param email the email address
+     * @param ids   the trading transaction IDs
+     * @return the list of TradingTransaction
+     */
+    @Query(value = "SELECT tt FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.tradingTransactionId IN :ids " +
+            "ORDER BY tt.tradingTransactionId")
+    List<TradingTransaction> findByIds(String email, Collection<BigInteger> ids);
+
+    /**
+     * Links the <code>TradingTransaction</code> using email address and trading transaction IDs to the portfolio ID,
+     * or unlinks them if the portfolio ID is null, in one statement.
+     * Clears the persistence context afterward, so that the trading transactions are read again.
+     *
+     * @param email       the email address
+     * @param ids         the trading transaction IDs
+     * @param portfolioId the portfolio ID, or null to unlink
+     * @param now         the last updated datetime
+     * @return the number of TradingTransaction updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trading_transaction"))
+    @Query(value = "UPDATE trading_transaction " +
+            "SET portfolio_id = :portfolioId, last_updated_datetime = :now " +
+            "WHERE email = :email and ttid in (:ids)", nativeQuery = true)
+    int updatePortfolioId(String email, Collection<BigInteger> ids, BigInteger portfolioId, LocalDateTime now);
+
+    /**
+     * Deletes up to the chunk size of <code>TradingTransaction</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email     the email address
+     * @param chunkSize the maximum number of records to delete
+     * @return the number of TradingTransaction deleted, less than the chunk size once none remain
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trading_transaction"))
+    @Query(value = "DELETE FROM trading_transaction " +
+            "WHERE email = :email LIMIT :chunkSize", nativeQuery = true)
+    int bulkDeleteByEmail(String email, int chunkSize);
+
+    /**
+     * Deletes up to the chunk size of <code>TradingTransaction</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email     the email address
+     * @param currency  the currency
+     * @param chunkSize the maximum number of records to delete
+     * @return the number of TradingTransaction deleted, less than the chunk size once none remain
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "trading_transaction"))
+    @Query(value = "DELETE FROM trading_transaction " +
+            "WHERE email = :email and transaction_currency = :currency LIMIT :chunkSize", nativeQuery = true)
+    int bulkDeleteByEmailAndCurrency(String email, String currency, int chunkSize);
+
+    /**
+     * Returns the sublist of <code>TradingTransaction</code> using email address and currencies with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of TradingTransaction in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.TradingTransaction(tt.tradingTransactionId, tt.email, " +
+            "tt.tradingSymbol, tt.tradingSymbolName, tt.transactionDate, tt.tradingDeed, tt.quantity, " +
+            "tt.transactionCurrency, tt.transactionPrice, tt.transactionCost, tt.portfolioId) " +
+            "FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.transactionCurrency in (:currencies) " +
+            "ORDER BY tt.creationDateTime DESC",
+            countQuery = "SELECT count(tt) FROM TradingTransaction tt " +
+                    "WHERE tt.email = :email and tt.transactionCurrency in (:currencies)")
+    Page<com.yktsang.virtrade.response.TradingTransaction> findResponsesByEmailAndCurrencies(
+            String email, Collection<String> currencies, Pageable pageable);
+
+    /**
+     * Returns the sublist of <code>TradingTransaction</code> using email address and currency with pagination support,
+     * selected straight into the response format without loading the entities.
+     *
+     * @param email      the email address
+     * @param currency   the currency
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of TradingTransaction in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.TradingTransaction(tt.tradingTransactionId, tt.email, " +
+            "tt.tradingSymbol, tt.tradingSymbolName, tt.transactionDate, tt.tradingDeed, tt.quantity, " +
+            "tt.transactionCurrency, tt.transactionPrice, tt.transactionCost, tt.portfolioId) " +
+            "FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.transactionCurrency = :currency " +
+            "ORDER BY tt.creationDateTime DESC",
+            countQuery = "SELECT count(tt) FROM TradingTransaction tt " +
+                    "WHERE tt.email = :email and tt.transactionCurrency = :currency")
+    Page<com.yktsang.virtrade.response.TradingTransaction> findResponsesByEmailAndCurrency(
+            String email, String currency, Pageable pageable);
+
+    /**
+     * Returns all <code>TradingTransaction</code> using email address and currencies in statement order (oldest first),
+     * selected straight into the response format and read row by row from the database.
+     * The fetch size of <code>Integer.MIN_VALUE</code> makes the MySQL driver stream the rows
+     * instead of reading the whole result set into memory.
+     * The stream must be consumed within a transaction and closed.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @return the stream of TradingTransaction in response format
+     */
+    @Query(value = "SELECT new com.yktsang.virtrade.response.TradingTransaction(tt.tradingTransactionId, tt.email, " +
+            "tt.tradingSymbol, tt.tradingSymbolName, tt.transactionDate, tt.tradingDeed, tt.quantity, " +
+            "tt.transactionCurrency, tt.transactionPrice, tt.transactionCost, tt.portfolioId) " +
+            "FROM TradingTransaction tt " +
+            "WHERE tt.email = :email and tt.transactionCurrency in (:currencies) " +
+            "ORDER BY tt.creationDateTime ASC, tt.tradingTransactionId ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<com.yktsang.virtrade.response.TradingTransaction> streamResponsesByEmailAndCurrencies(
+            String email, Collection<String> currencies);
+
 }
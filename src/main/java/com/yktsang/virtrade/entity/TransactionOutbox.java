@@ -0,0 +1,267 @@
+/*
+ * TransactionOutbox.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * The transaction outbox. Represents the database table "transaction_outbox".
+ * An account transaction, and for transfers a bank account transaction, waiting to be written:
+ * committed with the trade, then described and moved into the transaction tables in batches.
+ * The ID is drawn from the account transaction IDs, and becomes the ID of the account transaction.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Entity
+@Immutable
+@Table(name = "transaction_outbox")
+public class TransactionOutbox {
+
+    /**
+     * The account transaction ID.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_atid")
+    @TableGenerator(name = "outbox_atid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "account_transaction", allocationSize = 50)
+    @Column(name = "atid")
+    private BigInteger accountTransactionId;
+    /**
+     * The email address.
+     */
+    @Column(name = "email")
+    private String email;
+    /**
+     * The currency.
+     */
+    @Column(name = "currency")
+    private String currency;
+    /**
+     * The outbox type.
+     */
+    @Convert(converter = OutboxTypeEnumConverter.class)
+    @Column(name = "outbox_type")
+    private OutboxType outboxType;
+    /**
+     * The amount deposited, the total cost, or the amount transferred.
+     */
+    @Column(name = "amount")
+    private BigDecimal amount;
+    /**
+     * The trading symbol bought or sold.
+     */
+    @Column(name = "trading_symbol")
+    private String tradingSymbol;
+    /**
+     * The quantity bought or sold.
+     */
+    @Column(name = "quantity")
+    private Integer quantity;
+    /**
+     * The transaction price as quoted, kept in full for the transaction description.
+     */
+    @Column(name = "transaction_price")
+    private String transactionPrice;
+    /**
+     * The bank name transferred to.
+     */
+    @Column(name = "bank_name")
+    private String bankName;
+    /**
+     * The bank account number transferred to.
+     */
+    @Column(name = "bank_account_number")
+    private String bankAccountNumber;
+    /**
+     * The currency of the bank account transferred to.
+     */
+    @Column(name = "bank_currency")
+    private String bankCurrency;
+    /**
+     * The transaction datetime.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "transaction_datetime")
+    private LocalDateTime transactionDateTime;
+
+    /**
+     * Creates a <code>TransactionOutbox</code>.
+     */
+    public TransactionOutbox() {
+    }
+
+    /**
+     * Creates a <code>TransactionOutbox</code> with email address, currency, outbox type and amount.
+     *
+     * @param email      the email address
+     * @param currency   the currency
+     * @param outboxType the outbox type
+     * @param amount     the amount
+     */
+    public TransactionOutbox(String email, String currency, OutboxType outboxType, BigDecimal amount) {
+        this.email = email;
+        this.currency = currency.toUpperCase();
+        this.outboxType = outboxType;
+        this.amount = amount;
+        this.transactionDateTime = LocalDateTime.now();
+    }
+
+    /**
+     * Creates a <code>TransactionOutbox</code> of a trade with email address, currency, outbox type,
+     * trading symbol, quantity, transaction price and total cost.
+     *
+     * @param email            the email address
+     * @param currency         the currency
+     * @param outboxType       the outbox type
+     * @param tradingSymbol    the trading symbol
+     * @param quantity         the quantity
+     * @param transactionPrice the transaction price
+     * @param totalCost        the total cost
+     */
+    public TransactionOutbox(String email, String currency, OutboxType outboxType,
+                             String tradingSymbol, int quantity, BigDecimal transactionPrice, BigDecimal totalCost) {
+        this(email, currency, outboxType, totalCost);
+        this.tradingSymbol = tradingSymbol;
+        this.quantity = quantity;
+        this.transactionPrice = transactionPrice.toString();
+    }
+
+    /**
+     * Creates a <code>TransactionOutbox</code> of a transfer with email address, currency, outbox type,
+     * amount and bank account transferred to.
+     *
+     * @param email      the email address
+     * @param currency   the currency
+     * @param outboxType the outbox type
+     * @param amount     the amount transferred
+     * @param toBank     the bank account transferred to
+     */
+    public TransactionOutbox(String email, String currency, OutboxType outboxType,
+                             BigDecimal amount, BankAccount toBank) {
+        this(email, currency, outboxType, amount);
+        this.bankName = toBank.getBankName();
+        this.bankAccountNumber = toBank.getBankAccountNumber();
+        this.bankCurrency = toBank.getCurrency();
+    }
+
+    /**
+     * Returns the account transaction ID.
+     *
+     * @return the account transaction ID
+     */
+    public BigInteger getAccountTransactionId() {
+        return accountTransactionId;
+    }
+
+    /**
+     * Returns the email address.
+     *
+     * @return the email address
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Returns the currency.
+     *
+     * @return the currency
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Returns the outbox type.
+     *
+     * @return the outbox type
+     */
+    public OutboxType getOutboxType() {
+        return outboxType;
+    }
+
+    /**
+     * Returns the amount deposited, the total cost, or the amount transferred.
+     *
+     * @return the amount
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /**
+     * Returns the trading symbol bought or sold.
+     *
+     * @return the trading symbol
+     */
+    public String getTradingSymbol() {
+        return tradingSymbol;
+    }
+
+    /**
+     * Returns the quantity bought or sold.
+     *
+     * @return the quantity
+     */
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the transaction price as quoted.
+     *
+     * @return the transaction price
+     */
+    public String getTransactionPrice() {
+        return transactionPrice;
+    }
+
+    /**
+     * Returns the bank name transferred to.
+     *
+     * @return the bank name
+     */
+    public String getBankName() {
+        return bankName;
+    }
+
+    /**
+     * Returns the bank account number transferred to.
+     *
+     * @return the bank account number
+     */
+    public String getBankAccountNumber() {
+        return bankAccountNumber;
+    }
+
+    /**
+     * Returns the currency of the bank account transferred to.
+     *
+     * @return the bank currency
+     */
+    public String getBankCurrency() {
+        return bankCurrency;
+    }
+
+    /**
+     * Returns the transaction datetime.
+     *
+     * @return the transaction datetime
+     */
+    public LocalDateTime getTransactionDateTime() {
+        return transactionDateTime;
+    }
+
+}
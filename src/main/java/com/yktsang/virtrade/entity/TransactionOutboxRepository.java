@@ -0,0 +1,86 @@
+/*
+ * TransactionOutboxRepository.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.entity;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Performs the database operations of the <code>TransactionOutbox</code>.
+ * Primary key to the database table "transaction_outbox" is the account transaction ID.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Repository
+public interface TransactionOutboxRepository extends CrudRepository<TransactionOutbox, BigInteger> {
+
+    /**
+     * Returns the oldest page of <code>TransactionOutbox</code>, locked for the transaction.
+     * Entries locked by another transaction are skipped, so several nodes can drain at once.
+     *
+     * @param batchSize the maximum number of records to return
+     * @return the list of TransactionOutbox
+     */
+    @Query(value = "SELECT * FROM transaction_outbox " +
+            "ORDER BY atid ASC LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<TransactionOutbox> findOldestForUpdate(int batchSize);
+
+    /**
+     * Returns the list of <code>TransactionOutbox</code> using email address.
+     *
+     * @param email the email address
+     * @return the list of TransactionOutbox
+     */
+    List<TransactionOutbox> findByEmail(String email);
+
+    /**
+     * Deletes the <code>TransactionOutbox</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email the email address
+     * @return the number of TransactionOutbox deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM TransactionOutbox o " +
+            "WHERE o.email = :email")
+    int bulkDeleteByEmail(String email);
+
+    /**
+     * Deletes the <code>TransactionOutbox</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the number of TransactionOutbox deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM TransactionOutbox o " +
+            "WHERE o.email = :email and o.currency = :currency")
+    int bulkDeleteByEmailAndCurrency(String email, String currency);
+
+    /**
+     * Deletes the <code>TransactionOutbox</code> using account transaction IDs in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param ids the account transaction IDs
+     * @return the number of TransactionOutbox deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM TransactionOutbox o " +
+            "WHERE o.accountTransactionId IN :ids")
+    int bulkDeleteByIds(Collection<BigInteger> ids);
+
+}
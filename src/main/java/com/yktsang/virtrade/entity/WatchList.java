@@ -30,7 +30,9 @@ public class WatchList {
      * The watch list ID.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "wlid")
+    @TableGenerator(name = "wlid", table = "id_generator", pkColumnName = "table_name",
+            valueColumnName = "last_id", pkColumnValue = "watch_list", allocationSize = 50)
     @Column(name = "wlid")
     private BigInteger watchListId;
     /**
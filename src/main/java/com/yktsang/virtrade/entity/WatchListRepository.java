@@ -10,12 +10,14 @@ package com.yktsang.virtrade.entity;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -52,6 +54,19 @@ public interface WatchListRepository
             "ORDER BY wl.symbol")
     Page<WatchList> findActiveByEmail(String email, Pageable pageable);
 
+    /**
+     * Returns the sublist of active <code>WatchList</code> using email address and currencies with pagination support.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param pageable   the Pageable supporting pagination
+     * @return the sublist of WatchList
+     */
+    @Query(value = "SELECT wl FROM WatchList wl " +
+            "WHERE wl.email = :email AND wl.currency in (:currencies) AND wl.removalDateTime is null " +
+            "ORDER BY wl.symbol")
+    Page<WatchList> findActiveByEmailAndCurrencies(String email, Collection<String> currencies, Pageable pageable);
+
     /**
      * Returns the list of active <code>WatchList</code> using email address and currency.
      *
@@ -100,4 +115,29 @@ public interface WatchListRepository
             "ORDER BY wl.symbol")
     List<WatchList> findByEmailAndCurrency(String email, String currency);
 
+    /**
+     * Deletes the <code>WatchList</code> using email address in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email the email address
+     * @return the number of WatchList deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM WatchList wl " +
+            "WHERE wl.email = :email")
+    int bulkDeleteByEmail(String email);
+
+    /**
+     * Deletes the <code>WatchList</code> using email address and currency in one statement.
+     * Clears the persistence context afterward.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the number of WatchList deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM WatchList wl " +
+            "WHERE wl.email = :email and wl.currency = :currency")
+    int bulkDeleteByEmailAndCurrency(String email, String currency);
+
 }
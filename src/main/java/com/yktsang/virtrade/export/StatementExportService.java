@@ -0,0 +1,491 @@
+/*
+ * StatementExportService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yktsang.virtrade.archive.TransactionArchiveService;
+import com.yktsang.virtrade.entity.AccountTransactionRepository;
+import com.yktsang.virtrade.entity.BankAccountTransactionRepository;
+import com.yktsang.virtrade.entity.TradingTransactionRepository;
+import com.yktsang.virtrade.response.AccountTransaction;
+import com.yktsang.virtrade.response.BankAccountTransaction;
+import com.yktsang.virtrade.response.ErrorResponse;
+import com.yktsang.virtrade.response.TradingTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The statement export service.
+ * Writes the full account, bank account and trading transaction statements of a member as CSV or JSON,
+ * optionally gzipped, straight to the response as the rows are read from the database.
+ * The rows are selected in response format and streamed by the MySQL driver,
+ * so the heap used does not grow with the number of rows.
+ * The statements are read in a read-only transaction (routed to the replica when configured)
+ * on the thread writing the response, after the request thread has returned.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class StatementExportService {
+
+    /**
+     * The size of the output buffers.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * The datetime format of the CSV statements, the same as the JSON statements.
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(StatementExportService.class);
+    /**
+     * The account transaction repository.
+     */
+    @Autowired
+    private AccountTransactionRepository acctTxnRepo;
+    /**
+     * The bank account transaction repository.
+     */
+    @Autowired
+    private BankAccountTransactionRepository bankAcctTxnRepo;
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The transaction archive service.
+     */
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+    /**
+     * The transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    /**
+     * The object mapper.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Returns the account statement, the archived transactions followed by the hot transactions.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param format     the format
+     * @param gzip       gzip or not
+     * @return the statement written on demand
+     */
+    public StreamingResponseBody accountStatement(String email, Collection<String> currencies,
+                                                  Format format, boolean gzip) {
+        return this.export("account statement", AccountTransaction.class, List.of(
+                () -> transactionArchiveService.stream(TransactionArchiveService.ACCOUNT_TRANSACTIONS,
+                        email, currencies),
+                () -> acctTxnRepo.streamResponsesByEmailAndCurrencies(email, currencies)), format, gzip);
+    }
+
+    /**
+     * Returns the bank account statement, the archived transactions followed by the hot transactions.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param format     the format
+     * @param gzip       gzip or not
+     * @return the statement written on demand
+     */
+    public StreamingResponseBody bankAccountStatement(String email, Collection<String> currencies,
+                                                      Format format, boolean gzip) {
+        return this.export("bank account statement", BankAccountTransaction.class, List.of(
+                () -> transactionArchiveService.stream(TransactionArchiveService.BANK_ACCOUNT_TRANSACTIONS,
+                        email, currencies),
+                () -> bankAcctTxnRepo.streamResponsesByEmailAndCurrencies(email, currencies)), format, gzip);
+    }
+
+    /**
+     * Returns the trading statement.
+     *
+     * @param email      the email address
+     * @param currencies the currencies
+     * @param format     the format
+     * @param gzip       gzip or not
+     * @return the statement written on demand
+     */
+    public StreamingResponseBody tradingStatement(String email, Collection<String> currencies,
+                                                  Format format, boolean gzip) {
+        return this.export("trading statement", TradingTransaction.class, List.of(
+                () -> tradingTxnRepo.streamResponsesByEmailAndCurrencies(email, currencies)), format, gzip);
+    }
+
+    /**
+     * Returns the error response, for the statement endpoints failing before any row is written.
+     *
+     * @param errorMessage the error message
+     * @return the error response written on demand
+     */
+    public StreamingResponseBody error(String errorMessage) {
+        return out -> out.write(objectMapper.writeValueAsBytes(new ErrorResponse(errorMessage)));
+    }
+
+    /**
+     * Returns the response header of a statement download.
+     *
+     * @param fileName the file name without extension
+     * @param format   the format
+     * @param gzip     gzip or not
+     * @return the response header
+     */
+    public static HttpHeaders populateResponseHeader(String fileName, Format format, boolean gzip) {
+        HttpHeaders respHeaderMap = new HttpHeaders();
+        respHeaderMap.setContentType(gzip ? Format.GZIP : format.mediaType());
+        respHeaderMap.setContentDisposition(ContentDisposition.attachment()
+                .filename(fileName + "." + format.extension() + (gzip ? ".gz" : ""))
+                .build());
+        return respHeaderMap;
+    }
+
+    /**
+     * Returns the statement reading the sources one after another.
+     * Each source is closed before the next one is opened,
+     * as the connection cannot run another query while the rows are streamed.
+     *
+     * @param name    the statement name for logging
+     * @param type    the row type
+     * @param sources the sources of rows in statement order
+     * @param format  the format
+     * @param gzip    gzip or not
+     * @param <R>     the row type
+     * @return the statement written on demand
+     */
+    private <R extends Record> StreamingResponseBody export(String name, Class<R> type,
+                                                            List<Supplier<Stream<R>>> sources,
+                                                            Format format, boolean gzip) {
+        return out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            RowWriter<R> writer = format == Format.CSV
+                    ? new CsvRowWriter<>(type, target)
+                    : new JsonRowWriter<>(objectMapper, target);
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            long rows;
+            try {
+                rows = Objects.requireNonNullElse(readOnlyTransaction.execute(status -> {
+                    long written = 0L;
+                    try {
+                        writer.begin();
+                        for (Supplier<Stream<R>> source : sources) {
+                            try (Stream<R> stream = source.get()) {
+                                Iterator<R> iterator = stream.iterator();
+                                while (iterator.hasNext()) {
+                                    writer.write(iterator.next());
+                                    written++;
+                                }
+                            }
+                        }
+                        writer.end();
+                    } catch (IOException ioe) {
+                        throw new UncheckedIOException(ioe);
+                    }
+                    return written;
+                }), 0L);
+            } catch (UncheckedIOException uioe) {
+                logger.error("{} aborted: {}", name, uioe.getMessage());
+                throw uioe.getCause();
+            }
+            if (target instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+            logger.info("{} exported format={} gzip={} rows={}", name, format, gzip, rows);
+        };
+    }
+
+    /**
+     * The statement formats.
+     */
+    public enum Format {
+
+        /**
+         * Comma-separated values with a header row.
+         */
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        /**
+         * JSON array of the transactions in response format.
+         */
+        JSON(MediaType.APPLICATION_JSON, "json");
+
+        /**
+         * The media type of gzipped statements.
+         */
+        public static final MediaType GZIP = new MediaType("application", "gzip");
+        /**
+         * The media type.
+         */
+        private final MediaType mediaType;
+        /**
+         * The file extension.
+         */
+        private final String extension;
+
+        /**
+         * Constructs a <code>Format</code> with media type and file extension.
+         *
+         * @param mediaType the media type
+         * @param extension the file extension
+         */
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the format of the request parameter.
+         *
+         * @param format the format, case-insensitive
+         * @return the format, or empty if not supported
+         */
+        public static Optional<Format> of(String format) {
+            return Arrays.stream(values())
+                    .filter(f -> f.extension.equalsIgnoreCase(format))
+                    .findFirst();
+        }
+
+        /**
+         * Returns the media type.
+         *
+         * @return the media type
+         */
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Returns the file extension.
+         *
+         * @return the file extension
+         */
+        public String extension() {
+            return extension;
+        }
+
+    }
+
+    /**
+     * Writes the rows of a statement.
+     *
+     * @param <R> the row type
+     */
+    private interface RowWriter<R> {
+
+        /**
+         * Writes the start of the statement.
+         *
+         * @throws IOException when problems writing data
+         */
+        void begin() throws IOException;
+
+        /**
+         * Writes a row.
+         *
+         * @param row the row
+         * @throws IOException when problems writing data
+         */
+        void write(R row) throws IOException;
+
+        /**
+         * Writes the end of the statement and flushes it.
+         *
+         * @throws IOException when problems writing data
+         */
+        void end() throws IOException;
+
+    }
+
+    /**
+     * Writes the rows as CSV, one column per record component.
+     *
+     * @param <R> the row type
+     */
+    private static class CsvRowWriter<R extends Record> implements RowWriter<R> {
+
+        /**
+         * The record components.
+         */
+        private final RecordComponent[] components;
+        /**
+         * The buffered writer.
+         */
+        private final Writer writer;
+
+        /**
+         * Constructs a <code>CsvRowWriter</code> with row type and output stream.
+         *
+         * @param type the row type
+         * @param out  the output stream
+         */
+        CsvRowWriter(Class<R> type, OutputStream out) {
+            this.components = type.getRecordComponents();
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void begin() throws IOException {
+            this.writeLine(Arrays.stream(components).map(RecordComponent::getName).toList());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(R row) throws IOException {
+            List<String> values = new ArrayList<>(components.length);
+            for (RecordComponent component : components) {
+                try {
+                    values.add(format(component.getAccessor().invoke(row)));
+                } catch (ReflectiveOperationException roe) {
+                    throw new IllegalStateException(roe);
+                }
+            }
+            this.writeLine(values);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void end() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * Writes a line of values, quoting the values containing commas, quotes or line breaks.
+         *
+         * @param values the values
+         * @throws IOException when problems writing data
+         */
+        private void writeLine(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = values.get(i);
+                if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        /**
+         * Returns the value as text.
+         *
+         * @param value the value
+         * @return the value as text, empty if null
+         */
+        private static String format(Object value) {
+            if (Objects.isNull(value)) {
+                return "";
+            } else if (value instanceof LocalDateTime dateTime) {
+                return DATE_TIME_FORMATTER.format(dateTime);
+            } else if (value instanceof BigDecimal decimal) {
+                return decimal.toPlainString();
+            }
+            return value.toString();
+        }
+
+    }
+
+    /**
+     * Writes the rows as a JSON array, with the same fields as the API responses.
+     *
+     * @param <R> the row type
+     */
+    private static class JsonRowWriter<R> implements RowWriter<R> {
+
+        /**
+         * The object writer, not flushing after every row.
+         */
+        private final ObjectWriter objectWriter;
+        /**
+         * The JSON generator.
+         */
+        private final JsonGenerator generator;
+
+        /**
+         * Constructs a <code>JsonRowWriter</code> with object mapper and output stream.
+         *
+         * @param objectMapper the object mapper
+         * @param out          the output stream
+         * @throws IOException when problems creating the generator
+         */
+        JsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void begin() throws IOException {
+            generator.writeStartArray();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(R row) throws IOException {
+            objectWriter.writeValue(generator, row);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void end() throws IOException {
+            generator.writeEndArray();
+            generator.flush();
+        }
+
+    }
+
+}
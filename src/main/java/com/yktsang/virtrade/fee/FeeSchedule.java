@@ -0,0 +1,213 @@
+/*
+ * FeeSchedule.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.fee;
+
+import com.yktsang.virtrade.util.Money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * The fee schedule of a market.
+ * Fees comprise a percentage of the transaction cost, a stamp duty (optionally rounded up
+ * to the nearest whole unit) and a fixed fee per transaction, summed and rounded half up
+ * to 4 decimal places.
+ * The rates are compiled into reduced fractions at construction, so that calculating fees
+ * in minor units is exact and allocation-free.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public final class FeeSchedule {
+
+    /**
+     * The fee schedule without any fees.
+     */
+    public static final FeeSchedule NO_FEES = new FeeSchedule("none",
+            BigDecimal.ZERO, BigDecimal.ZERO, false, BigDecimal.ZERO);
+    /**
+     * The maximum number of decimal places of a rate.
+     */
+    private static final int MAX_RATE_SCALE = 8;
+    /**
+     * The name.
+     */
+    private final String name;
+    /**
+     * The percentage rate, including the stamp duty rate if not rounded up.
+     */
+    private final BigDecimal percentageRate;
+    /**
+     * The stamp duty rate rounded up to the nearest whole unit.
+     */
+    private final BigDecimal stampDutyRate;
+    /**
+     * The fixed fee.
+     */
+    private final BigDecimal fixedFee;
+    /**
+     * The percentage rate numerator.
+     */
+    private final long percentageNumerator;
+    /**
+     * The percentage rate denominator.
+     */
+    private final long percentageDenominator;
+    /**
+     * The stamp duty rate numerator.
+     */
+    private final long stampDutyNumerator;
+    /**
+     * The stamp duty rate denominator.
+     */
+    private final long stampDutyDenominator;
+    /**
+     * The fixed fee in minor units.
+     */
+    private final long fixedFeeUnits;
+
+    /**
+     * Constructs a <code>FeeSchedule</code> with name, percentage rate, stamp duty rate,
+     * stamp duty round up indicator and fixed fee.
+     *
+     * @param name             the name
+     * @param percentageRate   the percentage rate (e.g. 0.00005 for 0.005%)
+     * @param stampDutyRate    the stamp duty rate
+     * @param stampDutyRoundUp the stamp duty rounded up to the nearest whole unit indicator
+     * @param fixedFee         the fixed fee per transaction
+     * @throws IllegalArgumentException if any rate or fee is negative or too precise
+     */
+    public FeeSchedule(String name, BigDecimal percentageRate, BigDecimal stampDutyRate,
+                       boolean stampDutyRoundUp, BigDecimal fixedFee) {
+        this.name = Objects.requireNonNull(name);
+        validateRate(percentageRate);
+        validateRate(stampDutyRate);
+        if (fixedFee.signum() < 0 || !Money.isRepresentable(fixedFee)) {
+            throw new IllegalArgumentException("Invalid fixed fee " + fixedFee);
+        }
+        // a stamp duty not rounded up is just another percentage fee
+        this.percentageRate = stampDutyRoundUp ? percentageRate : percentageRate.add(stampDutyRate);
+        this.stampDutyRate = stampDutyRoundUp ? stampDutyRate : BigDecimal.ZERO;
+        this.fixedFee = fixedFee;
+
+        long[] percentageFraction = toFraction(this.percentageRate);
+        this.percentageNumerator = percentageFraction[0];
+        this.percentageDenominator = percentageFraction[1];
+        long[] stampDutyFraction = toFraction(this.stampDutyRate);
+        this.stampDutyNumerator = stampDutyFraction[0];
+        this.stampDutyDenominator = stampDutyFraction[1];
+        this.fixedFeeUnits = Money.of(fixedFee).getUnits();
+    }
+
+    /**
+     * Validates the rate is non-negative with at most 8 decimal places.
+     *
+     * @param rate the rate
+     * @throws IllegalArgumentException if the rate is negative or too precise
+     */
+    private static void validateRate(BigDecimal rate) {
+        if (rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0
+                || rate.stripTrailingZeros().scale() > MAX_RATE_SCALE) {
+            throw new IllegalArgumentException("Invalid rate " + rate);
+        }
+    }
+
+    /**
+     * Returns the rate as a reduced fraction (numerator, denominator).
+     *
+     * @param rate the rate
+     * @return the reduced fraction
+     */
+    private static long[] toFraction(BigDecimal rate) {
+        long numerator = rate.movePointRight(MAX_RATE_SCALE).longValueExact();
+        long denominator = BigInteger.TEN.pow(MAX_RATE_SCALE).longValueExact();
+        long gcd = BigInteger.valueOf(numerator).gcd(BigInteger.valueOf(denominator)).longValueExact();
+        return new long[]{numerator / gcd, denominator / gcd};
+    }
+
+    /**
+     * Returns the name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the fees in minor units, given the non-negative transaction cost in minor units.
+     * The percentage fees are rounded half up once,
+     * as the stamp duty and fixed fee are already whole minor units.
+     *
+     * @param transactionCostUnits the non-negative transaction cost in minor units
+     * @return the fees in minor units
+     * @throws ArithmeticException if the fees overflow
+     */
+    public long calculateFeeUnits(long transactionCostUnits) {
+        long percentageFees = Money.divide(Math.multiplyExact(transactionCostUnits, percentageNumerator),
+                percentageDenominator, RoundingMode.HALF_UP);
+        long stampDuty = 0L;
+        if (stampDutyNumerator != 0L) {
+            // rounding up to minor units then whole units equals rounding up to whole units
+            long stampDutyUnits = Money.divide(Math.multiplyExact(transactionCostUnits, stampDutyNumerator),
+                    stampDutyDenominator, RoundingMode.UP);
+            stampDuty = Math.multiplyExact(Money.divide(stampDutyUnits, Money.UNITS_PER_WHOLE, RoundingMode.UP),
+                    Money.UNITS_PER_WHOLE);
+        }
+        return Math.addExact(Math.addExact(percentageFees, stampDuty), fixedFeeUnits);
+    }
+
+    /**
+     * Returns the fees, given the non-negative transaction cost.
+     *
+     * @param transactionCost the non-negative transaction cost
+     * @return the fees
+     * @throws ArithmeticException if the fees overflow
+     */
+    public Money calculateFees(Money transactionCost) {
+        return Money.ofUnits(this.calculateFeeUnits(transactionCost.getUnits()));
+    }
+
+    /**
+     * Returns the fees (up to 4 decimal places), given the transaction cost.
+     * Calculated in minor units when the transaction cost is representable,
+     * otherwise in BigDecimal; both give identical results.
+     *
+     * @param transactionCost the transaction cost
+     * @return the fees
+     */
+    public BigDecimal calculateFees(BigDecimal transactionCost) {
+        if (transactionCost.signum() >= 0 && Money.isRepresentable(transactionCost)) {
+            try {
+                return BigDecimal.valueOf(this.calculateFeeUnits(Money.of(transactionCost).getUnits()), Money.SCALE);
+            } catch (ArithmeticException e) {
+                // too large for minor units, fall through to BigDecimal
+            }
+        }
+        return transactionCost.multiply(percentageRate)
+                .add(transactionCost.multiply(stampDutyRate).setScale(0, RoundingMode.UP))
+                .add(fixedFee)
+                .setScale(Money.SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the fee schedule in string.
+     *
+     * @return the fee schedule in string
+     */
+    @Override
+    public String toString() {
+        return name + "[percentageRate=" + percentageRate.toPlainString()
+                + ", stampDutyRate=" + stampDutyRate.toPlainString()
+                + ", fixedFee=" + fixedFee.toPlainString() + "]";
+    }
+
+}
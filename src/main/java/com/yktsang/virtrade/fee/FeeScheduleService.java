@@ -0,0 +1,205 @@
+/*
+ * FeeScheduleService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.fee;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * The fee schedule service.
+ * Selects the <code>FeeSchedule</code> by stock exchange, then by currency, then the default,
+ * from the fee schedule file (see <code>fee.schedule.location</code> in application.properties).
+ * The file is reloaded when modified, without restarting the application;
+ * an invalid file is rejected and the previous fee schedules are kept.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class FeeScheduleService {
+
+    /**
+     * The key prefix of the default fee schedule.
+     */
+    private static final String DEFAULT_PREFIX = "default";
+    /**
+     * The key prefix of the exchange fee schedules.
+     */
+    private static final String EXCHANGE_PREFIX = "exchange.";
+    /**
+     * The key prefix of the currency fee schedules.
+     */
+    private static final String CURRENCY_PREFIX = "currency.";
+    /**
+     * The key suffix of the percentage rates.
+     */
+    private static final String PERCENTAGE_RATES = ".percentage.rates";
+    /**
+     * The key suffix of the stamp duty rate.
+     */
+    private static final String STAMP_DUTY_RATE = ".stamp.duty.rate";
+    /**
+     * The key suffix of the stamp duty round up indicator.
+     */
+    private static final String STAMP_DUTY_ROUND_UP = ".stamp.duty.round.up";
+    /**
+     * The key suffix of the fixed fee.
+     */
+    private static final String FIXED_FEE = ".fixed.fee";
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(FeeScheduleService.class);
+    /**
+     * The fee schedule file.
+     */
+    @Value("${fee.schedule.location}")
+    private Resource location; // from application.properties
+    /**
+     * The last modified time of the loaded fee schedule file.
+     */
+    private long lastModified;
+    /**
+     * The loaded fee schedules, replaced as a whole upon reload.
+     */
+    private volatile FeeSchedules feeSchedules = new FeeSchedules(Map.of(), Map.of(), FeeSchedule.NO_FEES);
+
+    /**
+     * Loads the fee schedules at startup.
+     *
+     * @throws IOException if the fee schedule file cannot be read
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        lastModified = this.lastModified();
+        feeSchedules = this.load();
+        logger.info("fee schedules loaded={}", feeSchedules);
+    }
+
+    /**
+     * Reloads the fee schedules if the fee schedule file has been modified.
+     */
+    @Scheduled(fixedDelayString = "${fee.schedule.reload.interval.ms}",
+            initialDelayString = "${fee.schedule.reload.interval.ms}")
+    public synchronized void reloadIfModified() {
+        long modified = this.lastModified();
+        if (modified == lastModified) {
+            return;
+        }
+        try {
+            feeSchedules = this.load();
+            lastModified = modified;
+            logger.info("fee schedules reloaded={}", feeSchedules);
+        } catch (IOException | RuntimeException e) {
+            logger.error("fee schedules not reloaded", e);
+        }
+    }
+
+    /**
+     * Returns the <code>FeeSchedule</code>, given the stock exchange and currency.
+     *
+     * @param stockExchange the stock exchange (may be null)
+     * @param currency      the currency
+     * @return the FeeSchedule of the stock exchange, otherwise of the currency, otherwise the default
+     */
+    public FeeSchedule getFeeSchedule(String stockExchange, String currency) {
+        FeeSchedules current = feeSchedules;
+        FeeSchedule schedule = Objects.isNull(stockExchange) ? null : current.byExchange().get(stockExchange);
+        if (Objects.isNull(schedule) && Objects.nonNull(currency)) {
+            schedule = current.byCurrency().get(currency);
+        }
+        return Objects.isNull(schedule) ? current.defaultSchedule() : schedule;
+    }
+
+    /**
+     * Returns the last modified time of the fee schedule file, or 0 if unknown.
+     *
+     * @return the last modified time
+     */
+    private long lastModified() {
+        try {
+            return location.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Returns the fee schedules read from the fee schedule file.
+     *
+     * @return the fee schedules
+     * @throws IOException if the fee schedule file cannot be read
+     */
+    private FeeSchedules load() throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = location.getInputStream()) {
+            props.load(in);
+        }
+        Map<String, FeeSchedule> byExchange = new HashMap<>();
+        Map<String, FeeSchedule> byCurrency = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.endsWith(PERCENTAGE_RATES)) {
+                String prefix = key.substring(0, key.length() - PERCENTAGE_RATES.length());
+                if (prefix.startsWith(EXCHANGE_PREFIX)) {
+                    byExchange.put(prefix.substring(EXCHANGE_PREFIX.length()), compile(props, prefix));
+                } else if (prefix.startsWith(CURRENCY_PREFIX)) {
+                    byCurrency.put(prefix.substring(CURRENCY_PREFIX.length()), compile(props, prefix));
+                }
+            }
+        }
+        FeeSchedule defaultSchedule = props.containsKey(DEFAULT_PREFIX + PERCENTAGE_RATES)
+                ? compile(props, DEFAULT_PREFIX)
+                : FeeSchedule.NO_FEES;
+        return new FeeSchedules(Map.copyOf(byExchange), Map.copyOf(byCurrency), defaultSchedule);
+    }
+
+    /**
+     * Returns the <code>FeeSchedule</code> compiled from the properties with the key prefix.
+     * The percentage rates are comma separated and summed.
+     *
+     * @param props  the properties
+     * @param prefix the key prefix
+     * @return the FeeSchedule
+     * @throws IllegalArgumentException if any rate or fee is invalid
+     */
+    private static FeeSchedule compile(Properties props, String prefix) {
+        BigDecimal percentageRate = BigDecimal.ZERO;
+        for (String rate : props.getProperty(prefix + PERCENTAGE_RATES).split(",")) {
+            if (!rate.isBlank()) {
+                percentageRate = percentageRate.add(new BigDecimal(rate.trim()));
+            }
+        }
+        BigDecimal stampDutyRate = new BigDecimal(props.getProperty(prefix + STAMP_DUTY_RATE, "0").trim());
+        boolean stampDutyRoundUp = Boolean.parseBoolean(props.getProperty(prefix + STAMP_DUTY_ROUND_UP, "false").trim());
+        BigDecimal fixedFee = new BigDecimal(props.getProperty(prefix + FIXED_FEE, "0").trim());
+        return new FeeSchedule(prefix, percentageRate, stampDutyRate, stampDutyRoundUp, fixedFee);
+    }
+
+    /**
+     * The loaded fee schedules.
+     *
+     * @param byExchange      the fee schedules by stock exchange
+     * @param byCurrency      the fee schedules by currency
+     * @param defaultSchedule the default fee schedule
+     */
+    private record FeeSchedules(Map<String, FeeSchedule> byExchange, Map<String, FeeSchedule> byCurrency,
+                                FeeSchedule defaultSchedule) {
+    }
+
+}
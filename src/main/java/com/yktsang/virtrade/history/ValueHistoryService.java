@@ -0,0 +1,418 @@
+/*
+ * ValueHistoryService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.history;
+
+import com.yktsang.virtrade.response.ValuePoint;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.util.Money;
+import com.yktsang.virtrade.util.TimeSeriesCodec;
+import com.yktsang.virtrade.util.TimeSeriesCodec.Point;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The value history service.
+ * Records the end-of-day value of every portfolio (current amount) and account balance
+ * (trading and non-trading amount) as a time series, and serves ranges of it downsampled for charts.
+ * The closing prices of the stocks and indices are recorded alongside (with no email address),
+ * as the daily history for portfolio analytics.
+ * Each series keeps one row per month in the database table "value_history",
+ * its daily points encoded by <code>TimeSeriesCodec</code>, so that a year of a series is twelve small rows.
+ * The snapshot reads the portfolios and account balances in chunks (keyset paging) and
+ * writes each chunk with a JDBC batch upsert; recording the same date again replaces its point.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class ValueHistoryService {
+
+    /**
+     * The SQL selecting the next chunk of portfolios after the portfolio ID.
+     */
+    private static final String SELECT_PORTFOLIOS_SQL = "select pid, email, currency, current_amount " +
+            "from portfolio where pid > ? order by pid limit ?";
+    /**
+     * The SQL selecting the next chunk of account balances after the email address and currency.
+     * The balance events not compacted yet are added to the account balance.
+     */
+    private static final String SELECT_ACCOUNT_BALANCES_SQL = "select b.email, b.currency, " +
+            "b.trading_amount + b.non_trading_amount + coalesce((select sum(e.trading_amount + e.non_trading_amount) " +
+            "from balance_event e where e.email = b.email and e.currency = b.currency " +
+            "and e.compacted = 'N'), 0) as amount from account_balance b " +
+            "where b.email > ? or (b.email = ? and b.currency > ?) order by b.email, b.currency limit ?";
+    /**
+     * The SQL selecting the points of the series for the month.
+     */
+    private static final String SELECT_MONTH_SQL = "select series_key, points from value_history " +
+            "where month_start = :monthStart and series_key in (:seriesKeys)";
+    /**
+     * The SQL upserting the points of the series for the month.
+     */
+    private static final String UPSERT_MONTH_SQL = "insert into value_history " +
+            "(series_key, month_start, email, currency, point_count, points, last_updated_datetime) " +
+            "values (?, ?, ?, ?, ?, ?, ?) " +
+            "on duplicate key update point_count = values(point_count), points = values(points), " +
+            "last_updated_datetime = values(last_updated_datetime)";
+    /**
+     * The SQL selecting the months of the series within the range.
+     */
+    private static final String SELECT_RANGE_SQL = "select month_start, points from value_history " +
+            "where series_key = ? and month_start between ? and ? order by month_start";
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(ValueHistoryService.class);
+    /**
+     * The snapshot running indicator.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The named parameter JDBC template.
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    /**
+     * The transaction template.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    /**
+     * The stock provider.
+     */
+    @Autowired
+    private StockProvider stockProvider;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The number of portfolios or account balances per chunk.
+     */
+    @Value("${value.history.chunk.size}")
+    private int chunkSize; // from application.properties
+    /**
+     * The maximum number of points returned.
+     */
+    @Value("${value.history.max.points}")
+    private int maxPoints; // from application.properties
+
+    /**
+     * Returns the series key of the portfolio.
+     *
+     * @param portfolioId the portfolio ID
+     * @return the series key
+     */
+    public static String portfolioSeries(BigInteger portfolioId) {
+        return "portfolio:" + portfolioId;
+    }
+
+    /**
+     * Returns the series key of the account balance.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the series key
+     */
+    public static String balanceSeries(String email, String currency) {
+        return "balance:" + email + ":" + currency;
+    }
+
+    /**
+     * Returns the series key of the closing prices of the stock or index.
+     *
+     * @param symbol the trading symbol
+     * @return the series key
+     */
+    public static String priceSeries(String symbol) {
+        return "price:" + symbol;
+    }
+
+    /**
+     * Records today's values on schedule, on every shard.
+     */
+    @Scheduled(cron = "${value.history.cron}")
+    public void scheduledSnapshot() {
+        LocalDate today = LocalDate.now();
+        shardRouter.forEachShard(() -> this.snapshot(today));
+    }
+
+    /**
+     * Records the current value of every portfolio and account balance, and the price of every stock
+     * and index, as the point of the date.
+     *
+     * @param date the date of the points
+     * @return the number of series recorded, or -1 if the snapshot is already running
+     */
+    public int snapshot(LocalDate date) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("value history snapshot already running");
+            return -1;
+        }
+        try {
+            long start = System.nanoTime();
+            int series = this.snapshotPortfolios(date) + this.snapshotAccountBalances(date)
+                    + this.snapshotPrices(date);
+            logger.info("value history recorded {} series in {} ms", series,
+                    (System.nanoTime() - start) / 1_000_000L);
+            return series;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns the points of the series within the range, downsampled to at most the number of points
+     * by keeping the last point of each run of consecutive points.
+     *
+     * @param seriesKey the series key
+     * @param dateRange the date range
+     * @param points    the maximum number of points, capped by the configured maximum
+     * @return the values in ascending date order
+     */
+    public List<ValuePoint> getHistory(String seriesKey, DateRange dateRange, int points) {
+        return downsample(this.getPoints(seriesKey, dateRange), Math.min(Math.max(points, 1), maxPoints)).stream()
+                .map(p -> new ValuePoint(p.date(), Money.ofUnits(p.units()).toBigDecimal()))
+                .toList();
+    }
+
+    /**
+     * Returns all points of the series within the range.
+     *
+     * @param seriesKey the series key
+     * @param dateRange the date range
+     * @return the points in ascending date order
+     */
+    public List<Point> getPoints(String seriesKey, DateRange dateRange) {
+        LocalDate from = dateRange.from();
+        LocalDate to = dateRange.to();
+        List<Point> range = new ArrayList<>();
+        jdbcTemplate.query(SELECT_RANGE_SQL, rs -> {
+            LocalDate monthStart = rs.getObject("month_start", LocalDate.class);
+            for (Point p : TimeSeriesCodec.decode(monthStart, rs.getBytes("points"))) {
+                if (!p.date().isBefore(from) && !p.date().isAfter(to)) {
+                    range.add(p);
+                }
+            }
+        }, seriesKey, from.withDayOfMonth(1), to.withDayOfMonth(1));
+        return range;
+    }
+
+    /**
+     * Deletes the series of the email address (e.g. after reset).
+     *
+     * @param email the email address
+     */
+    public void deleteHistory(String email) {
+        jdbcTemplate.update("delete from value_history where email = ?", email);
+    }
+
+    /**
+     * Deletes the series of the email address for the currency (e.g. after reset).
+     *
+     * @param email    the email address
+     * @param currency the currency
+     */
+    public void deleteHistory(String email, String currency) {
+        jdbcTemplate.update("delete from value_history where email = ? and currency = ?", email, currency);
+    }
+
+    /**
+     * Returns the points, keeping the last point of each run of consecutive points
+     * so that at most the number of points remain.
+     *
+     * @param points    the points in ascending date order
+     * @param maxPoints the maximum number of points
+     * @return the points in ascending date order
+     */
+    private static List<Point> downsample(List<Point> points, int maxPoints) {
+        if (points.size() <= maxPoints) {
+            return points;
+        }
+        int bucket = (points.size() + maxPoints - 1) / maxPoints;
+        List<Point> sampled = new ArrayList<>(maxPoints);
+        for (int i = bucket - 1; i < points.size() + bucket - 1; i += bucket) {
+            sampled.add(points.get(Math.min(i, points.size() - 1)));
+        }
+        return sampled;
+    }
+
+    /**
+     * Records the current amount of every portfolio.
+     *
+     * @param date the date of the points
+     * @return the number of series recorded
+     */
+    private int snapshotPortfolios(LocalDate date) {
+        int count = 0;
+        BigInteger lastPortfolioId = BigInteger.ZERO;
+        List<BigInteger> portfolioIds = new ArrayList<>();
+        List<SeriesValue> chunk;
+        do {
+            portfolioIds.clear();
+            chunk = jdbcTemplate.query(SELECT_PORTFOLIOS_SQL, (rs, i) -> {
+                BigInteger portfolioId = rs.getObject("pid", BigInteger.class);
+                portfolioIds.add(portfolioId);
+                return new SeriesValue(portfolioSeries(portfolioId), rs.getString("email"),
+                        rs.getString("currency"), rs.getBigDecimal("current_amount"));
+            }, lastPortfolioId, chunkSize);
+            if (!chunk.isEmpty()) {
+                this.record(date, chunk);
+                lastPortfolioId = portfolioIds.get(portfolioIds.size() - 1);
+                count += chunk.size();
+            }
+        } while (chunk.size() == chunkSize);
+        return count;
+    }
+
+    /**
+     * Records the trading and non-trading amount of every account balance.
+     *
+     * @param date the date of the points
+     * @return the number of series recorded
+     */
+    private int snapshotAccountBalances(LocalDate date) {
+        int count = 0;
+        String lastEmail = "";
+        String lastCurrency = "";
+        List<SeriesValue> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_ACCOUNT_BALANCES_SQL,
+                    (rs, i) -> new SeriesValue(balanceSeries(rs.getString("email"), rs.getString("currency")),
+                            rs.getString("email"), rs.getString("currency"), rs.getBigDecimal("amount")),
+                    lastEmail, lastEmail, lastCurrency, chunkSize);
+            if (!chunk.isEmpty()) {
+                this.record(date, chunk);
+                SeriesValue last = chunk.get(chunk.size() - 1);
+                lastEmail = last.email();
+                lastCurrency = last.currency();
+                count += chunk.size();
+            }
+        } while (chunk.size() == chunkSize);
+        return count;
+    }
+
+    /**
+     * Records the price of every stock and index.
+     *
+     * @param date the date of the points
+     * @return the number of series recorded
+     */
+    private int snapshotPrices(LocalDate date) {
+        List<SeriesValue> prices = new ArrayList<>();
+        try {
+            for (YahooStock s : stockProvider.getStocks()) {
+                if (Objects.nonNull(s.getQuote()) && Objects.nonNull(s.getQuote().getPrice())) {
+                    prices.add(new SeriesValue(priceSeries(s.getSymbol()), "",
+                            Objects.requireNonNullElse(s.getCurrency(), ""), s.getQuote().getPrice()));
+                }
+            }
+        } catch (IOException ioe) {
+            logger.error(ioe.getMessage());
+        }
+        for (int i = 0; i < prices.size(); i += chunkSize) {
+            this.record(date, prices.subList(i, Math.min(i + chunkSize, prices.size())));
+        }
+        return prices.size();
+    }
+
+    /**
+     * Adds the point of the date to the month of each series and writes the months in one batch.
+     *
+     * @param date   the date of the points
+     * @param values the values of the series
+     */
+    private void record(LocalDate date, List<SeriesValue> values) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        Map<String, byte[]> existing = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_MONTH_SQL,
+                Map.of("monthStart", monthStart, "seriesKeys", values.stream().map(SeriesValue::seriesKey).toList()),
+                rs -> {
+                    existing.put(rs.getString("series_key"), rs.getBytes("points"));
+                });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(values.size());
+        for (SeriesValue v : values) {
+            byte[] encoded = existing.get(v.seriesKey());
+            List<Point> points = Objects.isNull(encoded) ? List.of() : TimeSeriesCodec.decode(monthStart, encoded);
+            long units = Objects.isNull(v.amount()) ? 0L : Money.of(v.amount(), RoundingMode.HALF_UP).getUnits();
+            points = TimeSeriesCodec.put(points, new Point(date, units));
+            args.add(new Object[]{v.seriesKey(), monthStart, v.email(), v.currency(), points.size(),
+                    TimeSeriesCodec.encode(monthStart, points), now});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_MONTH_SQL, args));
+    }
+
+    /**
+     * The date range of a history request.
+     *
+     * @param from the first date
+     * @param to   the last date
+     */
+    public record DateRange(LocalDate from, LocalDate to) {
+
+        /**
+         * Returns the date range from the dates in yyyy-MM-dd.
+         * The last date defaults to today and the first date to one year before the last date.
+         *
+         * @param fromDate the first date, or null or empty for the default
+         * @param toDate   the last date, or null or empty for the default
+         * @return the date range, or empty if a date is invalid or the first date is after the last date
+         */
+        public static Optional<DateRange> parse(String fromDate, String toDate) {
+            try {
+                LocalDate to = Objects.isNull(toDate) || toDate.isEmpty() ? LocalDate.now() : LocalDate.parse(toDate);
+                LocalDate from = Objects.isNull(fromDate) || fromDate.isEmpty()
+                        ? to.minusYears(1).plusDays(1) : LocalDate.parse(fromDate);
+                return from.isAfter(to) ? Optional.empty() : Optional.of(new DateRange(from, to));
+            } catch (DateTimeParseException dtpe) {
+                return Optional.empty();
+            }
+        }
+
+    }
+
+    /**
+     * The value of a series.
+     *
+     * @param seriesKey the series key
+     * @param email     the email address
+     * @param currency  the currency
+     * @param amount    the value
+     */
+    private record SeriesValue(String seriesKey, String email, String currency, BigDecimal amount) {
+    }
+
+}
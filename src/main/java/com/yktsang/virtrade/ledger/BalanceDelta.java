@@ -0,0 +1,23 @@
+/*
+ * BalanceDelta.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.ledger;
+
+import java.math.BigDecimal;
+
+/**
+ * The sum of the balance events of a currency not yet compacted into the account balance snapshot.
+ *
+ * @param currency         the currency
+ * @param tradingAmount    the change to the trading amount
+ * @param nonTradingAmount the change to the non-trading amount
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public record BalanceDelta(String currency, BigDecimal tradingAmount, BigDecimal nonTradingAmount) {
+}
@@ -0,0 +1,338 @@
+/*
+ * BalanceLedgerService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.ledger;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The balance ledger service.
+ * Every change to an account balance is appended to the "balance_event" table as a typed balance event,
+ * and the account balance row holds a snapshot of the compacted balance events.
+ * The current balance is the snapshot plus the balance events not compacted yet,
+ * so writes append rather than update the account balance row.
+ * A balance checked before appending a balance event is read locked (see <code>lockBalance</code>),
+ * so that concurrent transactions of a member cannot both pass the check on the same balance;
+ * the writes of a member in one currency therefore run one after another.
+ * The balance events are compacted into the snapshots periodically: in one transaction, the account balances
+ * are locked, the balance events not compacted yet are added to the snapshots and marked compacted.
+ * As every transaction appending a balance event holds the lock of its account balance,
+ * the balance events added are exactly those marked, however late a transaction commits,
+ * and concurrent compactions on several nodes never add the same balance events twice.
+ * The current balance should be read within a transaction, so that the snapshot and the balance events
+ * are read consistently while a compaction is running.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class BalanceLedgerService {
+
+    /**
+     * The SQL selecting the next chunk of account balances with balance events to compact,
+     * after the email address and currency.
+     */
+    private static final String SELECT_PENDING_SQL = "select distinct email, currency from balance_event " +
+            "where compacted = 'N' and (email, currency) > (?, ?) order by email, currency limit ?";
+    /**
+     * The SQL selecting the sums of the balance events of the account balance not compacted yet,
+     * as a locking read seeing the balance events committed since the transaction started.
+     */
+    private static final String SELECT_PENDING_LOCKED_SQL = "select " +
+            "coalesce(sum(trading_amount), 0) as trading_amount, " +
+            "coalesce(sum(non_trading_amount), 0) as non_trading_amount " +
+            "from balance_event where email = ? and currency = ? and compacted = 'N' lock in share mode";
+    /**
+     * The SQL adding the sums to the snapshot.
+     */
+    private static final String UPDATE_SNAPSHOT_SQL = "update account_balance " +
+            "set trading_amount = trading_amount + ?, non_trading_amount = non_trading_amount + ?, " +
+            "snapshot_datetime = ?, last_updated_datetime = ? " +
+            "where email = ? and currency = ?";
+    /**
+     * The SQL replacing the snapshot with the sums of all the balance events.
+     */
+    private static final String REBUILD_SNAPSHOT_SQL = "update account_balance b " +
+            "set trading_amount = (select coalesce(sum(e.trading_amount), 0) from balance_event e " +
+            "where e.email = b.email and e.currency = b.currency), " +
+            "non_trading_amount = (select coalesce(sum(e.non_trading_amount), 0) from balance_event e " +
+            "where e.email = b.email and e.currency = b.currency), " +
+            "snapshot_datetime = ?, last_updated_datetime = ? " +
+            "where b.email = ? and b.currency = ?";
+    /**
+     * The SQL marking all the balance events of the email address and currency compacted.
+     */
+    private static final String MARK_COMPACTED_SQL = "update balance_event set compacted = 'Y' " +
+            "where email = ? and currency = ? and compacted = 'N'";
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(BalanceLedgerService.class);
+    /**
+     * The compaction running indicator.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /**
+     * The account balance repository.
+     */
+    @Autowired
+    private AccountBalanceRepository acctBalRepo;
+    /**
+     * The balance event repository.
+     */
+    @Autowired
+    private BalanceEventRepository balanceEventRepo;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The transaction template.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The number of account balances compacted per chunk.
+     */
+    @Value("${ledger.snapshot.chunk.size}")
+    private int chunkSize; // from application.properties
+
+    /**
+     * Returns the current balance of the email address for the currency.
+     * The balance returned is not managed, changes to it are not saved.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the current balance, or empty if the account balance does not exist
+     */
+    public Optional<AccountBalance> currentBalance(String email, String currency) {
+        return acctBalRepo.findById(new AccountBalancePK(email, currency))
+                .map(snapshot -> this.currentBalances(email, List.of(snapshot)).get(0));
+    }
+
+    /**
+     * Returns the current balance of the email address for the currency, locking the account balance
+     * until the transaction ends, so that concurrent transactions checking the balance before appending
+     * a balance event of the email address for the currency run one after another.
+     * Must be called within a transaction.
+     * The balance returned is not managed, changes to it are not saved.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the current balance, or empty if the account balance does not exist
+     */
+    public Optional<AccountBalance> lockBalance(String email, String currency) {
+        return acctBalRepo.findForUpdate(email, currency)
+                .map(snapshot -> apply(snapshot, jdbcTemplate.queryForObject(SELECT_PENDING_LOCKED_SQL,
+                        (rs, rowNum) -> new BalanceDelta(currency,
+                                rs.getBigDecimal("trading_amount"), rs.getBigDecimal("non_trading_amount")),
+                        email, currency)));
+    }
+
+    /**
+     * Returns the current balances of the email address, given the snapshots.
+     * The balances returned are not managed, changes to them are not saved.
+     *
+     * @param email     the email address
+     * @param snapshots the account balances
+     * @return the current balances in the order of the snapshots
+     */
+    public List<AccountBalance> currentBalances(String email, List<AccountBalance> snapshots) {
+        if (snapshots.isEmpty()) {
+            return snapshots;
+        }
+        Map<String, BalanceDelta> deltas = balanceEventRepo.sumPendingByEmailAndCurrencies(email,
+                        snapshots.stream().map(AccountBalance::getCurrency).toList())
+                .stream()
+                .collect(Collectors.toMap(BalanceDelta::currency, Function.identity()));
+        return snapshots.stream()
+                .map(snapshot -> apply(snapshot, deltas.get(snapshot.getCurrency())))
+                .toList();
+    }
+
+    /**
+     * Opens an empty account balance of the email address for the currency.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the account balance
+     */
+    public AccountBalance open(String email, String currency) {
+        return acctBalRepo.save(new AccountBalance(email, currency, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    /**
+     * Appends a balance event.
+     * The account balance must have been locked (see <code>lockBalance</code>) or opened in the transaction.
+     *
+     * @param email                the email address
+     * @param currency             the currency
+     * @param eventType            the event type
+     * @param tradingAmount        the change to the trading amount
+     * @param nonTradingAmount     the change to the non-trading amount
+     * @param accountTransactionId the ID of the account transaction describing the event
+     * @return the balance event
+     */
+    public BalanceEvent append(String email, String currency, BalanceEventType eventType,
+                               BigDecimal tradingAmount, BigDecimal nonTradingAmount,
+                               BigInteger accountTransactionId) {
+        return balanceEventRepo.save(new BalanceEvent(email, currency, eventType,
+                tradingAmount, nonTradingAmount, accountTransactionId));
+    }
+
+    /**
+     * Runs the compaction on schedule, on every shard.
+     */
+    @Scheduled(fixedDelayString = "${ledger.snapshot.interval.ms}")
+    public void scheduledCompact() {
+        shardRouter.forEachShard(this::compact);
+    }
+
+    /**
+     * Compacts the balance events into the snapshots.
+     *
+     * @return the number of account balances compacted, or empty if the compaction is already running
+     */
+    public OptionalLong compact() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("balance ledger compaction already running");
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(this.compactAll());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Compacts the balance events not compacted yet into the snapshots, one chunk per database transaction.
+     *
+     * @return the number of account balances compacted
+     */
+    public long compactAll() {
+        int size = Math.max(chunkSize, 1);
+        String lastEmail = "";
+        String lastCurrency = "";
+        long compacted = 0L;
+        List<Map<String, Object>> chunk;
+        do {
+            chunk = jdbcTemplate.queryForList(SELECT_PENDING_SQL, lastEmail, lastCurrency, size);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Map<String, Object>> balances = chunk;
+            compacted += Objects.requireNonNullElse(transactionTemplate.execute(status ->
+                    this.compactChunk(balances)), 0);
+            Map<String, Object> last = chunk.get(chunk.size() - 1);
+            lastEmail = (String) last.get("email");
+            lastCurrency = (String) last.get("currency");
+        } while (chunk.size() == size);
+        logger.info("balance ledger compacted balances={}", compacted);
+        return compacted;
+    }
+
+    /**
+     * Compacts the balance events of the chunk of account balances, within a database transaction.
+     * The account balances are locked before the balance events are read,
+     * so no balance event of theirs commits between summing and marking the balance events.
+     *
+     * @param balances the email addresses and currencies of the account balances
+     * @return the number of account balances compacted
+     */
+    private int compactChunk(List<Map<String, Object>> balances) {
+        String keys = String.join(", ", Collections.nCopies(balances.size(), "(?, ?)"));
+        Object[] keyArgs = balances.stream()
+                .flatMap(balance -> Stream.of(balance.get("email"), balance.get("currency")))
+                .toArray();
+        jdbcTemplate.queryForList("select email from account_balance where (email, currency) in (" + keys + ") "
+                + "order by email, currency for update", keyArgs);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> sums = jdbcTemplate.query("select email, currency, "
+                        + "sum(trading_amount) as trading_amount, sum(non_trading_amount) as non_trading_amount "
+                        + "from balance_event where compacted = 'N' and (email, currency) in (" + keys + ") "
+                        + "group by email, currency", (rs, rowNum) -> new Object[]{
+                        rs.getBigDecimal("trading_amount"), rs.getBigDecimal("non_trading_amount"), now, now,
+                        rs.getString("email"), rs.getString("currency")},
+                keyArgs);
+        if (sums.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT_SQL, sums);
+        jdbcTemplate.update("update balance_event set compacted = 'Y' "
+                + "where compacted = 'N' and (email, currency) in (" + keys + ")", keyArgs);
+        return sums.size();
+    }
+
+    /**
+     * Rebuilds the snapshot of the email address for the currency from all its balance events,
+     * replacing the amounts of the snapshot and marking all its balance events compacted.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     * @return the current balance, or empty if the account balance does not exist
+     */
+    public Optional<AccountBalance> rebuild(String email, String currency) {
+        int rebuilt = Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList("select email from account_balance where email = ? and currency = ? "
+                    + "for update", email, currency);
+            LocalDateTime now = LocalDateTime.now();
+            int updated = jdbcTemplate.update(REBUILD_SNAPSHOT_SQL, now, now, email, currency);
+            jdbcTemplate.update(MARK_COMPACTED_SQL, email, currency);
+            return updated;
+        }), 0);
+        logger.info("balance ledger rebuilt {} {}={}", email, currency, rebuilt);
+        return Objects.requireNonNullElse(transactionTemplate.execute(status ->
+                this.currentBalance(email, currency)), Optional.empty());
+    }
+
+    /**
+     * Returns a copy of the snapshot with the balance events since the snapshot added.
+     *
+     * @param snapshot the account balance
+     * @param delta    the sums of the balance events since the snapshot, or null if none
+     * @return the current balance
+     */
+    private static AccountBalance apply(AccountBalance snapshot, BalanceDelta delta) {
+        AccountBalance current = new AccountBalance(snapshot.getEmail(), snapshot.getCurrency(),
+                snapshot.getTradingAmount(), snapshot.getNonTradingAmount());
+        if (Objects.nonNull(delta)) {
+            current.setTradingAmount(current.getTradingAmount().add(delta.tradingAmount()));
+            current.setNonTradingAmount(current.getNonTradingAmount().add(delta.nonTradingAmount()));
+        }
+        current.setCreationDateTime(snapshot.getCreationDateTime());
+        current.setLastUpdatedDateTime(snapshot.getLastUpdatedDateTime());
+        current.setSnapshotDateTime(snapshot.getSnapshotDateTime());
+        return current;
+    }
+
+}
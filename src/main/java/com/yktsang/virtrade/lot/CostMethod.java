@@ -0,0 +1,28 @@
+/*
+ * CostMethod.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.lot;
+
+/**
+ * The cost method matching sold quantities against open lots.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public enum CostMethod {
+
+    /**
+     * First in, first out: sells consume the oldest lots first.
+     */
+    FIFO,
+    /**
+     * Average cost: buys are merged into one lot at the average cost.
+     */
+    AVERAGE
+
+}
@@ -0,0 +1,191 @@
+/*
+ * LotBook.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.lot;
+
+import com.yktsang.virtrade.util.Money;
+
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * The open lots of one trading symbol, with the realized profit and loss of the lots closed.
+ * Amounts are in minor units (see <code>Money</code>).
+ * A sell consumes the open lots by the <code>CostMethod</code>, taking a partly consumed lot's cost
+ * pro rata (rounded half up), so that the cost basis always equals the sum of the open lots' cost.
+ * Any quantity sold beyond the open quantity is taken at zero cost.
+ * The cost basis, open quantity and realized profit and loss are kept as running totals.
+ * Not thread-safe.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public final class LotBook {
+
+    /**
+     * The cost method.
+     */
+    private final CostMethod costMethod;
+    /**
+     * The open lots, oldest first.
+     */
+    private final Deque<Lot> lots = new ArrayDeque<>();
+    /**
+     * The open quantity.
+     */
+    private long openQuantity;
+    /**
+     * The cost basis of the open lots in minor units.
+     */
+    private long costBasisUnits;
+    /**
+     * The realized profit and loss in minor units.
+     */
+    private long realizedUnits;
+
+    /**
+     * Constructs a <code>LotBook</code> with cost method.
+     *
+     * @param costMethod the cost method
+     */
+    public LotBook(CostMethod costMethod) {
+        this.costMethod = Objects.requireNonNull(costMethod);
+    }
+
+    /**
+     * Opens a lot, or adds to the single lot for average cost.
+     *
+     * @param quantity  the quantity bought
+     * @param costUnits the cost in minor units
+     * @throws ArithmeticException if the amounts overflow
+     */
+    public void buy(long quantity, long costUnits) {
+        if (quantity <= 0L) {
+            return;
+        }
+        Lot last = lots.peekLast();
+        if (costMethod == CostMethod.AVERAGE && Objects.nonNull(last)) {
+            last.quantity = Math.addExact(last.quantity, quantity);
+            last.costUnits = Math.addExact(last.costUnits, costUnits);
+        } else {
+            lots.addLast(new Lot(quantity, costUnits));
+        }
+        openQuantity = Math.addExact(openQuantity, quantity);
+        costBasisUnits = Math.addExact(costBasisUnits, costUnits);
+    }
+
+    /**
+     * Closes the quantity from the open lots and realizes the profit and loss.
+     *
+     * @param quantity      the quantity sold
+     * @param proceedsUnits the proceeds in minor units
+     * @throws ArithmeticException if the amounts overflow
+     */
+    public void sell(long quantity, long proceedsUnits) {
+        if (quantity <= 0L) {
+            return;
+        }
+        long remaining = quantity;
+        long closedCost = 0L;
+        while (remaining > 0L && !lots.isEmpty()) {
+            Lot first = lots.peekFirst();
+            if (first.quantity <= remaining) {
+                remaining -= first.quantity;
+                closedCost = Math.addExact(closedCost, first.costUnits);
+                lots.removeFirst();
+            } else {
+                long partCost = Money.divide(Math.multiplyExact(first.costUnits, remaining),
+                        first.quantity, RoundingMode.HALF_UP);
+                first.quantity -= remaining;
+                first.costUnits -= partCost;
+                closedCost = Math.addExact(closedCost, partCost);
+                remaining = 0L;
+            }
+        }
+        openQuantity -= quantity - remaining;
+        costBasisUnits -= closedCost;
+        realizedUnits = Math.addExact(realizedUnits, Math.subtractExact(proceedsUnits, closedCost));
+    }
+
+    /**
+     * Returns the open quantity.
+     *
+     * @return the open quantity
+     */
+    public long getOpenQuantity() {
+        return openQuantity;
+    }
+
+    /**
+     * Returns the number of open lots.
+     *
+     * @return the number of open lots
+     */
+    public int getOpenLots() {
+        return lots.size();
+    }
+
+    /**
+     * Returns the cost basis of the open lots in minor units.
+     *
+     * @return the cost basis in minor units
+     */
+    public long getCostBasisUnits() {
+        return costBasisUnits;
+    }
+
+    /**
+     * Returns the realized profit and loss in minor units.
+     *
+     * @return the realized profit and loss in minor units
+     */
+    public long getRealizedUnits() {
+        return realizedUnits;
+    }
+
+    /**
+     * Returns the unrealized profit and loss in minor units, given the price.
+     *
+     * @param priceUnits the price in minor units
+     * @return the unrealized profit and loss in minor units
+     * @throws ArithmeticException if the amounts overflow
+     */
+    public long getUnrealizedUnits(long priceUnits) {
+        return Math.subtractExact(Math.multiplyExact(openQuantity, priceUnits), costBasisUnits);
+    }
+
+    /**
+     * The open lot.
+     */
+    private static final class Lot {
+
+        /**
+         * The open quantity.
+         */
+        private long quantity;
+        /**
+         * The cost of the open quantity in minor units.
+         */
+        private long costUnits;
+
+        /**
+         * Constructs a <code>Lot</code> with quantity and cost.
+         *
+         * @param quantity  the quantity
+         * @param costUnits the cost in minor units
+         */
+        private Lot(long quantity, long costUnits) {
+            this.quantity = quantity;
+            this.costUnits = costUnits;
+        }
+
+    }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * LotTrackingService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.lot;
+
+import com.yktsang.virtrade.entity.TradingDeed;
+import com.yktsang.virtrade.entity.TradingTransaction;
+import com.yktsang.virtrade.entity.TradingTransactionRepository;
+import com.yktsang.virtrade.response.PortfolioProfitLoss;
+import com.yktsang.virtrade.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The lot tracking service.
+ * Keeps a <code>LotBook</code> per portfolio and trading symbol from the trading transactions
+ * linked to the portfolio, in trading transaction ID order, so that the cost basis and
+ * realized and unrealized profit and loss are available without rescanning the transactions.
+ * A portfolio is loaded upon first use; transactions linked after the last one of their trading symbol
+ * are applied incrementally, while unlinking or linking an earlier transaction replays that
+ * trading symbol only.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class LotTrackingService {
+
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(LotTrackingService.class);
+    /**
+     * The lots by portfolio ID.
+     */
+    private final Map<BigInteger, PortfolioLots> portfolios = new ConcurrentHashMap<>();
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The cost method.
+     */
+    @Value("${lot.cost.method}")
+    private CostMethod costMethod; // from application.properties
+
+    /**
+     * Returns the cost basis of the open lots of the portfolio.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @return the cost basis
+     */
+    public BigDecimal getCostBasis(String email, BigInteger portfolioId) {
+        PortfolioLots lots = this.getPortfolioLots(email, portfolioId);
+        synchronized (lots) {
+            long costBasis = 0L;
+            for (SymbolLots s : lots.symbols.values()) {
+                costBasis = Math.addExact(costBasis, s.book.getCostBasisUnits());
+            }
+            return Money.ofUnits(costBasis).toBigDecimal();
+        }
+    }
+
+    /**
+     * Returns the open quantities of the portfolio.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @return the open quantities by trading symbol, excluding closed trading symbols
+     */
+    public Map<String, Long> getOpenQuantities(String email, BigInteger portfolioId) {
+        PortfolioLots lots = this.getPortfolioLots(email, portfolioId);
+        synchronized (lots) {
+            Map<String, Long> quantities = new TreeMap<>();
+            lots.symbols.forEach((symbol, s) -> {
+                if (s.book.getOpenQuantity() > 0L) {
+                    quantities.put(symbol, s.book.getOpenQuantity());
+                }
+            });
+            return quantities;
+        }
+    }
+
+    /**
+     * Returns the profit and loss of the portfolio.
+     * Open lots of a trading symbol without a price are taken at cost.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @param priceOf     the price of the trading symbol, or null if unknown
+     * @return the profit and loss
+     */
+    public PortfolioProfitLoss getProfitLoss(String email, BigInteger portfolioId,
+                                             Function<String, BigDecimal> priceOf) {
+        PortfolioLots lots = this.getPortfolioLots(email, portfolioId);
+        synchronized (lots) {
+            long costBasis = 0L;
+            long realized = 0L;
+            long unrealized = 0L;
+            for (Map.Entry<String, SymbolLots> e : lots.symbols.entrySet()) {
+                LotBook book = e.getValue().book;
+                costBasis = Math.addExact(costBasis, book.getCostBasisUnits());
+                realized = Math.addExact(realized, book.getRealizedUnits());
+                BigDecimal price = book.getOpenQuantity() > 0L ? priceOf.apply(e.getKey()) : null;
+                if (Objects.nonNull(price)) {
+                    unrealized = Math.addExact(unrealized,
+                            book.getUnrealizedUnits(Money.of(price, RoundingMode.HALF_UP).getUnits()));
+                }
+            }
+            return new PortfolioProfitLoss(Money.ofUnits(costBasis).toBigDecimal(),
+                    Money.ofUnits(realized).toBigDecimal(), Money.ofUnits(unrealized).toBigDecimal());
+        }
+    }
+
+    /**
+     * Applies the trading transactions just linked to the portfolio.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @param txns        the trading transactions linked
+     */
+    public synchronized void onLinked(String email, BigInteger portfolioId, Collection<TradingTransaction> txns) {
+        PortfolioLots lots = portfolios.get(portfolioId);
+        if (Objects.isNull(lots)) {
+            // loaded with the linked transactions upon first use
+            return;
+        }
+        Map<String, List<TradingTransaction>> txnsOfSymbol = new HashMap<>();
+        txns.forEach(t -> txnsOfSymbol.computeIfAbsent(t.getTradingSymbol(), k -> new ArrayList<>()).add(t));
+        synchronized (lots) {
+            for (Map.Entry<String, List<TradingTransaction>> e : txnsOfSymbol.entrySet()) {
+                SymbolLots symbolLots = lots.symbols.get(e.getKey());
+                List<TradingTransaction> linked = e.getValue();
+                linked.sort(Comparator.comparing(TradingTransaction::getTradingTransactionId));
+                if (Objects.isNull(symbolLots)
+                        || linked.get(0).getTradingTransactionId().compareTo(symbolLots.lastTransactionId) > 0) {
+                    symbolLots = Objects.isNull(symbolLots) ? new SymbolLots(costMethod) : symbolLots;
+                    linked.forEach(symbolLots::apply);
+                    lots.symbols.put(e.getKey(), symbolLots);
+                } else {
+                    this.replay(email, portfolioId, lots, e.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the trading symbols of the trading transactions just unlinked from the portfolio.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @param txns        the trading transactions unlinked
+     */
+    public synchronized void onUnlinked(String email, BigInteger portfolioId, Collection<TradingTransaction> txns) {
+        PortfolioLots lots = portfolios.get(portfolioId);
+        if (Objects.isNull(lots)) {
+            return;
+        }
+        Set<String> symbols = new HashSet<>();
+        txns.forEach(t -> symbols.add(t.getTradingSymbol()));
+        synchronized (lots) {
+            symbols.forEach(symbol -> this.replay(email, portfolioId, lots, symbol));
+        }
+    }
+
+    /**
+     * Discards the lots of the email address (e.g. after reset).
+     *
+     * @param email the email address
+     */
+    public synchronized void invalidate(String email) {
+        portfolios.values().removeIf(lots -> lots.email.equals(email));
+    }
+
+    /**
+     * Returns the lots of the portfolio, loading them if absent.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @return the lots of the portfolio
+     */
+    private PortfolioLots getPortfolioLots(String email, BigInteger portfolioId) {
+        PortfolioLots lots = portfolios.get(portfolioId);
+        if (Objects.nonNull(lots) && lots.email.equals(email)) {
+            return lots;
+        }
+        synchronized (this) {
+            lots = portfolios.get(portfolioId);
+            if (Objects.isNull(lots) || !lots.email.equals(email)) {
+                lots = new PortfolioLots(email);
+                List<TradingTransaction> txns = new ArrayList<>(tradingTxnRepo.findByPortfolioId(email, portfolioId));
+                txns.sort(Comparator.comparing(TradingTransaction::getTradingTransactionId));
+                for (TradingTransaction t : txns) {
+                    lots.symbols.computeIfAbsent(t.getTradingSymbol(), k -> new SymbolLots(costMethod)).apply(t);
+                }
+                portfolios.put(portfolioId, lots);
+                logger.info("portfolio lots loaded");
+            }
+            return lots;
+        }
+    }
+
+    /**
+     * Replays the trading transactions of the trading symbol linked to the portfolio.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID
+     * @param lots        the lots of the portfolio
+     * @param symbol      the trading symbol
+     */
+    private void replay(String email, BigInteger portfolioId, PortfolioLots lots, String symbol) {
+        List<TradingTransaction> txns = tradingTxnRepo.findByPortfolioId(email, portfolioId).stream()
+                .filter(t -> t.getTradingSymbol().equals(symbol))
+                .sorted(Comparator.comparing(TradingTransaction::getTradingTransactionId))
+                .toList();
+        if (txns.isEmpty()) {
+            lots.symbols.remove(symbol);
+        } else {
+            SymbolLots symbolLots = new SymbolLots(costMethod);
+            txns.forEach(symbolLots::apply);
+            lots.symbols.put(symbol, symbolLots);
+        }
+    }
+
+    /**
+     * The lots of a portfolio, guarded by its own lock.
+     */
+    private static final class PortfolioLots {
+
+        /**
+         * The email address.
+         */
+        private final String email;
+        /**
+         * The lots by trading symbol.
+         */
+        private final Map<String, SymbolLots> symbols = new HashMap<>();
+
+        /**
+         * Constructs a <code>PortfolioLots</code> with email address.
+         *
+         * @param email the email address
+         */
+        private PortfolioLots(String email) {
+            this.email = email;
+        }
+
+    }
+
+    /**
+     * The lots of a trading symbol with the last trading transaction applied.
+     */
+    private static final class SymbolLots {
+
+        /**
+         * The lot book.
+         */
+        private final LotBook book;
+        /**
+         * The last trading transaction ID applied.
+         */
+        private BigInteger lastTransactionId = BigInteger.ZERO;
+
+        /**
+         * Constructs a <code>SymbolLots</code> with cost method.
+         *
+         * @param costMethod the cost method
+         */
+        private SymbolLots(CostMethod costMethod) {
+            this.book = new LotBook(costMethod);
+        }
+
+        /**
+         * Applies the trading transaction.
+         *
+         * @param t the trading transaction
+         */
+        private void apply(TradingTransaction t) {
+            long amount = Money.of(t.getTransactionCost(), RoundingMode.HALF_UP).getUnits();
+            if (t.getTradingDeed().equals(TradingDeed.BUY)) {
+                book.buy(t.getQuantity(), amount);
+            } else {
+                book.sell(t.getQuantity(), amount);
+            }
+            lastTransactionId = t.getTradingTransactionId();
+        }
+
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * TransactionOutboxService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.outbox;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The transaction outbox service.
+ * The trades only insert a transaction outbox entry carrying the amounts, committed with the trade.
+ * The entries are drained on schedule in batches: described, inserted into the "account_transaction" table
+ * under the account transaction ID reserved by the entry, copied into the "bank_account_transaction" table
+ * for transfers, and deleted, all in one database transaction per batch.
+ * Until drained, the entries are not listed in the account or bank account transactions.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class TransactionOutboxService {
+
+    /**
+     * The SQL inserting the account transaction under the account transaction ID of the entry.
+     */
+    private static final String INSERT_ACCOUNT_TRANSACTION_SQL = "insert into account_transaction " +
+            "(atid, email, currency, transaction_datetime, transaction_description) values (?, ?, ?, ?, ?)";
+    /**
+     * The amount format of the descriptions, one per thread as the format is not thread-safe.
+     */
+    private static final ThreadLocal<DecimalFormat> AMOUNT_FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#,###.0000"));
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(TransactionOutboxService.class);
+    /**
+     * The drain running indicator.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /**
+     * The transaction outbox repository.
+     */
+    @Autowired
+    private TransactionOutboxRepository outboxRepo;
+    /**
+     * The bank account transaction repository.
+     */
+    @Autowired
+    private BankAccountTransactionRepository bankAcctTxnRepo;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The transaction template.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The number of entries drained per batch.
+     */
+    @Value("${outbox.drain.batch.size}")
+    private int batchSize; // from application.properties
+
+    /**
+     * Adds the entry to the transaction outbox, within the transaction of the trade.
+     *
+     * @param entry the transaction outbox entry
+     * @return the entry, with the account transaction ID reserved
+     */
+    public TransactionOutbox enqueue(TransactionOutbox entry) {
+        return outboxRepo.save(entry);
+    }
+
+    /**
+     * Runs the drain on schedule, on every shard.
+     */
+    @Scheduled(fixedDelayString = "${outbox.drain.interval.ms}")
+    public void scheduledDrain() {
+        shardRouter.forEachShard(this::drain);
+    }
+
+    /**
+     * Drains the transaction outbox into the transaction tables, one batch per database transaction.
+     *
+     * @return the number of entries drained, or empty if the drain is already running
+     */
+    public OptionalLong drain() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("transaction outbox drain already running");
+            return OptionalLong.empty();
+        }
+        try {
+            int size = Math.max(batchSize, 1);
+            long drained = 0L;
+            int batch;
+            do {
+                batch = Objects.requireNonNullElse(transactionTemplate.execute(status -> this.drainBatch(size)), 0);
+                drained += batch;
+            } while (batch == size);
+            if (drained > 0) {
+                logger.info("transaction outbox drained={}", drained);
+            }
+            return OptionalLong.of(drained);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Drains the oldest batch of the transaction outbox, within a database transaction.
+     *
+     * @param size the batch size
+     * @return the number of entries drained
+     */
+    private int drainBatch(int size) {
+        List<TransactionOutbox> entries = outboxRepo.findOldestForUpdate(size);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        DecimalFormat amountFormat = AMOUNT_FORMAT.get();
+        List<Object[]> acctTxns = new ArrayList<>(entries.size());
+        List<BankAccountTransaction> bankTxns = new ArrayList<>();
+        for (TransactionOutbox entry : entries) {
+            String txnDesc = describe(entry, amountFormat);
+            acctTxns.add(new Object[]{entry.getAccountTransactionId(), entry.getEmail(), entry.getCurrency(),
+                    entry.getTransactionDateTime(), txnDesc});
+            if (Objects.nonNull(entry.getBankCurrency())) {
+                BankAccountTransaction bankTxn =
+                        new BankAccountTransaction(entry.getEmail(), entry.getBankCurrency(), txnDesc);
+                bankTxn.setTransactionDateTime(entry.getTransactionDateTime());
+                bankTxns.add(bankTxn);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ACCOUNT_TRANSACTION_SQL, acctTxns);
+        bankAcctTxnRepo.saveAll(bankTxns);
+        outboxRepo.bulkDeleteByIds(entries.stream().map(TransactionOutbox::getAccountTransactionId).toList());
+        return entries.size();
+    }
+
+    /**
+     * Returns the transaction description of the entry.
+     *
+     * @param entry        the transaction outbox entry
+     * @param amountFormat the amount format
+     * @return the transaction description
+     */
+    public static String describe(TransactionOutbox entry, DecimalFormat amountFormat) {
+        String amount = entry.getCurrency() + " " + amountFormat.format(entry.getAmount());
+        return switch (entry.getOutboxType()) {
+            case DEPOSIT -> "Deposited " + amount;
+            case BUY -> "Bought " + describeTrade(entry, amount);
+            case SELL -> "Sold " + describeTrade(entry, amount);
+            case TRANSFER -> "Transferred " + amount
+                    + " to bank " + entry.getBankName()
+                    + " with bank account number " + entry.getBankAccountNumber()
+                    + " for currency " + entry.getBankCurrency();
+            case AUTO_TRANSFER -> "Transferred " + amount
+                    + " to bank " + entry.getBankName()
+                    + " with account number " + entry.getBankAccountNumber()
+                    + " for currency " + entry.getBankCurrency();
+        };
+    }
+
+    /**
+     * Returns the description of the trade of the entry, without the trading deed,
+     * as in the transaction description and the trade response.
+     *
+     * @param entry the transaction outbox entry of the trade
+     * @return the trade description
+     */
+    public static String describeTrade(TransactionOutbox entry) {
+        return describeTrade(entry, entry.getCurrency() + " " + AMOUNT_FORMAT.get().format(entry.getAmount()));
+    }
+
+    /**
+     * Returns the description of the trade of the entry.
+     *
+     * @param entry  the transaction outbox entry
+     * @param amount the formatted total cost
+     * @return the trade description
+     */
+    private static String describeTrade(TransactionOutbox entry, String amount) {
+        return entry.getQuantity() + " shares of "
+                + entry.getTradingSymbol() + " at " + entry.getCurrency() + " "
+                + entry.getTransactionPrice()
+                + ", total cost " + amount;
+    }
+
+}
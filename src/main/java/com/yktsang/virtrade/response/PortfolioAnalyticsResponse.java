@@ -0,0 +1,41 @@
+/*
+ * PortfolioAnalyticsResponse.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+/**
+ * The portfolio analytics response.
+ * Fields come from <code>com.yktsang.virtrade.analytics.PortfolioAnalyticsService</code>.
+ *
+ * @param portfolioId          the portfolio ID
+ * @param benchmark            the trading symbol of the benchmark index
+ * @param asOfDate             the date of the last closing price measured
+ * @param observations         the number of daily returns measured
+ * @param annualizedVolatility the annualized volatility of the daily returns
+ * @param beta                 the beta against the benchmark index, or null if the benchmark did not move
+ * @param valueAtRisk          the one-day historical value at risk
+ * @param confidenceLevel      the confidence level of the value at risk
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public record PortfolioAnalyticsResponse(BigInteger portfolioId,
+                                         String benchmark,
+                                         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+                                         LocalDate asOfDate,
+                                         int observations,
+                                         BigDecimal annualizedVolatility,
+                                         BigDecimal beta,
+                                         BigDecimal valueAtRisk,
+                                         BigDecimal confidenceLevel) {
+}
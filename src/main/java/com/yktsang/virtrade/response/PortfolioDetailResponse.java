@@ -15,9 +15,22 @@ import java.util.List;
  *
  * @param portfolio           the portfolio
  * @param tradingTransactions the trading transactions for the portfolio
+ * @param profitLoss          the profit and loss from the open lots of the portfolio
  * @author Tsang Yiu Kee Kay
  * @version 1.0
  */
 public record PortfolioDetailResponse(Portfolio portfolio,
-                                      List<TradingTransaction> tradingTransactions) {
+                                      List<TradingTransaction> tradingTransactions,
+                                      PortfolioProfitLoss profitLoss) {
+
+    /**
+     * Constructs a <code>PortfolioDetailResponse</code> without profit and loss.
+     *
+     * @param portfolio           the portfolio
+     * @param tradingTransactions the trading transactions for the portfolio
+     */
+    public PortfolioDetailResponse(Portfolio portfolio, List<TradingTransaction> tradingTransactions) {
+        this(portfolio, tradingTransactions, null);
+    }
+
 }
@@ -0,0 +1,25 @@
+/*
+ * PortfolioProfitLoss.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.response;
+
+import java.math.BigDecimal;
+
+/**
+ * The profit and loss of the portfolio from its open lots.
+ * Fields come from <code>com.yktsang.virtrade.lot.LotTrackingService</code>.
+ *
+ * @param costBasis            the cost basis of the open lots
+ * @param realizedProfitLoss   the realized profit and loss of the lots closed
+ * @param unrealizedProfitLoss the unrealized profit and loss of the open lots at the last prices
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public record PortfolioProfitLoss(BigDecimal costBasis,
+                                  BigDecimal realizedProfitLoss, BigDecimal unrealizedProfitLoss) {
+}
@@ -15,6 +15,8 @@ import com.yktsang.virtrade.util.DateTimeUtil;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Date;
 
@@ -45,6 +47,33 @@ public record TradingTransaction(BigInteger tradingTransactionId, String email,
                                  String transactionCurrency, BigDecimal transactionPrice,
                                  BigDecimal transactionCost, BigInteger portfolioId) {
 
+    /**
+     * Constructs a <code>TradingTransaction</code> with the URL encoded trading symbol derived from the trading symbol.
+     * Used by the constructor expressions of <code>TradingTransactionRepository</code>,
+     * where the converted trading deed is typed as an enum.
+     *
+     * @param tradingTransactionId the trading transaction ID
+     * @param email                the email address
+     * @param tradingSymbol        the trading symbol
+     * @param tradingSymbolName    the trading symbol name
+     * @param transactionDate      the transaction date
+     * @param tradingDeed          the trading deed
+     * @param quantity             the quantity
+     * @param transactionCurrency  the transaction currency
+     * @param transactionPrice     the transaction price
+     * @param transactionCost      the transaction cost
+     * @param portfolioId          the portfolio ID
+     */
+    public TradingTransaction(BigInteger tradingTransactionId, String email,
+                              String tradingSymbol, String tradingSymbolName,
+                              LocalDate transactionDate, Enum<TradingDeed> tradingDeed, Integer quantity,
+                              String transactionCurrency, BigDecimal transactionPrice,
+                              BigDecimal transactionCost, BigInteger portfolioId) {
+        this(tradingTransactionId, email, tradingSymbol, URLEncoder.encode(tradingSymbol, StandardCharsets.UTF_8),
+                tradingSymbolName, transactionDate, (TradingDeed) tradingDeed, quantity,
+                transactionCurrency, transactionPrice, transactionCost, portfolioId);
+    }
+
     /**
      * Returns the trading transaction ID as string.
      *
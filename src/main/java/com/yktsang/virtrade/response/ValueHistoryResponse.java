@@ -0,0 +1,22 @@
+/*
+ * ValueHistoryResponse.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.response;
+
+import java.util.List;
+
+/**
+ * The value history response.
+ *
+ * @param currency the currency of the values
+ * @param points   the values in ascending date order
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public record ValueHistoryResponse(String currency, List<ValuePoint> points) {
+}
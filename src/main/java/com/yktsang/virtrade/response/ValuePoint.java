@@ -0,0 +1,28 @@
+/*
+ * ValuePoint.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The value on a date.
+ * Fields come from <code>com.yktsang.virtrade.history.ValueHistoryService</code>.
+ *
+ * @param date  the date
+ * @param value the value at the end of the date
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public record ValuePoint(@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+                         LocalDate date,
+                         BigDecimal value) {
+}
@@ -0,0 +1,303 @@
+/*
+ * PreTradeRiskService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.risk;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The pre-trade risk service.
+ * Checks each buy order against the limits of the trader's risk tolerance level,
+ * in percent of the account balance (trading and non-trading amount) of the currency:
+ * single order notional, position concentration in one symbol and daily turnover.
+ * Sell orders reduce the exposure and are never rejected, but count towards the daily turnover.
+ * The positions and turnover are kept in memory per account and currency, loaded once from the
+ * trading transactions and then updated incrementally by each order; updates are undone if the
+ * order's transaction rolls back.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class PreTradeRiskService {
+
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(PreTradeRiskService.class);
+    /**
+     * The risk states by account and currency.
+     */
+    private final Map<AccountCurrency, RiskState> riskStates = new ConcurrentHashMap<>();
+    /**
+     * The trader repository.
+     */
+    @Autowired
+    private TraderRepository traderRepo;
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The single order notional limits (in percent) by risk tolerance level.
+     */
+    @Value("#{${risk.limit.order.notional.percent}}")
+    private Map<String, Integer> orderNotionalLimits; // from application.properties
+    /**
+     * The position concentration limits (in percent) by risk tolerance level.
+     */
+    @Value("#{${risk.limit.concentration.percent}}")
+    private Map<String, Integer> concentrationLimits; // from application.properties
+    /**
+     * The daily turnover limits (in percent) by risk tolerance level.
+     */
+    @Value("#{${risk.limit.daily.turnover.percent}}")
+    private Map<String, Integer> dailyTurnoverLimits; // from application.properties
+
+    /**
+     * Checks the buy order against the risk limits and reserves it if within limits.
+     *
+     * @param balance       the account balance before the order
+     * @param symbol        the trading symbol
+     * @param quantity      the quantity to buy
+     * @param price         the transaction price
+     * @param orderNotional the order notional (transaction cost)
+     * @return the reason of rejection, or empty if within limits
+     */
+    public Optional<String> checkBuy(AccountBalance balance, String symbol, int quantity,
+                                     BigDecimal price, BigDecimal orderNotional) {
+        AccountCurrency key = new AccountCurrency(balance.getEmail(), balance.getCurrency());
+        RiskState state = this.getRiskState(key);
+        long equity = Money.of(balance.getTradingAmount().add(balance.getNonTradingAmount()),
+                RoundingMode.HALF_UP).getUnits();
+        long notional = Money.of(orderNotional, RoundingMode.HALF_UP).getUnits();
+        long priceUnits = Money.of(price, RoundingMode.HALF_UP).getUnits();
+
+        synchronized (state) {
+            String level = state.riskTolerance.name();
+            state.rollTurnoverDate();
+            if (exceeds(notional, equity, orderNotionalLimits.get(level))) {
+                return Optional.of("Order exceeds " + orderNotionalLimits.get(level)
+                        + "% of account balance for " + level + " risk tolerance");
+            }
+            long position = state.quantities.getOrDefault(symbol, 0L) + quantity;
+            if (exceeds(multiply(position, priceUnits), equity, concentrationLimits.get(level))) {
+                return Optional.of("Position in " + symbol + " exceeds " + concentrationLimits.get(level)
+                        + "% of account balance for " + level + " risk tolerance");
+            }
+            if (exceeds(state.turnover + notional, equity, dailyTurnoverLimits.get(level))) {
+                return Optional.of("Daily turnover exceeds " + dailyTurnoverLimits.get(level)
+                        + "% of account balance for " + level + " risk tolerance");
+            }
+            state.apply(symbol, quantity, notional);
+        }
+        this.undoOnRollback(key, state, symbol, quantity, notional);
+        return Optional.empty();
+    }
+
+    /**
+     * Records the sell order.
+     *
+     * @param email         the email address
+     * @param currency      the currency
+     * @param symbol        the trading symbol
+     * @param quantity      the quantity sold
+     * @param orderNotional the order notional (transaction cost)
+     */
+    public void recordSell(String email, String currency, String symbol, int quantity, BigDecimal orderNotional) {
+        AccountCurrency key = new AccountCurrency(email, currency);
+        RiskState state = this.getRiskState(key);
+        long notional = Money.of(orderNotional, RoundingMode.HALF_UP).getUnits();
+        synchronized (state) {
+            state.rollTurnoverDate();
+            state.apply(symbol, -quantity, notional);
+        }
+        this.undoOnRollback(key, state, symbol, -quantity, notional);
+    }
+
+    /**
+     * Discards the risk states of the email address,
+     * so that they are reloaded upon next order (e.g. after risk tolerance change or reset).
+     *
+     * @param email the email address
+     */
+    public void invalidate(String email) {
+        riskStates.keySet().removeIf(k -> k.email().equals(email));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // discard again once committed, in case an order reloaded the uncommitted state
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    riskStates.keySet().removeIf(k -> k.email().equals(email));
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the risk state, loading it from the database if absent.
+     *
+     * @param key the account and currency
+     * @return the risk state
+     */
+    private RiskState getRiskState(AccountCurrency key) {
+        RiskState state = riskStates.get(key);
+        if (Objects.nonNull(state)) {
+            return state;
+        }
+        RiskToleranceLevel riskTolerance = traderRepo.findById(key.email())
+                .map(Trader::getRiskTolerance)
+                .orElse(RiskToleranceLevel.MEDIUM);
+        RiskState loaded = new RiskState(Objects.requireNonNullElse(riskTolerance, RiskToleranceLevel.MEDIUM));
+        LocalDate today = LocalDate.now();
+        for (TradingTransaction t : tradingTxnRepo.findByEmailAndCurrency(key.email(), key.currency())) {
+            int quantity = t.getTradingDeed().equals(TradingDeed.BUY) ? t.getQuantity() : -t.getQuantity();
+            long notional = t.getTransactionDate().equals(today)
+                    ? Money.of(t.getTransactionCost(), RoundingMode.HALF_UP).getUnits() : 0L;
+            loaded.apply(t.getTradingSymbol(), quantity, notional);
+        }
+        logger.info("risk state loaded");
+        RiskState existing = riskStates.putIfAbsent(key, loaded);
+        return Objects.isNull(existing) ? loaded : existing;
+    }
+
+    /**
+     * Undoes the order on the risk state if the transaction rolls back.
+     *
+     * @param key      the account and currency
+     * @param state    the risk state
+     * @param symbol   the trading symbol
+     * @param quantity the quantity (negative for sell)
+     * @param notional the order notional in minor units
+     */
+    private void undoOnRollback(AccountCurrency key, RiskState state, String symbol, int quantity, long notional) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    if (status == STATUS_UNKNOWN) {
+                        riskStates.remove(key, state);
+                        return;
+                    }
+                    synchronized (state) {
+                        state.apply(symbol, -quantity, -notional);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns true if the value exceeds the percentage of the base, false otherwise.
+     *
+     * @param value   the value in minor units
+     * @param base    the base in minor units
+     * @param percent the percentage
+     * @return true if the value exceeds the percentage of the base, false otherwise
+     */
+    private static boolean exceeds(long value, long base, int percent) {
+        return multiply(value, 100L) > multiply(base, percent);
+    }
+
+    /**
+     * Returns the product, saturated at <code>Long.MAX_VALUE</code> upon overflow.
+     *
+     * @param a the multiplicand
+     * @param b the multiplier
+     * @return the product
+     */
+    private static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return (high == 0L && low >= 0L) || (high == -1L && low < 0L) ? low : Long.MAX_VALUE;
+    }
+
+    /**
+     * The account and currency.
+     *
+     * @param email    the email address
+     * @param currency the currency
+     */
+    private record AccountCurrency(String email, String currency) {
+    }
+
+    /**
+     * The risk state of an account and currency, guarded by its own lock.
+     */
+    private static final class RiskState {
+
+        /**
+         * The risk tolerance level.
+         */
+        private final RiskToleranceLevel riskTolerance;
+        /**
+         * The outstanding quantities by trading symbol.
+         */
+        private final Map<String, Long> quantities = new HashMap<>();
+        /**
+         * The date of the turnover.
+         */
+        private LocalDate turnoverDate = LocalDate.now();
+        /**
+         * The turnover in minor units.
+         */
+        private long turnover;
+
+        /**
+         * Constructs a <code>RiskState</code> with risk tolerance level.
+         *
+         * @param riskTolerance the risk tolerance level
+         */
+        private RiskState(RiskToleranceLevel riskTolerance) {
+            this.riskTolerance = riskTolerance;
+        }
+
+        /**
+         * Resets the turnover on a new day.
+         */
+        private void rollTurnoverDate() {
+            LocalDate today = LocalDate.now();
+            if (!today.equals(turnoverDate)) {
+                turnoverDate = today;
+                turnover = 0L;
+            }
+        }
+
+        /**
+         * Applies the order.
+         *
+         * @param symbol   the trading symbol
+         * @param quantity the quantity (negative for sell)
+         * @param notional the order notional in minor units
+         */
+        private void apply(String symbol, long quantity, long notional) {
+            quantities.merge(symbol, quantity, Long::sum);
+            turnover += notional;
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * ConsistentHashRing.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * The consistent hash ring mapping email addresses to shards.
+ * Each shard is placed on the ring at several virtual nodes, and an email address belongs to
+ * the shard of the first virtual node at or after its hash, wrapping around.
+ * Adding a shard only moves the email addresses falling just before its virtual nodes,
+ * about one in the new number of shards, so rebalancing copies little data.
+ * The shards are named by number: "0" for the home shard, then "1" and so on.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class ConsistentHashRing {
+
+    /**
+     * The shards in number order.
+     */
+    private final List<String> shards;
+    /**
+     * The shards by the hash of their virtual nodes.
+     */
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    /**
+     * Constructs a <code>ConsistentHashRing</code> with number of shards and number of virtual nodes per shard.
+     *
+     * @param shardCount   the number of shards, at least 1
+     * @param virtualNodes the number of virtual nodes per shard, at least 1
+     */
+    public ConsistentHashRing(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("shards=" + shardCount + " virtualNodes=" + virtualNodes);
+        }
+        List<String> names = new ArrayList<>(shardCount);
+        for (int s = 0; s < shardCount; s++) {
+            String shard = Integer.toString(s);
+            names.add(shard);
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash(shard + "#" + v), shard);
+            }
+        }
+        this.shards = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Returns the shards in number order.
+     *
+     * @return the unmodifiable list of shards
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    /**
+     * Returns the shard of the email address, ignoring case.
+     *
+     * @param email the email address
+     * @return the shard
+     */
+    public String shardOf(String email) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map.Entry<Long, String> node = ring.ceilingEntry(hash(email.toLowerCase(Locale.ROOT)));
+        return Objects.requireNonNullElse(node, ring.firstEntry()).getValue();
+    }
+
+    /**
+     * Returns the hash of the key, the first 8 bytes of its MD5 digest.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0L;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * ShardRebalancer.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * The shard rebalancer.
+ * Moves every member whose account is not on the shard chosen by the consistent hash ring,
+ * e.g. after a shard is added, by copying the member's rows of every member table to the new shard
+ * in chunks (see <code>shard.rebalance.chunk.size</code> in application.properties)
+ * and then deleting them from the old shard. The copy replaces whatever a failed move left behind,
+ * so an interrupted rebalance is completed by running it again.
+ * Runs upon startup when enabled (see <code>shard.rebalance.enabled</code> in application.properties),
+ * and should be run in a maintenance window, as a member being moved must not trade meanwhile.
+ * A named lock on the home shard lets one node rebalance at a time, the others skip it.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class ShardRebalancer implements ApplicationRunner {
+
+    /**
+     * The member tables, keyed by email address, in the order of insertion
+     * (the trading transactions reference the portfolios).
+     */
+    public static final List<String> MEMBER_TABLES = List.of("account", "trader", "account_balance",
+            "account_transaction", "account_transaction_archive", "bank_account", "bank_account_transaction",
+            "bank_account_transaction_archive", "watch_list", "portfolio", "trading_transaction", "idempotency_key",
+            "value_history", "balance_event", "transaction_outbox");
+    /**
+     * The primary key columns of the member tables.
+     */
+    private static final Map<String, List<String>> KEY_COLUMNS = Map.ofEntries(
+            Map.entry("account", List.of("email")),
+            Map.entry("trader", List.of("email")),
+            Map.entry("account_balance", List.of("email", "currency")),
+            Map.entry("account_transaction", List.of("atid")),
+            Map.entry("account_transaction_archive", List.of("atid")),
+            Map.entry("bank_account", List.of("baid")),
+            Map.entry("bank_account_transaction", List.of("batid")),
+            Map.entry("bank_account_transaction_archive", List.of("batid")),
+            Map.entry("watch_list", List.of("wlid")),
+            Map.entry("portfolio", List.of("pid")),
+            Map.entry("trading_transaction", List.of("ttid")),
+            Map.entry("idempotency_key", List.of("email", "idempotency_key")),
+            Map.entry("value_history", List.of("series_key", "month_start")),
+            Map.entry("balance_event", List.of("beid")),
+            Map.entry("transaction_outbox", List.of("atid")));
+    /**
+     * The name of the lock held while rebalancing.
+     */
+    private static final String LOCK_NAME = "virtrade.shard.rebalance";
+    /**
+     * The SQL taking the lock without waiting, 1 if taken.
+     */
+    private static final String GET_LOCK_SQL = "select get_lock(?, 0)";
+    /**
+     * The SQL releasing the lock.
+     */
+    private static final String RELEASE_LOCK_SQL = "select release_lock(?)";
+    /**
+     * The SQL selecting the email addresses of the accounts.
+     */
+    private static final String SELECT_EMAILS_SQL = "select email from account";
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * Whether to rebalance upon startup.
+     */
+    @Value("${shard.rebalance.enabled}")
+    private boolean enabled; // from application.properties
+    /**
+     * The number of rows copied per chunk.
+     */
+    @Value("${shard.rebalance.chunk.size}")
+    private int chunkSize; // from application.properties
+
+    /**
+     * Rebalances the shards upon startup if enabled.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            this.rebalance();
+        }
+    }
+
+    /**
+     * Moves every member on the wrong shard to the shard of the member's email address,
+     * unless another node is rebalancing.
+     *
+     * @return the number of members moved
+     */
+    public int rebalance() {
+        if (!shardRouter.isSharded()) {
+            return 0;
+        }
+        // the lock belongs to the connection of the home shard transaction, kept across the moves
+        return shardRouter.callOnHome(() -> {
+            if (!Objects.equals(1, jdbcTemplate.queryForObject(GET_LOCK_SQL, Integer.class, LOCK_NAME))) {
+                logger.warn("shards being rebalanced by another node");
+                return 0;
+            }
+            try {
+                return this.moveAll();
+            } finally {
+                jdbcTemplate.queryForObject(RELEASE_LOCK_SQL, Integer.class, LOCK_NAME);
+            }
+        });
+    }
+
+    /**
+     * Moves every member on the wrong shard to the shard of the member's email address.
+     *
+     * @return the number of members moved
+     */
+    private int moveAll() {
+        int moved = 0;
+        for (String source : shardRouter.shards()) {
+            List<String> emails = shardRouter.callOn(source, () ->
+                    jdbcTemplate.queryForList(SELECT_EMAILS_SQL, String.class));
+            for (String email : emails) {
+                String target = shardRouter.shardOf(email);
+                if (!target.equals(source)) {
+                    this.move(email, source, target);
+                    moved++;
+                }
+            }
+        }
+        logger.info("shards rebalanced, members moved={}", moved);
+        return moved;
+    }
+
+    /**
+     * Moves the member's rows of every member table from the source shard to the target shard,
+     * deleting the leftovers on the target, copying the rows in chunks of one transaction each
+     * and then deleting them in one transaction on the source.
+     *
+     * @param email  the email address
+     * @param source the shard holding the member
+     * @param target the shard of the member's email address
+     */
+    public void move(String email, String source, String target) {
+        shardRouter.callOn(target, () -> {
+            this.delete(email);
+            return null;
+        });
+        long rows = 0L;
+        for (String table : MEMBER_TABLES) {
+            rows += this.copy(table, email, source, target);
+        }
+        shardRouter.callOn(source, () -> {
+            this.delete(email);
+            return null;
+        });
+        logger.info("member moved from shard {} to shard {}, rows={}", source, target, rows);
+    }
+
+    /**
+     * Copies the member's rows of the table from the source shard to the target shard,
+     * one chunk at a time in primary key order.
+     *
+     * @param table  the table
+     * @param email  the email address
+     * @param source the shard holding the member
+     * @param target the shard of the member's email address
+     * @return the number of rows copied
+     */
+    private long copy(String table, String email, String source, String target) {
+        List<String> keys = KEY_COLUMNS.get(table);
+        String keyColumns = String.join(", ", keys);
+        String firstSql = "select * from " + table + " where email = ? order by " + keyColumns + " limit ?";
+        String nextSql = "select * from " + table + " where email = ? and (" + keyColumns + ") > ("
+                + String.join(", ", Collections.nCopies(keys.size(), "?")) + ") order by " + keyColumns + " limit ?";
+        int size = Math.max(chunkSize, 1);
+        long copied = 0L;
+        List<Object> lastKey = List.of();
+        List<Map<String, Object>> chunk;
+        do {
+            List<Object> args = new ArrayList<>();
+            args.add(email);
+            args.addAll(lastKey);
+            args.add(size);
+            String sql = lastKey.isEmpty() ? firstSql : nextSql;
+            chunk = shardRouter.callOn(source, () -> jdbcTemplate.queryForList(sql, args.toArray()));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Map<String, Object>> rows = chunk;
+            shardRouter.callOn(target, () -> {
+                this.insert(table, rows);
+                return null;
+            });
+            copied += chunk.size();
+            Map<String, Object> last = chunk.get(chunk.size() - 1);
+            lastKey = keys.stream().map(last::get).toList();
+        } while (chunk.size() == size);
+        return copied;
+    }
+
+    /**
+     * Deletes the member's rows of every member table, in the reverse order of insertion.
+     *
+     * @param email the email address
+     */
+    private void delete(String email) {
+        for (int i = MEMBER_TABLES.size() - 1; i >= 0; i--) {
+            jdbcTemplate.update("delete from " + MEMBER_TABLES.get(i) + " where email = ?", email);
+        }
+    }
+
+    /**
+     * Inserts the rows into the table, keeping every column.
+     *
+     * @param table the table
+     * @param rows  the rows by column name
+     */
+    private void insert(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        jdbcTemplate.batchUpdate(sql, rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .toList());
+    }
+
+}
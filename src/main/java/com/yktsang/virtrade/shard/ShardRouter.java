@@ -0,0 +1,285 @@
+/*
+ * ShardRouter.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.shard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The shard router.
+ * The member data is keyed by email address, so each member lives on one shard chosen by consistent hashing
+ * (see <code>shard.datasource.urls</code> in application.properties), while the reference data
+ * (the ISO data and its cache version) lives on the home shard.
+ * The requests of a member are routed to the member's shard by the data source;
+ * this router pins the shard for work done on behalf of another member, before authentication,
+ * on the reference data, and for the scheduled jobs, and scatters the admin queries across the shards.
+ * With a single shard every method simply runs the work in the caller's context.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class ShardRouter {
+
+    /**
+     * The home shard, holding the reference data.
+     */
+    public static final String HOME_SHARD = "0";
+    /**
+     * The shard pinned to the current thread.
+     */
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+    /**
+     * The transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    /**
+     * The URLs of the shards besides the home shard.
+     */
+    @Value("${shard.datasource.urls:}")
+    private String[] shardUrls; // from application.properties
+    /**
+     * The number of virtual nodes per shard.
+     */
+    @Value("${shard.virtual.nodes}")
+    private int virtualNodes; // from application.properties
+    /**
+     * The consistent hash ring.
+     */
+    private ConsistentHashRing ring;
+    /**
+     * The executor of the scattered queries, or null with a single shard.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Initializes the consistent hash ring and the executor of the scattered queries.
+     */
+    @PostConstruct
+    public void init() {
+        ring = new ConsistentHashRing(1 + shardUrls.length, virtualNodes);
+        if (this.isSharded()) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "shard-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops the executor of the scattered queries.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the shard pinned to the current thread.
+     *
+     * @return the shard, or empty if none is pinned
+     */
+    public static Optional<String> currentShard() {
+        return Optional.ofNullable(CURRENT_SHARD.get());
+    }
+
+    /**
+     * Returns the shards in number order, the home shard first.
+     *
+     * @return the unmodifiable list of shards
+     */
+    public List<String> shards() {
+        return ring.getShards();
+    }
+
+    /**
+     * Returns true if there is more than one shard, false otherwise.
+     *
+     * @return true if sharded, false otherwise
+     */
+    public boolean isSharded() {
+        return ring.getShards().size() > 1;
+    }
+
+    /**
+     * Returns the shard of the email address.
+     *
+     * @param email the email address
+     * @return the shard
+     */
+    public String shardOf(String email) {
+        return ring.shardOf(email);
+    }
+
+    /**
+     * Runs the work in a new transaction on the shard.
+     * The transaction of the caller, if any, is suspended meanwhile.
+     *
+     * @param shard the shard
+     * @param work  the work
+     * @param <T>   the type of the result
+     * @return the result of the work
+     */
+    public <T> T callOn(String shard, Supplier<T> work) {
+        if (!this.isSharded()) {
+            return work.get();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return this.pinned(shard, () -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    /**
+     * Runs the work in a new transaction on the shard of the email address.
+     *
+     * @param email the email address
+     * @param work  the work
+     * @param <T>   the type of the result
+     * @return the result of the work
+     */
+    public <T> T callOnMember(String email, Supplier<T> work) {
+        return this.callOn(this.shardOf(email), work);
+    }
+
+    /**
+     * Runs the work in a new transaction on the home shard.
+     *
+     * @param work the work
+     * @param <T>  the type of the result
+     * @return the result of the work
+     */
+    public <T> T callOnHome(Supplier<T> work) {
+        return this.callOn(HOME_SHARD, work);
+    }
+
+    /**
+     * Runs the work once per shard in turn, with the shard pinned but without a transaction,
+     * so that the work manages its own transactions. Must not be called within a transaction.
+     *
+     * @param work the work
+     */
+    public void forEachShard(Runnable work) {
+        if (!this.isSharded()) {
+            work.run();
+            return;
+        }
+        for (String shard : this.shards()) {
+            this.pinned(shard, () -> {
+                work.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs the query on every shard in parallel, each in a new transaction,
+     * and returns the results in shard order.
+     *
+     * @param query the query
+     * @param <T>   the type of the results
+     * @return the results of all shards
+     */
+    public <T> List<T> scatterGather(Supplier<List<T>> query) {
+        if (!this.isSharded()) {
+            return query.get();
+        }
+        List<CompletableFuture<List<T>>> futures = this.shards().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> this.callOn(shard, query), executor))
+                .toList();
+        List<T> gathered = new ArrayList<>();
+        try {
+            futures.forEach(future -> gathered.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+        return gathered;
+    }
+
+    /**
+     * Runs the paged query on every shard in parallel and merges the results into the page.
+     * Each shard returns its first records up to the end of the page, which are merged in the order,
+     * so the order must be the one of the query.
+     *
+     * @param pageable the page requested
+     * @param order    the order of the query
+     * @param query    the paged query
+     * @param <T>      the type of the records
+     * @return the page of records across all shards
+     */
+    public <T> Page<T> scatterGather(Pageable pageable, Comparator<? super T> order,
+                                     Function<Pageable, Page<T>> query) {
+        if (!this.isSharded()) {
+            return query.apply(pageable);
+        }
+        Pageable head = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()))
+                : pageable;
+        List<Page<T>> pages = this.scatterGather(() -> List.of(query.apply(head)));
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<T> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(order)
+                .toList();
+        if (pageable.isPaged()) {
+            int start = (int) Math.min(pageable.getOffset(), merged.size());
+            merged = merged.subList(start, Math.min(start + pageable.getPageSize(), merged.size()));
+        }
+        return new PageImpl<>(merged, pageable, total);
+    }
+
+    /**
+     * Runs the work with the shard pinned to the current thread, restoring the previous shard afterwards.
+     *
+     * @param shard the shard
+     * @param work  the work
+     * @param <T>   the type of the result
+     * @return the result of the work
+     */
+    private <T> T pinned(String shard, Supplier<T> work) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (Objects.isNull(previous)) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+}
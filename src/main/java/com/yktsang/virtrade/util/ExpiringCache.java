@@ -0,0 +1,119 @@
+/*
+ * ExpiringCache.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Provides a bounded in-memory cache whose entries expire after a time-to-live.
+ * The least recently used entry is evicted once the maximum size is reached.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class ExpiringCache<K, V> {
+
+    /**
+     * The entries in least recently used order.
+     */
+    private final LinkedHashMap<K, Entry<V>> entries;
+    /**
+     * The time-to-live in nanoseconds.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Constructs a <code>ExpiringCache</code> with maximum size and time-to-live.
+     *
+     * @param maxSize the maximum number of entries
+     * @param ttl     the time-to-live of each entry
+     */
+    public ExpiringCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache size and time-to-live must be positive");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, given the key.
+     * Expired entries are removed and reported as absent.
+     *
+     * @param key the key
+     * @return the cached value, or empty if absent or expired
+     */
+    public synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Caches the value, given the key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Removes the cached value, given the key.
+     *
+     * @param key the key
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached entries, including those expired but not yet removed.
+     *
+     * @return the number of cached entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * The cached value with its expiry.
+     *
+     * @param value     the cached value
+     * @param expiresAt the expiry in nanoseconds
+     * @param <V>       the value type
+     */
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Money.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The fixed-point monetary amount (up to 4 decimal places).
+ * Backed by a <code>long</code> number of minor units (1 unit = 0.0001),
+ * matching the scale of the amount columns in the database.
+ * All arithmetic is exact; overflow raises <code>ArithmeticException</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * The number of decimal places.
+     */
+    public static final int SCALE = 4;
+    /**
+     * The number of minor units per whole unit.
+     */
+    public static final long UNITS_PER_WHOLE = 10_000L;
+    /**
+     * The zero amount.
+     */
+    public static final Money ZERO = new Money(0L);
+    /**
+     * The smallest BigDecimal representable.
+     */
+    private static final BigDecimal MIN_VALUE = BigDecimal.valueOf(Long.MIN_VALUE, SCALE);
+    /**
+     * The largest BigDecimal representable.
+     */
+    private static final BigDecimal MAX_VALUE = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+    /**
+     * The number of minor units.
+     */
+    private final long units;
+
+    /**
+     * Constructs a <code>Money</code> with number of minor units.
+     *
+     * @param units the number of minor units
+     */
+    private Money(long units) {
+        this.units = units;
+    }
+
+    /**
+     * Returns the <code>Money</code>, given the number of minor units.
+     *
+     * @param units the number of minor units
+     * @return the Money
+     */
+    public static Money ofUnits(long units) {
+        return units == 0L ? ZERO : new Money(units);
+    }
+
+    /**
+     * Returns the <code>Money</code>, given the BigDecimal amount.
+     * The amount must not have more than 4 significant decimal places.
+     *
+     * @param amount the BigDecimal amount
+     * @return the Money
+     * @throws ArithmeticException if the amount is not representable exactly
+     */
+    public static Money of(BigDecimal amount) {
+        return ofUnits(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Returns the <code>Money</code>, given the BigDecimal amount rounded to 4 decimal places.
+     *
+     * @param amount       the BigDecimal amount
+     * @param roundingMode the rounding mode
+     * @return the Money
+     * @throws ArithmeticException if the amount is out of range
+     */
+    public static Money of(BigDecimal amount, RoundingMode roundingMode) {
+        return ofUnits(amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Returns true if the BigDecimal amount is representable exactly, false otherwise.
+     *
+     * @param amount the BigDecimal amount
+     * @return true if the amount is representable exactly, false otherwise
+     */
+    public static boolean isRepresentable(BigDecimal amount) {
+        if (amount.scale() > SCALE && amount.stripTrailingZeros().scale() > SCALE) {
+            return false;
+        }
+        return amount.compareTo(MIN_VALUE) >= 0 && amount.compareTo(MAX_VALUE) <= 0;
+    }
+
+    /**
+     * Returns the number of minor units.
+     *
+     * @return the number of minor units
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    /**
+     * Returns true if the amount is negative, false otherwise.
+     *
+     * @return true if the amount is negative, false otherwise
+     */
+    public boolean isNegative() {
+        return units < 0L;
+    }
+
+    /**
+     * Returns the sum of this and the provided amount.
+     *
+     * @param other the provided amount
+     * @return the sum
+     */
+    public Money plus(Money other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    /**
+     * Returns the difference of this and the provided amount.
+     *
+     * @param other the provided amount
+     * @return the difference
+     */
+    public Money minus(Money other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    /**
+     * Returns the amount multiplied by the quantity.
+     *
+     * @param quantity the quantity
+     * @return the product
+     */
+    public Money times(long quantity) {
+        return ofUnits(Math.multiplyExact(units, quantity));
+    }
+
+    /**
+     * Returns the amount multiplied by the rate (numerator / denominator),
+     * rounded to 4 decimal places.
+     * Only <code>HALF_UP</code>, <code>UP</code> and <code>DOWN</code> rounding are supported.
+     *
+     * @param numerator    the rate numerator
+     * @param denominator  the rate denominator (positive)
+     * @param roundingMode the rounding mode
+     * @return the product
+     */
+    public Money times(long numerator, long denominator, RoundingMode roundingMode) {
+        return ofUnits(divide(Math.multiplyExact(units, numerator), denominator, roundingMode));
+    }
+
+    /**
+     * Returns the amount rounded to whole units (0 decimal places).
+     * Only <code>HALF_UP</code>, <code>UP</code> and <code>DOWN</code> rounding are supported.
+     *
+     * @param roundingMode the rounding mode
+     * @return the rounded amount
+     */
+    public Money roundToWhole(RoundingMode roundingMode) {
+        return ofUnits(Math.multiplyExact(divide(units, UNITS_PER_WHOLE, roundingMode), UNITS_PER_WHOLE));
+    }
+
+    /**
+     * Returns the quotient of the dividend and the positive divisor,
+     * rounded with the same semantics as <code>BigDecimal</code>.
+     * Only <code>HALF_UP</code>, <code>UP</code> and <code>DOWN</code> rounding are supported.
+     *
+     * @param dividend     the dividend
+     * @param divisor      the positive divisor
+     * @param roundingMode the rounding mode
+     * @return the rounded quotient
+     */
+    public static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0L) {
+            return quotient;
+        }
+        long awayFromZero = dividend < 0L ? -1L : 1L;
+        return switch (roundingMode) {
+            case DOWN -> quotient;
+            case UP -> quotient + awayFromZero;
+            // compare |remainder| with half of the divisor without overflow
+            case HALF_UP -> Math.abs(remainder) >= divisor - Math.abs(remainder)
+                    ? quotient + awayFromZero : quotient;
+            default -> throw new IllegalArgumentException("Unsupported rounding mode " + roundingMode);
+        };
+    }
+
+    /**
+     * Returns the BigDecimal amount (4 decimal places).
+     *
+     * @return the BigDecimal amount
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Compares this amount with the provided amount.
+     *
+     * @param other the provided amount
+     * @return negative, zero or positive if this amount is less than, equal to or greater than the provided amount
+     */
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    /**
+     * Returns true if the provided item is the same as this item, false otherwise.
+     *
+     * @param o the provided item
+     * @return true if the provided item is the same as this item, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Money other && units == other.units;
+    }
+
+    /**
+     * Returns the hash code.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    /**
+     * Returns the amount in plain string (4 decimal places).
+     *
+     * @return the amount in plain string
+     */
+    @Override
+    public String toString() {
+        return this.toBigDecimal().toPlainString();
+    }
+
+}
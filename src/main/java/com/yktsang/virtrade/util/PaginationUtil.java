@@ -14,7 +14,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Provides the pagination utility functions.
@@ -105,6 +112,87 @@ public class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Returns the response headers with cursor pagination support information.
+     * The next cursor is only given if there are more records after the page.
+     *
+     * @param pageSize   the page size
+     * @param hasNext    the has next indicator
+     * @param nextCursor the cursor of the next page
+     * @param currency   the currency
+     * @return the response headers
+     */
+    public static HttpHeaders populateCursorResponseHeader(int pageSize, boolean hasNext, String nextCursor,
+                                                           String currency) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("hasNext", Boolean.toString(hasNext));
+        String ccyStr = !currency.isEmpty() ? "ccy=" + currency + "&" : "";
+        headers.add("first", ccyStr + "pageSize=" + pageSize);
+        if (hasNext) {
+            headers.add("next", ccyStr + "cursor=" + nextCursor + "&pageSize=" + pageSize);
+        }
+        return headers;
+    }
+
+    /**
+     * Returns the opaque cursor positioned after the record.
+     *
+     * @param dateTime the date time of the record
+     * @param id       the ID of the record
+     * @return the cursor
+     */
+    public static String encodeCursor(LocalDateTime dateTime, BigInteger id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((dateTime + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the position of the cursor.
+     *
+     * @param cursor the cursor
+     * @return the position, or empty if there is no cursor or the cursor is malformed
+     */
+    public static Optional<Cursor> decodeCursor(String cursor) {
+        if (Objects.isNull(cursor) || cursor.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    new BigInteger(decoded.substring(separator + 1))));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the pageable of the page for the repository to fetch only that page from the database.
+     *
+     * @param currentPage the current page
+     * @param pageSize    the page size
+     * @return the pageable, unpaged for all data in single page
+     */
+    public static Pageable toPageable(int currentPage, int pageSize) {
+        // currentPage = 0 means all data in single page
+        // pageable page starts at 0, pageSize cannot be 0
+        return currentPage == 0 ? Pageable.unpaged() : PageRequest.of(currentPage - 1, Math.max(pageSize, 1));
+    }
+
+    /**
+     * Returns the page size of the page for the response headers,
+     * the number of records for all data in single page.
+     *
+     * @param page the page of data
+     * @return the page size
+     */
+    public static int getPageSize(Page<?> page) {
+        return Math.max(page.getSize(), 1);
+    }
+
     /**
      * Converts the list of data to the page of data.
      *
@@ -122,4 +210,14 @@ public class PaginationUtil {
         return new PageImpl<>(originalData.subList(start, end), pageable, originalData.size());
     }
 
+    /**
+     * The position of a cursor, seeking the records before the date time and ID
+     * in descending date time and ID order.
+     *
+     * @param dateTime the date time of the last record returned
+     * @param id       the ID of the last record returned
+     */
+    public record Cursor(LocalDateTime dateTime, BigInteger id) {
+    }
+
 }
@@ -0,0 +1,338 @@
+/*
+ * BatchRevaluationJob.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.valuation;
+
+import com.yktsang.virtrade.entity.RevaluationCheckpoint;
+import com.yktsang.virtrade.entity.RevaluationCheckpointRepository;
+import com.yktsang.virtrade.entity.TradingDeed;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.util.Money;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The batch revaluation job.
+ * Marks every portfolio to market against one snapshot of the stock prices, e.g. for nightly statements.
+ * Portfolios are read in chunks ordered by portfolio ID (keyset paging), together with the trading
+ * transactions of their accounts, revalued in parallel in a fork/join pool, and written with
+ * JDBC batch updates.
+ * The last portfolio ID written is checkpointed with each chunk, so that a run interrupted on the same
+ * business date resumes after it (with a fresh price snapshot).
+ * Portfolios holding a trading symbol without a price are left unchanged.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class BatchRevaluationJob {
+
+    /**
+     * The job name of the checkpoint.
+     */
+    public static final String JOB_NAME = "portfolio-revaluation";
+    /**
+     * The SQL selecting the next chunk of portfolios after the portfolio ID.
+     */
+    private static final String SELECT_PORTFOLIOS_SQL = "select pid, email, invested_amount " +
+            "from portfolio where pid > ? order by pid limit ?";
+    /**
+     * The SQL selecting the trading transactions of the email addresses.
+     */
+    private static final String SELECT_TRADING_TRANSACTIONS_SQL = "select email, trading_symbol, " +
+            "trading_deed, quantity, portfolio_id from trading_transaction where email in (:emails)";
+    /**
+     * The SQL updating the current amount and profit and loss of the portfolio.
+     */
+    private static final String UPDATE_PORTFOLIO_SQL = "update portfolio " +
+            "set current_amount = ?, profit_loss = ?, last_updated_datetime = ? " +
+            "where pid = ?";
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(BatchRevaluationJob.class);
+    /**
+     * The job running indicator.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The named parameter JDBC template.
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    /**
+     * The transaction template.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    /**
+     * The revaluation checkpoint repository.
+     */
+    @Autowired
+    private RevaluationCheckpointRepository checkpointRepo;
+    /**
+     * The stock provider.
+     */
+    @Autowired
+    private StockProvider stockProvider;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The number of portfolios per chunk.
+     */
+    @Value("${revaluation.batch.chunk.size}")
+    private int chunkSize; // from application.properties
+    /**
+     * The number of threads revaluing a chunk.
+     */
+    @Value("${revaluation.batch.parallelism}")
+    private int parallelism; // from application.properties
+
+    /**
+     * Runs the job on schedule, on every shard.
+     */
+    @Scheduled(cron = "${revaluation.batch.cron}")
+    public void scheduledRun() {
+        shardRouter.forEachShard(this::run);
+    }
+
+    /**
+     * Runs the job, resuming the interrupted run of today if any.
+     *
+     * @return the run report, or empty if the job is already running or the stock prices are unavailable
+     */
+    public Optional<Report> run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("batch revaluation already running");
+            return Optional.empty();
+        }
+        try {
+            Map<String, Long> prices = this.snapshotPrices();
+            if (prices.isEmpty()) {
+                logger.error("batch revaluation skipped, no stock prices");
+                return Optional.empty();
+            }
+            return Optional.of(this.revalueAll(prices));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            logger.error("batch revaluation interrupted");
+            return Optional.empty();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns the snapshot of the equity prices in minor units.
+     *
+     * @return the prices by trading symbol
+     */
+    private Map<String, Long> snapshotPrices() {
+        Map<String, Long> prices = new HashMap<>();
+        try {
+            for (YahooStock s : stockProvider.getStocks()) {
+                if ("equity".equalsIgnoreCase(s.getQuoteType())
+                        && Objects.nonNull(s.getQuote()) && Objects.nonNull(s.getQuote().getPrice())) {
+                    prices.put(s.getSymbol(), Money.of(s.getQuote().getPrice(), RoundingMode.HALF_UP).getUnits());
+                }
+            }
+        } catch (IOException ioe) {
+            logger.error(ioe.getMessage());
+        }
+        return Map.copyOf(prices);
+    }
+
+    /**
+     * Revalues all portfolios after the checkpoint against the price snapshot.
+     *
+     * @param prices the prices by trading symbol
+     * @return the run report
+     * @throws InterruptedException if interrupted while revaluing
+     */
+    private Report revalueAll(Map<String, Long> prices) throws InterruptedException {
+        LocalDate today = LocalDate.now();
+        RevaluationCheckpoint checkpoint = checkpointRepo.findById(JOB_NAME)
+                .filter(c -> c.getBusinessDate().equals(today) && !c.isCompleted())
+                .orElseGet(() -> new RevaluationCheckpoint(JOB_NAME, today));
+        boolean resumed = checkpoint.getRowsProcessed() > 0L;
+        if (resumed) {
+            logger.info("batch revaluation resumed after portfolio {}", checkpoint.getLastPortfolioId());
+        }
+
+        long start = System.nanoTime();
+        long rows = 0L;
+        long updated = 0L;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(parallelism, 1));
+        try {
+            List<PortfolioRow> chunk;
+            do {
+                chunk = jdbcTemplate.query(SELECT_PORTFOLIOS_SQL,
+                        (rs, i) -> new PortfolioRow(rs.getObject("pid", BigInteger.class), rs.getString("email"),
+                                rs.getBigDecimal("invested_amount")),
+                        checkpoint.getLastPortfolioId(), chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                Map<String, List<TransactionRow>> txnsOfEmail = this.findTradingTransactions(chunk);
+                LocalDateTime now = LocalDateTime.now();
+                List<PortfolioRow> portfolios = chunk;
+                List<Object[]> args = pool.submit(() -> portfolios.parallelStream()
+                                .map(p -> revalue(p, txnsOfEmail.getOrDefault(p.email(), List.of()), prices, now))
+                                .filter(Objects::nonNull)
+                                .toList())
+                        .get();
+
+                checkpoint.setLastPortfolioId(chunk.get(chunk.size() - 1).portfolioId());
+                checkpoint.setRowsProcessed(checkpoint.getRowsProcessed() + chunk.size());
+                checkpoint.setLastUpdatedDateTime(now);
+                // the chunk and its checkpoint are written together
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!args.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPDATE_PORTFOLIO_SQL, args);
+                    }
+                    checkpointRepo.save(checkpoint);
+                });
+                rows += chunk.size();
+                updated += args.size();
+            } while (chunk.size() == chunkSize);
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException("batch revaluation failed", ee.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        checkpoint.setCompleted(true);
+        checkpoint.setLastUpdatedDateTime(LocalDateTime.now());
+        checkpointRepo.save(checkpoint);
+
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1L);
+        Report report = new Report(rows, updated, elapsedNanos / 1_000_000L,
+                rows * 1_000_000_000.0 / elapsedNanos, resumed);
+        logger.info("batch revaluation completed={}", report);
+        return report;
+    }
+
+    /**
+     * Returns the trading transactions of the accounts of the portfolios.
+     *
+     * @param portfolios the portfolios
+     * @return the trading transactions by email address
+     */
+    private Map<String, List<TransactionRow>> findTradingTransactions(List<PortfolioRow> portfolios) {
+        Set<String> emails = new HashSet<>();
+        portfolios.forEach(p -> emails.add(p.email()));
+        Map<String, List<TransactionRow>> txnsOfEmail = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_TRADING_TRANSACTIONS_SQL, Map.of("emails", emails), rs -> {
+            TransactionRow t = new TransactionRow(rs.getString("trading_symbol"),
+                    TradingDeed.valueOf(rs.getString("trading_deed")), rs.getInt("quantity"),
+                    rs.getObject("portfolio_id", BigInteger.class));
+            txnsOfEmail.computeIfAbsent(rs.getString("email"), k -> new ArrayList<>()).add(t);
+        });
+        return txnsOfEmail;
+    }
+
+    /**
+     * Returns the arguments of the portfolio update,
+     * valuing the open quantity of each trading symbol linked to the portfolio.
+     * The open quantities follow the lot book of <code>LotTrackingService</code>,
+     * the quantity bought less sold by the trading transactions linked to the portfolio.
+     *
+     * @param portfolio the portfolio
+     * @param txns      the trading transactions of the account
+     * @param prices    the prices by trading symbol
+     * @param now       the last updated datetime
+     * @return the arguments of the portfolio update, or null if any trading symbol has no price
+     */
+    private static Object[] revalue(PortfolioRow portfolio, List<TransactionRow> txns,
+                                    Map<String, Long> prices, LocalDateTime now) {
+        Map<String, Integer> linked = new HashMap<>();
+        for (TransactionRow t : txns) {
+            if (portfolio.portfolioId().equals(t.portfolioId())) {
+                linked.merge(t.symbol(), t.deed().equals(TradingDeed.BUY) ? t.quantity() : -t.quantity(),
+                        Integer::sum);
+            }
+        }
+        long currentUnits = 0L;
+        for (Map.Entry<String, Integer> e : linked.entrySet()) {
+            int quantity = e.getValue();
+            if (quantity > 0) {
+                Long price = prices.get(e.getKey());
+                if (Objects.isNull(price)) {
+                    return null;
+                }
+                currentUnits = Math.addExact(currentUnits, Math.multiplyExact(price, quantity));
+            }
+        }
+        long investedUnits = Objects.isNull(portfolio.investedAmount()) ? 0L
+                : Money.of(portfolio.investedAmount(), RoundingMode.HALF_UP).getUnits();
+        return new Object[]{Money.ofUnits(currentUnits).toBigDecimal(),
+                Money.ofUnits(currentUnits - investedUnits).toBigDecimal(), now, portfolio.portfolioId()};
+    }
+
+    /**
+     * The run report.
+     *
+     * @param rows          the number of portfolios processed
+     * @param updated       the number of portfolios written
+     * @param elapsedMillis the elapsed time in milliseconds
+     * @param rowsPerSecond the number of portfolios processed per second
+     * @param resumed       the resumed from checkpoint indicator
+     */
+    public record Report(long rows, long updated, long elapsedMillis, double rowsPerSecond, boolean resumed) {
+    }
+
+    /**
+     * The portfolio row.
+     *
+     * @param portfolioId    the portfolio ID
+     * @param email          the email address
+     * @param investedAmount the invested amount
+     */
+    private record PortfolioRow(BigInteger portfolioId, String email, BigDecimal investedAmount) {
+    }
+
+    /**
+     * The trading transaction row.
+     *
+     * @param symbol      the trading symbol
+     * @param deed        the trading deed
+     * @param quantity    the quantity
+     * @param portfolioId the portfolio ID, or null if not linked
+     */
+    private record TransactionRow(String symbol, TradingDeed deed, int quantity, BigInteger portfolioId) {
+    }
+
+}
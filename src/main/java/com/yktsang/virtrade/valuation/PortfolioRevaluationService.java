@@ -0,0 +1,628 @@
+/*
+ * PortfolioRevaluationService.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.valuation;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.util.Money;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The portfolio revaluation service.
+ * Keeps the current amount of each portfolio in memory with a reverse index from trading symbol
+ * to the portfolios holding it, so that a price change only revalues the affected portfolios
+ * by open quantity times the price difference.
+ * The revalued portfolios are marked dirty and written to the portfolio table in batches,
+ * with at most <code>revaluation.flush.max.batches</code> batches per flush.
+ * The open quantities follow the lot book of <code>LotTrackingService</code>, the quantity of each trading symbol
+ * bought less sold by the trading transactions linked to the portfolio.
+ * They are loaded per shard in chunks of accounts, summed by the database,
+ * moved by the quantity of each trade after it commits,
+ * and reloaded per account whenever its portfolios or the links of its trading transactions change.
+ * The accounts are updated under a lock of their own, so that accounts are updated concurrently
+ * while price changes wait for the updates in progress.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Service
+public class PortfolioRevaluationService {
+
+    /**
+     * The SQL updating the current amount and profit and loss of the portfolio.
+     */
+    private static final String UPDATE_PORTFOLIO_SQL = "update portfolio " +
+            "set current_amount = ?, profit_loss = ?, last_updated_datetime = ? " +
+            "where pid = ?";
+    /**
+     * The number of account locks.
+     */
+    private static final int ACCOUNT_LOCKS = 64;
+    /**
+     * The logger.
+     */
+    private final Logger logger = LoggerFactory.getLogger(PortfolioRevaluationService.class);
+    /**
+     * The portfolios by portfolio ID.
+     */
+    private final Map<BigInteger, PortfolioValue> portfolios = new ConcurrentHashMap<>();
+    /**
+     * The accounts by email address.
+     */
+    private final Map<String, AccountValue> accounts = new ConcurrentHashMap<>();
+    /**
+     * The portfolios holding each trading symbol (the reverse index).
+     */
+    private final Map<String, Set<PortfolioValue>> holders = new ConcurrentHashMap<>();
+    /**
+     * The last price in minor units by trading symbol.
+     */
+    private final Map<String, Long> prices = new ConcurrentHashMap<>();
+    /**
+     * The IDs of portfolios revalued but not yet written.
+     */
+    private final Set<BigInteger> dirty = ConcurrentHashMap.newKeySet();
+    /**
+     * The number of trades not yet committed or rolled back by email address.
+     */
+    private final Map<String, Integer> pendingTrades = new ConcurrentHashMap<>();
+    /**
+     * The account locks, an account guarded by the lock its email address hashes to.
+     */
+    private final Object[] accountLocks = new Object[ACCOUNT_LOCKS];
+    /**
+     * The price lock, held for reading while an account is updated and for writing while the prices change.
+     */
+    private final ReadWriteLock priceLock = new ReentrantReadWriteLock();
+    /**
+     * The all portfolios loaded indicator.
+     */
+    private volatile boolean loaded;
+    /**
+     * The portfolio repository.
+     */
+    @Autowired
+    private PortfolioRepository portfolioRepo;
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The stock provider.
+     */
+    @Autowired
+    private StockProvider stockProvider;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The maximum number of accounts loaded per chunk.
+     */
+    @Value("${revaluation.load.chunk.size}")
+    private int loadChunkSize; // from application.properties
+    /**
+     * The maximum number of portfolios written per batch.
+     */
+    @Value("${revaluation.flush.batch.size}")
+    private int flushBatchSize; // from application.properties
+    /**
+     * The maximum number of batches written per flush.
+     */
+    @Value("${revaluation.flush.max.batches}")
+    private int flushMaxBatches; // from application.properties
+
+    /**
+     * Creates a <code>PortfolioRevaluationService</code>.
+     */
+    public PortfolioRevaluationService() {
+        Arrays.setAll(accountLocks, i -> new Object());
+    }
+
+    /**
+     * Fetches the stock prices and revalues the portfolios holding the changed trading symbols.
+     * Loads all portfolios upon the first successful fetch.
+     */
+    @Scheduled(fixedDelayString = "${revaluation.price.poll.interval.ms}",
+            initialDelayString = "${revaluation.price.poll.interval.ms}")
+    public void pollPrices() {
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        try {
+            for (YahooStock s : stockProvider.getStocks()) {
+                if ("equity".equalsIgnoreCase(s.getQuoteType())
+                        && Objects.nonNull(s.getQuote()) && Objects.nonNull(s.getQuote().getPrice())) {
+                    quotes.put(s.getSymbol(), s.getQuote().getPrice());
+                }
+            }
+        } catch (IOException ioe) {
+            logger.error(ioe.getMessage());
+            return;
+        }
+        this.updatePrices(quotes);
+        if (!loaded) {
+            this.loadAll();
+        }
+    }
+
+    /**
+     * Updates the stock prices and revalues the portfolios holding the changed trading symbols.
+     *
+     * @param quotes the prices by trading symbol
+     * @return the number of portfolio positions revalued
+     */
+    public int updatePrices(Map<String, BigDecimal> quotes) {
+        int revalued = 0;
+        priceLock.writeLock().lock();
+        try {
+            for (Map.Entry<String, BigDecimal> quote : quotes.entrySet()) {
+                long price = Money.of(quote.getValue(), RoundingMode.HALF_UP).getUnits();
+                Long previous = prices.put(quote.getKey(), price);
+                // positions without a price were valued at zero
+                long priceChange = price - Objects.requireNonNullElse(previous, 0L);
+                if (priceChange == 0L) {
+                    continue;
+                }
+                for (PortfolioValue pv : holders.getOrDefault(quote.getKey(), Set.of())) {
+                    pv.revalue(quote.getKey(), priceChange);
+                    dirty.add(pv.portfolioId);
+                    revalued++;
+                }
+            }
+        } finally {
+            priceLock.writeLock().unlock();
+        }
+        if (revalued > 0) {
+            logger.info("portfolio positions revalued={}", revalued);
+        }
+        return revalued;
+    }
+
+    /**
+     * Reloads the portfolios of the email address, after the current transaction commits if any.
+     * Called after the portfolios or the links of the trading transactions change.
+     *
+     * @param email the email address
+     */
+    public void refresh(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(email);
+                }
+            });
+        } else {
+            this.reload(email);
+        }
+    }
+
+    /**
+     * Moves the open quantity of the trading symbol of the portfolio linked to the trade by the trade,
+     * after the current transaction commits if any.
+     * A trade not linked to any portfolio leaves the portfolios unchanged.
+     * An account with a trade in progress while being loaded is reloaded once its trades complete instead,
+     * as its trading transactions may have been read with or without the trade.
+     *
+     * @param trade the trading transaction
+     */
+    public void applyTrade(TradingTransaction trade) {
+        if (Objects.isNull(trade.getPortfolioId())) {
+            return;
+        }
+        String email = trade.getEmail();
+        pendingTrades.merge(email, 1, Integer::sum);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completeTrade(trade, status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            this.completeTrade(trade, true);
+        }
+    }
+
+    /**
+     * Returns the last price of the trading symbol.
+     *
+     * @param symbol the trading symbol
+     * @return the last price, or null if unknown
+     */
+    public BigDecimal getPrice(String symbol) {
+        Long price = prices.get(symbol);
+        return Objects.isNull(price) ? null : Money.ofUnits(price).toBigDecimal();
+    }
+
+    /**
+     * Returns the current amount of the portfolio held in memory.
+     *
+     * @param portfolioId the portfolio ID
+     * @return the current amount, or empty if the portfolio is not loaded
+     */
+    public Optional<BigDecimal> getCurrentAmount(BigInteger portfolioId) {
+        return Optional.ofNullable(portfolios.get(portfolioId)).map(PortfolioValue::getCurrentAmount);
+    }
+
+    /**
+     * Writes the dirty portfolios to the portfolio table in batches.
+     * Portfolios left over beyond the maximum number of batches are written upon next flush.
+     *
+     * @return the number of portfolios written
+     */
+    @Scheduled(fixedDelayString = "${revaluation.flush.interval.ms}")
+    public int flush() {
+        int flushed = 0;
+        for (int b = 0; b < flushMaxBatches && !dirty.isEmpty(); b++) {
+            LocalDateTime now = LocalDateTime.now();
+            List<BigInteger> ids = new ArrayList<>(flushBatchSize);
+            Map<String, List<Object[]>> argsOfShard = new HashMap<>();
+            Iterator<BigInteger> it = dirty.iterator();
+            while (it.hasNext() && ids.size() < flushBatchSize) {
+                BigInteger id = it.next();
+                // removed before reading, so that a concurrent revaluation marks it dirty again
+                it.remove();
+                PortfolioValue pv = portfolios.get(id);
+                if (Objects.nonNull(pv)) {
+                    ids.add(id);
+                    argsOfShard.computeIfAbsent(shardRouter.shardOf(pv.email), k -> new ArrayList<>())
+                            .add(pv.toUpdateArgs(now));
+                }
+            }
+            if (ids.isEmpty()) {
+                continue;
+            }
+            try {
+                argsOfShard.forEach((shard, args) ->
+                        shardRouter.callOn(shard, () -> jdbcTemplate.batchUpdate(UPDATE_PORTFOLIO_SQL, args)));
+                flushed += ids.size();
+            } catch (DataAccessException e) {
+                logger.error("portfolios not written", e);
+                dirty.addAll(ids);
+                break;
+            }
+        }
+        if (flushed > 0) {
+            logger.info("portfolios written={}", flushed);
+        }
+        return flushed;
+    }
+
+    /**
+     * Completes the trade in progress, moving the open quantity of the linked portfolio if committed.
+     *
+     * @param trade     the trading transaction
+     * @param committed the trade committed indicator
+     */
+    private void completeTrade(TradingTransaction trade, boolean committed) {
+        String email = trade.getEmail();
+        synchronized (this.lockOf(email)) {
+            boolean last = Objects.isNull(pendingTrades.computeIfPresent(email, (k, v) -> v > 1 ? v - 1 : null));
+            AccountValue account = accounts.get(email);
+            if (Objects.isNull(account) || account.stale) {
+                if (last) {
+                    this.reload(email);
+                }
+                return;
+            }
+            if (!committed) {
+                return;
+            }
+            priceLock.readLock().lock();
+            try {
+                String symbol = trade.getTradingSymbol();
+                Long price = prices.get(symbol);
+                for (PortfolioValue pv : account.values) {
+                    if (pv.portfolioId.equals(trade.getPortfolioId())) {
+                        int quantity = pv.linked.merge(symbol, trade.getTradingDeed().equals(TradingDeed.BUY)
+                                ? trade.getQuantity() : -trade.getQuantity(), Integer::sum);
+                        this.hold(pv, symbol, quantity, price);
+                        if (Objects.nonNull(price)) {
+                            dirty.add(pv.portfolioId);
+                        }
+                    }
+                }
+            } finally {
+                priceLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Loads the portfolios of all accounts not yet loaded, in chunks of accounts on every shard.
+     */
+    private void loadAll() {
+        int size = Math.max(loadChunkSize, 1);
+        shardRouter.forEachShard(() -> {
+            String lastEmail = "";
+            List<String> emails;
+            do {
+                emails = portfolioRepo.findEmailsAfter(lastEmail, size);
+                if (emails.isEmpty()) {
+                    break;
+                }
+                Map<String, List<Portfolio>> portsOfEmail = new HashMap<>();
+                portfolioRepo.findByEmails(emails).forEach(p ->
+                        portsOfEmail.computeIfAbsent(p.getEmail(), k -> new ArrayList<>()).add(p));
+                Map<String, List<PositionQuantity>> positionsOfEmail = new HashMap<>();
+                tradingTxnRepo.sumQuantitiesByEmails(emails).forEach(q ->
+                        positionsOfEmail.computeIfAbsent(q.email(), k -> new ArrayList<>()).add(q));
+                for (String email : emails) {
+                    synchronized (this.lockOf(email)) {
+                        // an account reloaded meanwhile is newer than the chunk
+                        if (!accounts.containsKey(email)) {
+                            this.index(email, portsOfEmail.getOrDefault(email, List.of()),
+                                    positionsOfEmail.getOrDefault(email, List.of()));
+                        }
+                    }
+                }
+                lastEmail = emails.get(emails.size() - 1);
+            } while (emails.size() == size);
+        });
+        loaded = true;
+        logger.info("portfolios loaded={}", portfolios.size());
+    }
+
+    /**
+     * Reloads the portfolios of the email address.
+     *
+     * @param email the email address
+     */
+    private void reload(String email) {
+        synchronized (this.lockOf(email)) {
+            List<Portfolio> ports = shardRouter.callOnMember(email, () -> portfolioRepo.findByEmail(email));
+            List<PositionQuantity> positions = shardRouter.callOnMember(email, () ->
+                    tradingTxnRepo.sumQuantitiesByEmails(List.of(email)));
+            this.index(email, ports, positions);
+        }
+    }
+
+    /**
+     * Values and indexes the portfolios of the email address at the last prices, replacing those in memory,
+     * and marks those whose stored current amount differs as dirty.
+     * Must be called holding the account lock.
+     *
+     * @param email     the email address
+     * @param ports     the portfolios of the email address
+     * @param positions the total quantities of the trading transactions of the email address
+     */
+    private void index(String email, List<Portfolio> ports, List<PositionQuantity> positions) {
+        Map<BigInteger, Map<String, Integer>> linkedOfPortfolio = new HashMap<>();
+        for (PositionQuantity q : positions) {
+            if (Objects.nonNull(q.portfolioId())) {
+                linkedOfPortfolio.computeIfAbsent(q.portfolioId(), k -> new HashMap<>())
+                        .merge(q.symbol(), q.signedQuantity(), Integer::sum);
+            }
+        }
+
+        priceLock.readLock().lock();
+        try {
+            AccountValue existing = accounts.remove(email);
+            if (Objects.nonNull(existing)) {
+                for (PortfolioValue pv : existing.values) {
+                    portfolios.remove(pv.portfolioId);
+                    dirty.remove(pv.portfolioId);
+                    pv.quantities.keySet().forEach(symbol -> holders.computeIfPresent(symbol, (k, v) -> {
+                        v.remove(pv);
+                        return v.isEmpty() ? null : v;
+                    }));
+                }
+            }
+
+            List<PortfolioValue> values = new ArrayList<>(ports.size());
+            for (Portfolio p : ports) {
+                PortfolioValue pv = new PortfolioValue(p.getPortfolioId(), email, toUnits(p.getInvestedAmount()));
+                boolean priced = true;
+                for (Map.Entry<String, Integer> e : linkedOfPortfolio.getOrDefault(p.getPortfolioId(), Map.of())
+                        .entrySet()) {
+                    Long price = prices.get(e.getKey());
+                    priced &= e.getValue() <= 0 || Objects.nonNull(price);
+                    pv.linked.put(e.getKey(), e.getValue());
+                    this.hold(pv, e.getKey(), e.getValue(), price);
+                }
+                portfolios.put(pv.portfolioId, pv);
+                values.add(pv);
+                if (priced && pv.currentUnits != toUnits(p.getCurrentAmount())) {
+                    dirty.add(pv.portfolioId);
+                }
+            }
+            // trades in progress may or may not have been read, so the account is reloaded once they complete
+            accounts.put(email, new AccountValue(values, pendingTrades.containsKey(email)));
+        } finally {
+            priceLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Holds the open quantity of the trading symbol in the portfolio at the price,
+     * indexing the portfolio as a holder of the trading symbol if the quantity is positive.
+     * Must be called holding the account lock and the price lock for reading.
+     *
+     * @param pv       the portfolio value
+     * @param symbol   the trading symbol
+     * @param quantity the open quantity, not positive if none
+     * @param price    the price in minor units, or null if unknown
+     */
+    private void hold(PortfolioValue pv, String symbol, int quantity, Long price) {
+        pv.hold(symbol, Math.max(quantity, 0), Objects.requireNonNullElse(price, 0L));
+        if (quantity > 0) {
+            holders.computeIfAbsent(symbol, k -> ConcurrentHashMap.newKeySet()).add(pv);
+        } else {
+            holders.computeIfPresent(symbol, (k, v) -> {
+                v.remove(pv);
+                return v.isEmpty() ? null : v;
+            });
+        }
+    }
+
+    /**
+     * Returns the lock of the account.
+     *
+     * @param email the email address
+     * @return the account lock
+     */
+    private Object lockOf(String email) {
+        return accountLocks[Math.floorMod(email.hashCode(), ACCOUNT_LOCKS)];
+    }
+
+    /**
+     * Returns the amount in minor units, treating null as zero.
+     *
+     * @param amount the amount
+     * @return the amount in minor units
+     */
+    private static long toUnits(BigDecimal amount) {
+        return Objects.isNull(amount) ? 0L : Money.of(amount, RoundingMode.HALF_UP).getUnits();
+    }
+
+    /**
+     * The portfolio value held in memory, guarded by its own lock.
+     */
+    private static final class PortfolioValue {
+
+        /**
+         * The portfolio ID.
+         */
+        private final BigInteger portfolioId;
+        /**
+         * The email address of the portfolio owner.
+         */
+        private final String email;
+        /**
+         * The invested amount in minor units.
+         */
+        private final long investedUnits;
+        /**
+         * The quantities bought less sold by the trading transactions linked to the portfolio by trading symbol.
+         */
+        private final Map<String, Integer> linked = new HashMap<>();
+        /**
+         * The open quantities by trading symbol.
+         */
+        private final Map<String, Integer> quantities = new HashMap<>();
+        /**
+         * The current amount in minor units.
+         */
+        private long currentUnits;
+
+        /**
+         * Constructs a <code>PortfolioValue</code> with portfolio ID, email address and invested amount.
+         *
+         * @param portfolioId   the portfolio ID
+         * @param email         the email address of the portfolio owner
+         * @param investedUnits the invested amount in minor units
+         */
+        private PortfolioValue(BigInteger portfolioId, String email, long investedUnits) {
+            this.portfolioId = portfolioId;
+            this.email = email;
+            this.investedUnits = investedUnits;
+        }
+
+        /**
+         * Replaces the open quantity of the position at the price.
+         *
+         * @param symbol   the trading symbol
+         * @param quantity the open quantity, zero if none
+         * @param price    the price in minor units
+         */
+        private synchronized void hold(String symbol, int quantity, long price) {
+            Integer previous = quantity > 0 ? quantities.put(symbol, quantity) : quantities.remove(symbol);
+            long quantityChange = quantity - Objects.requireNonNullElse(previous, 0);
+            currentUnits = Math.addExact(currentUnits, Math.multiplyExact(price, quantityChange));
+        }
+
+        /**
+         * Revalues the position by the price change.
+         *
+         * @param symbol      the trading symbol
+         * @param priceChange the price change in minor units
+         */
+        private synchronized void revalue(String symbol, long priceChange) {
+            int quantity = quantities.getOrDefault(symbol, 0);
+            currentUnits = Math.addExact(currentUnits, Math.multiplyExact(priceChange, quantity));
+        }
+
+        /**
+         * Returns the current amount.
+         *
+         * @return the current amount
+         */
+        private synchronized BigDecimal getCurrentAmount() {
+            return Money.ofUnits(currentUnits).toBigDecimal();
+        }
+
+        /**
+         * Returns the arguments of the portfolio update.
+         *
+         * @param now the last updated datetime
+         * @return the arguments of the portfolio update
+         */
+        private synchronized Object[] toUpdateArgs(LocalDateTime now) {
+            return new Object[]{Money.ofUnits(currentUnits).toBigDecimal(),
+                    Money.ofUnits(currentUnits - investedUnits).toBigDecimal(), now, portfolioId};
+        }
+
+    }
+
+    /**
+     * The portfolio values of an account held in memory, guarded by the account lock.
+     */
+    private static final class AccountValue {
+
+        /**
+         * The portfolio values of the account.
+         */
+        private final List<PortfolioValue> values;
+        /**
+         * The stale indicator, the account to be reloaded once its trades in progress complete.
+         */
+        private final boolean stale;
+
+        /**
+         * Constructs an <code>AccountValue</code> with portfolio values and stale indicator.
+         *
+         * @param values the portfolio values of the account
+         * @param stale  the stale indicator
+         */
+        private AccountValue(List<PortfolioValue> values, boolean stale) {
+            this.values = values;
+            this.stale = stale;
+        }
+
+    }
+
+}
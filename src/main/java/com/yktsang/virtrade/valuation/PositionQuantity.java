@@ -0,0 +1,55 @@
+/*
+ * PositionQuantity.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.valuation;
+
+import com.yktsang.virtrade.entity.TradingDeed;
+
+import java.math.BigInteger;
+
+/**
+ * The total quantity of the trading transactions of an account
+ * by portfolio, trading symbol and trading deed.
+ *
+ * @param email       the email address
+ * @param portfolioId the portfolio ID, or null if not linked
+ * @param symbol      the trading symbol
+ * @param deed        the trading deed
+ * @param quantity    the total quantity
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public record PositionQuantity(String email, BigInteger portfolioId, String symbol, TradingDeed deed,
+                               Long quantity) {
+
+    /**
+     * Constructs a <code>PositionQuantity</code>.
+     * Used by the constructor expression of <code>TradingTransactionRepository</code>,
+     * where the converted trading deed is typed as an enum.
+     *
+     * @param email       the email address
+     * @param portfolioId the portfolio ID, or null if not linked
+     * @param symbol      the trading symbol
+     * @param deed        the trading deed
+     * @param quantity    the total quantity
+     */
+    public PositionQuantity(String email, BigInteger portfolioId, String symbol, Enum<TradingDeed> deed,
+                            Long quantity) {
+        this(email, portfolioId, symbol, (TradingDeed) deed, quantity);
+    }
+
+    /**
+     * Returns the total quantity, negative if sold.
+     *
+     * @return the signed total quantity
+     */
+    public int signedQuantity() {
+        return Math.toIntExact(deed.equals(TradingDeed.BUY) ? quantity : -quantity);
+    }
+
+}
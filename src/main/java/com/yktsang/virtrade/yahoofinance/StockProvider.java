@@ -0,0 +1,30 @@
+/*
+ * StockProvider.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.yahoofinance;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Provides the available stocks with their quotes.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public interface StockProvider {
+
+    /**
+     * Returns the available stocks with their quotes.
+     *
+     * @return the available stocks
+     * @throws IOException when there is problem fetching the stocks
+     */
+    List<YahooStock> getStocks() throws IOException;
+
+}
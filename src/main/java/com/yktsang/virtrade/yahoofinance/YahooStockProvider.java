@@ -0,0 +1,40 @@
+/*
+ * YahooStockProvider.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.yahoofinance;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Provides the available stocks from the stocks JSON file with quotes from Yahoo Finance API.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@Component
+public class YahooStockProvider implements StockProvider {
+
+    /**
+     * The URL for stocks.
+     */
+    @Value("${yahoo.stock.json}")
+    private String stockJson; // from application.properties
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<YahooStock> getStocks() throws IOException {
+        return new YahooFinanceSampler().readOnline(stockJson);
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * PortfolioAnalyticsServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.analytics;
+
+import com.yktsang.virtrade.analytics.PortfolioAnalyticsService;
+import com.yktsang.virtrade.history.ValueHistoryService;
+import com.yktsang.virtrade.lot.LotTrackingService;
+import com.yktsang.virtrade.response.PortfolioAnalyticsResponse;
+import com.yktsang.virtrade.util.TimeSeriesCodec.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides the test cases for <code>PortfolioAnalyticsService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class PortfolioAnalyticsServiceTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "analytics@domain.com";
+    /**
+     * The trading symbol of the benchmark index.
+     */
+    private static final String BENCHMARK = "^HSI";
+    /**
+     * The portfolio analytics service.
+     */
+    @Autowired
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+    /**
+     * The mocked value history service.
+     */
+    @MockBean
+    private ValueHistoryService valueHistoryService;
+    /**
+     * The mocked lot tracking service.
+     */
+    @MockBean
+    private LotTrackingService lotTrackingService;
+
+    /**
+     * Returns the daily prices alternating between 100 and 110, ending today.
+     *
+     * @param days the number of days
+     * @return the prices in minor units
+     */
+    private static List<Point> alternating(int days) {
+        List<Point> prices = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < days; i++) {
+            prices.add(new Point(today.minusDays(days - 1 - i), (days - 1 - i) % 2 == 0 ? 110_0000L : 100_0000L));
+        }
+        return prices;
+    }
+
+    /**
+     * Mocks the closing prices of the trading symbol.
+     *
+     * @param symbol the trading symbol
+     * @param prices the prices
+     */
+    private void givenPrices(String symbol, List<Point> prices) {
+        when(valueHistoryService.getPoints(eq(ValueHistoryService.priceSeries(symbol)), any()))
+                .thenReturn(prices);
+    }
+
+    /**
+     * Tests the volatility, beta and value at risk of a holding moving with the benchmark.
+     */
+    @Test
+    public void analyze() {
+        BigInteger portfolioId = BigInteger.valueOf(9001);
+        when(lotTrackingService.getOpenQuantities(EMAIL, portfolioId)).thenReturn(Map.of("0005.HK", 10L));
+        this.givenPrices(BENCHMARK, alternating(22));
+        this.givenPrices("0005.HK", alternating(22));
+
+        PortfolioAnalyticsResponse analytics =
+                portfolioAnalyticsService.analyze(EMAIL, portfolioId, BENCHMARK).orElseThrow();
+        assertEquals(LocalDate.now(), analytics.asOfDate());
+        assertEquals(21, analytics.observations());
+        assertEquals(new BigDecimal("1.550953"), analytics.annualizedVolatility());
+        assertEquals(new BigDecimal("1.000000"), analytics.beta());
+        // the second worst of 21 daily returns is -1/11 of today's value 1100
+        assertEquals(new BigDecimal("100.0000"), analytics.valueAtRisk());
+        assertEquals(new BigDecimal("0.95"), analytics.confidenceLevel());
+
+        // cached until the next closing price or a change in open quantities
+        portfolioAnalyticsService.analyze(EMAIL, portfolioId, BENCHMARK);
+        verify(valueHistoryService, times(1))
+                .getPoints(eq(ValueHistoryService.priceSeries("0005.HK")), any());
+        when(lotTrackingService.getOpenQuantities(EMAIL, portfolioId)).thenReturn(Map.of("0005.HK", 20L));
+        assertEquals(new BigDecimal("200.0000"),
+                portfolioAnalyticsService.analyze(EMAIL, portfolioId, BENCHMARK).orElseThrow().valueAtRisk());
+    }
+
+    /**
+     * Tests no beta against a benchmark that did not move.
+     */
+    @Test
+    public void flatBenchmark() {
+        BigInteger portfolioId = BigInteger.valueOf(9002);
+        List<Point> flat = alternating(30).stream().map(p -> new Point(p.date(), 100_0000L)).toList();
+        when(lotTrackingService.getOpenQuantities(EMAIL, portfolioId)).thenReturn(Map.of("0700.HK", 5L));
+        this.givenPrices("^FLAT", flat);
+        this.givenPrices("0700.HK", alternating(30));
+
+        PortfolioAnalyticsResponse analytics =
+                portfolioAnalyticsService.analyze(EMAIL, portfolioId, "^FLAT").orElseThrow();
+        assertEquals(29, analytics.observations());
+        assertNull(analytics.beta());
+    }
+
+    /**
+     * Tests no result without open quantities or enough closing prices.
+     */
+    @Test
+    public void insufficientData() {
+        BigInteger portfolioId = BigInteger.valueOf(9003);
+        when(lotTrackingService.getOpenQuantities(EMAIL, portfolioId)).thenReturn(Map.of());
+        assertTrue(portfolioAnalyticsService.analyze(EMAIL, portfolioId, BENCHMARK).isEmpty());
+
+        // the holding only has closing prices for the last 10 days of the benchmark
+        when(lotTrackingService.getOpenQuantities(EMAIL, portfolioId)).thenReturn(Map.of("0001.HK", 1L));
+        this.givenPrices(BENCHMARK, alternating(60));
+        this.givenPrices("0001.HK", alternating(10));
+        assertTrue(portfolioAnalyticsService.analyze(EMAIL, portfolioId, BENCHMARK).isEmpty());
+
+        this.givenPrices("^NONE", List.of());
+        assertTrue(portfolioAnalyticsService.analyze(EMAIL, portfolioId, "^NONE").isEmpty());
+    }
+
+}
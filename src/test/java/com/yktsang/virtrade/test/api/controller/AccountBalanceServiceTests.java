@@ -13,6 +13,8 @@ import com.yktsang.virtrade.request.DepositFundRequest;
 import com.yktsang.virtrade.response.AccountBalanceResponse;
 import com.yktsang.virtrade.response.ErrorResponse;
 import com.yktsang.virtrade.response.SuccessResponse;
+import com.yktsang.virtrade.response.ValueHistoryResponse;
+import com.yktsang.virtrade.response.ValuePoint;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -20,7 +22,9 @@ import org.springframework.http.*;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
@@ -42,6 +46,10 @@ public class AccountBalanceServiceTests {
      * The account balances with currency API endpoint.
      */
     private static final URI ACCOUNT_BALANCES_CURRENCY_URI = URI.create("/api/v1/member/balances/XXX");
+    /**
+     * The account balance history API endpoint.
+     */
+    private static final URI ACCOUNT_BALANCE_HISTORY_URI = URI.create("/api/v1/member/balances/history/XXX");
     /**
      * The deposit funds API endpoint.
      */
@@ -280,4 +288,84 @@ public class AccountBalanceServiceTests {
         assertEquals(HttpStatus.NOT_ACCEPTABLE, resp.getStatusCode());
     }
 
+    /**
+     * Tests account balance history for HTTP 200.
+     */
+    @Test
+    public void accountBalanceHistory200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_BALANCE_HISTORY_URI);
+        ValueHistoryResponse mockedResp = new ValueHistoryResponse("XXX",
+                List.of(new ValuePoint(LocalDate.now(), BigDecimal.ONE)));
+        when(acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<?> resp = acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account balance history for HTTP 204.
+     */
+    @Test
+    public void accountBalanceHistory204() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_BALANCE_HISTORY_URI);
+        when(acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+
+        ResponseEntity<?> resp = acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.NO_CONTENT, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account balance history for HTTP 400.
+     */
+    @Test
+    public void accountBalanceHistory400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_BALANCE_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<?> resp = acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account balance history for HTTP 401.
+     */
+    @Test
+    public void accountBalanceHistory401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_BALANCE_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<?> resp = acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account balance history for HTTP 404.
+     */
+    @Test
+    public void accountBalanceHistory404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_BALANCE_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<?> resp = acctBalService.accountBalanceHistory(req, "XXX", "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
 }
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -39,6 +40,14 @@ public class AccountTransactionServiceTests {
      * The account transactions with currency API endpoint.
      */
     private static final URI ACCOUNT_TRANSACTIONS_CURRENCY_URI = URI.create("/api/v1/member/account/transactions/XXX");
+    /**
+     * The account transactions by cursor URI.
+     */
+    private static final URI ACCOUNT_TRANSACTIONS_CURSOR_URI = URI.create("/api/v1/member/account/transactions/cursor?ccy=XXX&cursor=abc&pageSize=5");
+    /**
+     * The account statement export URI.
+     */
+    private static final URI ACCOUNT_TRANSACTIONS_EXPORT_URI = URI.create("/api/v1/member/account/transactions/export?ccy=XXX&format=csv&gzip=true");
     /**
      * The mocked account transaction service.
      */
@@ -171,4 +180,148 @@ public class AccountTransactionServiceTests {
         assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
     }
 
+    /**
+     * Tests account transactions by cursor for HTTP 200.
+     */
+    @Test
+    public void accountTransactionsByCursor200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        AccountTransactionResponse mockedResp = new AccountTransactionResponse(new ArrayList<>());
+        when(acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<?> resp = acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account transactions by cursor for HTTP 204.
+     */
+    @Test
+    public void accountTransactionsByCursor204() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        when(acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+
+        ResponseEntity<?> resp = acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.NO_CONTENT, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account transactions by cursor for HTTP 400.
+     */
+    @Test
+    public void accountTransactionsByCursor400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<?> resp = acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account transactions by cursor for HTTP 401.
+     */
+    @Test
+    public void accountTransactionsByCursor401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<?> resp = acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account transactions by cursor for HTTP 404.
+     */
+    @Test
+    public void accountTransactionsByCursor404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<?> resp = acctTxnService.accountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account statement export for HTTP 200.
+     */
+    @Test
+    public void accountStatement200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> {
+        };
+        when(acctTxnService.accountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = acctTxnService.accountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account statement export for HTTP 400.
+     */
+    @Test
+    public void accountStatement400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(acctTxnService.accountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = acctTxnService.accountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account statement export for HTTP 401.
+     */
+    @Test
+    public void accountStatement401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(acctTxnService.accountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = acctTxnService.accountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests account statement export for HTTP 404.
+     */
+    @Test
+    public void accountStatement404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(acctTxnService.accountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = acctTxnService.accountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
 }
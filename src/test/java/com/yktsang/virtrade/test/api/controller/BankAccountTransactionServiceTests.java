@@ -10,11 +10,13 @@ package com.yktsang.virtrade.test.api.controller;
 
 import com.yktsang.virtrade.api.controller.BankAccountTransactionService;
 import com.yktsang.virtrade.response.AccountTransactionResponse;
+import com.yktsang.virtrade.response.BankAccountTransactionResponse;
 import com.yktsang.virtrade.response.ErrorResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -39,6 +41,14 @@ public class BankAccountTransactionServiceTests {
      * The bank account transactions with currency API endpoint.
      */
     private static final URI BANK_ACCOUNT_TRANSACTIONS_CURRENCY_URI = URI.create("/api/v1/member/banks/transactions/XXX");
+    /**
+     * The bank account transactions by cursor URI.
+     */
+    private static final URI BANK_ACCOUNT_TRANSACTIONS_CURSOR_URI = URI.create("/api/v1/member/banks/transactions/cursor?ccy=XXX&cursor=abc&pageSize=5");
+    /**
+     * The bank account statement export URI.
+     */
+    private static final URI BANK_ACCOUNT_TRANSACTIONS_EXPORT_URI = URI.create("/api/v1/member/banks/transactions/export?ccy=XXX&format=csv&gzip=true");
     /**
      * The mocked bank account transaction service.
      */
@@ -171,4 +181,148 @@ public class BankAccountTransactionServiceTests {
         assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
     }
 
+    /**
+     * Tests bank account transactions by cursor for HTTP 200.
+     */
+    @Test
+    public void bankAccountTransactionsByCursor200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        BankAccountTransactionResponse mockedResp = new BankAccountTransactionResponse(new ArrayList<>());
+        when(bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<?> resp = bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account transactions by cursor for HTTP 204.
+     */
+    @Test
+    public void bankAccountTransactionsByCursor204() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        when(bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+
+        ResponseEntity<?> resp = bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.NO_CONTENT, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account transactions by cursor for HTTP 400.
+     */
+    @Test
+    public void bankAccountTransactionsByCursor400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<?> resp = bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account transactions by cursor for HTTP 401.
+     */
+    @Test
+    public void bankAccountTransactionsByCursor401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<?> resp = bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account transactions by cursor for HTTP 404.
+     */
+    @Test
+    public void bankAccountTransactionsByCursor404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<?> resp = bankAcctTxnService.bankAccountTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account statement export for HTTP 200.
+     */
+    @Test
+    public void bankAccountStatement200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> {
+        };
+        when(bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account statement export for HTTP 400.
+     */
+    @Test
+    public void bankAccountStatement400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account statement export for HTTP 401.
+     */
+    @Test
+    public void bankAccountStatement401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests bank account statement export for HTTP 404.
+     */
+    @Test
+    public void bankAccountStatement404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, BANK_ACCOUNT_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = bankAcctTxnService.bankAccountStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
 }
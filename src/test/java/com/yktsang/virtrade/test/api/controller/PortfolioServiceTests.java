@@ -21,7 +21,9 @@ import org.springframework.http.*;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
@@ -51,6 +53,14 @@ public class PortfolioServiceTests {
      * The portfolio details API endpoint.
      */
     private static final URI PORTFOLIO_DETAILS_URI = URI.create("/api/v1/member/portfolios/details//1");
+    /**
+     * The portfolio value history API endpoint.
+     */
+    private static final URI PORTFOLIO_HISTORY_URI = URI.create("/api/v1/member/portfolios/history/1");
+    /**
+     * The portfolio analytics URI.
+     */
+    private static final URI PORTFOLIO_ANALYTICS_URI = URI.create("/api/v1/member/portfolios/analytics/1");
     /**
      * The link to portfolio API endpoint.
      */
@@ -341,6 +351,198 @@ public class PortfolioServiceTests {
         assertEquals(HttpStatus.NOT_ACCEPTABLE, resp.getStatusCode());
     }
 
+    /**
+     * Tests portfolio value history for HTTP 200.
+     */
+    @Test
+    public void portfolioHistory200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_HISTORY_URI);
+        ValueHistoryResponse mockedResp = new ValueHistoryResponse("XXX",
+                List.of(new ValuePoint(LocalDate.now(), BigDecimal.ONE)));
+        when(portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio value history for HTTP 204.
+     */
+    @Test
+    public void portfolioHistory204() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_HISTORY_URI);
+        when(portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+
+        ResponseEntity<?> resp = portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.NO_CONTENT, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio value history for HTTP 400.
+     */
+    @Test
+    public void portfolioHistory400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio value history for HTTP 401.
+     */
+    @Test
+    public void portfolioHistory401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio value history for HTTP 404.
+     */
+    @Test
+    public void portfolioHistory404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio value history for HTTP 406.
+     */
+    @Test
+    public void portfolioHistory406() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_HISTORY_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioHistory(req, BigInteger.ONE, "2024-01-01", "2024-12-31", 366);
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio analytics for HTTP 200.
+     */
+    @Test
+    public void portfolioAnalytics200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_ANALYTICS_URI);
+        PortfolioAnalyticsResponse mockedResp = new PortfolioAnalyticsResponse(BigInteger.ONE, "^HSI",
+                LocalDate.now(), 20, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, new BigDecimal("0.95"));
+        when(portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI"))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI");
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio analytics for HTTP 204.
+     */
+    @Test
+    public void portfolioAnalytics204() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_ANALYTICS_URI);
+        when(portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI"))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+
+        ResponseEntity<?> resp = portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI");
+        assertEquals(HttpStatus.NO_CONTENT, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio analytics for HTTP 400.
+     */
+    @Test
+    public void portfolioAnalytics400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_ANALYTICS_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI"))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI");
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio analytics for HTTP 401.
+     */
+    @Test
+    public void portfolioAnalytics401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_ANALYTICS_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI"))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI");
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio analytics for HTTP 404.
+     */
+    @Test
+    public void portfolioAnalytics404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_ANALYTICS_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI"))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI");
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
+    /**
+     * Tests portfolio analytics for HTTP 406.
+     */
+    @Test
+    public void portfolioAnalytics406() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, PORTFOLIO_ANALYTICS_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI"))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(mockedResp));
+
+        ResponseEntity<?> resp = portService.portfolioAnalytics(req, BigInteger.ONE, "^HSI");
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, resp.getStatusCode());
+    }
+
     /**
      * Tests link to portfolio for HTTP 200.
      */
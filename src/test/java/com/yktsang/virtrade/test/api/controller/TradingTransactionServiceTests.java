@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -39,6 +40,14 @@ public class TradingTransactionServiceTests {
      * The trading transactions with currency API endpoint.
      */
     private static final URI TRADING_TRANSACTIONS_CURRENCY_URI = URI.create("/api/v1/member/trading/transactions/XXX");
+    /**
+     * The trading transactions by cursor URI.
+     */
+    private static final URI TRADING_TRANSACTIONS_CURSOR_URI = URI.create("/api/v1/member/trading/transactions/cursor?ccy=XXX&cursor=abc&pageSize=5");
+    /**
+     * The trading statement export URI.
+     */
+    private static final URI TRADING_TRANSACTIONS_EXPORT_URI = URI.create("/api/v1/member/trading/transactions/export?ccy=XXX&format=csv&gzip=true");
     /**
      * The mocked trading transaction service.
      */
@@ -171,4 +180,148 @@ public class TradingTransactionServiceTests {
         assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
     }
 
+    /**
+     * Tests trading transactions by cursor for HTTP 200.
+     */
+    @Test
+    public void tradingTransactionsByCursor200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_CURSOR_URI);
+        TradingTransactionResponse mockedResp = new TradingTransactionResponse(new ArrayList<>());
+        when(tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<?> resp = tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading transactions by cursor for HTTP 204.
+     */
+    @Test
+    public void tradingTransactionsByCursor204() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_CURSOR_URI);
+        when(tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+
+        ResponseEntity<?> resp = tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.NO_CONTENT, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading transactions by cursor for HTTP 400.
+     */
+    @Test
+    public void tradingTransactionsByCursor400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<?> resp = tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading transactions by cursor for HTTP 401.
+     */
+    @Test
+    public void tradingTransactionsByCursor401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<?> resp = tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading transactions by cursor for HTTP 404.
+     */
+    @Test
+    public void tradingTransactionsByCursor404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_CURSOR_URI);
+        ErrorResponse mockedResp = new ErrorResponse("error");
+        when(tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<?> resp = tradingTxnService.tradingTransactionsByCursor(req, "XXX", "abc", 5);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading statement export for HTTP 200.
+     */
+    @Test
+    public void tradingStatement200() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> {
+        };
+        when(tradingTxnService.tradingStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.OK).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = tradingTxnService.tradingStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading statement export for HTTP 400.
+     */
+    @Test
+    public void tradingStatement400() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(tradingTxnService.tradingStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = tradingTxnService.tradingStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading statement export for HTTP 401.
+     */
+    @Test
+    public void tradingStatement401() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(tradingTxnService.tradingStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = tradingTxnService.tradingStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
+    }
+
+    /**
+     * Tests trading statement export for HTTP 404.
+     */
+    @Test
+    public void tradingStatement404() {
+        HttpHeaders mockedHeaders = new HttpHeaders();
+        RequestEntity<Void> req =
+                new RequestEntity<>(mockedHeaders, HttpMethod.GET, TRADING_TRANSACTIONS_EXPORT_URI);
+        StreamingResponseBody mockedResp = out -> out.write("{}".getBytes());
+        when(tradingTxnService.tradingStatement(req, "XXX", "csv", true))
+                .thenAnswer(i -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(mockedResp));
+
+        ResponseEntity<StreamingResponseBody> resp = tradingTxnService.tradingStatement(req, "XXX", "csv", true);
+        assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
+    }
+
 }
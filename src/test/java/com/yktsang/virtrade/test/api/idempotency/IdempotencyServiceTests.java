@@ -0,0 +1,202 @@
+/*
+ * IdempotencyServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.api.idempotency;
+
+import com.yktsang.virtrade.api.idempotency.IdempotencyService;
+import com.yktsang.virtrade.entity.IdempotencyKey;
+import com.yktsang.virtrade.entity.IdempotencyKeyPK;
+import com.yktsang.virtrade.entity.IdempotencyKeyRepository;
+import com.yktsang.virtrade.request.BuyRequest;
+import com.yktsang.virtrade.request.DepositFundRequest;
+import com.yktsang.virtrade.response.ErrorResponse;
+import com.yktsang.virtrade.response.SuccessResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides the test cases for <code>IdempotencyService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class IdempotencyServiceTests {
+
+    /**
+     * The idempotency service.
+     */
+    @Autowired
+    private IdempotencyService idempotencyService;
+    /**
+     * The mocked idempotency key repository.
+     */
+    @MockBean
+    private IdempotencyKeyRepository idempotencyKeyRepo;
+
+    /**
+     * Returns the buy request with the idempotency key.
+     *
+     * @param key the idempotency key
+     * @param req the buy request
+     * @return the request entity
+     */
+    private RequestEntity<BuyRequest> buyRequest(String key, BuyRequest req) {
+        RequestEntity.BodyBuilder builder = RequestEntity.post(URI.create("/api/v1/member/trading/buy"));
+        if (Objects.nonNull(key)) {
+            builder.header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return builder.body(req);
+    }
+
+    /**
+     * Tests executing every request without idempotency key.
+     */
+    @Test
+    public void executeWithoutKey() {
+        AtomicInteger count = new AtomicInteger();
+        RequestEntity<BuyRequest> req = this.buyRequest(null, new BuyRequest("0005.HK", 400));
+        idempotencyService.execute("user@domain.com", req, "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought " + count.incrementAndGet())));
+        idempotencyService.execute("user@domain.com", req, "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought " + count.incrementAndGet())));
+        assertEquals(2, count.get());
+        verify(idempotencyKeyRepo, never()).save(any(IdempotencyKey.class));
+    }
+
+    /**
+     * Tests replaying the outcome of a retried request.
+     */
+    @Test
+    public void replayRetriedRequest() {
+        when(idempotencyKeyRepo.findById(any(IdempotencyKeyPK.class)))
+                .thenReturn(Optional.empty());
+        AtomicInteger count = new AtomicInteger();
+        RequestEntity<BuyRequest> req = this.buyRequest("retry-key", new BuyRequest("0005.HK", 400));
+
+        ResponseEntity<?> first = idempotencyService.execute("user@domain.com", req, "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought " + count.incrementAndGet())));
+        ResponseEntity<?> second = idempotencyService.execute("user@domain.com", req, "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought " + count.incrementAndGet())));
+
+        assertEquals(1, count.get());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(idempotencyKeyRepo, times(1)).save(any(IdempotencyKey.class));
+    }
+
+    /**
+     * Tests replaying the stored error outcome.
+     */
+    @Test
+    public void replayStoredError() {
+        RequestEntity<BuyRequest> req = this.buyRequest("stored-key", new BuyRequest("0005.HK", 400));
+        IdempotencyKey stored = new IdempotencyKey("user@domain.com", "stored-key", "buy",
+                IdempotencyService.requestHash(req.getBody()), HttpStatus.BAD_REQUEST.value(), false,
+                "Insufficient funds", LocalDateTime.now().plusHours(1));
+        when(idempotencyKeyRepo.findById(any(IdempotencyKeyPK.class)))
+                .thenReturn(Optional.of(stored));
+
+        ResponseEntity<?> resp = idempotencyService.execute("user@domain.com", req, "buy",
+                () -> fail("request must not be executed"));
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+        assertEquals(new ErrorResponse("Insufficient funds"), resp.getBody());
+    }
+
+    /**
+     * Tests rejecting the idempotency key reused for another request.
+     */
+    @Test
+    public void rejectKeyReusedForAnotherRequest() {
+        when(idempotencyKeyRepo.findById(any(IdempotencyKeyPK.class)))
+                .thenReturn(Optional.empty());
+        idempotencyService.execute("user@domain.com",
+                this.buyRequest("reused-key", new BuyRequest("0005.HK", 400)), "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought")));
+
+        ResponseEntity<?> resp = idempotencyService.execute("user@domain.com",
+                this.buyRequest("reused-key", new BuyRequest("0700.HK", 100)), "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought")));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, resp.getStatusCode());
+    }
+
+    /**
+     * Tests the conflict when another node remembers the same idempotency key first,
+     * and the retry after the other node's outcome is remembered.
+     */
+    @Test
+    public void conflictWithAnotherNode() {
+        RequestEntity<BuyRequest> req = this.buyRequest("raced-key", new BuyRequest("0005.HK", 400));
+        IdempotencyKey stored = new IdempotencyKey("user@domain.com", "raced-key", "buy",
+                IdempotencyService.requestHash(req.getBody()), HttpStatus.OK.value(), true,
+                "bought on another node", LocalDateTime.now().plusHours(1));
+        when(idempotencyKeyRepo.findById(any(IdempotencyKeyPK.class)))
+                .thenReturn(Optional.empty(), Optional.of(stored));
+        // the request action flushes, then the idempotency key violates the primary key
+        doNothing().doThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .when(idempotencyKeyRepo).flush();
+
+        ResponseEntity<?> resp = idempotencyService.execute("user@domain.com", req, "buy",
+                () -> ResponseEntity.ok(new SuccessResponse("bought")));
+        assertEquals(HttpStatus.CONFLICT, resp.getStatusCode());
+
+        ResponseEntity<?> retried = idempotencyService.execute("user@domain.com", req, "buy",
+                () -> fail("request must not be executed"));
+        assertEquals(new SuccessResponse("bought on another node"), retried.getBody());
+    }
+
+    /**
+     * Tests rejecting the overlong idempotency key.
+     */
+    @Test
+    public void rejectOverlongKey() {
+        ResponseEntity<?> resp = idempotencyService.execute("user@domain.com",
+                this.buyRequest("k".repeat(101), new BuyRequest("0005.HK", 400)), "buy",
+                () -> fail("request must not be executed"));
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    /**
+     * Tests the request hash as the SHA-256 digest of the canonical JSON of the request body,
+     * regardless of the scale of the decimals.
+     *
+     * @throws Exception if SHA-256 is not available
+     */
+    @Test
+    public void requestHash() throws Exception {
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest("{\"quantityToBuy\":400,\"symbol\":\"0005.HK\"}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, IdempotencyService.requestHash(new BuyRequest("0005.HK", 400)));
+        assertEquals(IdempotencyService.requestHash(new DepositFundRequest("HKD", new BigDecimal("100"))),
+                IdempotencyService.requestHash(new DepositFundRequest("HKD", new BigDecimal("100.00"))));
+        assertNotEquals(IdempotencyService.requestHash(new DepositFundRequest("HKD", new BigDecimal("100"))),
+                IdempotencyService.requestHash(new DepositFundRequest("HKD", new BigDecimal("101"))));
+        assertEquals(64, IdempotencyService.requestHash(null).length());
+    }
+
+}
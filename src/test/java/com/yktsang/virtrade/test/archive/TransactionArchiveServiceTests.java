@@ -0,0 +1,176 @@
+/*
+ * TransactionArchiveServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.archive;
+
+import com.yktsang.virtrade.archive.TransactionArchiveService;
+import com.yktsang.virtrade.entity.AccountTransaction;
+import com.yktsang.virtrade.entity.AccountTransactionRepository;
+import com.yktsang.virtrade.entity.BankAccountTransaction;
+import com.yktsang.virtrade.entity.BankAccountTransactionRepository;
+import com.yktsang.virtrade.util.PaginationUtil.Cursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>TransactionArchiveService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = "archive.chunk.size=2")
+public class TransactionArchiveServiceTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "archive@domain.com";
+    /**
+     * The currencies of the test data.
+     */
+    private static final List<String> CURRENCIES = List.of("XXX");
+    /**
+     * The cutoff datetime, after the archived test data and before any other data.
+     */
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2000, 1, 1, 0, 0);
+    /**
+     * The transaction archive service.
+     */
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+    /**
+     * The account transaction repository.
+     */
+    @Autowired
+    private AccountTransactionRepository acctTxnRepo;
+    /**
+     * The bank account transaction repository.
+     */
+    @Autowired
+    private BankAccountTransactionRepository bankAcctTxnRepo;
+
+    /**
+     * Creates the test data: three transactions before the cutoff and two after.
+     */
+    @BeforeEach
+    public void init() {
+        for (int hour = 10; hour <= 12; hour++) {
+            AccountTransaction at = new AccountTransaction(EMAIL, "XXX", "old " + hour);
+            at.setTransactionDateTime(LocalDateTime.of(1999, 1, 1, hour, 0));
+            acctTxnRepo.save(at);
+            BankAccountTransaction bat = new BankAccountTransaction(EMAIL, "XXX", "old " + hour);
+            bat.setTransactionDateTime(LocalDateTime.of(1999, 1, 1, hour, 0));
+            bankAcctTxnRepo.save(bat);
+        }
+        for (int minute = 1; minute <= 2; minute++) {
+            AccountTransaction at = new AccountTransaction(EMAIL, "XXX", "new " + minute);
+            at.setTransactionDateTime(LocalDateTime.now().withNano(0).minusMinutes(2 - minute));
+            acctTxnRepo.save(at);
+        }
+    }
+
+    /**
+     * Deletes the test data.
+     */
+    @AfterEach
+    public void cleanup() {
+        transactionArchiveService.deleteArchive(EMAIL);
+        acctTxnRepo.deleteAll(acctTxnRepo.findByEmail(EMAIL));
+        bankAcctTxnRepo.deleteAll(bankAcctTxnRepo.findByEmail(EMAIL));
+    }
+
+    /**
+     * Tests moving the transactions before the cutoff in chunks.
+     */
+    @Test
+    public void archive() {
+        assertEquals(3, transactionArchiveService.archive(TransactionArchiveService.ACCOUNT_TRANSACTIONS, CUTOFF));
+        assertEquals(3, transactionArchiveService.archive(TransactionArchiveService.BANK_ACCOUNT_TRANSACTIONS, CUTOFF));
+        assertEquals(2, acctTxnRepo.findByEmail(EMAIL).size());
+        assertTrue(bankAcctTxnRepo.findByEmail(EMAIL).isEmpty());
+        assertEquals(0, transactionArchiveService.archive(TransactionArchiveService.ACCOUNT_TRANSACTIONS, CUTOFF));
+
+        transactionArchiveService.deleteArchive(EMAIL, "XXX");
+        Page<com.yktsang.virtrade.response.BankAccountTransaction> bankPage = transactionArchiveService.page(
+                TransactionArchiveService.BANK_ACCOUNT_TRANSACTIONS,
+                bankAcctTxnRepo.findResponsesByEmailAndCurrency(EMAIL, "XXX", PageRequest.of(0, 5)),
+                EMAIL, CURRENCIES);
+        assertEquals(0L, bankPage.getTotalElements());
+    }
+
+    /**
+     * Tests continuing the cursor pages from the hot transactions into the archived transactions.
+     */
+    @Test
+    public void seek() {
+        transactionArchiveService.archive(TransactionArchiveService.ACCOUNT_TRANSACTIONS, CUTOFF);
+
+        List<AccountTransaction> firstPage = transactionArchiveService.seek(
+                TransactionArchiveService.ACCOUNT_TRANSACTIONS,
+                acctTxnRepo.seekByEmailAndCurrencies(EMAIL, CURRENCIES, PageRequest.of(0, 4)),
+                EMAIL, CURRENCIES, null, 4);
+        assertEquals(List.of("new 2", "new 1", "old 12", "old 11"),
+                firstPage.stream().map(AccountTransaction::getTransactionDescription).toList());
+
+        AccountTransaction last = firstPage.get(3);
+        Cursor cursor = new Cursor(last.getTransactionDateTime(), last.getAccountTransactionId());
+        List<AccountTransaction> nextPage = transactionArchiveService.seek(
+                TransactionArchiveService.ACCOUNT_TRANSACTIONS,
+                acctTxnRepo.seekByEmailAndCurrencies(EMAIL, CURRENCIES, cursor.dateTime(), cursor.id(),
+                        PageRequest.of(0, 4)),
+                EMAIL, CURRENCIES, cursor, 4);
+        assertEquals(List.of("old 10"),
+                nextPage.stream().map(AccountTransaction::getTransactionDescription).toList());
+    }
+
+    /**
+     * Tests continuing the numbered pages from the hot transactions into the archived transactions.
+     */
+    @Test
+    public void page() {
+        transactionArchiveService.archive(TransactionArchiveService.ACCOUNT_TRANSACTIONS, CUTOFF);
+
+        assertEquals(List.of("new 2", "new 1"), this.page(PageRequest.of(0, 2)));
+        assertEquals(List.of("old 12", "old 11"), this.page(PageRequest.of(1, 2)));
+        assertEquals(List.of("old 10"), this.page(PageRequest.of(2, 2)));
+        assertEquals(List.of("new 2", "new 1", "old 12"), this.page(PageRequest.of(0, 3)));
+        assertEquals(List.of("old 11", "old 10"), this.page(PageRequest.of(1, 3)));
+        assertEquals(5, this.page(Pageable.unpaged()).size());
+
+        Page<com.yktsang.virtrade.response.AccountTransaction> lastHotPage = transactionArchiveService.page(
+                TransactionArchiveService.ACCOUNT_TRANSACTIONS,
+                acctTxnRepo.findResponsesByEmailAndCurrency(EMAIL, "XXX", PageRequest.of(0, 2)),
+                EMAIL, CURRENCIES);
+        assertEquals(5L, lastHotPage.getTotalElements());
+        assertTrue(lastHotPage.hasNext());
+    }
+
+    /**
+     * Returns the descriptions of the page of account transactions.
+     *
+     * @param pageable the page
+     * @return the descriptions
+     */
+    private List<String> page(Pageable pageable) {
+        return transactionArchiveService.page(TransactionArchiveService.ACCOUNT_TRANSACTIONS,
+                        acctTxnRepo.findResponsesByEmailAndCurrency(EMAIL, "XXX", pageable), EMAIL, CURRENCIES)
+                .map(com.yktsang.virtrade.response.AccountTransaction::transactionDescription).getContent();
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * EntityCacheStatisticsTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.cache;
+
+import com.yktsang.virtrade.cache.EntityCacheStatistics;
+import com.yktsang.virtrade.cache.EntityCacheStatistics.RegionStatistics;
+import com.yktsang.virtrade.entity.Account;
+import com.yktsang.virtrade.entity.AccountRepository;
+import com.yktsang.virtrade.entity.AccountTransactionRepository;
+import com.yktsang.virtrade.entity.IsoData;
+import com.yktsang.virtrade.entity.IsoDataRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>EntityCacheStatistics</code> and the second-level entity cache.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class EntityCacheStatisticsTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "entitycache@domain.com";
+    /**
+     * The country code of the test data.
+     */
+    private static final String COUNTRY = "ZZ";
+    /**
+     * The entity cache statistics.
+     */
+    @Autowired
+    private EntityCacheStatistics entityCacheStatistics;
+    /**
+     * The ISO data repository.
+     */
+    @Autowired
+    private IsoDataRepository isoDataRepo;
+    /**
+     * The account repository.
+     */
+    @Autowired
+    private AccountRepository accountRepo;
+    /**
+     * The account transaction repository.
+     */
+    @Autowired
+    private AccountTransactionRepository acctTxnRepo;
+    /**
+     * The entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    /**
+     * The transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Deletes the test data.
+     */
+    @AfterEach
+    public void cleanUp() {
+        isoDataRepo.deleteById(COUNTRY);
+        accountRepo.deleteById(EMAIL);
+    }
+
+    /**
+     * Returns the number of ISO data found in the cache.
+     *
+     * @return the number of hits
+     */
+    private long isoDataHits() {
+        return entityCacheStatistics.getStatistics().get("iso_data").hits();
+    }
+
+    /**
+     * Tests reading the ISO data from the cache, updated on write
+     * and kept by bulk deletes of other tables.
+     */
+    @Test
+    public void readUpdateThenBulkDelete() {
+        IsoData isoData = isoDataRepo.save(new IsoData(COUNTRY, "Test", "XXX", "No currency", 0, true, "admin"));
+        long hits = this.isoDataHits();
+        assertTrue(isoDataRepo.findById(COUNTRY).orElseThrow().isActive());
+        assertTrue(isoDataRepo.findById(COUNTRY).isPresent());
+        assertEquals(hits + 2, this.isoDataHits());
+
+        isoData.setActive(false);
+        isoDataRepo.save(isoData);
+        hits = this.isoDataHits();
+        assertFalse(isoDataRepo.findById(COUNTRY).orElseThrow().isActive());
+        assertEquals(hits + 1, this.isoDataHits());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(s ->
+                acctTxnRepo.bulkDeleteByEmail(EMAIL, 10));
+        assertTrue(isoDataRepo.findById(COUNTRY).isPresent());
+        assertEquals(hits + 2, this.isoDataHits());
+    }
+
+    /**
+     * Tests the account is not cached, so that a change on another node is read at once.
+     */
+    @Test
+    public void accountNotCached() {
+        accountRepo.save(new Account(EMAIL, "password"));
+        assertTrue(accountRepo.findById(EMAIL).orElseThrow().isActive());
+        assertFalse(entityManagerFactory.getCache().contains(Account.class, EMAIL));
+    }
+
+    /**
+     * Tests the hit ratio.
+     */
+    @Test
+    public void hitRatio() {
+        assertEquals(new BigDecimal("0.7500"), RegionStatistics.of(3, 1, 1).hitRatio());
+        assertNull(RegionStatistics.of(0, 0, 0).hitRatio());
+        assertTrue(entityCacheStatistics.getStatistics().keySet().containsAll(
+                List.of("iso_data")));
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * CurrentMemberTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.config;
+
+import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.config.CurrentMember;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Provides the test cases for <code>CurrentMember</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class CurrentMemberTests {
+
+    /**
+     * The JWT service.
+     */
+    @Autowired
+    private JwtService jwtService;
+
+    /**
+     * Clears the web request and the authenticated member.
+     */
+    @AfterEach
+    public void cleanUp() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Starts a new web request.
+     */
+    private static void newRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    /**
+     * Tests the member of the JWT extracted in the service layer is bound to the web request only.
+     */
+    @Test
+    public void bindJwtMemberToRequest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Authorization", "Bearer " + jwtService.generateToken("jwt@domain.com"));
+        // e.g. a scheduled job, while the test framework mocks a web request per test
+        RequestContextHolder.resetRequestAttributes();
+        jwtService.extractUsernameFromHeaders(headers);
+        // outside a web request nothing is bound
+        assertEquals(Optional.empty(), CurrentMember.email());
+
+        newRequest();
+        jwtService.extractUsernameFromHeaders(headers);
+        assertEquals(Optional.of("jwt@domain.com"), CurrentMember.email());
+        newRequest();
+        assertEquals(Optional.empty(), CurrentMember.email());
+    }
+
+    /**
+     * Tests the bound member comes before the authenticated member, and anonymous users are no member.
+     */
+    @Test
+    public void boundBeforeAuthenticated() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertEquals(Optional.empty(), CurrentMember.email());
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("auth@domain.com", null, List.of()));
+        assertEquals(Optional.of("auth@domain.com"), CurrentMember.email());
+
+        newRequest();
+        CurrentMember.bind("jwt@domain.com");
+        assertEquals(Optional.of("jwt@domain.com"), CurrentMember.email());
+    }
+
+}
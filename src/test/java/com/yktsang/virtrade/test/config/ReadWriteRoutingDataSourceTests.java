@@ -0,0 +1,177 @@
+/*
+ * ReadWriteRoutingDataSourceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.config;
+
+import com.yktsang.virtrade.config.CurrentMember;
+import com.yktsang.virtrade.config.ReadWriteRoutingDataSource;
+import com.yktsang.virtrade.config.ReadWriteRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>ReadWriteRoutingDataSource</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class ReadWriteRoutingDataSourceTests {
+
+    /**
+     * The routing data source under test.
+     */
+    private ReadWriteRoutingDataSource routingDataSource;
+    /**
+     * The connection of the primary.
+     */
+    private Connection primaryConnection;
+    /**
+     * The connection of the replica.
+     */
+    private Connection replicaConnection;
+
+    /**
+     * Routes between mocked data sources with a stickiness window of 1 second.
+     *
+     * @throws SQLException if the mocked data sources fail
+     */
+    @BeforeEach
+    public void init() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(1), 10);
+    }
+
+    /**
+     * Clears the transaction, the web request and the authenticated member.
+     */
+    @AfterEach
+    public void cleanUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Marks the current transaction.
+     *
+     * @param readOnly read-only or not
+     */
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    /**
+     * Authenticates the member.
+     *
+     * @param email the email address
+     */
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    /**
+     * Tests routing read-only transactions to the replica and everything else to the primary.
+     *
+     * @throws SQLException if the mocked data sources fail
+     */
+    @Test
+    public void routeByReadOnly() throws SQLException {
+        inTransaction(true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        inTransaction(false);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    /**
+     * Tests reading from the primary within the stickiness window after the member's own write.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void readYourWrites() throws InterruptedException {
+        authenticate("writer@domain.com");
+        inTransaction(true);
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute());
+        inTransaction(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+        inTransaction(true);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+
+        // other members still read from the replica
+        authenticate("reader@domain.com");
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute());
+
+        Thread.sleep(1100);
+        authenticate("writer@domain.com");
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute());
+    }
+
+    /**
+     * Tests reading your writes for the member of the JWT, as the web pages call the API in-process
+     * without an authenticated member.
+     */
+    @Test
+    public void readYourWritesOfJwtMember() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        CurrentMember.bind("writer@domain.com");
+        inTransaction(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+
+        // the next web page of the member
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        CurrentMember.bind("writer@domain.com");
+        inTransaction(true);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+    }
+
+    /**
+     * Tests the writes of anonymous users make no one sticky.
+     */
+    @Test
+    public void anonymousNotSticky() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        inTransaction(false);
+        assertEquals(Route.PRIMARY, routingDataSource.currentRoute());
+        inTransaction(true);
+        assertEquals(Route.REPLICA, routingDataSource.currentRoute());
+    }
+
+}
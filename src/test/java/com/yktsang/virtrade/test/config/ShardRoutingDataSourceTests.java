@@ -0,0 +1,139 @@
+/*
+ * ShardRoutingDataSourceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.config;
+
+import com.yktsang.virtrade.config.CurrentMember;
+import com.yktsang.virtrade.config.ShardRoutingDataSource;
+import com.yktsang.virtrade.shard.ConsistentHashRing;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.test.shard.ShardRouterTests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>ShardRoutingDataSource</code>, sharded as in <code>ShardRouterTests</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = ShardRouterTests.SHARD_URLS)
+public class ShardRoutingDataSourceTests {
+
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The routing data source under test.
+     */
+    private ShardRoutingDataSource routingDataSource;
+    /**
+     * The connections by shard.
+     */
+    private Map<String, Connection> connections;
+
+    /**
+     * Routes between a mocked data source per shard.
+     *
+     * @throws SQLException if the mocked data sources fail
+     */
+    @BeforeEach
+    public void init() throws SQLException {
+        Map<String, DataSource> shards = new HashMap<>();
+        connections = new HashMap<>();
+        for (String shard : shardRouter.shards()) {
+            DataSource dataSource = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+            shards.put(shard, dataSource);
+            connections.put(shard, connection);
+        }
+        routingDataSource = new ShardRoutingDataSource(shards, new ConsistentHashRing(shards.size(), 128));
+    }
+
+    /**
+     * Clears the authenticated member and the web request.
+     */
+    @AfterEach
+    public void cleanUp() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Tests routing to the home shard without a member, and to the shard of the authenticated member.
+     *
+     * @throws SQLException if the mocked data sources fail
+     */
+    @Test
+    public void routeByMember() throws SQLException {
+        assertSame(connections.get(ShardRouter.HOME_SHARD), routingDataSource.getConnection());
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertEquals(ShardRouter.HOME_SHARD, routingDataSource.currentShard());
+
+        for (String shard : shardRouter.shards()) {
+            String member = ShardRouterTests.emailOn(shardRouter, "route", shard);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(member, null, List.of()));
+            assertSame(connections.get(shard), routingDataSource.getConnection());
+        }
+    }
+
+    /**
+     * Tests routing to the shard of the member of the JWT, bound to the web request by the service layer,
+     * without an authenticated member as for the web pages.
+     *
+     * @throws SQLException if the mocked data sources fail
+     */
+    @Test
+    public void routeByJwtMember() throws SQLException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        CurrentMember.bind(ShardRouterTests.emailOn(shardRouter, "route", "1"));
+        assertSame(connections.get("1"), routingDataSource.getConnection());
+    }
+
+    /**
+     * Tests the pinned shard takes precedence over the authenticated member.
+     */
+    @Test
+    public void pinnedShardFirst() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                ShardRouterTests.emailOn(shardRouter, "route", "2"), null, List.of()));
+        List<String> routed = new ArrayList<>();
+        shardRouter.forEachShard(() -> routed.add(routingDataSource.currentShard()));
+        assertEquals(shardRouter.shards(), routed);
+        assertEquals("2", routingDataSource.currentShard());
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * AccountBalanceControllerShardTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.controller;
+
+import com.yktsang.virtrade.api.jwt.JwtService;
+import com.yktsang.virtrade.currency.CurrencyCacheService;
+import com.yktsang.virtrade.entity.IsoCurrency;
+import com.yktsang.virtrade.response.AccountBalance;
+import com.yktsang.virtrade.shard.ShardRouter;
+import com.yktsang.virtrade.test.shard.ShardRouterTests;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Provides the test cases for <code>AccountBalanceController</code> sharded as in <code>ShardRouterTests</code>,
+ * the web pages calling the API in-process for a member on another shard than the home shard.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = ShardRouterTests.SHARD_URLS)
+@AutoConfigureMockMvc
+public class AccountBalanceControllerShardTests {
+
+    /**
+     * The mocked MVC.
+     */
+    @Autowired
+    private MockMvc mvc;
+    /**
+     * The JWT service.
+     */
+    @Autowired
+    private JwtService jwtService;
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    /**
+     * The mocked currency cache service.
+     */
+    @MockBean
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The email address of the test data, belonging to shard 2.
+     */
+    private String email;
+    /**
+     * The HTTP session of the member.
+     */
+    private MockHttpSession session;
+
+    /**
+     * Logs the member in.
+     */
+    @BeforeEach
+    public void init() {
+        email = ShardRouterTests.emailOn(shardRouter, "shardpage", "2");
+        session = new MockHttpSession();
+        session.setMaxInactiveInterval(1800); // 1800 sec (30 min)
+        session.setAttribute("email", email);
+        session.setAttribute("jwt", jwtService.generateToken(email));
+        when(currencyCacheService.getActiveCurrencies())
+                .thenReturn(Set.of(new IsoCurrency("XXX", "No currency")));
+    }
+
+    /**
+     * Deletes the test data from every shard.
+     */
+    @AfterEach
+    public void cleanUp() {
+        ShardRouterTests.deleteMember(shardRouter, jdbcTemplate, email);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    /**
+     * Returns the number of account balances of the member on every shard.
+     *
+     * @return the number of account balances by shard
+     */
+    private Map<String, Integer> balancesByShard() {
+        Map<String, Integer> balances = new TreeMap<>();
+        shardRouter.shards().forEach(shard -> balances.put(shard, shardRouter.callOn(shard, () ->
+                jdbcTemplate.queryForObject("select count(*) from account_balance where email = ?",
+                        Integer.class, email))));
+        return balances;
+    }
+
+    /**
+     * Tests the deposit page writes to the member's shard, and the account balance page reads it back.
+     *
+     * @throws Exception when it is unable to load the page
+     */
+    @Test
+    public void depositOnMemberShard() throws Exception {
+        mvc.perform(post("/member/depositFunds").session(session)
+                        .param("selectedCcy", "")
+                        .param("currency", "XXX")
+                        .param("amount", "100")
+                        .param("pageNum", "1")
+                        .param("pageSize", "5"))
+                .andExpect(status().is3xxRedirection());
+        assertEquals(Map.of("0", 0, "1", 0, "2", 1), this.balancesByShard());
+
+        List<?> balances = (List<?>) mvc.perform(get("/member/accountBalance").session(session))
+                .andExpect(status().isOk())
+                .andReturn().getModelAndView().getModel().get("balances");
+        assertEquals(1, balances.size());
+        assertEquals(0, new BigDecimal("100").compareTo(((AccountBalance) balances.get(0)).nonTradingAmount()));
+    }
+
+}
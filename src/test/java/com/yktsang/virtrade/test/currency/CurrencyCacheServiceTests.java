@@ -0,0 +1,123 @@
+/*
+ * CurrencyCacheServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.currency;
+
+import com.yktsang.virtrade.currency.CurrencyCacheService;
+import com.yktsang.virtrade.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides the test cases for <code>CurrencyCacheService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class CurrencyCacheServiceTests {
+
+    /**
+     * The currency cache service.
+     */
+    @Autowired
+    private CurrencyCacheService currencyCacheService;
+    /**
+     * The mocked ISO data repository.
+     */
+    @MockBean
+    private IsoDataRepository isoDataRepo;
+    /**
+     * The mocked cache version repository.
+     */
+    @MockBean
+    private CacheVersionRepository cacheVersionRepo;
+
+    /**
+     * Initializes the mocked data, discarding the currencies cached by the previous test.
+     */
+    @BeforeEach
+    public void init() {
+        when(cacheVersionRepo.incrementVersion(eq(CurrencyCacheService.CACHE_NAME), any(LocalDateTime.class)))
+                .thenReturn(1);
+        currencyCacheService.invalidate();
+        when(isoDataRepo.findAll(any(Sort.class)))
+                .thenReturn(List.of(
+                        new IsoData("DE", "Germany", "EUR", "Euro", 2, true, "admin"),
+                        new IsoData("FR", "France", "EUR", "Euro", 2, true, "admin"),
+                        new IsoData("HK", "Hong Kong", "HKD", "Hong Kong Dollar", 2, true, "admin"),
+                        new IsoData("JP", "Japan", "JPY", "Yen", 0, false, "admin")));
+        clearInvocations(isoDataRepo, cacheVersionRepo);
+    }
+
+    /**
+     * Tests reading the ISO data once for the active currencies and the minor units.
+     */
+    @Test
+    public void cached() {
+        assertEquals(List.of(new IsoCurrency("EUR"), new IsoCurrency("HKD")),
+                List.copyOf(currencyCacheService.getActiveCurrencies()));
+        assertEquals(2, currencyCacheService.getMinorUnits("hkd"));
+        assertEquals(0, currencyCacheService.getMinorUnits("JPY"));
+        assertNull(currencyCacheService.getMinorUnits("XXX"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> currencyCacheService.getActiveCurrencies().add(new IsoCurrency("JPY")));
+
+        verify(isoDataRepo, times(1)).findAll(any(Sort.class));
+    }
+
+    /**
+     * Tests reading the ISO data again after the admin changed it on this node.
+     */
+    @Test
+    public void invalidate() {
+        currencyCacheService.getActiveCurrencies();
+        when(cacheVersionRepo.incrementVersion(eq(CurrencyCacheService.CACHE_NAME), any(LocalDateTime.class)))
+                .thenReturn(0);
+        currencyCacheService.invalidate();
+        // the first invalidation creates the version
+        verify(cacheVersionRepo, times(1)).save(any(CacheVersion.class));
+
+        currencyCacheService.getActiveCurrencies();
+        verify(isoDataRepo, times(2)).findAll(any(Sort.class));
+    }
+
+    /**
+     * Tests reading the ISO data again only after another node changed it.
+     */
+    @Test
+    public void synchronize() {
+        when(cacheVersionRepo.findById(CurrencyCacheService.CACHE_NAME))
+                .thenReturn(Optional.of(new CacheVersion(CurrencyCacheService.CACHE_NAME, 41L)));
+        currencyCacheService.synchronize();
+        currencyCacheService.getActiveCurrencies();
+        currencyCacheService.synchronize();
+        currencyCacheService.getActiveCurrencies();
+        verify(isoDataRepo, times(1)).findAll(any(Sort.class));
+
+        when(cacheVersionRepo.findById(CurrencyCacheService.CACHE_NAME))
+                .thenReturn(Optional.of(new CacheVersion(CurrencyCacheService.CACHE_NAME, 42L)));
+        currencyCacheService.synchronize();
+        currencyCacheService.getActiveCurrencies();
+        verify(isoDataRepo, times(2)).findAll(any(Sort.class));
+    }
+
+}
@@ -27,6 +27,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -64,6 +65,12 @@ public class AccountBalanceRepositoryTests {
                 .thenReturn(dummyBalances);
         when(acctBalRepo.findByEmail(anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(acctBalRepo.findByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyPage);
+        when(acctBalRepo.bulkDeleteByEmail(anyString()))
+                .thenReturn(1);
+        when(acctBalRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(1);
     }
 
     /**
@@ -102,6 +109,14 @@ public class AccountBalanceRepositoryTests {
         assertEquals(1L, acctBalRepo.findByEmail("john@domain.com", PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding account balances by email and currencies with pagination.
+     */
+    @Test
+    public void findByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, acctBalRepo.findByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(1, 5)).getTotalElements());
+    }
+
     /**
      * Tests delete account balance.
      */
@@ -136,4 +151,20 @@ public class AccountBalanceRepositoryTests {
         assertEquals(0, acctBalRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting account balances by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, acctBalRepo.bulkDeleteByEmail("john@domain.com"));
+    }
+
+    /**
+     * Tests bulk deleting account balances by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, acctBalRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX"));
+    }
+
 }
@@ -20,13 +20,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigInteger;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -66,8 +70,28 @@ public class AccountTransactionRepositoryTests {
                 .thenReturn(dummyTransactions);
         when(acctTxnRepo.findByEmail(anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(acctTxnRepo.findByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyPage);
+        when(acctTxnRepo.seekByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyTransactions);
+        when(acctTxnRepo.seekByEmailAndCurrencies(anyString(), anyCollection(), any(LocalDateTime.class),
+                any(BigInteger.class), any(Pageable.class)))
+                .thenReturn(dummyTransactions);
         when(acctTxnRepo.findByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(acctTxnRepo.bulkDeleteByEmail(anyString(), anyInt()))
+                .thenReturn(1);
+        when(acctTxnRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString(), anyInt()))
+                .thenReturn(1);
+        Page<com.yktsang.virtrade.response.AccountTransaction> dummyResponsePage = new PageImpl<>(
+                List.of(new com.yktsang.virtrade.response.AccountTransaction("user@domain.com",
+                        "XXX", LocalDateTime.now(), "description")));
+        when(acctTxnRepo.findResponsesByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(acctTxnRepo.findResponsesByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(acctTxnRepo.streamResponsesByEmailAndCurrencies(anyString(), anyCollection()))
+                .thenAnswer(i -> dummyResponsePage.stream());
     }
 
     /**
@@ -121,6 +145,31 @@ public class AccountTransactionRepositoryTests {
         assertEquals(1L, acctTxnRepo.findByEmailAndCurrency("john@domain.com", "XXX", PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding account transactions by email and currencies with pagination.
+     */
+    @Test
+    public void findByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, acctTxnRepo.findByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding the first account transactions by email and currencies.
+     */
+    @Test
+    public void seekByEmailAndCurrencies() {
+        assertEquals(1, acctTxnRepo.seekByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(0, 6)).size());
+    }
+
+    /**
+     * Tests finding the account transactions after the cursor by email and currencies.
+     */
+    @Test
+    public void seekByEmailAndCurrenciesAfterCursor() {
+        assertEquals(1, acctTxnRepo.seekByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                LocalDateTime.now(), BigInteger.TEN, PageRequest.of(0, 6)).size());
+    }
+
     /**
      * Tests delete account transactions.
      */
@@ -138,4 +187,49 @@ public class AccountTransactionRepositoryTests {
         assertEquals(0, acctTxnRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting account transactions by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, acctTxnRepo.bulkDeleteByEmail("john@domain.com", 5000));
+    }
+
+    /**
+     * Tests bulk deleting account transactions by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, acctTxnRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX", 5000));
+    }
+
+    /**
+     * Tests finding account transactions in response format by email and currencies with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrencies() {
+        assertEquals(1L, acctTxnRepo.findResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding account transactions in response format by email and currency with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrency() {
+        assertEquals(1L, acctTxnRepo.findResponsesByEmailAndCurrency("john@domain.com", "XXX",
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests streaming account transactions in response format by email and currencies.
+     */
+    @Test
+    public void streamResponsesByEmailAndCurrencies() {
+        try (Stream<com.yktsang.virtrade.response.AccountTransaction> stream =
+                     acctTxnRepo.streamResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"))) {
+            assertEquals(1L, stream.count());
+        }
+    }
+
 }
@@ -0,0 +1,113 @@
+/*
+ * BalanceEventRepositoryTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.entity;
+
+import com.yktsang.virtrade.entity.BalanceEvent;
+import com.yktsang.virtrade.entity.BalanceEventRepository;
+import com.yktsang.virtrade.entity.BalanceEventType;
+import com.yktsang.virtrade.ledger.BalanceDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>BalanceEventRepository</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class BalanceEventRepositoryTests {
+
+    /**
+     * The mocked balance event repository.
+     */
+    @MockBean
+    private BalanceEventRepository balanceEventRepo;
+
+    /**
+     * Initializes the mocked data.
+     */
+    @BeforeEach
+    public void init() {
+        BalanceEvent dummyEvent = new BalanceEvent("user@domain.com", "XXX", BalanceEventType.DEPOSIT,
+                BigDecimal.ZERO, BigDecimal.TEN, BigInteger.ONE);
+
+        when(balanceEventRepo.save(any(BalanceEvent.class)))
+                .thenReturn(dummyEvent);
+        when(balanceEventRepo.findByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(List.of(dummyEvent));
+        when(balanceEventRepo.sumPendingByEmailAndCurrencies(anyString(), anyCollection()))
+                .thenReturn(List.of(new BalanceDelta("XXX", BigDecimal.ZERO, BigDecimal.TEN)));
+        when(balanceEventRepo.bulkDeleteByEmail(anyString()))
+                .thenReturn(1);
+        when(balanceEventRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(1);
+    }
+
+    /**
+     * Tests saving balance event.
+     */
+    @Test
+    public void save() {
+        BalanceEvent savedEvent = balanceEventRepo.save(new BalanceEvent("john@domain.com", "abc",
+                BalanceEventType.BUY, BigDecimal.ONE, BigDecimal.ONE.negate(), BigInteger.TWO));
+        assertEquals("user@domain.com", savedEvent.getEmail());
+        assertEquals(BalanceEventType.DEPOSIT, savedEvent.getEventType());
+    }
+
+    /**
+     * Tests finding balance events by email and currency.
+     */
+    @Test
+    public void findByEmailAndCurrency() {
+        List<BalanceEvent> events = balanceEventRepo.findByEmailAndCurrency("john@domain.com", "XXX");
+        assertEquals(1, events.size());
+        assertEquals(BigDecimal.TEN, events.get(0).getNonTradingAmount());
+    }
+
+    /**
+     * Tests summing the balance events not compacted yet by currency.
+     */
+    @Test
+    public void sumPendingByEmailAndCurrencies() {
+        List<BalanceDelta> deltas = balanceEventRepo.sumPendingByEmailAndCurrencies("john@domain.com",
+                List.of("XXX", "YYY"));
+        assertEquals(1, deltas.size());
+        assertEquals("XXX", deltas.get(0).currency());
+    }
+
+    /**
+     * Tests bulk deleting balance events by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, balanceEventRepo.bulkDeleteByEmail("john@domain.com"));
+    }
+
+    /**
+     * Tests bulk deleting balance events by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, balanceEventRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX"));
+    }
+
+}
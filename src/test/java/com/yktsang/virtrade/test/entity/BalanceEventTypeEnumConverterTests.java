@@ -0,0 +1,66 @@
+/*
+ * BalanceEventTypeEnumConverterTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.entity;
+
+import com.yktsang.virtrade.entity.BalanceEventType;
+import com.yktsang.virtrade.entity.BalanceEventTypeEnumConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Provides the test cases for <code>BalanceEventTypeEnumConverter</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class BalanceEventTypeEnumConverterTests {
+
+    /**
+     * Converts DEPOSIT balance event type to DEPOSIT database value.
+     */
+    @Test
+    public void convertDepositEventTypeToDatabaseValue() {
+        String dbVal = new BalanceEventTypeEnumConverter().convertToDatabaseColumn(BalanceEventType.DEPOSIT);
+        assertEquals("DEPOSIT", dbVal);
+    }
+
+    /**
+     * Converts TRANSFER balance event type to TRANSFER database value.
+     */
+    @Test
+    public void convertTransferEventTypeToDatabaseValue() {
+        String dbVal = new BalanceEventTypeEnumConverter().convertToDatabaseColumn(BalanceEventType.TRANSFER);
+        assertEquals("TRANSFER", dbVal);
+    }
+
+    /**
+     * Converts every database value to the balance event type.
+     */
+    @Test
+    public void convertDatabaseValuesToEventType() {
+        for (BalanceEventType eventType : BalanceEventType.values()) {
+            Enum<BalanceEventType> converted =
+                    new BalanceEventTypeEnumConverter().convertToEntityAttribute(eventType.name());
+            assertEquals(eventType, converted);
+        }
+    }
+
+    /**
+     * Converts unknown database value to balance event type.
+     */
+    @Test
+    public void convertUnknownDatabaseValueToEventType() {
+        assertThrows(IllegalStateException.class, () -> new BalanceEventTypeEnumConverter().convertToEntityAttribute("BLA"));
+    }
+
+}
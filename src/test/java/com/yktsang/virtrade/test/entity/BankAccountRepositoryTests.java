@@ -69,8 +69,21 @@ public class BankAccountRepositoryTests {
                 .thenReturn(dummyBankAccounts);
         when(bankAcctRepo.findByEmail(anyString(), anyBoolean(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(bankAcctRepo.findByEmailAndCurrencies(anyString(), anyCollection(), anyBoolean(), any(Pageable.class)))
+                .thenReturn(dummyPage);
         when(bankAcctRepo.findByEmailAndCurrency(anyString(), anyString(), anyBoolean(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(bankAcctRepo.bulkDeleteByEmail(anyString()))
+                .thenReturn(1);
+        when(bankAcctRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(1);
+        Page<com.yktsang.virtrade.response.BankAccount> dummyResponsePage = new PageImpl<>(
+                List.of(new com.yktsang.virtrade.response.BankAccount(BigInteger.ONE, "user@domain.com",
+                        "XXX", "bank", "123")));
+        when(bankAcctRepo.findResponsesByEmailAndCurrencies(anyString(), anyCollection(), anyBoolean(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(bankAcctRepo.findResponsesByEmailAndCurrency(anyString(), anyString(), anyBoolean(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
     }
 
     /**
@@ -132,6 +145,14 @@ public class BankAccountRepositoryTests {
         assertEquals(1L, bankAcctRepo.findByEmailAndCurrency("john@domain.com", "XXX", true, PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding active bank accounts by email and currencies with pagination.
+     */
+    @Test
+    public void findByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, bankAcctRepo.findByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), true, PageRequest.of(1, 5)).getTotalElements());
+    }
+
     /**
      * Tests finding bank accounts by email and currency.
      */
@@ -157,4 +178,38 @@ public class BankAccountRepositoryTests {
         assertEquals(0, bankAcctRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting bank accounts by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, bankAcctRepo.bulkDeleteByEmail("john@domain.com"));
+    }
+
+    /**
+     * Tests bulk deleting bank accounts by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, bankAcctRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX"));
+    }
+
+    /**
+     * Tests finding bank accounts in response format by email and currencies with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrencies() {
+        assertEquals(1L, bankAcctRepo.findResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                true, PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding bank accounts in response format by email and currency with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrency() {
+        assertEquals(1L, bankAcctRepo.findResponsesByEmailAndCurrency("john@domain.com", "XXX",
+                true, PageRequest.of(1, 5)).getTotalElements());
+    }
+
 }
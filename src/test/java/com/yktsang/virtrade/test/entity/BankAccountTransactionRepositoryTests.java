@@ -20,13 +20,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigInteger;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -66,8 +70,28 @@ public class BankAccountTransactionRepositoryTests {
                 .thenReturn(dummyTransactions);
         when(bankAcctTxnRepo.findByEmail(anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(bankAcctTxnRepo.findByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyPage);
+        when(bankAcctTxnRepo.seekByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyTransactions);
+        when(bankAcctTxnRepo.seekByEmailAndCurrencies(anyString(), anyCollection(), any(LocalDateTime.class),
+                any(BigInteger.class), any(Pageable.class)))
+                .thenReturn(dummyTransactions);
         when(bankAcctTxnRepo.findByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(bankAcctTxnRepo.bulkDeleteByEmail(anyString(), anyInt()))
+                .thenReturn(1);
+        when(bankAcctTxnRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString(), anyInt()))
+                .thenReturn(1);
+        Page<com.yktsang.virtrade.response.BankAccountTransaction> dummyResponsePage = new PageImpl<>(
+                List.of(new com.yktsang.virtrade.response.BankAccountTransaction("user@domain.com",
+                        "XXX", LocalDateTime.now(), "description")));
+        when(bankAcctTxnRepo.findResponsesByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(bankAcctTxnRepo.findResponsesByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(bankAcctTxnRepo.streamResponsesByEmailAndCurrencies(anyString(), anyCollection()))
+                .thenAnswer(i -> dummyResponsePage.stream());
     }
 
     /**
@@ -121,6 +145,31 @@ public class BankAccountTransactionRepositoryTests {
         assertEquals(1L, bankAcctTxnRepo.findByEmailAndCurrency("john@domain.com", "XXX", PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding bank account transactions by email and currencies with pagination.
+     */
+    @Test
+    public void findByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, bankAcctTxnRepo.findByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding the first bank account transactions by email and currencies.
+     */
+    @Test
+    public void seekByEmailAndCurrencies() {
+        assertEquals(1, bankAcctTxnRepo.seekByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(0, 6)).size());
+    }
+
+    /**
+     * Tests finding the bank account transactions after the cursor by email and currencies.
+     */
+    @Test
+    public void seekByEmailAndCurrenciesAfterCursor() {
+        assertEquals(1, bankAcctTxnRepo.seekByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                LocalDateTime.now(), BigInteger.TEN, PageRequest.of(0, 6)).size());
+    }
+
     /**
      * Tests delete bank account transactions.
      */
@@ -138,4 +187,49 @@ public class BankAccountTransactionRepositoryTests {
         assertEquals(0, bankAcctTxnRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting bank account transactions by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, bankAcctTxnRepo.bulkDeleteByEmail("john@domain.com", 5000));
+    }
+
+    /**
+     * Tests bulk deleting bank account transactions by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, bankAcctTxnRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX", 5000));
+    }
+
+    /**
+     * Tests finding bank account transactions in response format by email and currencies with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrencies() {
+        assertEquals(1L, bankAcctTxnRepo.findResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding bank account transactions in response format by email and currency with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrency() {
+        assertEquals(1L, bankAcctTxnRepo.findResponsesByEmailAndCurrency("john@domain.com", "XXX",
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests streaming bank account transactions in response format by email and currencies.
+     */
+    @Test
+    public void streamResponsesByEmailAndCurrencies() {
+        try (Stream<com.yktsang.virtrade.response.BankAccountTransaction> stream =
+                     bankAcctTxnRepo.streamResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"))) {
+            assertEquals(1L, stream.count());
+        }
+    }
+
 }
@@ -0,0 +1,83 @@
+/*
+ * CacheVersionRepositoryTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.entity;
+
+import com.yktsang.virtrade.entity.CacheVersion;
+import com.yktsang.virtrade.entity.CacheVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>CacheVersionRepository</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class CacheVersionRepositoryTests {
+
+    /**
+     * The mocked cache version repository.
+     */
+    @MockBean
+    private CacheVersionRepository cacheVersionRepo;
+
+    /**
+     * Initializes the mocked data.
+     */
+    @BeforeEach
+    public void init() {
+        CacheVersion dummyVersion = new CacheVersion("iso_data", 1L);
+
+        when(cacheVersionRepo.save(any(CacheVersion.class)))
+                .thenReturn(dummyVersion);
+        when(cacheVersionRepo.findById(anyString()))
+                .thenReturn(Optional.of(dummyVersion));
+        when(cacheVersionRepo.incrementVersion(anyString(), any(LocalDateTime.class)))
+                .thenReturn(1);
+    }
+
+    /**
+     * Tests saving cache version.
+     */
+    @Test
+    public void save() {
+        CacheVersion savedVersion = cacheVersionRepo.save(new CacheVersion("iso_data", 1L));
+        assertEquals("iso_data", savedVersion.getCacheName());
+    }
+
+    /**
+     * Tests finding cache version by cache name.
+     */
+    @Test
+    public void findById() {
+        Optional<CacheVersion> versionOpt = cacheVersionRepo.findById("iso_data");
+        assertTrue(versionOpt.isPresent());
+        assertEquals(1L, versionOpt.get().getVersion());
+    }
+
+    /**
+     * Tests incrementing cache version.
+     */
+    @Test
+    public void incrementVersion() {
+        assertEquals(1, cacheVersionRepo.incrementVersion("iso_data", LocalDateTime.now()));
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * IdempotencyKeyRepositoryTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.entity;
+
+import com.yktsang.virtrade.entity.IdempotencyKey;
+import com.yktsang.virtrade.entity.IdempotencyKeyPK;
+import com.yktsang.virtrade.entity.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>IdempotencyKeyRepository</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class IdempotencyKeyRepositoryTests {
+
+    /**
+     * The mocked idempotency key repository.
+     */
+    @MockBean
+    private IdempotencyKeyRepository idempotencyKeyRepo;
+
+    /**
+     * Initializes the mocked data.
+     */
+    @BeforeEach
+    public void init() {
+        IdempotencyKey dummyKey = new IdempotencyKey("user@domain.com", "key", "buy", "1".repeat(64),
+                200, true, "Successfully bought", LocalDateTime.now().plusHours(1));
+
+        when(idempotencyKeyRepo.save(any(IdempotencyKey.class)))
+                .thenReturn(dummyKey);
+        when(idempotencyKeyRepo.findById(any(IdempotencyKeyPK.class)))
+                .thenReturn(Optional.of(dummyKey));
+        when(idempotencyKeyRepo.deleteExpired(any(LocalDateTime.class)))
+                .thenReturn(1);
+    }
+
+    /**
+     * Tests saving idempotency key.
+     */
+    @Test
+    public void save() {
+        IdempotencyKey savedKey = idempotencyKeyRepo.save(
+                new IdempotencyKey("john@domain.com", "key", "sell", "2".repeat(64),
+                        200, true, "Successfully sold", LocalDateTime.now().plusHours(1)));
+        assertEquals("user@domain.com", savedKey.getEmail());
+    }
+
+    /**
+     * Tests finding idempotency key by primary composite key.
+     */
+    @Test
+    public void findById() {
+        Optional<IdempotencyKey> keyOpt = idempotencyKeyRepo.findById(
+                new IdempotencyKeyPK("user@domain.com", "key"));
+        assertTrue(keyOpt.isPresent());
+        assertFalse(keyOpt.get().isExpired(LocalDateTime.now()));
+    }
+
+    /**
+     * Tests deleting expired idempotency keys.
+     */
+    @Test
+    public void deleteExpired() {
+        assertEquals(1, idempotencyKeyRepo.deleteExpired(LocalDateTime.now()));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * OutboxTypeEnumConverterTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.entity;
+
+import com.yktsang.virtrade.entity.OutboxType;
+import com.yktsang.virtrade.entity.OutboxTypeEnumConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Provides the test cases for <code>OutboxTypeEnumConverter</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class OutboxTypeEnumConverterTests {
+
+    /**
+     * Converts DEPOSIT outbox type to DEPOSIT database value.
+     */
+    @Test
+    public void convertDepositOutboxTypeToDatabaseValue() {
+        String dbVal = new OutboxTypeEnumConverter().convertToDatabaseColumn(OutboxType.DEPOSIT);
+        assertEquals("DEPOSIT", dbVal);
+    }
+
+    /**
+     * Converts AUTO_TRANSFER outbox type to AUTO_TRANSFER database value.
+     */
+    @Test
+    public void convertAutoTransferOutboxTypeToDatabaseValue() {
+        String dbVal = new OutboxTypeEnumConverter().convertToDatabaseColumn(OutboxType.AUTO_TRANSFER);
+        assertEquals("AUTO_TRANSFER", dbVal);
+    }
+
+    /**
+     * Converts every database value to the outbox type.
+     */
+    @Test
+    public void convertDatabaseValuesToOutboxType() {
+        for (OutboxType outboxType : OutboxType.values()) {
+            Enum<OutboxType> converted =
+                    new OutboxTypeEnumConverter().convertToEntityAttribute(outboxType.name());
+            assertEquals(outboxType, converted);
+        }
+    }
+
+    /**
+     * Converts unknown database value to outbox type.
+     */
+    @Test
+    public void convertUnknownDatabaseValueToOutboxType() {
+        assertThrows(IllegalStateException.class, () -> new OutboxTypeEnumConverter().convertToEntityAttribute("BLA"));
+    }
+
+}
@@ -19,6 +19,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +28,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -65,8 +67,21 @@ public class PortfolioRepositoryTests {
                 .thenReturn(dummyPortfolios);
         when(portRepo.findByEmail(anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(portRepo.findByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyPage);
         when(portRepo.findByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(portRepo.bulkDeleteByEmail(anyString()))
+                .thenReturn(1);
+        when(portRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(1);
+        Page<com.yktsang.virtrade.response.Portfolio> dummyResponsePage = new PageImpl<>(
+                List.of(new com.yktsang.virtrade.response.Portfolio(BigInteger.ONE, "user@domain.com",
+                        "name", "XXX", BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO)));
+        when(portRepo.findResponsesByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(portRepo.findResponsesByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
     }
 
     /**
@@ -120,6 +135,14 @@ public class PortfolioRepositoryTests {
         assertEquals(1L, portRepo.findByEmailAndCurrency("john@domain.com", "XXX", PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding portfolios by email and currencies with pagination.
+     */
+    @Test
+    public void findByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, portRepo.findByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(1, 5)).getTotalElements());
+    }
+
     /**
      * Tests delete portfolios.
      */
@@ -137,4 +160,38 @@ public class PortfolioRepositoryTests {
         assertEquals(0, portRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting portfolios by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, portRepo.bulkDeleteByEmail("john@domain.com"));
+    }
+
+    /**
+     * Tests bulk deleting portfolios by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, portRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX"));
+    }
+
+    /**
+     * Tests finding portfolios in response format by email and currencies with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrencies() {
+        assertEquals(1L, portRepo.findResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding portfolios in response format by email and currency with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrency() {
+        assertEquals(1L, portRepo.findResponsesByEmailAndCurrency("john@domain.com", "XXX",
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
 }
@@ -23,13 +23,18 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -72,12 +77,37 @@ public class TradingTransactionRepositoryTests {
                 .thenReturn(dummyTransactions);
         when(tradingTxnRepo.findByEmail(anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(tradingTxnRepo.findByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyPage);
+        when(tradingTxnRepo.seekByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyTransactions);
+        when(tradingTxnRepo.seekByEmailAndCurrencies(anyString(), anyCollection(), any(LocalDateTime.class),
+                any(BigInteger.class), any(Pageable.class)))
+                .thenReturn(dummyTransactions);
         when(tradingTxnRepo.findByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
         when(tradingTxnRepo.findByPortfolioId(anyString(), any(BigInteger.class), any(Pageable.class)))
                 .thenReturn(dummyPage);
         when(tradingTxnRepo.findByTradingSymbol(anyString(), any(TradingDeed.class), anyString()))
                 .thenReturn(dummyTransactions);
+        when(tradingTxnRepo.findByIds(anyString(), anyCollection()))
+                .thenReturn(dummyTransactions);
+        when(tradingTxnRepo.updatePortfolioId(anyString(), anyCollection(), any(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(tradingTxnRepo.bulkDeleteByEmail(anyString(), anyInt()))
+                .thenReturn(1);
+        when(tradingTxnRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString(), anyInt()))
+                .thenReturn(1);
+        Page<com.yktsang.virtrade.response.TradingTransaction> dummyResponsePage = new PageImpl<>(
+                List.of(new com.yktsang.virtrade.response.TradingTransaction(BigInteger.ONE, "user@domain.com",
+                        "0005.HK", "HSBC", LocalDate.now(), TradingDeed.BUY, 100, "HKD",
+                        BigDecimal.ONE, BigDecimal.ZERO, null)));
+        when(tradingTxnRepo.findResponsesByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(tradingTxnRepo.findResponsesByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
+                .thenReturn(dummyResponsePage);
+        when(tradingTxnRepo.streamResponsesByEmailAndCurrencies(anyString(), anyCollection()))
+                .thenAnswer(i -> dummyResponsePage.stream());
     }
 
     /**
@@ -133,6 +163,14 @@ public class TradingTransactionRepositoryTests {
         assertEquals(1L, tradingTxnRepo.findByEmail("john@domain.com", PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding trading transactions by email and currencies with pagination.
+     */
+    @Test
+    public void findByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, tradingTxnRepo.findByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(1, 5)).getTotalElements());
+    }
+
     /**
      * Tests finding trading transactions by email and currency with pagination.
      */
@@ -157,6 +195,40 @@ public class TradingTransactionRepositoryTests {
         assertEquals(1, tradingTxnRepo.findByTradingSymbol("john@domain.com", TradingDeed.BUY, "XXX").size());
     }
 
+    /**
+     * Tests finding trading transactions by IDs.
+     */
+    @Test
+    public void findByIds() {
+        assertEquals(1, tradingTxnRepo.findByIds("john@domain.com", Set.of(BigInteger.ONE)).size());
+    }
+
+    /**
+     * Tests linking trading transactions to portfolio.
+     */
+    @Test
+    public void updatePortfolioId() {
+        assertEquals(1, tradingTxnRepo.updatePortfolioId("john@domain.com", Set.of(BigInteger.ONE),
+                BigInteger.TWO, LocalDateTime.now()));
+    }
+
+    /**
+     * Tests finding the first trading transactions by email and currencies.
+     */
+    @Test
+    public void seekByEmailAndCurrencies() {
+        assertEquals(1, tradingTxnRepo.seekByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(0, 6)).size());
+    }
+
+    /**
+     * Tests finding the trading transactions after the cursor by email and currencies.
+     */
+    @Test
+    public void seekByEmailAndCurrenciesAfterCursor() {
+        assertEquals(1, tradingTxnRepo.seekByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                LocalDateTime.now(), BigInteger.TEN, PageRequest.of(0, 6)).size());
+    }
+
     /**
      * Tests delete trading transactions.
      */
@@ -176,4 +248,49 @@ public class TradingTransactionRepositoryTests {
         assertEquals(0, tradingTxnRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting trading transactions by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, tradingTxnRepo.bulkDeleteByEmail("john@domain.com", 5000));
+    }
+
+    /**
+     * Tests bulk deleting trading transactions by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, tradingTxnRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX", 5000));
+    }
+
+    /**
+     * Tests finding trading transactions in response format by email and currencies with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrencies() {
+        assertEquals(1L, tradingTxnRepo.findResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"),
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests finding trading transactions in response format by email and currency with pagination.
+     */
+    @Test
+    public void findResponsesByEmailAndCurrency() {
+        assertEquals(1L, tradingTxnRepo.findResponsesByEmailAndCurrency("john@domain.com", "XXX",
+                PageRequest.of(1, 5)).getTotalElements());
+    }
+
+    /**
+     * Tests streaming trading transactions in response format by email and currencies.
+     */
+    @Test
+    public void streamResponsesByEmailAndCurrencies() {
+        try (Stream<com.yktsang.virtrade.response.TradingTransaction> stream =
+                     tradingTxnRepo.streamResponsesByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"))) {
+            assertEquals(1L, stream.count());
+        }
+    }
+
 }
@@ -0,0 +1,122 @@
+/*
+ * TransactionOutboxRepositoryTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.entity;
+
+import com.yktsang.virtrade.entity.OutboxType;
+import com.yktsang.virtrade.entity.TransactionOutbox;
+import com.yktsang.virtrade.entity.TransactionOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>TransactionOutboxRepository</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class TransactionOutboxRepositoryTests {
+
+    /**
+     * The mocked transaction outbox repository.
+     */
+    @MockBean
+    private TransactionOutboxRepository outboxRepo;
+
+    /**
+     * Initializes the mocked data.
+     */
+    @BeforeEach
+    public void init() {
+        TransactionOutbox dummyEntry = new TransactionOutbox("user@domain.com", "xxx", OutboxType.BUY,
+                "0005.HK", 100, new BigDecimal("60.5"), new BigDecimal("6050"));
+
+        when(outboxRepo.save(any(TransactionOutbox.class)))
+                .thenReturn(dummyEntry);
+        when(outboxRepo.findOldestForUpdate(anyInt()))
+                .thenReturn(List.of(dummyEntry));
+        when(outboxRepo.findByEmail(anyString()))
+                .thenReturn(List.of(dummyEntry));
+        when(outboxRepo.bulkDeleteByEmail(anyString()))
+                .thenReturn(1);
+        when(outboxRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(1);
+        when(outboxRepo.bulkDeleteByIds(anyCollection()))
+                .thenReturn(2);
+    }
+
+    /**
+     * Tests saving transaction outbox.
+     */
+    @Test
+    public void save() {
+        TransactionOutbox savedEntry = outboxRepo.save(new TransactionOutbox("john@domain.com", "ABC",
+                OutboxType.DEPOSIT, BigDecimal.TEN));
+        assertEquals("user@domain.com", savedEntry.getEmail());
+        assertEquals("XXX", savedEntry.getCurrency());
+        assertEquals(OutboxType.BUY, savedEntry.getOutboxType());
+    }
+
+    /**
+     * Tests finding the oldest transaction outbox for update.
+     */
+    @Test
+    public void findOldestForUpdate() {
+        List<TransactionOutbox> entries = outboxRepo.findOldestForUpdate(10);
+        assertEquals(1, entries.size());
+        assertEquals(100, entries.get(0).getQuantity());
+        assertNull(entries.get(0).getBankCurrency());
+    }
+
+    /**
+     * Tests finding transaction outbox by email.
+     */
+    @Test
+    public void findByEmail() {
+        assertEquals(1, outboxRepo.findByEmail("john@domain.com").size());
+    }
+
+    /**
+     * Tests bulk deleting transaction outbox by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, outboxRepo.bulkDeleteByEmail("john@domain.com"));
+    }
+
+    /**
+     * Tests bulk deleting transaction outbox by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, outboxRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX"));
+    }
+
+    /**
+     * Tests bulk deleting transaction outbox by account transaction IDs.
+     */
+    @Test
+    public void bulkDeleteByIds() {
+        assertEquals(2, outboxRepo.bulkDeleteByIds(List.of(BigInteger.ONE, BigInteger.TWO)));
+    }
+
+}
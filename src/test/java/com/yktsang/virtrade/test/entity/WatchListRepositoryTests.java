@@ -27,6 +27,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -70,8 +71,14 @@ public class WatchListRepositoryTests {
                 .thenReturn(dummyWatchLists);
         when(watchListRepo.findActiveByEmail(anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(watchListRepo.findActiveByEmailAndCurrencies(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(dummyPage);
         when(watchListRepo.findActiveByEmailAndCurrency(anyString(), anyString(), any(Pageable.class)))
                 .thenReturn(dummyPage);
+        when(watchListRepo.bulkDeleteByEmail(anyString()))
+                .thenReturn(1);
+        when(watchListRepo.bulkDeleteByEmailAndCurrency(anyString(), anyString()))
+                .thenReturn(1);
     }
 
     /**
@@ -125,6 +132,14 @@ public class WatchListRepositoryTests {
         assertEquals(1L, watchListRepo.findActiveByEmailAndCurrency("john@domain.com", "XXX", PageRequest.of(1, 5)).getTotalElements());
     }
 
+    /**
+     * Tests finding active watch lists by email and currencies with pagination.
+     */
+    @Test
+    public void findActiveByEmailAndCurrenciesPaginated() {
+        assertEquals(1L, watchListRepo.findActiveByEmailAndCurrencies("john@domain.com", List.of("XXX", "YYY"), PageRequest.of(1, 5)).getTotalElements());
+    }
+
     /**
      * Tests finding watch lists by email.
      */
@@ -158,4 +173,20 @@ public class WatchListRepositoryTests {
         assertEquals(0, watchListRepo.findByEmail("user@domain.com").size());
     }
 
+    /**
+     * Tests bulk deleting watch list by email.
+     */
+    @Test
+    public void bulkDeleteByEmail() {
+        assertEquals(1, watchListRepo.bulkDeleteByEmail("john@domain.com"));
+    }
+
+    /**
+     * Tests bulk deleting watch list by email and currency.
+     */
+    @Test
+    public void bulkDeleteByEmailAndCurrency() {
+        assertEquals(1, watchListRepo.bulkDeleteByEmailAndCurrency("john@domain.com", "XXX"));
+    }
+
 }
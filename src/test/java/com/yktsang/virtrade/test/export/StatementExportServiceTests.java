@@ -0,0 +1,194 @@
+/*
+ * StatementExportServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yktsang.virtrade.archive.TransactionArchiveService;
+import com.yktsang.virtrade.entity.AccountTransaction;
+import com.yktsang.virtrade.entity.AccountTransactionRepository;
+import com.yktsang.virtrade.entity.TradingDeed;
+import com.yktsang.virtrade.entity.TradingTransaction;
+import com.yktsang.virtrade.entity.TradingTransactionRepository;
+import com.yktsang.virtrade.export.StatementExportService;
+import com.yktsang.virtrade.export.StatementExportService.Format;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>StatementExportService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class StatementExportServiceTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "export@domain.com";
+    /**
+     * The currencies of the test data.
+     */
+    private static final List<String> CURRENCIES = List.of("XXX");
+    /**
+     * The statement export service.
+     */
+    @Autowired
+    private StatementExportService statementExportService;
+    /**
+     * The transaction archive service.
+     */
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+    /**
+     * The account transaction repository.
+     */
+    @Autowired
+    private AccountTransactionRepository acctTxnRepo;
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The object mapper.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Creates the test data: two archived account transactions, two hot account transactions
+     * and a trading transaction.
+     */
+    @BeforeEach
+    public void init() {
+        for (int hour = 10; hour <= 11; hour++) {
+            AccountTransaction at = new AccountTransaction(EMAIL, "XXX", "old " + hour);
+            at.setTransactionDateTime(LocalDateTime.of(1999, 1, 1, hour, 0));
+            acctTxnRepo.save(at);
+        }
+        transactionArchiveService.archive(TransactionArchiveService.ACCOUNT_TRANSACTIONS,
+                LocalDateTime.of(2000, 1, 1, 0, 0));
+        AccountTransaction first = new AccountTransaction(EMAIL, "XXX", "new 1");
+        first.setTransactionDateTime(LocalDateTime.of(2020, 1, 1, 10, 0));
+        acctTxnRepo.save(first);
+        AccountTransaction second = new AccountTransaction(EMAIL, "XXX", "new, \"quoted\"");
+        second.setTransactionDateTime(LocalDateTime.of(2020, 1, 1, 11, 0));
+        acctTxnRepo.save(second);
+        tradingTxnRepo.save(new TradingTransaction(EMAIL, "0005.HK", "HSBC", LocalDate.of(2020, 1, 1),
+                TradingDeed.BUY, 100, "XXX", new BigDecimal("60.5"), BigDecimal.ONE));
+    }
+
+    /**
+     * Deletes the test data.
+     */
+    @AfterEach
+    public void cleanup() {
+        transactionArchiveService.deleteArchive(EMAIL);
+        acctTxnRepo.deleteAll(acctTxnRepo.findByEmail(EMAIL));
+        tradingTxnRepo.deleteAll(tradingTxnRepo.findByEmail(EMAIL));
+    }
+
+    /**
+     * Returns the statement written.
+     *
+     * @param statement the statement
+     * @return the bytes written
+     * @throws IOException when problems writing data
+     */
+    private static byte[] write(StreamingResponseBody statement) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statement.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Tests the account statement as CSV, the archived transactions followed by the hot transactions.
+     *
+     * @throws IOException when problems writing data
+     */
+    @Test
+    public void accountStatementCsv() throws IOException {
+        String csv = new String(write(statementExportService.accountStatement(EMAIL, CURRENCIES, Format.CSV, false)),
+                StandardCharsets.UTF_8);
+        assertEquals(List.of("email,currency,transactionDateTime,transactionDescription",
+                        "export@domain.com,XXX,1999-01-01T10:00:00,old 10",
+                        "export@domain.com,XXX,1999-01-01T11:00:00,old 11",
+                        "export@domain.com,XXX,2020-01-01T10:00:00,new 1",
+                        "export@domain.com,XXX,2020-01-01T11:00:00,\"new, \"\"quoted\"\"\""),
+                csv.lines().toList());
+    }
+
+    /**
+     * Tests the account statement as gzipped JSON.
+     *
+     * @throws IOException when problems writing data
+     */
+    @Test
+    public void accountStatementJsonGzip() throws IOException {
+        byte[] gzipped = write(statementExportService.accountStatement(EMAIL, CURRENCIES, Format.JSON, true));
+        List<?> rows;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            rows = objectMapper.readValue(in, List.class);
+        }
+        assertEquals(4, rows.size());
+        Map<?, ?> first = (Map<?, ?>) rows.get(0);
+        assertEquals("old 10", first.get("transactionDescription"));
+        assertEquals("1999-01-01T10:00:00", first.get("transactionDateTime"));
+        assertEquals("new, \"quoted\"", ((Map<?, ?>) rows.get(3)).get("transactionDescription"));
+    }
+
+    /**
+     * Tests the trading statement as CSV.
+     *
+     * @throws IOException when problems writing data
+     */
+    @Test
+    public void tradingStatementCsv() throws IOException {
+        List<String> lines = new String(write(statementExportService.tradingStatement(EMAIL, CURRENCIES,
+                Format.CSV, false)), StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("tradingTransactionId,email,tradingSymbol,encodedSymbol,"));
+        assertTrue(lines.get(1).endsWith(",export@domain.com,0005.HK,0005.HK,HSBC,2020-01-01,BUY,100,XXX,60.5000,1.0000,"));
+        assertTrue(write(statementExportService.tradingStatement(EMAIL, List.of(), Format.JSON, false)).length > 0);
+    }
+
+    /**
+     * Tests the formats and the response header.
+     */
+    @Test
+    public void formatAndHeader() {
+        assertEquals(Optional.of(Format.JSON), Format.of("JSON"));
+        assertEquals(Optional.empty(), Format.of("xml"));
+        HttpHeaders headers = StatementExportService.populateResponseHeader("account_statement", Format.CSV, true);
+        assertEquals(Format.GZIP, headers.getContentType());
+        assertEquals("account_statement.csv.gz", headers.getContentDisposition().getFilename());
+    }
+
+}
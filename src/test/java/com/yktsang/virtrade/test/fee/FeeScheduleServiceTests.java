@@ -0,0 +1,128 @@
+/*
+ * FeeScheduleServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.fee;
+
+import com.yktsang.virtrade.api.controller.TradingService;
+import com.yktsang.virtrade.entity.TradingDeed;
+import com.yktsang.virtrade.fee.FeeSchedule;
+import com.yktsang.virtrade.fee.FeeScheduleService;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>FeeScheduleService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class FeeScheduleServiceTests {
+
+    /**
+     * The spied fee schedule service.
+     */
+    @SpyBean
+    private FeeScheduleService feeScheduleService;
+    /**
+     * The trading service.
+     */
+    @Autowired
+    private TradingService tradingService;
+    /**
+     * The mocked stock provider.
+     */
+    @MockBean
+    private StockProvider stockProvider;
+
+    /**
+     * Tests selecting the fee schedule by currency.
+     */
+    @Test
+    public void selectByCurrency() {
+        BigDecimal transactionCost = new BigDecimal("1500");
+        // 0.012% of 1500, 0.1% stamp duty rounded up to 2 and 0.50 trading tariff
+        assertEquals(new BigDecimal("2.6800"),
+                feeScheduleService.getFeeSchedule(null, "HKD").calculateFees(transactionCost));
+        assertEquals(new BigDecimal("0.0000"),
+                feeScheduleService.getFeeSchedule("NasdaqGS", "USD").calculateFees(transactionCost));
+    }
+
+    /**
+     * Tests selecting the fee schedule by stock exchange before currency,
+     * and reloading the modified fee schedule file.
+     */
+    @Test
+    public void selectByExchangeThenReload(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("fee_schedule.properties");
+        Files.writeString(file, """
+                currency.USD.percentage.rates=0
+                exchange.NYQ.percentage.rates=0.0001
+                exchange.NYQ.fixed.fee=1
+                """);
+        FeeScheduleService service = new FeeScheduleService();
+        ReflectionTestUtils.setField(service, "location", new FileSystemResource(file));
+        service.init();
+        assertEquals(new BigDecimal("1.1000"),
+                service.getFeeSchedule("NYQ", "USD").calculateFees(new BigDecimal("1000")));
+        assertEquals(new BigDecimal("0.0000"),
+                service.getFeeSchedule("NMS", "USD").calculateFees(new BigDecimal("1000")));
+
+        Files.writeString(file, "exchange.NYQ.percentage.rates=0.0002\n");
+        file.toFile().setLastModified(file.toFile().lastModified() + 1000);
+        service.reloadIfModified();
+        assertEquals(new BigDecimal("0.2000"),
+                service.getFeeSchedule("NYQ", "USD").calculateFees(new BigDecimal("1000")));
+
+        FeeSchedule beforeInvalid = service.getFeeSchedule("NYQ", "USD");
+        Files.writeString(file, "exchange.NYQ.percentage.rates=-1\n");
+        file.toFile().setLastModified(file.toFile().lastModified() + 1000);
+        service.reloadIfModified();
+        assertSame(beforeInvalid, service.getFeeSchedule("NYQ", "USD"));
+    }
+
+    /**
+     * Tests the estimated cost uses the fee schedule of the stock's exchange, as buy and sell do.
+     *
+     * @throws IOException if the stocks cannot be loaded
+     */
+    @Test
+    public void estimatedCostByStockExchange() throws IOException {
+        YahooStock stock = new YahooStock("IBM");
+        stock.setCurrency("USD");
+        stock.setStockExchange("NYQ");
+        when(stockProvider.getStocks()).thenReturn(List.of(stock));
+        FeeSchedule nyse = new FeeSchedule("NYQ", new BigDecimal("0.0001"), BigDecimal.ZERO, false, BigDecimal.ONE);
+        doReturn(nyse).when(feeScheduleService).getFeeSchedule("NYQ", "USD");
+
+        assertEquals(new BigDecimal("1001.1000"), tradingService.calculateEstimatedCost(TradingDeed.BUY,
+                "IBM", "USD", new BigDecimal("10"), 100));
+        assertEquals(new BigDecimal("998.9000"), tradingService.calculateEstimatedCost(TradingDeed.SELL,
+                "IBM", "USD", new BigDecimal("10"), 100));
+    }
+
+}
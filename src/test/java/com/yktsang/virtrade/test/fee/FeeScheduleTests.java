@@ -0,0 +1,80 @@
+/*
+ * FeeScheduleTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.fee;
+
+import com.yktsang.virtrade.fee.FeeSchedule;
+import com.yktsang.virtrade.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Provides the test cases for <code>FeeSchedule</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class FeeScheduleTests {
+
+    /**
+     * Tests calculating fees with the stamp duty not rounded up.
+     */
+    @Test
+    public void calculateFeesWithoutRoundUp() {
+        FeeSchedule schedule = new FeeSchedule("test", new BigDecimal("0.0003"),
+                new BigDecimal("0.0005"), false, new BigDecimal("1.25"));
+        // 1234.5678 * 0.0008 = 0.98765424, plus 1.25
+        assertEquals(new BigDecimal("2.2377"), schedule.calculateFees(new BigDecimal("1234.5678")));
+        assertEquals(22_377L, schedule.calculateFeeUnits(12_345_678L));
+    }
+
+    /**
+     * Tests calculating fees in minor units gives identical results to BigDecimal
+     * for random transaction costs and fee schedules.
+     */
+    @Test
+    public void calculateFeesSameAsBigDecimal() {
+        Random random = new Random(20240101L);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal percentageRate = BigDecimal.valueOf(random.nextInt(100_000), 8);
+            BigDecimal stampDutyRate = BigDecimal.valueOf(random.nextInt(1_000_000), 8);
+            boolean roundUp = random.nextBoolean();
+            BigDecimal fixedFee = BigDecimal.valueOf(random.nextInt(100_000), 4);
+            FeeSchedule schedule = new FeeSchedule("random", percentageRate, stampDutyRate, roundUp, fixedFee);
+            BigDecimal cost = BigDecimal.valueOf(random.nextLong(1_000_000_000_000L), 4);
+
+            BigDecimal stampDuty = cost.multiply(stampDutyRate);
+            BigDecimal expected = cost.multiply(percentageRate)
+                    .add(roundUp ? stampDuty.setScale(0, RoundingMode.UP) : stampDuty)
+                    .add(fixedFee)
+                    .setScale(4, RoundingMode.HALF_UP);
+            assertEquals(expected, schedule.calculateFees(cost));
+            assertEquals(expected, schedule.calculateFees(Money.of(cost)).toBigDecimal());
+        }
+    }
+
+    /**
+     * Tests rejecting the invalid rates.
+     */
+    @Test
+    public void rejectInvalidRates() {
+        assertThrows(IllegalArgumentException.class, () -> new FeeSchedule("negative",
+                new BigDecimal("-0.001"), BigDecimal.ZERO, false, BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new FeeSchedule("too precise",
+                new BigDecimal("0.000000001"), BigDecimal.ZERO, false, BigDecimal.ZERO));
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * ValueHistoryServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.history;
+
+import com.yktsang.virtrade.entity.AccountBalance;
+import com.yktsang.virtrade.entity.AccountBalanceRepository;
+import com.yktsang.virtrade.entity.Portfolio;
+import com.yktsang.virtrade.entity.PortfolioRepository;
+import com.yktsang.virtrade.history.ValueHistoryService;
+import com.yktsang.virtrade.history.ValueHistoryService.DateRange;
+import com.yktsang.virtrade.response.ValuePoint;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import yahoofinance.quotes.stock.StockQuote;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>ValueHistoryService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = "value.history.chunk.size=2")
+public class ValueHistoryServiceTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "valuehistory@domain.com";
+    /**
+     * The trading symbol of the test data.
+     */
+    private static final String SYMBOL = "9991.HK";
+    /**
+     * The value history service.
+     */
+    @Autowired
+    private ValueHistoryService valueHistoryService;
+    /**
+     * The portfolio repository.
+     */
+    @Autowired
+    private PortfolioRepository portfolioRepo;
+    /**
+     * The account balance repository.
+     */
+    @Autowired
+    private AccountBalanceRepository acctBalRepo;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The mocked stock provider.
+     */
+    @MockBean
+    private StockProvider stockProvider;
+    /**
+     * The portfolio of the test data.
+     */
+    private Portfolio portfolio;
+
+    /**
+     * Returns the equity with a price.
+     *
+     * @param price the price
+     * @return the equity
+     */
+    private static YahooStock equity(String price) {
+        YahooStock stock = new YahooStock(SYMBOL);
+        stock.setQuoteType("equity");
+        stock.setCurrency("HKD");
+        StockQuote quote = new StockQuote(SYMBOL);
+        quote.setPrice(new BigDecimal(price));
+        stock.setQuote(quote);
+        return stock;
+    }
+
+    /**
+     * Initializes the portfolio and account balance.
+     */
+    @BeforeEach
+    public void init() {
+        portfolio = portfolioRepo.save(new Portfolio(EMAIL, "history", "HKD",
+                new BigDecimal("1000"), new BigDecimal("1000"), BigDecimal.ZERO));
+        acctBalRepo.save(new AccountBalance(EMAIL, "HKD", new BigDecimal("300"), new BigDecimal("200")));
+    }
+
+    /**
+     * Deletes the portfolio, account balance and value history.
+     */
+    @AfterEach
+    public void cleanup() {
+        valueHistoryService.deleteHistory(EMAIL);
+        jdbcTemplate.update("delete from value_history where series_key = ?",
+                ValueHistoryService.priceSeries(SYMBOL));
+        portfolioRepo.deleteAll(portfolioRepo.findByEmail(EMAIL));
+        acctBalRepo.deleteAll(acctBalRepo.findByEmail(EMAIL));
+    }
+
+    /**
+     * Updates the current amount of the portfolio.
+     *
+     * @param currentAmount the current amount
+     */
+    private void setCurrentAmount(BigDecimal currentAmount) {
+        Portfolio p = portfolioRepo.findById(portfolio.getPortfolioId()).orElseThrow();
+        p.setCurrentAmount(currentAmount);
+        portfolioRepo.save(p);
+    }
+
+    /**
+     * Tests recording daily values across months and reading the range back.
+     */
+    @Test
+    public void snapshotAndRange() {
+        String series = ValueHistoryService.portfolioSeries(portfolio.getPortfolioId());
+        LocalDate day = LocalDate.of(2024, 1, 30);
+        for (int i = 0; i < 4; i++) {
+            this.setCurrentAmount(new BigDecimal(1000 + i * 10));
+            assertTrue(valueHistoryService.snapshot(day.plusDays(i)) >= 2);
+        }
+        // recording the same date again replaces its point
+        this.setCurrentAmount(new BigDecimal("1035.5"));
+        valueHistoryService.snapshot(day.plusDays(3));
+
+        List<ValuePoint> points = valueHistoryService.getHistory(series,
+                new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)), 366);
+        assertEquals(4, points.size());
+        assertEquals(LocalDate.of(2024, 1, 30), points.get(0).date());
+        assertEquals(new BigDecimal("1000.0000"), points.get(0).value());
+        assertEquals(LocalDate.of(2024, 2, 2), points.get(3).date());
+        assertEquals(new BigDecimal("1035.5000"), points.get(3).value());
+
+        List<ValuePoint> february = valueHistoryService.getHistory(series,
+                new DateRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1)), 366);
+        assertEquals(List.of(points.get(2)), february);
+
+        List<ValuePoint> balance = valueHistoryService.getHistory(ValueHistoryService.balanceSeries(EMAIL, "HKD"),
+                new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)), 366);
+        assertEquals(4, balance.size());
+        assertEquals(new BigDecimal("500.0000"), balance.get(0).value());
+    }
+
+    /**
+     * Tests downsampling by keeping the last point of each run.
+     */
+    @Test
+    public void downsample() {
+        String series = ValueHistoryService.portfolioSeries(portfolio.getPortfolioId());
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        for (int i = 0; i < 10; i++) {
+            this.setCurrentAmount(new BigDecimal(i));
+            valueHistoryService.snapshot(day.plusDays(i));
+        }
+        List<ValuePoint> points = valueHistoryService.getHistory(series,
+                new DateRange(day, day.plusDays(9)), 3);
+        assertEquals(List.of(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 8), LocalDate.of(2024, 3, 10)),
+                points.stream().map(ValuePoint::date).toList());
+        assertEquals(new BigDecimal("9.0000"), points.get(2).value());
+    }
+
+    /**
+     * Tests recording the closing prices of the stocks.
+     *
+     * @throws IOException when there is problem fetching the stocks
+     */
+    @Test
+    public void snapshotPrices() throws IOException {
+        LocalDate day = LocalDate.of(2024, 4, 1);
+        when(stockProvider.getStocks()).thenReturn(List.of(equity("45.5")));
+        valueHistoryService.snapshot(day);
+        when(stockProvider.getStocks()).thenReturn(List.of(equity("46")));
+        valueHistoryService.snapshot(day.plusDays(1));
+
+        List<ValuePoint> prices = valueHistoryService.getHistory(ValueHistoryService.priceSeries(SYMBOL),
+                new DateRange(day, day.plusDays(1)), 366);
+        assertEquals(List.of(new BigDecimal("45.5000"), new BigDecimal("46.0000")),
+                prices.stream().map(ValuePoint::value).toList());
+    }
+
+    /**
+     * Tests parsing the date range.
+     */
+    @Test
+    public void parseDateRange() {
+        DateRange range = DateRange.parse("2024-01-01", "2024-06-30").orElseThrow();
+        assertEquals(LocalDate.of(2024, 1, 1), range.from());
+        assertEquals(LocalDate.of(2024, 6, 30), range.to());
+        DateRange defaults = DateRange.parse(null, "").orElseThrow();
+        assertEquals(LocalDate.now(), defaults.to());
+        assertEquals(LocalDate.now().minusYears(1).plusDays(1), defaults.from());
+        assertTrue(DateRange.parse("2024-13-01", null).isEmpty());
+        assertTrue(DateRange.parse("2024-06-30", "2024-01-01").isEmpty());
+    }
+
+}
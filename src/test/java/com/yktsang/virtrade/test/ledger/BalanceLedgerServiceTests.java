@@ -0,0 +1,206 @@
+/*
+ * BalanceLedgerServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.ledger;
+
+import com.yktsang.virtrade.entity.AccountBalance;
+import com.yktsang.virtrade.entity.BalanceEvent;
+import com.yktsang.virtrade.entity.BalanceEventRepository;
+import com.yktsang.virtrade.entity.BalanceEventType;
+import com.yktsang.virtrade.ledger.BalanceLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>BalanceLedgerService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class BalanceLedgerServiceTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "ledger@domain.com";
+    /**
+     * The balance ledger service.
+     */
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    /**
+     * The balance event repository.
+     */
+    @Autowired
+    private BalanceEventRepository balanceEventRepo;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Opens the account balance and appends a deposit, a buy and a sell.
+     */
+    @BeforeEach
+    public void init() {
+        balanceLedgerService.open(EMAIL, "XXX");
+        balanceLedgerService.append(EMAIL, "XXX", BalanceEventType.DEPOSIT,
+                BigDecimal.ZERO, new BigDecimal("1000"), BigInteger.ONE);
+        balanceLedgerService.append(EMAIL, "XXX", BalanceEventType.BUY,
+                new BigDecimal("300"), new BigDecimal("-300"), BigInteger.TWO);
+        balanceLedgerService.append(EMAIL, "XXX", BalanceEventType.SELL,
+                new BigDecimal("-100"), new BigDecimal("100"), BigInteger.TEN);
+    }
+
+    /**
+     * Deletes the test data.
+     */
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s ->
+                balanceEventRepo.bulkDeleteByEmail(EMAIL));
+        jdbcTemplate.update("delete from account_balance where email = ?", EMAIL);
+    }
+
+    /**
+     * Returns the amounts of the snapshot.
+     *
+     * @return the trading amount and the non-trading amount
+     */
+    private Map<String, Object> snapshot() {
+        return jdbcTemplate.queryForMap("select trading_amount, non_trading_amount from account_balance " +
+                "where email = ? and currency = 'XXX'", EMAIL);
+    }
+
+    /**
+     * Tests the current balance as the empty snapshot plus the balance events.
+     */
+    @Test
+    public void currentBalance() {
+        AccountBalance balance = balanceLedgerService.currentBalance(EMAIL, "XXX").orElseThrow();
+        assertEquals(0, new BigDecimal("200").compareTo(balance.getTradingAmount()));
+        assertEquals(0, new BigDecimal("800").compareTo(balance.getNonTradingAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) this.snapshot().get("trading_amount")));
+        assertEquals(3, balanceEventRepo.findByEmailAndCurrency(EMAIL, "XXX").size());
+        assertTrue(balanceLedgerService.currentBalance(EMAIL, "YYY").isEmpty());
+        assertTrue(balanceLedgerService.currentBalances(EMAIL, List.of()).isEmpty());
+    }
+
+    /**
+     * Tests two concurrent withdrawals checking the locked balance do not overdraw it,
+     * each transaction having read the balance before the other committed.
+     *
+     * @throws Exception if the withdrawals cannot complete
+     */
+    @Test
+    public void lockBalance() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch read = new CountDownLatch(2);
+        Callable<Boolean> withdraw = () -> transactionTemplate.execute(status -> {
+            balanceLedgerService.currentBalance(EMAIL, "XXX");
+            read.countDown();
+            try {
+                read.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            AccountBalance balance = balanceLedgerService.lockBalance(EMAIL, "XXX").orElseThrow();
+            if (balance.getNonTradingAmount().compareTo(new BigDecimal("600")) < 0) {
+                return false;
+            }
+            balanceLedgerService.append(EMAIL, "XXX", BalanceEventType.TRANSFER,
+                    BigDecimal.ZERO, new BigDecimal("-600"), BigInteger.ONE);
+            return true;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            long withdrawn = 0L;
+            for (Future<Boolean> result : executor.invokeAll(List.of(withdraw, withdraw))) {
+                withdrawn += result.get() ? 1 : 0;
+            }
+            assertEquals(1L, withdrawn);
+        } finally {
+            executor.shutdown();
+        }
+        AccountBalance balance = balanceLedgerService.currentBalance(EMAIL, "XXX").orElseThrow();
+        assertEquals(0, new BigDecimal("200").compareTo(balance.getNonTradingAmount()));
+        assertEquals(Optional.empty(), transactionTemplate.execute(status ->
+                balanceLedgerService.lockBalance(EMAIL, "YYY")));
+    }
+
+    /**
+     * Tests compacting the balance events into the snapshot, only once,
+     * and a balance event committed after the compaction with an earlier event datetime
+     * counted in the balance and compacted next time.
+     */
+    @Test
+    public void compact() {
+        assertTrue(balanceLedgerService.compactAll() >= 1);
+        Map<String, Object> snapshot = this.snapshot();
+        assertEquals(0, new BigDecimal("200").compareTo((BigDecimal) snapshot.get("trading_amount")));
+        assertEquals(0, new BigDecimal("800").compareTo((BigDecimal) snapshot.get("non_trading_amount")));
+        assertTrue(balanceEventRepo.findByEmailAndCurrency(EMAIL, "XXX").stream()
+                .allMatch(BalanceEvent::isCompacted));
+
+        balanceLedgerService.append(EMAIL, "XXX", BalanceEventType.TRANSFER,
+                BigDecimal.ZERO, new BigDecimal("-50"), BigInteger.ONE);
+        jdbcTemplate.update("update balance_event set event_datetime = ? where email = ? and compacted = 'N'",
+                LocalDateTime.now().minusHours(1), EMAIL);
+        AccountBalance balance = balanceLedgerService.currentBalance(EMAIL, "XXX").orElseThrow();
+        assertEquals(0, new BigDecimal("200").compareTo(balance.getTradingAmount()));
+        assertEquals(0, new BigDecimal("750").compareTo(balance.getNonTradingAmount()));
+
+        balanceLedgerService.compactAll();
+        assertEquals(0, new BigDecimal("750").compareTo((BigDecimal) this.snapshot().get("non_trading_amount")));
+        balanceLedgerService.compactAll();
+        balance = balanceLedgerService.currentBalance(EMAIL, "XXX").orElseThrow();
+        assertEquals(0, new BigDecimal("200").compareTo(balance.getTradingAmount()));
+        assertEquals(0, new BigDecimal("750").compareTo(balance.getNonTradingAmount()));
+    }
+
+    /**
+     * Tests rebuilding the snapshot from the balance events, replacing corrupted amounts.
+     */
+    @Test
+    public void rebuild() {
+        jdbcTemplate.update("update account_balance set trading_amount = 999, non_trading_amount = 999 " +
+                "where email = ?", EMAIL);
+
+        AccountBalance balance = balanceLedgerService.rebuild(EMAIL, "XXX").orElseThrow();
+        assertEquals(0, new BigDecimal("200").compareTo(balance.getTradingAmount()));
+        assertEquals(0, new BigDecimal("800").compareTo(balance.getNonTradingAmount()));
+        assertEquals(0, new BigDecimal("800").compareTo((BigDecimal) this.snapshot().get("non_trading_amount")));
+        assertTrue(balanceEventRepo.findByEmailAndCurrency(EMAIL, "XXX").stream()
+                .allMatch(BalanceEvent::isCompacted));
+        assertTrue(balanceLedgerService.rebuild(EMAIL, "YYY").isEmpty());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * LotBookTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.lot;
+
+import com.yktsang.virtrade.lot.CostMethod;
+import com.yktsang.virtrade.lot.LotBook;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Provides the test cases for <code>LotBook</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+public class LotBookTests {
+
+    /**
+     * Tests closing the oldest lots first.
+     */
+    @Test
+    public void fifo() {
+        LotBook book = new LotBook(CostMethod.FIFO);
+        book.buy(100, 1_000_0000L);
+        book.buy(100, 2_000_0000L);
+        assertEquals(2, book.getOpenLots());
+
+        // closes the first lot and half of the second
+        book.sell(150, 3_000_0000L);
+        assertEquals(50, book.getOpenQuantity());
+        assertEquals(1, book.getOpenLots());
+        assertEquals(1_000_0000L, book.getCostBasisUnits());
+        assertEquals(1_000_0000L, book.getRealizedUnits());
+        // 50 x 25 - 1000
+        assertEquals(250_0000L, book.getUnrealizedUnits(25_0000L));
+    }
+
+    /**
+     * Tests closing at the average cost.
+     */
+    @Test
+    public void average() {
+        LotBook book = new LotBook(CostMethod.AVERAGE);
+        book.buy(100, 1_000_0000L);
+        book.buy(100, 2_000_0000L);
+        assertEquals(1, book.getOpenLots());
+
+        book.sell(150, 3_000_0000L);
+        assertEquals(50, book.getOpenQuantity());
+        assertEquals(750_0000L, book.getCostBasisUnits());
+        assertEquals(750_0000L, book.getRealizedUnits());
+    }
+
+    /**
+     * Tests taking the quantity sold beyond the open quantity at zero cost.
+     */
+    @Test
+    public void oversell() {
+        LotBook book = new LotBook(CostMethod.FIFO);
+        book.buy(10, 100_0000L);
+        book.sell(15, 180_0000L);
+        assertEquals(0, book.getOpenQuantity());
+        assertEquals(0, book.getOpenLots());
+        assertEquals(0L, book.getCostBasisUnits());
+        assertEquals(80_0000L, book.getRealizedUnits());
+    }
+
+    /**
+     * Tests the cost basis and realized profit and loss always add up to the net cash flow.
+     */
+    @Test
+    public void conservation() {
+        Random random = new Random(20240101L);
+        for (CostMethod method : CostMethod.values()) {
+            LotBook book = new LotBook(method);
+            long bought = 0L;
+            long sold = 0L;
+            for (int i = 0; i < 10_000; i++) {
+                long quantity = 1 + random.nextInt(500);
+                long amount = quantity * (1 + random.nextInt(1_000_000));
+                if (random.nextBoolean() || book.getOpenQuantity() < quantity) {
+                    book.buy(quantity, amount);
+                    bought += amount;
+                } else {
+                    book.sell(quantity, amount);
+                    sold += amount;
+                }
+            }
+            assertEquals(sold - bought, book.getRealizedUnits() - book.getCostBasisUnits(), method.name());
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * LotTrackingServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.lot;
+
+import com.yktsang.virtrade.entity.TradingDeed;
+import com.yktsang.virtrade.entity.TradingTransaction;
+import com.yktsang.virtrade.entity.TradingTransactionRepository;
+import com.yktsang.virtrade.lot.LotTrackingService;
+import com.yktsang.virtrade.response.PortfolioProfitLoss;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides the test cases for <code>LotTrackingService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class LotTrackingServiceTests {
+
+    /**
+     * The lot tracking service.
+     */
+    @Autowired
+    private LotTrackingService lotTrackingService;
+    /**
+     * The mocked trading transaction repository.
+     */
+    @MockBean
+    private TradingTransactionRepository tradingTxnRepo;
+
+    /**
+     * Returns the trading transaction linked to the portfolio.
+     *
+     * @param id          the trading transaction ID
+     * @param email       the email address
+     * @param symbol      the trading symbol
+     * @param deed        the trading deed
+     * @param quantity    the quantity
+     * @param price       the transaction price
+     * @param portfolioId the portfolio ID
+     * @return the trading transaction
+     */
+    private static TradingTransaction txn(long id, String email, String symbol, TradingDeed deed,
+                                          int quantity, String price, BigInteger portfolioId) {
+        BigDecimal transPrice = new BigDecimal(price);
+        TradingTransaction t = new TradingTransaction(email, symbol, symbol, LocalDate.now(), deed,
+                quantity, "HKD", transPrice, transPrice.multiply(BigDecimal.valueOf(quantity)));
+        t.setTradingTransactionId(BigInteger.valueOf(id));
+        t.setPortfolioId(portfolioId);
+        return t;
+    }
+
+    /**
+     * Tests separating realized from unrealized profit and loss.
+     */
+    @Test
+    public void profitLoss() {
+        String email = "lots@domain.com";
+        BigInteger portfolioId = BigInteger.valueOf(8001);
+        when(tradingTxnRepo.findByPortfolioId(email, portfolioId)).thenReturn(List.of(
+                txn(1, email, "0005.HK", TradingDeed.BUY, 100, "10", portfolioId),
+                txn(2, email, "0005.HK", TradingDeed.BUY, 100, "20", portfolioId),
+                txn(3, email, "0005.HK", TradingDeed.SELL, 150, "30", portfolioId)));
+
+        PortfolioProfitLoss pnl = lotTrackingService.getProfitLoss(email, portfolioId,
+                Map.of("0005.HK", new BigDecimal("25"))::get);
+        assertEquals(new BigDecimal("1000.0000"), pnl.costBasis());
+        // 4500 - (1000 + 1000)
+        assertEquals(new BigDecimal("2500.0000"), pnl.realizedProfitLoss());
+        // 50 x 25 - 1000
+        assertEquals(new BigDecimal("250.0000"), pnl.unrealizedProfitLoss());
+    }
+
+    /**
+     * Tests applying newly linked trading transactions without reloading.
+     */
+    @Test
+    public void linkIncrementally() {
+        String email = "linklots@domain.com";
+        BigInteger portfolioId = BigInteger.valueOf(8002);
+        List<TradingTransaction> linked = new ArrayList<>();
+        linked.add(txn(11, email, "0700.HK", TradingDeed.BUY, 10, "300", portfolioId));
+        when(tradingTxnRepo.findByPortfolioId(email, portfolioId)).thenReturn(linked);
+        assertEquals(new BigDecimal("3000.0000"), lotTrackingService.getCostBasis(email, portfolioId));
+
+        TradingTransaction later = txn(12, email, "0700.HK", TradingDeed.BUY, 10, "310", portfolioId);
+        lotTrackingService.onLinked(email, portfolioId, List.of(later));
+        assertEquals(new BigDecimal("6100.0000"), lotTrackingService.getCostBasis(email, portfolioId));
+        verify(tradingTxnRepo, times(1)).findByPortfolioId(email, portfolioId);
+    }
+
+    /**
+     * Tests replaying the trading symbol after unlinking an earlier trading transaction.
+     */
+    @Test
+    public void unlinkReplays() {
+        String email = "unlinklots@domain.com";
+        BigInteger portfolioId = BigInteger.valueOf(8003);
+        TradingTransaction first = txn(21, email, "0001.HK", TradingDeed.BUY, 100, "50", portfolioId);
+        TradingTransaction second = txn(22, email, "0001.HK", TradingDeed.BUY, 100, "60", portfolioId);
+        TradingTransaction sell = txn(23, email, "0001.HK", TradingDeed.SELL, 100, "70", portfolioId);
+        when(tradingTxnRepo.findByPortfolioId(email, portfolioId)).thenReturn(List.of(first, second, sell));
+        assertEquals(new BigDecimal("6000.0000"), lotTrackingService.getCostBasis(email, portfolioId));
+
+        when(tradingTxnRepo.findByPortfolioId(email, portfolioId)).thenReturn(List.of(second, sell));
+        lotTrackingService.onUnlinked(email, portfolioId, List.of(first));
+        PortfolioProfitLoss pnl = lotTrackingService.getProfitLoss(email, portfolioId, s -> null);
+        assertEquals(new BigDecimal("0.0000"), pnl.costBasis());
+        assertEquals(new BigDecimal("1000.0000"), pnl.realizedProfitLoss());
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * TransactionOutboxServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.outbox;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.outbox.TransactionOutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>TransactionOutboxService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class TransactionOutboxServiceTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "outbox@domain.com";
+    /**
+     * The transaction outbox service.
+     */
+    @Autowired
+    private TransactionOutboxService transactionOutboxService;
+    /**
+     * The transaction outbox repository.
+     */
+    @Autowired
+    private TransactionOutboxRepository outboxRepo;
+    /**
+     * The account transaction repository.
+     */
+    @Autowired
+    private AccountTransactionRepository acctTxnRepo;
+    /**
+     * The bank account transaction repository.
+     */
+    @Autowired
+    private BankAccountTransactionRepository bankAcctTxnRepo;
+
+    /**
+     * Deletes the test data.
+     */
+    @AfterEach
+    public void cleanup() {
+        outboxRepo.deleteAll(outboxRepo.findByEmail(EMAIL));
+        acctTxnRepo.deleteAll(acctTxnRepo.findByEmail(EMAIL));
+        bankAcctTxnRepo.deleteAll(bankAcctTxnRepo.findByEmail(EMAIL));
+    }
+
+    /**
+     * Drains the transaction outbox, waiting for the scheduled drain if running,
+     * and for another application context sharing the database if draining the entries meanwhile,
+     * as their locked entries are skipped.
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    private void drainAll() throws InterruptedException {
+        for (int i = 0; i < 100 && (transactionOutboxService.drain().isEmpty()
+                || !outboxRepo.findByEmail(EMAIL).isEmpty()); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Tests draining the queued transactions into the account and bank account transactions,
+     * under the account transaction IDs reserved and at the datetimes queued.
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    @Test
+    public void drainIntoTransactions() throws InterruptedException {
+        TransactionOutbox deposit = transactionOutboxService.enqueue(
+                new TransactionOutbox(EMAIL, "XXX", OutboxType.DEPOSIT, new BigDecimal("1234.5")));
+        TransactionOutbox buy = transactionOutboxService.enqueue(new TransactionOutbox(EMAIL, "XXX", OutboxType.BUY,
+                "0005.HK", 100, new BigDecimal("60.50"), new BigDecimal("6070.25")));
+        TransactionOutbox transfer = transactionOutboxService.enqueue(new TransactionOutbox(EMAIL, "XXX",
+                OutboxType.TRANSFER, BigDecimal.TEN, new BankAccount(EMAIL, "XXX", "Bank", "123-456")));
+        assertNotNull(deposit.getAccountTransactionId());
+        assertEquals(3, outboxRepo.findByEmail(EMAIL).size());
+
+        this.drainAll();
+        assertTrue(outboxRepo.findByEmail(EMAIL).isEmpty());
+        List<AccountTransaction> acctTxns = acctTxnRepo.findByEmail(EMAIL).stream()
+                .sorted(Comparator.comparing(AccountTransaction::getAccountTransactionId))
+                .toList();
+        assertEquals(List.of(deposit.getAccountTransactionId(), buy.getAccountTransactionId(),
+                        transfer.getAccountTransactionId()),
+                acctTxns.stream().map(AccountTransaction::getAccountTransactionId).toList());
+        assertEquals("Deposited XXX 1,234.5000", acctTxns.get(0).getTransactionDescription());
+        assertEquals("Bought 100 shares of 0005.HK at XXX 60.50, total cost XXX 6,070.2500",
+                acctTxns.get(1).getTransactionDescription());
+        assertEquals(buy.getTransactionDateTime().withNano(0), acctTxns.get(1).getTransactionDateTime().withNano(0));
+
+        List<BankAccountTransaction> bankTxns = bankAcctTxnRepo.findByEmail(EMAIL);
+        assertEquals(1, bankTxns.size());
+        assertEquals("Transferred XXX 10.0000 to bank Bank with bank account number 123-456 for currency XXX",
+                bankTxns.get(0).getTransactionDescription());
+        assertEquals(acctTxns.get(2).getTransactionDescription(), bankTxns.get(0).getTransactionDescription());
+    }
+
+    /**
+     * Tests describing the sell and the transfer of its proceeds.
+     */
+    @Test
+    public void describe() {
+        DecimalFormat amountFormat = new DecimalFormat("#,###.0000");
+        assertEquals("Sold 5 shares of AAPL at USD 180.0000, total cost USD 899.0000",
+                TransactionOutboxService.describe(new TransactionOutbox(EMAIL, "usd", OutboxType.SELL,
+                        "AAPL", 5, new BigDecimal("180.0000"), new BigDecimal("899")), amountFormat));
+        assertEquals("Transferred USD 899.0000 to bank Bank with account number 1 for currency USD",
+                TransactionOutboxService.describe(new TransactionOutbox(EMAIL, "USD", OutboxType.AUTO_TRANSFER,
+                        new BigDecimal("899"), new BankAccount(EMAIL, "USD", "Bank", "1")), amountFormat));
+        assertEquals("100 shares of 0005.HK at HKD 60.549999237, total cost HKD 6,070.2500",
+                TransactionOutboxService.describeTrade(new TransactionOutbox(EMAIL, "HKD", OutboxType.BUY,
+                        "0005.HK", 100, new BigDecimal("60.549999237"), new BigDecimal("6070.25"))));
+    }
+
+}
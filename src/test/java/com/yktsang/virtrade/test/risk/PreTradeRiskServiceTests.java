@@ -0,0 +1,140 @@
+/*
+ * PreTradeRiskServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.risk;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.risk.PreTradeRiskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides the test cases for <code>PreTradeRiskService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class PreTradeRiskServiceTests {
+
+    /**
+     * The pre-trade risk service.
+     */
+    @Autowired
+    private PreTradeRiskService preTradeRiskService;
+    /**
+     * The mocked trader repository.
+     */
+    @MockBean
+    private TraderRepository traderRepo;
+    /**
+     * The mocked trading transaction repository.
+     */
+    @MockBean
+    private TradingTransactionRepository tradingTxnRepo;
+
+    /**
+     * Mocks the trader with the risk tolerance level.
+     *
+     * @param email         the email address
+     * @param riskTolerance the risk tolerance level
+     */
+    private void mockTrader(String email, RiskToleranceLevel riskTolerance) {
+        when(traderRepo.findById(email))
+                .thenReturn(Optional.of(new Trader(email, "name", LocalDate.of(2000, 1, 1),
+                        false, riskTolerance, false, false)));
+    }
+
+    /**
+     * Tests rejecting the order exceeding the single order notional limit.
+     */
+    @Test
+    public void rejectOrderNotional() {
+        mockTrader("low@domain.com", RiskToleranceLevel.LOW);
+        AccountBalance balance = new AccountBalance("low@domain.com", "HKD",
+                BigDecimal.ZERO, new BigDecimal("100000"));
+        // LOW allows 10% per order
+        assertTrue(preTradeRiskService.checkBuy(balance, "0005.HK", 100,
+                new BigDecimal("100"), new BigDecimal("10000")).isEmpty());
+        assertTrue(preTradeRiskService.checkBuy(balance, "0700.HK", 100,
+                new BigDecimal("100.01"), new BigDecimal("10001")).isPresent());
+    }
+
+    /**
+     * Tests rejecting the order exceeding the concentration limit,
+     * including the position loaded from the trading transactions.
+     */
+    @Test
+    public void rejectConcentration() {
+        mockTrader("medium@domain.com", RiskToleranceLevel.MEDIUM);
+        when(tradingTxnRepo.findByEmailAndCurrency("medium@domain.com", "HKD"))
+                .thenReturn(List.of(new TradingTransaction("medium@domain.com", "0005.HK", "HSBC",
+                        LocalDate.now().minusDays(1), TradingDeed.BUY, 300, "HKD",
+                        new BigDecimal("100"), new BigDecimal("30000"))));
+        AccountBalance balance = new AccountBalance("medium@domain.com", "HKD",
+                new BigDecimal("30000"), new BigDecimal("70000"));
+        // MEDIUM allows 40% in one symbol: 300 + 100 shares at 100 = 40000
+        assertTrue(preTradeRiskService.checkBuy(balance, "0005.HK", 100,
+                new BigDecimal("100"), new BigDecimal("10000")).isEmpty());
+        assertTrue(preTradeRiskService.checkBuy(balance, "0005.HK", 1,
+                new BigDecimal("100"), new BigDecimal("100")).isPresent());
+        // selling reduces the position
+        preTradeRiskService.recordSell("medium@domain.com", "HKD", "0005.HK", 100, new BigDecimal("10000"));
+        assertTrue(preTradeRiskService.checkBuy(balance, "0005.HK", 1,
+                new BigDecimal("100"), new BigDecimal("100")).isEmpty());
+        verify(tradingTxnRepo, times(1)).findByEmailAndCurrency("medium@domain.com", "HKD");
+    }
+
+    /**
+     * Tests rejecting the order exceeding the daily turnover limit.
+     */
+    @Test
+    public void rejectDailyTurnover() {
+        mockTrader("turnover@domain.com", RiskToleranceLevel.LOW);
+        AccountBalance balance = new AccountBalance("turnover@domain.com", "USD",
+                BigDecimal.ZERO, new BigDecimal("100000"));
+        // LOW allows 50% daily turnover, 10% per order and 20% per symbol
+        for (String symbol : List.of("A", "B", "C", "D", "E")) {
+            assertTrue(preTradeRiskService.checkBuy(balance, symbol, 100,
+                    new BigDecimal("100"), new BigDecimal("10000")).isEmpty());
+        }
+        assertTrue(preTradeRiskService.checkBuy(balance, "F", 1,
+                new BigDecimal("1"), new BigDecimal("1")).isPresent());
+    }
+
+    /**
+     * Tests reloading the risk state after invalidation.
+     */
+    @Test
+    public void reloadAfterInvalidate() {
+        mockTrader("change@domain.com", RiskToleranceLevel.LOW);
+        AccountBalance balance = new AccountBalance("change@domain.com", "HKD",
+                BigDecimal.ZERO, new BigDecimal("100000"));
+        assertTrue(preTradeRiskService.checkBuy(balance, "0005.HK", 500,
+                new BigDecimal("100"), new BigDecimal("50000")).isPresent());
+
+        mockTrader("change@domain.com", RiskToleranceLevel.HIGH);
+        preTradeRiskService.invalidate("change@domain.com");
+        assertFalse(preTradeRiskService.checkBuy(balance, "0005.HK", 500,
+                new BigDecimal("100"), new BigDecimal("50000")).isPresent());
+        verify(traderRepo, times(2)).findById(anyString());
+    }
+
+}
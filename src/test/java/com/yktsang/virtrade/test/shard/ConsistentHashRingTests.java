@@ -0,0 +1,95 @@
+/*
+ * ConsistentHashRingTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.shard;
+
+import com.yktsang.virtrade.shard.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>ConsistentHashRing</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class ConsistentHashRingTests {
+
+    /**
+     * The number of email addresses hashed.
+     */
+    private static final int MEMBERS = 10000;
+
+    /**
+     * Tests the shards are numbered from the home shard.
+     */
+    @Test
+    public void shards() {
+        assertEquals(List.of("0"), new ConsistentHashRing(1, 128).getShards());
+        assertEquals(List.of("0", "1", "2"), new ConsistentHashRing(3, 128).getShards());
+        assertEquals("0", new ConsistentHashRing(1, 128).shardOf("member@domain.com"));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(0, 128));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(2, 0));
+    }
+
+    /**
+     * Tests the shard of an email address is the same on every ring, ignoring case.
+     */
+    @Test
+    public void deterministicIgnoringCase() {
+        ConsistentHashRing ring = new ConsistentHashRing(3, 128);
+        ConsistentHashRing other = new ConsistentHashRing(3, 128);
+        for (int i = 0; i < 100; i++) {
+            String email = "member" + i + "@domain.com";
+            assertEquals(ring.shardOf(email), other.shardOf(email));
+            assertEquals(ring.shardOf(email), ring.shardOf(email.toUpperCase()));
+        }
+    }
+
+    /**
+     * Tests the email addresses are spread evenly over the shards.
+     */
+    @Test
+    public void balanced() {
+        ConsistentHashRing ring = new ConsistentHashRing(3, 128);
+        Map<String, Integer> members = new HashMap<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            members.merge(ring.shardOf("member" + i + "@domain.com"), 1, Integer::sum);
+        }
+        assertEquals(3, members.size());
+        // within a quarter of the fair share
+        members.values().forEach(count -> assertTrue(Math.abs(count - MEMBERS / 3) < MEMBERS / 12, "" + count));
+    }
+
+    /**
+     * Tests adding a shard only moves email addresses to the new shard, about one in the new number of shards.
+     */
+    @Test
+    public void minimalMovement() {
+        ConsistentHashRing before = new ConsistentHashRing(3, 128);
+        ConsistentHashRing after = new ConsistentHashRing(4, 128);
+        int moved = 0;
+        for (int i = 0; i < MEMBERS; i++) {
+            String email = "member" + i + "@domain.com";
+            String shard = after.shardOf(email);
+            if (!shard.equals(before.shardOf(email))) {
+                assertEquals("3", shard);
+                moved++;
+            }
+        }
+        assertTrue(moved > MEMBERS / 8 && moved < MEMBERS * 3 / 8, "" + moved);
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * ShardRebalancerTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.shard;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.shard.ShardRebalancer;
+import com.yktsang.virtrade.shard.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Provides the test cases for <code>ShardRebalancer</code>, sharded as in <code>ShardRouterTests</code>,
+ * copying two rows per chunk.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = {ShardRouterTests.SHARD_URLS, "shard.rebalance.chunk.size=2"})
+public class ShardRebalancerTests {
+
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The shard rebalancer.
+     */
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+    /**
+     * The account repository.
+     */
+    @Autowired
+    private AccountRepository accountRepo;
+    /**
+     * The account transaction repository.
+     */
+    @Autowired
+    private AccountTransactionRepository acctTxnRepo;
+    /**
+     * The portfolio repository.
+     */
+    @Autowired
+    private PortfolioRepository portfolioRepo;
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    /**
+     * The email address of the test data, belonging to shard 1.
+     */
+    private String email;
+    /**
+     * The portfolio ID of the test data.
+     */
+    private BigInteger portfolioId;
+
+    /**
+     * Creates the test data on the home shard, the wrong shard of the member:
+     * an account, an account transaction, a portfolio and a trading transaction in the portfolio.
+     */
+    @BeforeEach
+    public void init() {
+        email = ShardRouterTests.emailOn(shardRouter, "shardmove", "1");
+        portfolioId = shardRouter.callOnHome(() -> {
+            accountRepo.save(new Account(email, "password"));
+            acctTxnRepo.save(new AccountTransaction(email, "XXX", "deposit"));
+            Portfolio portfolio = portfolioRepo.save(new Portfolio(email, "move", "XXX"));
+            TradingTransaction txn = new TradingTransaction(email, "0005.HK", "HSBC", LocalDate.of(2020, 1, 1),
+                    TradingDeed.BUY, 100, "XXX", new BigDecimal("60.5"), BigDecimal.ONE);
+            txn.setPortfolioId(portfolio.getPortfolioId());
+            tradingTxnRepo.save(txn);
+            return portfolio.getPortfolioId();
+        });
+    }
+
+    /**
+     * Deletes the test data from every shard.
+     */
+    @AfterEach
+    public void cleanUp() {
+        ShardRouterTests.deleteMember(shardRouter, jdbcTemplate, email);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    /**
+     * Returns the number of rows of the member in the table on every shard.
+     *
+     * @param table the table
+     * @return the number of rows by shard
+     */
+    private Map<String, Integer> rowsByShard(String table) {
+        Map<String, Integer> rows = new TreeMap<>();
+        shardRouter.shards().forEach(shard -> rows.put(shard, shardRouter.callOn(shard, () ->
+                jdbcTemplate.queryForObject("select count(*) from " + table + " where email = ?",
+                        Integer.class, email))));
+        return rows;
+    }
+
+    /**
+     * Tests moving the member's rows of every table to the member's shard, keeping the IDs.
+     */
+    @Test
+    public void move() {
+        shardRebalancer.move(email, ShardRouter.HOME_SHARD, "1");
+        for (String table : new String[]{"account", "account_transaction", "portfolio", "trading_transaction"}) {
+            assertEquals(Map.of("0", 0, "1", 1, "2", 0), this.rowsByShard(table), table);
+        }
+        assertEquals(portfolioId, shardRouter.callOnMember(email, () ->
+                tradingTxnRepo.findByEmail(email).get(0).getPortfolioId()));
+    }
+
+    /**
+     * Tests moving more rows of a table than a chunk holds.
+     */
+    @Test
+    public void moveInChunks() {
+        shardRouter.callOnHome(() -> {
+            for (int i = 0; i < 4; i++) {
+                acctTxnRepo.save(new AccountTransaction(email, "XXX", "deposit " + i));
+            }
+            return null;
+        });
+
+        shardRebalancer.move(email, ShardRouter.HOME_SHARD, "1");
+        assertEquals(Map.of("0", 0, "1", 5, "2", 0), this.rowsByShard("account_transaction"));
+    }
+
+    /**
+     * Tests the rebalance is skipped while another node holds the lock.
+     */
+    @Test
+    public void rebalanceLocked() {
+        shardRouter.callOnHome(() -> {
+            assertEquals(1, jdbcTemplate.queryForObject("select get_lock('virtrade.shard.rebalance', 0)",
+                    Integer.class));
+            try {
+                assertEquals(0, shardRebalancer.rebalance());
+            } finally {
+                jdbcTemplate.queryForObject("select release_lock('virtrade.shard.rebalance')", Integer.class);
+            }
+            return null;
+        });
+        assertEquals(Map.of("0", 1, "1", 0, "2", 0), this.rowsByShard("account"));
+    }
+
+    /**
+     * Tests moving when the member's shard holds a leftover account, e.g. from an interrupted rebalance,
+     * which the copy replaces.
+     */
+    @Test
+    public void moveAgain() {
+        shardRouter.callOn("1", () -> jdbcTemplate.update("insert into account " +
+                "(email, password, creation_datetime, admin_access, active) " +
+                "values (?, 'password', current_timestamp(), 'N', 'Y')", email));
+
+        shardRebalancer.move(email, ShardRouter.HOME_SHARD, "1");
+        for (String table : new String[]{"account", "account_transaction", "portfolio", "trading_transaction"}) {
+            assertEquals(Map.of("0", 0, "1", 1, "2", 0), this.rowsByShard(table), table);
+        }
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * ShardRouterTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.shard;
+
+import com.yktsang.virtrade.entity.Account;
+import com.yktsang.virtrade.entity.AccountRepository;
+import com.yktsang.virtrade.shard.ShardRebalancer;
+import com.yktsang.virtrade.shard.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>ShardRouter</code>, sharded across the "virtrade" database
+ * and two local shards, each created with db/create_table.sql then db/shard_id_generator.sql:
+ * <pre>
+ * create database virtrade_shard1;
+ * create database virtrade_shard2;
+ * </pre>
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = ShardRouterTests.SHARD_URLS)
+public class ShardRouterTests {
+
+    /**
+     * The URLs of the local shards.
+     */
+    public static final String SHARD_URLS = "shard.datasource.urls="
+            + "jdbc:mysql://${MYSQL_HOST:localhost}:3306/virtrade_shard1?rewriteBatchedStatements=true,"
+            + "jdbc:mysql://${MYSQL_HOST:localhost}:3306/virtrade_shard2?rewriteBatchedStatements=true";
+    /**
+     * The SQL counting the accounts of the email address.
+     */
+    private static final String COUNT_ACCOUNT_SQL = "select count(*) from account where email = ?";
+    /**
+     * The shard router.
+     */
+    @Autowired
+    private ShardRouter shardRouter;
+    /**
+     * The account repository.
+     */
+    @Autowired
+    private AccountRepository accountRepo;
+    /**
+     * The JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * The entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    /**
+     * The email addresses of the test data.
+     */
+    private final List<String> emails = new ArrayList<>();
+
+    /**
+     * Deletes the test data from every shard.
+     */
+    @AfterEach
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+        emails.forEach(email -> deleteMember(shardRouter, jdbcTemplate, email));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    /**
+     * Deletes the member's rows of every member table from every shard.
+     *
+     * @param shardRouter  the shard router
+     * @param jdbcTemplate the JDBC template
+     * @param email        the email address
+     */
+    public static void deleteMember(ShardRouter shardRouter, JdbcTemplate jdbcTemplate, String email) {
+        List<String> tables = new ArrayList<>(ShardRebalancer.MEMBER_TABLES);
+        // the trading transactions reference the portfolios
+        Collections.reverse(tables);
+        shardRouter.forEachShard(() -> tables.forEach(table ->
+                jdbcTemplate.update("delete from " + table + " where email = ?", email)));
+    }
+
+    /**
+     * Returns the first email address with the prefix on the shard.
+     *
+     * @param shardRouter the shard router
+     * @param prefix      the prefix of the email address
+     * @param shard       the shard
+     * @return the email address
+     */
+    public static String emailOn(ShardRouter shardRouter, String prefix, String shard) {
+        for (int i = 0; ; i++) {
+            String email = prefix + i + "@domain.com";
+            if (shardRouter.shardOf(email).equals(shard)) {
+                return email;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of accounts of the email address on every shard.
+     *
+     * @param email the email address
+     * @return the number of accounts by shard
+     */
+    private Map<String, Integer> accountsByShard(String email) {
+        Map<String, Integer> accounts = new TreeMap<>();
+        shardRouter.shards().forEach(shard -> accounts.put(shard, shardRouter.callOn(shard, () ->
+                jdbcTemplate.queryForObject(COUNT_ACCOUNT_SQL, Integer.class, email))));
+        return accounts;
+    }
+
+    /**
+     * Tests the shards and the shard pinned while running on each shard.
+     */
+    @Test
+    public void forEachShard() {
+        assertTrue(shardRouter.isSharded());
+        assertEquals(List.of(ShardRouter.HOME_SHARD, "1", "2"), shardRouter.shards());
+        List<String> visited = new ArrayList<>();
+        shardRouter.forEachShard(() -> visited.add(ShardRouter.currentShard().orElseThrow()));
+        assertEquals(shardRouter.shards(), visited);
+        assertTrue(ShardRouter.currentShard().isEmpty());
+    }
+
+    /**
+     * Tests the member's data is written to the member's shard only,
+     * and the authenticated member's reads are routed to it.
+     */
+    @Test
+    public void routeToMemberShard() {
+        String member = emailOn(shardRouter, "shardmember", "2");
+        emails.add(member);
+        shardRouter.callOnMember(member, () -> accountRepo.save(new Account(member, "password")));
+        assertEquals(Map.of("0", 0, "1", 0, "2", 1), this.accountsByShard(member));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(member, null, List.of()));
+        assertEquals(1, jdbcTemplate.queryForObject(COUNT_ACCOUNT_SQL, Integer.class, member));
+        SecurityContextHolder.clearContext();
+        // unauthenticated reads go to the home shard
+        assertEquals(0, jdbcTemplate.queryForObject(COUNT_ACCOUNT_SQL, Integer.class, member));
+    }
+
+    /**
+     * Tests the admin requests are gathered from every shard, merged in request datetime order.
+     */
+    @Test
+    public void scatterGatherPage() {
+        LocalDateTime requested = LocalDateTime.of(2000, 1, 1, 0, 0);
+        // one member on each shard, the latest request on the last shard
+        for (String shard : shardRouter.shards()) {
+            String member = emailOn(shardRouter, "shardadmin", shard);
+            emails.add(member);
+            Account account = new Account(member, "password");
+            account.setAdminRequestDateTime(requested.plusDays(Integer.parseInt(shard)));
+            shardRouter.callOnMember(member, () -> accountRepo.save(account));
+        }
+        Comparator<Account> latestFirst = Comparator.comparing(Account::getAdminRequestDateTime).reversed();
+
+        List<String> all = shardRouter.scatterGather(Pageable.unpaged(), latestFirst,
+                        pageable -> accountRepo.findMembersRequestedAdminAccess(false, pageable))
+                .map(Account::getEmail).toList();
+        // other members may have requested admin access since 2000
+        assertEquals(List.of(emails.get(2), emails.get(1), emails.get(0)),
+                all.stream().filter(emails::contains).toList());
+
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page * 2 < all.size(); page++) {
+            Page<Account> accounts = shardRouter.scatterGather(PageRequest.of(page, 2), latestFirst,
+                    pageable -> accountRepo.findMembersRequestedAdminAccess(false, pageable));
+            assertEquals(all.size(), accounts.getTotalElements());
+            accounts.forEach(account -> paged.add(account.getEmail()));
+        }
+        assertEquals(all, paged);
+    }
+
+}
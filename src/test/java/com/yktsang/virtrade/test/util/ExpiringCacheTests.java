@@ -0,0 +1,76 @@
+/*
+ * ExpiringCacheTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.util;
+
+import com.yktsang.virtrade.util.ExpiringCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>ExpiringCache</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class ExpiringCacheTests {
+
+    /**
+     * Tests caching then retrieving the value.
+     */
+    @Test
+    public void putThenGet() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, Duration.ofHours(1));
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key").orElseThrow());
+        assertTrue(cache.get("missing").isEmpty());
+    }
+
+    /**
+     * Tests evicting the least recently used value once full.
+     */
+    @Test
+    public void evictLeastRecentlyUsed() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, Duration.ofHours(1));
+        cache.put("first", "1");
+        cache.put("second", "2");
+        cache.get("first");
+        cache.put("third", "3");
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("first").isPresent());
+        assertTrue(cache.get("second").isEmpty());
+        assertTrue(cache.get("third").isPresent());
+    }
+
+    /**
+     * Tests expiring the value after the time-to-live.
+     */
+    @Test
+    public void expireAfterTimeToLive() throws InterruptedException {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, Duration.ofMillis(10));
+        cache.put("key", "value");
+        Thread.sleep(20);
+        assertTrue(cache.get("key").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests rejecting the non-positive cache size.
+     */
+    @Test
+    public void rejectNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExpiringCache<String, String>(0, Duration.ofHours(1)));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * MoneyTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.util;
+
+import com.yktsang.virtrade.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>Money</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class MoneyTests {
+
+    /**
+     * Tests converting from and to BigDecimal.
+     */
+    @Test
+    public void convertBigDecimal() {
+        Money money = Money.of(new BigDecimal("1234.5"));
+        assertEquals(12_345_000L, money.getUnits());
+        assertEquals(new BigDecimal("1234.5000"), money.toBigDecimal());
+        assertEquals("1234.5000", money.toString());
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.00001")));
+        assertEquals(Money.ofUnits(1L), Money.of(new BigDecimal("0.00005"), RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Tests checking the BigDecimal representable.
+     */
+    @Test
+    public void isRepresentable() {
+        assertTrue(Money.isRepresentable(new BigDecimal("0.12340000")));
+        assertFalse(Money.isRepresentable(new BigDecimal("0.12345")));
+        assertFalse(Money.isRepresentable(new BigDecimal("1E+20")));
+    }
+
+    /**
+     * Tests adding, subtracting and multiplying.
+     */
+    @Test
+    public void arithmetic() {
+        Money a = Money.of(new BigDecimal("10.25"));
+        Money b = Money.of(new BigDecimal("0.75"));
+        assertEquals(Money.of(new BigDecimal("11")), a.plus(b));
+        assertEquals(Money.of(new BigDecimal("9.5")), a.minus(b));
+        assertEquals(Money.of(new BigDecimal("41")), a.times(4));
+        assertTrue(b.minus(a).isNegative());
+        assertThrows(ArithmeticException.class, () -> Money.ofUnits(Long.MAX_VALUE).plus(Money.ofUnits(1L)));
+    }
+
+    /**
+     * Tests multiplying by rate gives identical results to BigDecimal for random amounts.
+     */
+    @Test
+    public void timesRateSameAsBigDecimal() {
+        Random random = new Random(20240101L);
+        RoundingMode[] modes = {RoundingMode.HALF_UP, RoundingMode.UP, RoundingMode.DOWN};
+        for (int i = 0; i < 100_000; i++) {
+            long units = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+            long numerator = random.nextInt(10_000);
+            long denominator = 1 + random.nextInt(1_000_000);
+            RoundingMode mode = modes[random.nextInt(modes.length)];
+            BigDecimal expected = BigDecimal.valueOf(units, Money.SCALE)
+                    .multiply(BigDecimal.valueOf(numerator))
+                    .divide(BigDecimal.valueOf(denominator), Money.SCALE, mode);
+            assertEquals(expected, Money.ofUnits(units).times(numerator, denominator, mode).toBigDecimal());
+            assertEquals(BigDecimal.valueOf(units, Money.SCALE).setScale(0, mode).setScale(Money.SCALE),
+                    Money.ofUnits(units).roundToWhole(mode).toBigDecimal());
+        }
+    }
+
+}
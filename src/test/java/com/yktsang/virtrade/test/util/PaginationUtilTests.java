@@ -15,6 +15,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 
+import java.math.BigInteger;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -100,4 +102,28 @@ public class PaginationUtilTests {
         }
     }
 
+    /**
+     * Tests encoding and decoding the cursor and the corresponding response header.
+     */
+    @Test
+    public void cursorThenResponseHeader() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 2, 29, 13, 45, 30);
+        String cursor = PaginationUtil.encodeCursor(dateTime, BigInteger.valueOf(1234));
+        PaginationUtil.Cursor decoded = PaginationUtil.decodeCursor(cursor).orElseThrow();
+        assertEquals(dateTime, decoded.dateTime());
+        assertEquals(BigInteger.valueOf(1234), decoded.id());
+
+        assertTrue(PaginationUtil.decodeCursor(null).isEmpty());
+        assertTrue(PaginationUtil.decodeCursor(" ").isEmpty());
+        assertTrue(PaginationUtil.decodeCursor("not a cursor").isEmpty());
+
+        Map<String, String> respHeaderMap =
+                PaginationUtil.populateCursorResponseHeader(5, true, cursor, "XXX").toSingleValueMap();
+        assertEquals("true", respHeaderMap.get("hasNext"));
+        assertEquals("ccy=XXX&cursor=" + cursor + "&pageSize=5", respHeaderMap.get("next"));
+        respHeaderMap = PaginationUtil.populateCursorResponseHeader(5, false, null, "").toSingleValueMap();
+        assertEquals("false", respHeaderMap.get("hasNext"));
+        assertNull(respHeaderMap.get("next"));
+    }
+
 }
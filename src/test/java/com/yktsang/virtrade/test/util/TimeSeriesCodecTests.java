@@ -0,0 +1,95 @@
+/*
+ * TimeSeriesCodecTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.util;
+
+import com.yktsang.virtrade.util.TimeSeriesCodec;
+import com.yktsang.virtrade.util.TimeSeriesCodec.Point;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Provides the test cases for <code>TimeSeriesCodec</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class TimeSeriesCodecTests {
+
+    /**
+     * Tests encoding and decoding a month of daily values.
+     */
+    @Test
+    public void roundTrip() {
+        LocalDate monthStart = LocalDate.of(2024, 2, 1);
+        Random random = new Random(20240201L);
+        List<Point> points = new ArrayList<>();
+        long units = 1_000_000_0000L;
+        for (int day = 1; day <= 29; day++) {
+            units += random.nextInt(2_000_0000) - 1_000_0000;
+            points.add(new Point(monthStart.withDayOfMonth(day), units));
+        }
+        byte[] encoded = TimeSeriesCodec.encode(monthStart, points);
+        assertEquals(points, TimeSeriesCodec.decode(monthStart, encoded));
+        // daily changes up to 1000 take at most six bytes per point with the date
+        assertTrue(encoded.length <= 29 * 6, "encoded length " + encoded.length);
+    }
+
+    /**
+     * Tests encoding gaps between dates and negative values.
+     */
+    @Test
+    public void gapsAndNegatives() {
+        LocalDate monthStart = LocalDate.of(2024, 3, 1);
+        List<Point> points = List.of(new Point(LocalDate.of(2024, 3, 4), -5_0000L),
+                new Point(LocalDate.of(2024, 3, 11), Long.MIN_VALUE / 2),
+                new Point(LocalDate.of(2024, 3, 31), 0L));
+        assertEquals(points, TimeSeriesCodec.decode(monthStart, TimeSeriesCodec.encode(monthStart, points)));
+        assertEquals(List.of(), TimeSeriesCodec.decode(monthStart, TimeSeriesCodec.encode(monthStart, List.of())));
+    }
+
+    /**
+     * Tests rejecting points out of order or outside the month, and truncated input.
+     */
+    @Test
+    public void invalid() {
+        LocalDate monthStart = LocalDate.of(2024, 4, 1);
+        assertThrows(IllegalArgumentException.class, () -> TimeSeriesCodec.encode(monthStart,
+                List.of(new Point(LocalDate.of(2024, 4, 2), 1L), new Point(LocalDate.of(2024, 4, 2), 2L))));
+        assertThrows(IllegalArgumentException.class, () -> TimeSeriesCodec.encode(monthStart,
+                List.of(new Point(LocalDate.of(2024, 5, 1), 1L))));
+        byte[] encoded = TimeSeriesCodec.encode(monthStart, List.of(new Point(monthStart, 1_000_000L)));
+        byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> TimeSeriesCodec.decode(monthStart, truncated));
+    }
+
+    /**
+     * Tests adding a point in date order, replacing the point on the same date.
+     */
+    @Test
+    public void put() {
+        Point first = new Point(LocalDate.of(2024, 5, 1), 1L);
+        Point third = new Point(LocalDate.of(2024, 5, 3), 3L);
+        List<Point> points = TimeSeriesCodec.put(List.of(third), first);
+        assertEquals(List.of(first, third), points);
+        Point second = new Point(LocalDate.of(2024, 5, 2), 2L);
+        assertEquals(List.of(first, second, third), TimeSeriesCodec.put(points, second));
+        Point replaced = new Point(LocalDate.of(2024, 5, 3), 30L);
+        assertEquals(List.of(first, replaced), TimeSeriesCodec.put(points, replaced));
+    }
+
+}
@@ -8,12 +8,19 @@
  */
 package com.yktsang.virtrade.test.util;
 
+import com.yktsang.virtrade.fee.FeeSchedule;
+import com.yktsang.virtrade.fee.FeeScheduleService;
 import com.yktsang.virtrade.util.TradingUtil;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -27,12 +34,30 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class TradingUtilTests {
 
     /**
-     * Tests calculating fees.
+     * The Hong Kong dollar fee schedule, from fee_schedule.properties.
+     */
+    private static FeeSchedule hongKong;
+
+    /**
+     * Loads the Hong Kong dollar fee schedule from fee_schedule.properties.
+     *
+     * @throws IOException if the fee schedule file cannot be read
+     */
+    @BeforeAll
+    public static void loadFeeSchedule() throws IOException {
+        FeeScheduleService service = new FeeScheduleService();
+        ReflectionTestUtils.setField(service, "location", new ClassPathResource("fee_schedule.properties"));
+        service.init();
+        hongKong = service.getFeeSchedule(null, "HKD");
+    }
+
+    /**
+     * Tests calculating fees with the Hong Kong dollar fee schedule.
      */
     @Test
     public void calculateFees() {
         double transactionCost = 1500.00D;
-        BigDecimal bigDecFees = TradingUtil.calculateFees(new BigDecimal(transactionCost));
+        BigDecimal bigDecFees = hongKong.calculateFees(new BigDecimal(transactionCost));
         double doubleFees = 0.50D
                 + (transactionCost * 0.005 / 100)
                 + (transactionCost * 0.002 / 100)
@@ -41,4 +66,50 @@ public class TradingUtilTests {
         assertEquals(new BigDecimal(doubleFees).setScale(4, RoundingMode.HALF_UP), bigDecFees);
     }
 
+    /**
+     * Returns the fees calculated in BigDecimal, as the reference result.
+     *
+     * @param transactionCost the transaction cost
+     * @return the fees
+     */
+    private BigDecimal calculateFeesInBigDecimal(BigDecimal transactionCost) {
+        return transactionCost.multiply(new BigDecimal("0.00005"))
+                .add(transactionCost.multiply(new BigDecimal("0.00005")))
+                .add(transactionCost.multiply(new BigDecimal("0.00002")))
+                .add(transactionCost.multiply(new BigDecimal("0.001")).setScale(0, RoundingMode.UP))
+                .add(new BigDecimal("0.5"))
+                .setScale(4, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Tests calculating fees in fixed-point gives identical results to BigDecimal
+     * for random prices and quantities.
+     */
+    @Test
+    public void calculateFeesSameAsBigDecimal() {
+        Random random = new Random(20240101L);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100_000_000), random.nextInt(5));
+            int quantity = 1 + random.nextInt(1_000_000);
+            BigDecimal transactionCost = TradingUtil.calculateTransactionCost(price, quantity);
+            assertEquals(0, price.multiply(new BigDecimal(quantity)).compareTo(transactionCost));
+            assertEquals(calculateFeesInBigDecimal(transactionCost), hongKong.calculateFees(transactionCost),
+                    "transaction cost " + transactionCost);
+        }
+    }
+
+    /**
+     * Tests calculating fees at the rounding boundaries.
+     */
+    @Test
+    public void calculateFeesAtRoundingBoundaries() {
+        String[] transactionCosts = {"0", "0.0001", "1000", "1000.0001", "4.1666", "4.1667",
+                "999999999999.9999", "12345678901234.5678", "0.00001", "123.456789"};
+        for (String transactionCost : transactionCosts) {
+            BigDecimal cost = new BigDecimal(transactionCost);
+            assertEquals(calculateFeesInBigDecimal(cost), hongKong.calculateFees(cost),
+                    "transaction cost " + transactionCost);
+        }
+    }
+
 }
@@ -0,0 +1,184 @@
+/*
+ * BatchRevaluationJobTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.valuation;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.valuation.BatchRevaluationJob;
+import com.yktsang.virtrade.yahoofinance.StockProvider;
+import com.yktsang.virtrade.yahoofinance.YahooStock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import yahoofinance.quotes.stock.StockQuote;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Provides the test cases for <code>BatchRevaluationJob</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest(properties = "revaluation.batch.chunk.size=2")
+public class BatchRevaluationJobTests {
+
+    /**
+     * The email address of the test data.
+     */
+    private static final String EMAIL = "batchreval@domain.com";
+    /**
+     * The batch revaluation job.
+     */
+    @Autowired
+    private BatchRevaluationJob batchRevaluationJob;
+    /**
+     * The portfolio repository.
+     */
+    @Autowired
+    private PortfolioRepository portfolioRepo;
+    /**
+     * The trading transaction repository.
+     */
+    @Autowired
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The revaluation checkpoint repository.
+     */
+    @Autowired
+    private RevaluationCheckpointRepository checkpointRepo;
+    /**
+     * The mocked stock provider.
+     */
+    @MockBean
+    private StockProvider stockProvider;
+    /**
+     * The portfolios of the test data.
+     */
+    private final List<Portfolio> portfolios = new ArrayList<>();
+
+    /**
+     * Returns the equity with the price.
+     *
+     * @param symbol the trading symbol
+     * @param price  the price
+     * @return the equity
+     */
+    private static YahooStock equity(String symbol, String price) {
+        YahooStock stock = new YahooStock(symbol);
+        stock.setQuoteType("equity");
+        StockQuote quote = new StockQuote(symbol);
+        quote.setPrice(new BigDecimal(price));
+        stock.setQuote(quote);
+        return stock;
+    }
+
+    /**
+     * Saves the trading transaction linked to the portfolio.
+     *
+     * @param symbol    the trading symbol
+     * @param deed      the trading deed
+     * @param quantity  the quantity
+     * @param portfolio the portfolio, or null if not linked
+     */
+    private void saveTxn(String symbol, TradingDeed deed, int quantity, Portfolio portfolio) {
+        TradingTransaction t = new TradingTransaction(EMAIL, symbol, symbol, LocalDate.now(), deed,
+                quantity, "HKD", BigDecimal.TEN, BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)));
+        t.setPortfolioId(portfolio == null ? null : portfolio.getPortfolioId());
+        tradingTxnRepo.save(t);
+    }
+
+    /**
+     * Initializes the portfolios and trading transactions.
+     *
+     * @throws IOException never thrown by the mock
+     */
+    @BeforeEach
+    public void init() throws IOException {
+        checkpointRepo.deleteById(BatchRevaluationJob.JOB_NAME);
+        for (int i = 0; i < 3; i++) {
+            portfolios.add(portfolioRepo.save(new Portfolio(EMAIL, "batch" + i, "HKD",
+                    new BigDecimal("1000"), BigDecimal.ZERO, BigDecimal.ZERO)));
+        }
+        saveTxn("B0001.HK", TradingDeed.BUY, 100, portfolios.get(0));
+        saveTxn("B0001.HK", TradingDeed.SELL, 20, portfolios.get(0));
+        saveTxn("B0001.HK", TradingDeed.SELL, 30, null);
+        saveTxn("B0002.HK", TradingDeed.BUY, 50, portfolios.get(1));
+        saveTxn("B0003.HK", TradingDeed.BUY, 10, portfolios.get(2));
+        when(stockProvider.getStocks()).thenReturn(List.of(
+                equity("B0001.HK", "12.5"), equity("B0002.HK", "19.9999")));
+    }
+
+    /**
+     * Deletes the portfolios and trading transactions.
+     */
+    @AfterEach
+    public void cleanup() {
+        tradingTxnRepo.deleteAll(tradingTxnRepo.findByEmail(EMAIL));
+        portfolioRepo.deleteAll(portfolioRepo.findByEmail(EMAIL));
+        checkpointRepo.deleteById(BatchRevaluationJob.JOB_NAME);
+        portfolios.clear();
+    }
+
+    /**
+     * Tests revaluing all portfolios against the price snapshot.
+     */
+    @Test
+    public void revalueAll() {
+        BatchRevaluationJob.Report report = batchRevaluationJob.run().orElseThrow();
+        assertFalse(report.resumed());
+        assertTrue(report.rows() >= 3);
+
+        // open 80 x 12.5, the unlinked trade left out
+        Portfolio first = portfolioRepo.findById(portfolios.get(0).getPortfolioId()).orElseThrow();
+        assertEquals(0, new BigDecimal("1000").compareTo(first.getCurrentAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(first.getProfitLoss()));
+        // 50 x 19.9999
+        Portfolio second = portfolioRepo.findById(portfolios.get(1).getPortfolioId()).orElseThrow();
+        assertEquals(0, new BigDecimal("999.995").compareTo(second.getCurrentAmount()));
+        assertEquals(0, new BigDecimal("-0.005").compareTo(second.getProfitLoss()));
+        // no price, left unchanged
+        Portfolio third = portfolioRepo.findById(portfolios.get(2).getPortfolioId()).orElseThrow();
+        assertEquals(0, BigDecimal.ZERO.compareTo(third.getCurrentAmount()));
+
+        RevaluationCheckpoint checkpoint = checkpointRepo.findById(BatchRevaluationJob.JOB_NAME).orElseThrow();
+        assertTrue(checkpoint.isCompleted());
+    }
+
+    /**
+     * Tests resuming the interrupted run after the checkpointed portfolio.
+     */
+    @Test
+    public void resumeFromCheckpoint() {
+        RevaluationCheckpoint checkpoint = new RevaluationCheckpoint(BatchRevaluationJob.JOB_NAME, LocalDate.now());
+        checkpoint.setLastPortfolioId(portfolios.get(0).getPortfolioId());
+        checkpoint.setRowsProcessed(1L);
+        checkpointRepo.save(checkpoint);
+
+        BatchRevaluationJob.Report report = batchRevaluationJob.run().orElseThrow();
+        assertTrue(report.resumed());
+        assertEquals(2, report.rows());
+
+        // before the checkpoint, left unchanged
+        Portfolio first = portfolioRepo.findById(portfolios.get(0).getPortfolioId()).orElseThrow();
+        assertEquals(0, BigDecimal.ZERO.compareTo(first.getCurrentAmount()));
+        Portfolio second = portfolioRepo.findById(portfolios.get(1).getPortfolioId()).orElseThrow();
+        assertEquals(0, new BigDecimal("999.995").compareTo(second.getCurrentAmount()));
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * PortfolioRevaluationServiceTests.java
+ *
+ * Virtual Trading is a web application simulating online stock trading.
+ *
+ * This class or interface is part of the Virtual Trading project.
+ * The class or interface must not be used outside of this context.
+ */
+package com.yktsang.virtrade.test.valuation;
+
+import com.yktsang.virtrade.entity.*;
+import com.yktsang.virtrade.valuation.PortfolioRevaluationService;
+import com.yktsang.virtrade.valuation.PositionQuantity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides the test cases for <code>PortfolioRevaluationService</code>.
+ *
+ * @author Tsang Yiu Kee Kay
+ * @version 1.0
+ */
+@SpringBootTest
+public class PortfolioRevaluationServiceTests {
+
+    /**
+     * The portfolio revaluation service.
+     */
+    @Autowired
+    private PortfolioRevaluationService revaluationService;
+    /**
+     * The mocked portfolio repository.
+     */
+    @MockBean
+    private PortfolioRepository portfolioRepo;
+    /**
+     * The mocked trading transaction repository.
+     */
+    @MockBean
+    private TradingTransactionRepository tradingTxnRepo;
+    /**
+     * The mocked JDBC template.
+     */
+    @MockBean
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the trading transaction linked to the portfolio.
+     *
+     * @param email       the email address
+     * @param symbol      the trading symbol
+     * @param deed        the trading deed
+     * @param quantity    the quantity
+     * @param portfolioId the portfolio ID, or null if not linked
+     * @return the trading transaction
+     */
+    private static TradingTransaction txn(String email, String symbol, TradingDeed deed,
+                                          int quantity, BigInteger portfolioId) {
+        TradingTransaction t = new TradingTransaction(email, symbol, symbol, LocalDate.now(), deed,
+                quantity, "HKD", BigDecimal.TEN, BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)));
+        t.setPortfolioId(portfolioId);
+        return t;
+    }
+
+    /**
+     * Mocks the portfolios and trading transactions of the email address,
+     * the trading transactions summed by portfolio, trading symbol and trading deed.
+     *
+     * @param email      the email address
+     * @param portfolios the portfolios
+     * @param txns       the trading transactions
+     */
+    private void mockAccount(String email, List<Portfolio> portfolios, List<TradingTransaction> txns) {
+        Map<List<Object>, Long> sums = new LinkedHashMap<>();
+        txns.forEach(t -> sums.merge(Arrays.asList(t.getPortfolioId(), t.getTradingSymbol(), t.getTradingDeed()),
+                (long) t.getQuantity(), Long::sum));
+        List<PositionQuantity> positions = new ArrayList<>();
+        sums.forEach((k, quantity) -> positions.add(new PositionQuantity(email, (BigInteger) k.get(0),
+                (String) k.get(1), (TradingDeed) k.get(2), quantity)));
+        when(portfolioRepo.findByEmail(email)).thenReturn(portfolios);
+        when(tradingTxnRepo.sumQuantitiesByEmails(List.of(email))).thenReturn(positions);
+    }
+
+    /**
+     * Writes any portfolios left dirty by other test cases.
+     */
+    @BeforeEach
+    public void init() {
+        revaluationService.flush();
+        clearInvocations(jdbcTemplate);
+    }
+
+    /**
+     * Tests revaluing only the portfolios holding the symbol by quantity times price change.
+     */
+    @Test
+    public void revalueHolders() {
+        String email = "reval@domain.com";
+        Portfolio tech = new Portfolio(email, "tech", "HKD", new BigDecimal("1000"),
+                BigDecimal.ZERO, BigDecimal.ZERO);
+        tech.setPortfolioId(BigInteger.valueOf(9001));
+        Portfolio banks = new Portfolio(email, "banks", "HKD", new BigDecimal("500"),
+                BigDecimal.ZERO, BigDecimal.ZERO);
+        banks.setPortfolioId(BigInteger.valueOf(9002));
+        mockAccount(email, List.of(tech, banks), List.of(
+                txn(email, "R0700.HK", TradingDeed.BUY, 100, tech.getPortfolioId()),
+                txn(email, "R0700.HK", TradingDeed.SELL, 40, tech.getPortfolioId()),
+                txn(email, "R0005.HK", TradingDeed.BUY, 50, banks.getPortfolioId()),
+                txn(email, "R0005.HK", TradingDeed.BUY, 30, null)));
+
+        revaluationService.updatePrices(Map.of("R0700.HK", new BigDecimal("10"), "R0005.HK", new BigDecimal("20")));
+        revaluationService.refresh(email);
+        // open 60 x 10 and 50 x 20, the unlinked trade left out
+        assertEquals(new BigDecimal("600.0000"), revaluationService.getCurrentAmount(tech.getPortfolioId()).orElseThrow());
+        assertEquals(new BigDecimal("1000.0000"), revaluationService.getCurrentAmount(banks.getPortfolioId()).orElseThrow());
+
+        assertEquals(1, revaluationService.updatePrices(Map.of("R0700.HK", new BigDecimal("10.5"),
+                "R0005.HK", new BigDecimal("20"))));
+        assertEquals(new BigDecimal("630.0000"), revaluationService.getCurrentAmount(tech.getPortfolioId()).orElseThrow());
+        assertEquals(new BigDecimal("1000.0000"), revaluationService.getCurrentAmount(banks.getPortfolioId()).orElseThrow());
+    }
+
+    /**
+     * Tests writing the dirty portfolios in one batch with the profit and loss.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void flushDirtyPortfolios() {
+        String email = "flush@domain.com";
+        Portfolio portfolio = new Portfolio(email, "name", "HKD", new BigDecimal("900"),
+                BigDecimal.ZERO, BigDecimal.ZERO);
+        portfolio.setPortfolioId(BigInteger.valueOf(9101));
+        mockAccount(email, List.of(portfolio), List.of(
+                txn(email, "F0001.HK", TradingDeed.BUY, 100, portfolio.getPortfolioId())));
+
+        revaluationService.updatePrices(Map.of("F0001.HK", new BigDecimal("9")));
+        revaluationService.refresh(email);
+        revaluationService.updatePrices(Map.of("F0001.HK", new BigDecimal("9.25")));
+
+        assertEquals(1, revaluationService.flush());
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captor.capture());
+        Object[] args = captor.getValue().get(0);
+        assertEquals(new BigDecimal("925.0000"), args[0]);
+        assertEquals(new BigDecimal("25.0000"), args[1]);
+        assertEquals(portfolio.getPortfolioId(), args[3]);
+
+        // nothing left to write
+        assertEquals(0, revaluationService.flush());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    /**
+     * Tests not marking the portfolio dirty when the stored current amount is up-to-date.
+     */
+    @Test
+    public void skipUpToDatePortfolio() {
+        String email = "uptodate@domain.com";
+        Portfolio portfolio = new Portfolio(email, "name", "HKD", new BigDecimal("300"),
+                new BigDecimal("300"), BigDecimal.ZERO);
+        portfolio.setPortfolioId(BigInteger.valueOf(9201));
+        mockAccount(email, List.of(portfolio), List.of(
+                txn(email, "U0001.HK", TradingDeed.BUY, 30, portfolio.getPortfolioId())));
+
+        revaluationService.updatePrices(Map.of("U0001.HK", BigDecimal.TEN));
+        revaluationService.refresh(email);
+        assertEquals(0, revaluationService.flush());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    /**
+     * Tests moving the open quantity of the linked portfolio by the trade without reloading the account,
+     * ignoring unlinked trades, and dropping the portfolio from the holders once the position is sold out.
+     */
+    @Test
+    public void applyTrade() {
+        String email = "trade@domain.com";
+        Portfolio portfolio = new Portfolio(email, "name", "HKD", new BigDecimal("500"),
+                BigDecimal.ZERO, BigDecimal.ZERO);
+        portfolio.setPortfolioId(BigInteger.valueOf(9301));
+        mockAccount(email, List.of(portfolio), List.of(
+                txn(email, "T0001.HK", TradingDeed.BUY, 50, portfolio.getPortfolioId())));
+
+        revaluationService.updatePrices(Map.of("T0001.HK", BigDecimal.TEN));
+        revaluationService.refresh(email);
+        assertEquals(new BigDecimal("500.0000"), revaluationService.getCurrentAmount(portfolio.getPortfolioId()).orElseThrow());
+
+        revaluationService.applyTrade(txn(email, "T0001.HK", TradingDeed.BUY, 20, portfolio.getPortfolioId()));
+        assertEquals(new BigDecimal("700.0000"), revaluationService.getCurrentAmount(portfolio.getPortfolioId()).orElseThrow());
+        revaluationService.applyTrade(txn(email, "T0001.HK", TradingDeed.SELL, 30, null));
+        assertEquals(new BigDecimal("700.0000"), revaluationService.getCurrentAmount(portfolio.getPortfolioId()).orElseThrow());
+        revaluationService.applyTrade(txn(email, "T0001.HK", TradingDeed.SELL, 70, portfolio.getPortfolioId()));
+        assertEquals(new BigDecimal("0.0000"), revaluationService.getCurrentAmount(portfolio.getPortfolioId()).orElseThrow());
+        assertEquals(0, revaluationService.updatePrices(Map.of("T0001.HK", new BigDecimal("11"))));
+        verify(portfolioRepo, times(1)).findByEmail(email);
+        verify(tradingTxnRepo, times(1)).sumQuantitiesByEmails(List.of(email));
+    }
+
+}